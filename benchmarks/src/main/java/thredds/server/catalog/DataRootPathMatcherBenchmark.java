@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package thredds.server.catalog;
+
+import org.openjdk.jmh.annotations.*;
+import thredds.server.catalog.tracker.DataRootTracker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the dataRoot of a request path, as is done in front of every TDS service, with up to a million dataRoots.
+ * The roots are nested several levels deep with long shared prefixes, some roots are prefixes of others,
+ * and some request paths have no dataRoot.
+ * build measures adding all the roots, as is done on catalog reread.
+ *
+ * @since 10/18/2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DataRootPathMatcherBenchmark {
+  private static final int NREQUESTS = 4096;
+
+  @Param({"1000", "100000", "1000000"})
+  public int nroots;
+
+  private String trackerDir;
+  private String[] roots;
+  private DataRootPathMatcher matcher;
+  private String[] found, missing;
+
+  @Setup
+  public void setup() throws IOException {
+    trackerDir = Files.createTempDirectory("DataRootPathMatcherBenchmark").toString();
+    roots = new String[nroots];
+    for (int i = 0; i < nroots; i++) {
+      if (i % 10 == 0) roots[i] = "model/center" + (i % 97) + "/product" + (i / 97);           // parent of the next ones
+      else roots[i] = "model/center" + (i % 97) + "/product" + (i / 97) + "/run" + (i % 10);
+    }
+    matcher = build();
+
+    Random random = new Random(17);
+    found = new String[NREQUESTS];
+    missing = new String[NREQUESTS];
+    for (int i = 0; i < NREQUESTS; i++) {
+      String root = roots[random.nextInt(nroots)];
+      found[i] = root + "/2017/01/02/GFS_Global_0p25deg_20170102_0000.grib2";
+      missing[i] = "model/center" + random.nextInt(97) + "/nosuch/2017/01/02/file.nc";
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    matcher = null;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public DataRootPathMatcher build() {
+    DataRootTracker tracker = new DataRootTracker(trackerDir, true, null);
+    DataRootPathMatcher result = new DataRootPathMatcher(null, tracker);
+    for (String root : roots)
+      result.addRoot(new DatasetRootConfig(root, "/data/" + root), "catalog.xml", false);
+    return result;
+  }
+
+  @Benchmark
+  @Threads(1)
+  public String findFound1() {
+    return matcher.findLongestPathMatch(found[ThreadLocalRandom.current().nextInt(NREQUESTS)]);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public String findMissing1() {
+    return matcher.findLongestPathMatch(missing[ThreadLocalRandom.current().nextInt(NREQUESTS)]);
+  }
+
+  @Benchmark
+  @Threads(16)
+  public DataRoot findDataRoot16() {
+    return matcher.findDataRoot(found[ThreadLocalRandom.current().nextInt(NREQUESTS)]);
+  }
+
+}
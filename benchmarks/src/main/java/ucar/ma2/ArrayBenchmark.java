@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.ma2;
+
+import org.openjdk.jmh.annotations.*;
+import ucar.nc2.benchmark.Fixtures;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Iterating over ucar.ma2 arrays, and the MAMath operations built on the iterators,
+ * for a 20 x 181 x 360 float array. sumStorage is the baseline without any index calculation.
+ *
+ * @since 10/18/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArrayBenchmark {
+
+  private ArrayFloat.D3 data;
+  private Array strided, permuted;
+
+  @Setup
+  public void setup() throws InvalidRangeException {
+    data = Fixtures.makeArray();
+    strided = data.section(new Section("0:19:2,0:180:4,0:359:4").getRanges());
+    permuted = data.permute(new int[]{2, 1, 0});
+  }
+
+  @Benchmark
+  public double sumStorage() {
+    float[] storage = (float[]) data.getStorage();
+    double sum = 0;
+    for (float v : storage)
+      sum += v;
+    return sum;
+  }
+
+  @Benchmark
+  public double sumIndexIterator() {
+    double sum = 0;
+    IndexIterator ii = data.getIndexIterator();
+    while (ii.hasNext())
+      sum += ii.getFloatNext();
+    return sum;
+  }
+
+  @Benchmark
+  public double sumIndex() {
+    double sum = 0;
+    Index ima = data.getIndex();
+    int[] shape = data.getShape();
+    for (int t = 0; t < shape[0]; t++)
+      for (int y = 0; y < shape[1]; y++)
+        for (int x = 0; x < shape[2]; x++)
+          sum += data.getFloat(ima.set(t, y, x));
+    return sum;
+  }
+
+  @Benchmark
+  public double sumD3Get() {
+    double sum = 0;
+    int[] shape = data.getShape();
+    for (int t = 0; t < shape[0]; t++)
+      for (int y = 0; y < shape[1]; y++)
+        for (int x = 0; x < shape[2]; x++)
+          sum += data.get(t, y, x);
+    return sum;
+  }
+
+  @Benchmark
+  public double sumStridedSection() {
+    double sum = 0;
+    IndexIterator ii = strided.getIndexIterator();
+    while (ii.hasNext())
+      sum += ii.getFloatNext();
+    return sum;
+  }
+
+  @Benchmark
+  public double sumPermuted() {
+    double sum = 0;
+    IndexIterator ii = permuted.getIndexIterator();
+    while (ii.hasNext())
+      sum += ii.getFloatNext();
+    return sum;
+  }
+
+  @Benchmark
+  public double mathSumDouble() {
+    return MAMath.sumDouble(data);
+  }
+
+  @Benchmark
+  public MAMath.MinMax mathMinMax() {
+    return MAMath.getMinMax(data);
+  }
+
+  @Benchmark
+  public Array mathConvertToDouble() {
+    return MAMath.convert(data, DataType.DOUBLE);
+  }
+
+  @Benchmark
+  public Array copy() {
+    return data.copy();
+  }
+
+  @Benchmark
+  public Array copyPermuted() {
+    return permuted.copy();
+  }
+
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.benchmark;
+
+import ucar.ma2.*;
+import ucar.nc2.*;
+import ucar.nc2.constants.CDM;
+import ucar.nc2.write.Nc4Chunking;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Local data files used by the benchmarks, generated the first time they are needed, so that the benchmarks run offline
+ * and always read the same data. They are kept in the directory given by the "benchmark.fixtures" system property,
+ * default "build/fixtures". Delete the directory to regenerate them.
+ * <p>
+ * All the gridded files hold the same smooth temperature field of NT x NY x NX values, see {@link #value}.
+ *
+ * @since 10/18/2026
+ */
+public class Fixtures {
+  static public final String PROPERTY = "benchmark.fixtures";
+
+  static public final int NT = 20;   // times, or levels
+  static public final int NY = 181;  // 1 degree global
+  static public final int NX = 360;
+
+  static private final int binarySize = 32 * 1000 * 1000;
+
+  /** The directory holding the fixture files */
+  static public File getDirectory() {
+    File dir = new File(System.getProperty(PROPERTY, "build/fixtures"));
+    if (!dir.exists() && !dir.mkdirs())
+      throw new IllegalStateException("Cant make fixture directory " + dir.getAbsolutePath());
+    return dir;
+  }
+
+  /** The value of the temperature field at t, y, x */
+  static public float value(int t, int y, int x) {
+    double lat = 90.0 - y;
+    double lon = x;
+    double v = 288.0 - 40.0 * Math.sin(Math.toRadians(lat)) * Math.sin(Math.toRadians(lat))
+            + 5.0 * Math.sin(Math.toRadians(2 * lon + 10 * t)) * Math.cos(Math.toRadians(3 * lat))
+            + 0.01 * ((x * 7 + y * 13 + t * 17) % 11);  // some small scale noise
+    return (float) v;
+  }
+
+  /** The temperature field as a float array of shape [NT, NY, NX] */
+  static public ArrayFloat.D3 makeArray() {
+    ArrayFloat.D3 result = new ArrayFloat.D3(NT, NY, NX);
+    for (int t = 0; t < NT; t++)
+      for (int y = 0; y < NY; y++)
+        for (int x = 0; x < NX; x++)
+          result.set(t, y, x, value(t, y, x));
+    return result;
+  }
+
+  /** A file of 32 MB of random bytes */
+  static public synchronized File getBinaryFile() throws IOException {
+    return makeIfMissing("random.bin", file -> {
+      Random random = new Random(17);
+      byte[] buffer = new byte[1000 * 1000];
+      try (OutputStream out = new FileOutputStream(file)) {
+        for (int i = 0; i < binarySize / buffer.length; i++) {
+          random.nextBytes(buffer);
+          out.write(buffer);
+        }
+      }
+    });
+  }
+
+  /**
+   * A netCDF-3 file with the temperature field as:
+   * <ul>
+   * <li>temperature(time, y, x): float record variable, time is unlimited</li>
+   * <li>temperature_levels(level, y, x): float, contiguous</li>
+   * <li>packed_short(level, y, x), packed_byte(level, y, x): scale/offset packed, with _FillValue, valid_range and
+   * missing points</li>
+   * </ul>
+   */
+  static public synchronized File getNetcdf3File() throws IOException {
+    return makeIfMissing("grid.nc", file -> writeNetcdf(NetcdfFileWriter.Version.netcdf3, file.getPath(), null));
+  }
+
+  /**
+   * A netCDF-4 (HDF5) file with the temperature field as:
+   * <ul>
+   * <li>contiguous(level, y, x): float, not chunked</li>
+   * <li>deflated(level, y, x): float, chunked by level, deflate level 5 and shuffle</li>
+   * </ul>
+   * Writing it needs the netCDF-4 C library.
+   */
+  static public synchronized File getHdf5File() throws IOException {
+    return makeIfMissing("grid.nc4", file -> writeHdf5(file.getPath()));
+  }
+
+  /**
+   * A GRIB-2 file with one temperature record for each of NT forecast times.
+   *
+   * @param packing simple, complex or jpeg2000
+   */
+  static public synchronized File getGrib2File(String packing) throws IOException {
+    Grib2FixtureWriter writer = new Grib2FixtureWriter(Grib2FixtureWriter.Packing.valueOf(packing), getDirectory());
+    return makeIfMissing("grid-" + packing + ".grib2", writer::write);
+  }
+
+  ///////////////////////////////////////////////////////////////////
+
+  private interface Maker {
+    void make(File file) throws IOException, InvalidRangeException;
+  }
+
+  // write to a temporary file and rename, so that an interrupted run does not leave a partial fixture
+  static private File makeIfMissing(String name, Maker maker) throws IOException {
+    File file = new File(getDirectory(), name);
+    if (file.exists())
+      return file;
+
+    File temp = new File(getDirectory(), name + ".tmp");
+    Files.deleteIfExists(temp.toPath());
+    try {
+      maker.make(temp);
+      Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    } catch (InvalidRangeException e) {
+      throw new IOException(e);
+    } finally {
+      Files.deleteIfExists(temp.toPath());
+    }
+    return file;
+  }
+
+  static private void writeNetcdf(NetcdfFileWriter.Version version, String location, Nc4Chunking chunker) throws IOException, InvalidRangeException {
+    try (NetcdfFileWriter writer = NetcdfFileWriter.createNew(version, location, chunker)) {
+      Dimension timeDim = writer.addUnlimitedDimension("time");
+      Dimension levelDim = writer.addDimension(null, "level", NT);
+      List<Dimension> dims = addHorizCoordinates(writer);
+
+      Variable time = writer.addVariable(null, "time", DataType.DOUBLE, "time");
+      time.addAttribute(new Attribute(CDM.UNITS, "hours since 2017-01-01T00:00:00Z"));
+      Variable level = writer.addVariable(null, "level", DataType.FLOAT, "level");
+      level.addAttribute(new Attribute(CDM.UNITS, "hPa"));
+
+      writer.addVariable(null, "temperature", DataType.FLOAT, join(timeDim, dims)).addAttribute(new Attribute(CDM.UNITS, "K"));
+      writer.addVariable(null, "temperature_levels", DataType.FLOAT, join(levelDim, dims)).addAttribute(new Attribute(CDM.UNITS, "K"));
+
+      Variable packedShort = writer.addVariable(null, "packed_short", DataType.SHORT, join(levelDim, dims));
+      addPackingAttributes(packedShort, 0.01, 280.0, (short) -32767, (short) -32000, (short) 32000);
+      Variable packedByte = writer.addVariable(null, "packed_byte", DataType.BYTE, join(levelDim, dims));
+      addPackingAttributes(packedByte, 0.5, 280.0, (byte) -127, (byte) -120, (byte) 120);
+
+      writer.create();
+
+      ArrayFloat.D3 data = makeArray();
+      writeHorizCoordinates(writer);
+      Array times = Array.factory(DataType.DOUBLE, new int[]{NT});
+      Array levels = Array.factory(DataType.FLOAT, new int[]{NT});
+      for (int t = 0; t < NT; t++) {
+        times.setDouble(t, 3 * t);
+        levels.setFloat(t, 1000 - 40 * t);
+      }
+      writer.write(time, times);
+      writer.write(level, levels);
+      writer.write(writer.findVariable("temperature"), data);
+      writer.write(writer.findVariable("temperature_levels"), data);
+      writer.write(packedShort, pack(data, DataType.SHORT, 0.01, 280.0, -32767));
+      writer.write(packedByte, pack(data, DataType.BYTE, 0.5, 280.0, -127));
+    }
+  }
+
+  static private void writeHdf5(String location) throws IOException, InvalidRangeException {
+    Nc4Chunking chunker = new Nc4Chunking() {
+      public boolean isChunked(Variable v) {
+        return v.getShortName().equals("deflated");
+      }
+
+      public long[] computeChunking(Variable v) {
+        return new long[]{1, NY, NX};
+      }
+
+      public int getDeflateLevel(Variable v) {
+        return isChunked(v) ? 5 : 0;
+      }
+
+      public boolean isShuffle(Variable v) {
+        return isChunked(v);
+      }
+    };
+
+    try (NetcdfFileWriter writer = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf4, location, chunker)) {
+      Dimension levelDim = writer.addDimension(null, "level", NT);
+      List<Dimension> dims = addHorizCoordinates(writer);
+      writer.addVariable(null, "contiguous", DataType.FLOAT, join(levelDim, dims)).addAttribute(new Attribute(CDM.UNITS, "K"));
+      writer.addVariable(null, "deflated", DataType.FLOAT, join(levelDim, dims)).addAttribute(new Attribute(CDM.UNITS, "K"));
+      writer.create();
+
+      ArrayFloat.D3 data = makeArray();
+      writeHorizCoordinates(writer);
+      writer.write(writer.findVariable("contiguous"), data);
+      writer.write(writer.findVariable("deflated"), data);
+    }
+  }
+
+  static private List<Dimension> addHorizCoordinates(NetcdfFileWriter writer) {
+    List<Dimension> dims = new ArrayList<>();
+    dims.add(writer.addDimension(null, "y", NY));
+    dims.add(writer.addDimension(null, "x", NX));
+    writer.addVariable(null, "y", DataType.FLOAT, "y").addAttribute(new Attribute(CDM.UNITS, CDM.LAT_UNITS));
+    writer.addVariable(null, "x", DataType.FLOAT, "x").addAttribute(new Attribute(CDM.UNITS, CDM.LON_UNITS));
+    return dims;
+  }
+
+  static private void writeHorizCoordinates(NetcdfFileWriter writer) throws IOException, InvalidRangeException {
+    Array lat = Array.factory(DataType.FLOAT, new int[]{NY});
+    for (int y = 0; y < NY; y++)
+      lat.setFloat(y, 90 - y);
+    Array lon = Array.factory(DataType.FLOAT, new int[]{NX});
+    for (int x = 0; x < NX; x++)
+      lon.setFloat(x, x);
+    writer.write(writer.findVariable("y"), lat);
+    writer.write(writer.findVariable("x"), lon);
+  }
+
+  static private List<Dimension> join(Dimension first, List<Dimension> rest) {
+    List<Dimension> result = new ArrayList<>();
+    result.add(first);
+    result.addAll(rest);
+    return result;
+  }
+
+  static private void addPackingAttributes(Variable v, double scale, double offset, Number fill, Number validMin, Number validMax) {
+    v.addAttribute(new Attribute(CDM.UNITS, "K"));
+    v.addAttribute(new Attribute(CDM.SCALE_FACTOR, scale));
+    v.addAttribute(new Attribute(CDM.ADD_OFFSET, offset));
+    v.addAttribute(new Attribute(CDM.FILL_VALUE, fill));
+    List<Number> range = new ArrayList<>();
+    range.add(validMin);
+    range.add(validMax);
+    v.addAttribute(new Attribute(CDM.VALID_RANGE, range, false));
+  }
+
+  // every 97th point is missing
+  static private Array pack(Array data, DataType packedType, double scale, double offset, int fill) {
+    Array result = Array.factory(packedType, data.getShape());
+    IndexIterator from = data.getIndexIterator();
+    IndexIterator to = result.getIndexIterator();
+    int count = 0;
+    while (from.hasNext()) {
+      double v = from.getDoubleNext();
+      long packed = (count++ % 97 == 0) ? fill : Math.round((v - offset) / scale);
+      to.setLongNext(packed);
+    }
+    return result;
+  }
+
+}
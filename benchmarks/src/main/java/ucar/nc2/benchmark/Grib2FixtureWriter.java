@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.benchmark;
+
+import ucar.jpeg.jj2000.j2k.encoder.Encoder;
+import ucar.jpeg.jj2000.j2k.util.ParameterList;
+
+import java.io.*;
+import java.nio.file.Files;
+
+/**
+ * Writes a minimal GRIB-2 file for the benchmarks: one temperature record per time on a global 1 degree lat/lon grid.
+ * Only what the CDM GRIB reader needs is written: template 3.0, template 4.0, no bitmap,
+ * and data representation template 5.0 (simple), 5.2 (complex) or 5.40 (JPEG2000).
+ *
+ * @since 10/18/2026
+ */
+class Grib2FixtureWriter {
+
+  enum Packing {simple, complex, jpeg2000}
+
+  static private final int decimalScale = 2;
+  static private final int complexGroupLength = 32;
+
+  private final Packing packing;
+  private final File tempDir;
+
+  Grib2FixtureWriter(Packing packing, File tempDir) {
+    this.packing = packing;
+    this.tempDir = tempDir;
+  }
+
+  void write(File file) throws IOException {
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+      float[] values = new float[Fixtures.NY * Fixtures.NX];
+      for (int t = 0; t < Fixtures.NT; t++) {
+        int count = 0;
+        for (int y = 0; y < Fixtures.NY; y++)
+          for (int x = 0; x < Fixtures.NX; x++)
+            values[count++] = Fixtures.value(t, y, x);
+        out.write(makeMessage(3 * t, values));
+      }
+    }
+  }
+
+  private byte[] makeMessage(int forecastHour, float[] values) throws IOException {
+    // Y * 10^D = R + X * 2^E, with E = 0
+    double DD = Math.pow(10, decimalScale);
+    int[] scaled = new int[values.length];
+    int min = Integer.MAX_VALUE;
+    for (int i = 0; i < values.length; i++) {
+      scaled[i] = (int) Math.round(values[i] * DD);
+      min = Math.min(min, scaled[i]);
+    }
+    int max = 0;
+    for (int i = 0; i < scaled.length; i++) {
+      scaled[i] -= min;
+      max = Math.max(max, scaled[i]);
+    }
+
+    ByteArrayOutputStream drsAndData = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(drsAndData);
+    switch (packing) {
+      case simple:
+        writeSimple(out, min, scaled, bitsNeeded(max));
+        break;
+      case complex:
+        writeComplex(out, min, scaled);
+        break;
+      case jpeg2000:
+        writeJpeg2000(out, min, scaled, bitsNeeded(max));
+        break;
+    }
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    DataOutputStream msg = new DataOutputStream(bos);
+    writeIdentification(msg);
+    writeGridDefinition(msg);
+    writeProductDefinition(msg, forecastHour);
+    drsAndData.writeTo(msg);
+    msg.writeBytes("7777");
+
+    // section 0 needs the total length
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    DataOutputStream is = new DataOutputStream(result);
+    is.writeBytes("GRIB");
+    is.writeShort(0);  // reserved
+    is.writeByte(0);   // discipline: meteorological
+    is.writeByte(2);   // edition
+    is.writeLong(16 + bos.size());
+    bos.writeTo(is);
+    return result.toByteArray();
+  }
+
+  private void writeIdentification(DataOutputStream out) throws IOException {
+    out.writeInt(21);
+    out.writeByte(1);
+    out.writeShort(7);    // center NCEP
+    out.writeShort(0);    // subcenter
+    out.writeByte(2);     // master table version
+    out.writeByte(1);     // local table version
+    out.writeByte(1);     // significance of reference time: start of forecast
+    out.writeShort(2017); // reference time
+    out.writeByte(1);
+    out.writeByte(1);
+    out.writeByte(0);
+    out.writeByte(0);
+    out.writeByte(0);
+    out.writeByte(0);     // production status: operational
+    out.writeByte(1);     // type of data: forecast
+  }
+
+  // template 3.0: global lat/lon, north to south
+  private void writeGridDefinition(DataOutputStream out) throws IOException {
+    out.writeInt(72);
+    out.writeByte(3);
+    out.writeByte(0);
+    out.writeInt(Fixtures.NY * Fixtures.NX);
+    out.writeByte(0);
+    out.writeByte(0);
+    out.writeShort(0);   // template
+    out.writeByte(6);    // earth: sphere of radius 6,371,229.0 m
+    out.writeByte(0);
+    out.writeInt(0);
+    out.writeByte(0);
+    out.writeInt(0);
+    out.writeByte(0);
+    out.writeInt(0);
+    out.writeInt(Fixtures.NX);
+    out.writeInt(Fixtures.NY);
+    out.writeInt(0);     // basic angle: units are microdegrees
+    out.writeInt(0);
+    out.writeInt(90000000);
+    out.writeInt(0);
+    out.writeByte(48);   // increments given
+    out.writeInt(signMagnitude(-90000000));
+    out.writeInt((Fixtures.NX - 1) * 1000000);
+    out.writeInt(1000000);
+    out.writeInt(1000000);
+    out.writeByte(0);    // scanning mode
+  }
+
+  // template 4.0: temperature at the surface
+  private void writeProductDefinition(DataOutputStream out, int forecastHour) throws IOException {
+    out.writeInt(34);
+    out.writeByte(4);
+    out.writeShort(0);
+    out.writeShort(0);   // template
+    out.writeByte(0);    // category: temperature
+    out.writeByte(0);    // number: temperature
+    out.writeByte(2);    // generating process: forecast
+    out.writeByte(0);
+    out.writeByte(96);
+    out.writeShort(0);
+    out.writeByte(0);
+    out.writeByte(1);    // time unit: hour
+    out.writeInt(forecastHour);
+    out.writeByte(1);    // surface
+    out.writeByte(0);
+    out.writeInt(0);
+    out.writeByte(255);  // no second surface
+    out.writeByte(0);
+    out.writeInt(0);
+  }
+
+  // the fields common to templates 5.0, 5.2 and 5.40
+  private void writeDrsStart(DataOutputStream out, int length, int template, int npoints, float ref, int nbits) throws IOException {
+    out.writeInt(length);
+    out.writeByte(5);
+    out.writeInt(npoints);
+    out.writeShort(template);
+    out.writeFloat(ref);
+    out.writeShort(0);   // binary scale factor
+    out.writeShort(decimalScale);
+    out.writeByte(nbits);
+    out.writeByte(0);    // original values were floats
+  }
+
+  private void writeNoBitmap(DataOutputStream out) throws IOException {
+    out.writeInt(6);
+    out.writeByte(6);
+    out.writeByte(255);
+  }
+
+  private void writeDataSection(DataOutputStream out, byte[] data) throws IOException {
+    out.writeInt(5 + data.length);
+    out.writeByte(7);
+    out.write(data);
+  }
+
+  private void writeSimple(DataOutputStream out, int ref, int[] scaled, int nbits) throws IOException {
+    writeDrsStart(out, 21, 0, scaled.length, ref, nbits);
+    writeNoBitmap(out);
+
+    BitWriter bits = new BitWriter();
+    for (int v : scaled)
+      bits.write(v, nbits);
+    writeDataSection(out, bits.toByteArray());
+  }
+
+  // fixed length groups; the group lengths then need no bits
+  private void writeComplex(DataOutputStream out, int ref, int[] scaled) throws IOException {
+    int ngroups = (scaled.length + complexGroupLength - 1) / complexGroupLength;
+    int lastLength = scaled.length - (ngroups - 1) * complexGroupLength;
+
+    int[] groupRef = new int[ngroups];
+    int[] groupWidth = new int[ngroups];
+    int maxRef = 0, maxWidth = 0;
+    for (int g = 0; g < ngroups; g++) {
+      int start = g * complexGroupLength;
+      int end = Math.min(start + complexGroupLength, scaled.length);
+      int min = Integer.MAX_VALUE, max = 0;
+      for (int i = start; i < end; i++) {
+        min = Math.min(min, scaled[i]);
+        max = Math.max(max, scaled[i]);
+      }
+      groupRef[g] = min;
+      groupWidth[g] = bitsNeeded(max - min);
+      maxRef = Math.max(maxRef, min);
+      maxWidth = Math.max(maxWidth, groupWidth[g]);
+    }
+    int nbits = bitsNeeded(maxRef);
+    int bitsGroupWidths = bitsNeeded(maxWidth);
+
+    writeDrsStart(out, 47, 2, scaled.length, ref, nbits);
+    out.writeByte(1);    // general group splitting
+    out.writeByte(0);    // no missing values
+    out.writeFloat(0);
+    out.writeFloat(0);
+    out.writeInt(ngroups);
+    out.writeByte(0);    // reference for group widths
+    out.writeByte(bitsGroupWidths);
+    out.writeInt(complexGroupLength);
+    out.writeByte(1);    // length increment
+    out.writeInt(lastLength);
+    out.writeByte(0);    // bits for scaled group lengths
+    writeNoBitmap(out);
+
+    BitWriter bits = new BitWriter();
+    for (int g = 0; g < ngroups; g++)
+      bits.write(groupRef[g], nbits);
+    bits.pad();
+    for (int g = 0; g < ngroups; g++)
+      bits.write(groupWidth[g], bitsGroupWidths);
+    bits.pad();
+    for (int i = 0; i < scaled.length; i++) {
+      int g = i / complexGroupLength;
+      bits.write(scaled[i] - groupRef[g], groupWidth[g]);
+    }
+    writeDataSection(out, bits.toByteArray());
+  }
+
+  // lossless JPEG2000 code stream, made by the jj2000 encoder from a PGX image
+  private void writeJpeg2000(DataOutputStream out, int ref, int[] scaled, int nbits) throws IOException {
+    if (nbits > 16)
+      throw new IllegalStateException("jpeg2000 fixture supports at most 16 bits, needs " + nbits);
+
+    File pgx = File.createTempFile("fixture", ".pgx", tempDir);
+    File j2k = File.createTempFile("fixture", ".j2k", tempDir);
+    try {
+      try (DataOutputStream img = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(pgx)))) {
+        img.writeBytes("PG ML +" + nbits + " " + Fixtures.NX + " " + Fixtures.NY + "\n");
+        for (int v : scaled) {
+          if (nbits <= 8) img.writeByte(v);
+          else img.writeShort(v);
+        }
+      }
+
+      ParameterList defaults = new ParameterList();
+      String[][] params = Encoder.getAllParameters();
+      for (int i = params.length - 1; i >= 0; i--)
+        if (params[i][3] != null) defaults.put(params[i][0], params[i][3]);
+      ParameterList pl = new ParameterList(defaults);
+      pl.put("i", pgx.getPath());
+      pl.put("o", j2k.getPath());
+      pl.put("file_format", "off");
+      pl.put("lossless", "on");
+      pl.put("verbose", "off");
+
+      Encoder encoder = new Encoder(pl);
+      encoder.run();
+      if (encoder.getExitCode() != 0)
+        throw new IOException("jpeg2000 encoder failed with exit code " + encoder.getExitCode());
+
+      writeDrsStart(out, 23, 40, scaled.length, ref, nbits);
+      out.writeByte(0);    // lossless
+      out.writeByte(255);  // no target compression ratio
+      writeNoBitmap(out);
+      writeDataSection(out, Files.readAllBytes(j2k.toPath()));
+
+    } finally {
+      Files.deleteIfExists(pgx.toPath());
+      Files.deleteIfExists(j2k.toPath());
+    }
+  }
+
+  static private int bitsNeeded(int v) {
+    return 32 - Integer.numberOfLeadingZeros(v);
+  }
+
+  // GRIB stores negative integers as sign and magnitude
+  static private int signMagnitude(int v) {
+    return (v < 0) ? (0x80000000 | -v) : v;
+  }
+
+  // big endian bit packing, each sequence ends on an octet boundary
+  static private class BitWriter {
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private long buffer;
+    private int nbuffered;
+
+    void write(int value, int nbits) {
+      if (nbits == 0) return;
+      buffer = (buffer << nbits) | (value & ((1L << nbits) - 1));
+      nbuffered += nbits;
+      while (nbuffered >= 8) {
+        nbuffered -= 8;
+        bytes.write((int) (buffer >>> nbuffered));
+      }
+    }
+
+    void pad() {
+      if (nbuffered > 0)
+        write(0, 8 - nbuffered);
+    }
+
+    byte[] toByteArray() {
+      pad();
+      return bytes.toByteArray();
+    }
+  }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.dataset;
+
+import org.openjdk.jmh.annotations.*;
+import ucar.ma2.Array;
+import ucar.nc2.benchmark.Fixtures;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converting packed data with scale_factor, add_offset, _FillValue and valid_range to floating point,
+ * for a 20 x 181 x 360 variable. The raw data is read once in setup.
+ * convertIntoOutput reuses one output Array, as a server does for repeated reads of the same shape.
+ *
+ * @since 10/18/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnhanceScaleMissingBenchmark {
+
+  @Param({"packed_short", "packed_byte"})
+  public String varName;
+
+  @Param({"true", "false"})
+  public boolean useNaNs;
+
+  private EnhanceScaleMissingImpl scaleMissing;
+  private Array raw, out;
+
+  @Setup
+  public void setup() throws IOException {
+    try (NetcdfDataset ds = NetcdfDataset.openDataset(Fixtures.getNetcdf3File().getPath(), false, null)) {
+      VariableDS v = (VariableDS) ds.findVariable(varName);
+      scaleMissing = new EnhanceScaleMissingImpl(v, useNaNs, NetcdfDataset.fillValueIsMissing,
+              NetcdfDataset.invalidDataIsMissing, NetcdfDataset.missingDataIsMissing);
+      raw = v.read();
+      out = Array.factory(scaleMissing.getConvertedDataType(), raw.getShape());
+    }
+  }
+
+  @Benchmark
+  public Array convertScaleOffsetMissing() {
+    return scaleMissing.convertScaleOffsetMissing(raw);
+  }
+
+  @Benchmark
+  public Array convertIntoOutput() {
+    return scaleMissing.convertScaleOffsetMissing(raw, out);
+  }
+
+}
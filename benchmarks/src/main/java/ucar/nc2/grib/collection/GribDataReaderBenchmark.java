@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.grib.collection;
+
+import org.openjdk.jmh.annotations.*;
+import ucar.ma2.Array;
+import ucar.ma2.InvalidRangeException;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.Variable;
+import ucar.nc2.benchmark.Fixtures;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading GRIB-2 data through GribDataReader, from local files with simple, complex and JPEG2000 packing.
+ * The indexes are made in setup, so only reading and unpacking the records is measured.
+ * The data cache is off, so every read unpacks its records, serially or in the decode pool.
+ *
+ * @since 10/18/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GribDataReaderBenchmark {
+
+  @Param({"simple", "complex", "jpeg2000"})
+  public String packing;
+
+  @Param({"0", "4"})
+  public int decodeThreads;
+
+  private NetcdfFile ncfile;
+  private Variable temperature;
+
+  @Setup
+  public void setup() throws IOException {
+    GribDataReader.disableDataCache();
+    GribDataReader.initDecodePool(decodeThreads);
+
+    ncfile = NetcdfFile.open(Fixtures.getGrib2File(packing).getPath());
+    for (Variable v : ncfile.getVariables()) {
+      if (v.getRank() == 3 && v.getShape(0) == Fixtures.NT)
+        temperature = v;
+    }
+    if (temperature == null)
+      throw new IllegalStateException("No temperature variable in " + ncfile.getLocation());
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    ncfile.close();
+    GribDataReader.initDecodePool(0);
+  }
+
+  /** all the records */
+  @Benchmark
+  public Array readAll() throws IOException {
+    return temperature.read();
+  }
+
+  /** one record */
+  @Benchmark
+  public Array readOne() throws IOException, InvalidRangeException {
+    return temperature.read("10,:,:");
+  }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.iosp.hdf5;
+
+import org.openjdk.jmh.annotations.*;
+import ucar.ma2.Array;
+import ucar.ma2.InvalidRangeException;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.Variable;
+import ucar.nc2.benchmark.Fixtures;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subset reads from a local netCDF-4 file through H5iosp: contiguous, strided, and chunked with deflate and shuffle.
+ * The chunk cache is off, so every read of the deflated variable uncompresses its chunks,
+ * serially or in the chunk decode pool.
+ *
+ * @since 10/18/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class H5iospBenchmark {
+
+  @Param({"0", "4"})
+  public int decodeThreads;
+
+  private NetcdfFile ncfile;
+  private Variable contiguous, deflated;
+
+  @Setup
+  public void setup() throws IOException {
+    H5iosp.disableChunkCache();
+    H5iosp.initChunkDecodePool(decodeThreads);
+    ncfile = NetcdfFile.open(Fixtures.getHdf5File().getPath());
+    contiguous = ncfile.findVariable("contiguous");
+    deflated = ncfile.findVariable("deflated");
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    ncfile.close();
+    H5iosp.shutdown();
+  }
+
+  @Benchmark
+  public Array readContiguousAll() throws IOException {
+    return contiguous.read();
+  }
+
+  @Benchmark
+  public Array readContiguousStrided() throws IOException, InvalidRangeException {
+    return contiguous.read("0:19:2,0:180:4,0:359:4");
+  }
+
+  @Benchmark
+  public Array readDeflatedAll() throws IOException {
+    return deflated.read();
+  }
+
+  /** one chunk */
+  @Benchmark
+  public Array readDeflatedSlice() throws IOException, InvalidRangeException {
+    return deflated.read("10,:,:");
+  }
+
+  /** a time series at one point, which touches every chunk */
+  @Benchmark
+  public Array readDeflatedPoint() throws IOException, InvalidRangeException {
+    return deflated.read(":,90,180");
+  }
+
+  @Benchmark
+  public Array readDeflatedStrided() throws IOException, InvalidRangeException {
+    return deflated.read("0:19:2,0:180:4,0:359:4");
+  }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.iosp.hdf5;
+
+import org.openjdk.jmh.annotations.*;
+import ucar.ma2.Array;
+import ucar.ma2.ArrayFloat;
+import ucar.ma2.DataType;
+import ucar.ma2.InvalidRangeException;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.Variable;
+import ucar.nc2.benchmark.Fixtures;
+import ucar.nc2.write.Nc4Chunking;
+import ucar.nc2.write.Nc4ChunkingStrategy;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing the temperature field to a new netCDF-4 file with H5iospWriter, chunked with deflate and shuffle,
+ * compressing the chunks serially or in the chunk encode pool.
+ *
+ * @since 10/18/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class H5iospWriterBenchmark {
+
+  @Param({"0", "4"})
+  public int encodeThreads;
+
+  @Param({"1", "5"})
+  public int deflateLevel;
+
+  private ArrayFloat.D3 data;
+  private File file;
+
+  @Setup
+  public void setup() throws IOException {
+    NetcdfFileWriter.setUseJavaNetcdf4Writer(true);
+    H5iospWriter.initChunkEncodePool(encodeThreads);
+    data = Fixtures.makeArray();
+    file = new File(Fixtures.getDirectory(), "write" + encodeThreads + ".nc4");
+  }
+
+  @TearDown
+  public void tearDown() {
+    NetcdfFileWriter.setUseJavaNetcdf4Writer(false);
+    H5iospWriter.initChunkEncodePool(0);
+    if (!file.delete())
+      file.deleteOnExit();
+  }
+
+  /** each level is written as a whole, which completes its chunks */
+  @Benchmark
+  public long writeByLevel() throws IOException, InvalidRangeException {
+    Nc4Chunking chunker = Nc4ChunkingStrategy.factory(Nc4Chunking.Strategy.standard, deflateLevel, true);
+    try (NetcdfFileWriter writer = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf4, file.getPath(), chunker)) {
+      writer.addDimension(null, "level", Fixtures.NT);
+      writer.addDimension(null, "y", Fixtures.NY);
+      writer.addDimension(null, "x", Fixtures.NX);
+      Variable v = writer.addVariable(null, "temperature", DataType.FLOAT, "level y x");
+      writer.create();
+
+      int[] shape = {1, Fixtures.NY, Fixtures.NX};
+      for (int t = 0; t < Fixtures.NT; t++) {
+        Array level = data.section(new int[]{t, 0, 0}, shape);
+        writer.write(v, new int[]{t, 0, 0}, level);
+      }
+    }
+    return file.length();
+  }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.iosp.netcdf3;
+
+import org.openjdk.jmh.annotations.*;
+import ucar.ma2.Array;
+import ucar.ma2.InvalidRangeException;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.Variable;
+import ucar.nc2.benchmark.Fixtures;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subset reads from a local netCDF-3 file through N3iosp: contiguous, strided and record variables.
+ *
+ * @since 10/18/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class N3iospBenchmark {
+
+  private NetcdfFile ncfile;
+  private Variable contiguous, record;
+
+  @Setup
+  public void setup() throws IOException {
+    ncfile = NetcdfFile.open(Fixtures.getNetcdf3File().getPath());
+    contiguous = ncfile.findVariable("temperature_levels");
+    record = ncfile.findVariable("temperature");
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    ncfile.close();
+  }
+
+  /** the whole variable, one contiguous read */
+  @Benchmark
+  public Array readContiguousAll() throws IOException {
+    return contiguous.read();
+  }
+
+  /** one horizontal slice */
+  @Benchmark
+  public Array readContiguousSlice() throws IOException, InvalidRangeException {
+    return contiguous.read("10,:,:");
+  }
+
+  /** a time series at one point, one value from each slice */
+  @Benchmark
+  public Array readContiguousPoint() throws IOException, InvalidRangeException {
+    return contiguous.read(":,90,180");
+  }
+
+  /** every 2nd level, every 4th point */
+  @Benchmark
+  public Array readContiguousStrided() throws IOException, InvalidRangeException {
+    return contiguous.read("0:19:2,0:180:4,0:359:4");
+  }
+
+  /** the whole record variable, one read per record */
+  @Benchmark
+  public Array readRecordAll() throws IOException {
+    return record.read();
+  }
+
+  /** a sub-region of every record */
+  @Benchmark
+  public Array readRecordRegion() throws IOException, InvalidRangeException {
+    return record.read(":,40:80,100:200");
+  }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.stream;
+
+import org.openjdk.jmh.annotations.*;
+import ucar.ma2.Array;
+import ucar.ma2.InvalidRangeException;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.Variable;
+import ucar.nc2.benchmark.Fixtures;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding a 20 x 181 x 360 float variable as an ncstream data message, as cdmremote does.
+ * The data is read into memory in setup, so the file read is not measured.
+ * Compressed messages are done in blocks, serially or in the block pool.
+ *
+ * @since 10/18/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NcStreamBenchmark {
+
+  @Param({"none", "deflate", "shuffle"})
+  public String compress;
+
+  @Param({"0", "4"})
+  public int blockThreads;
+
+  private NetcdfFile ncfile;
+  private Variable var;
+  private NcStreamWriter writer;
+  private NcStreamCompression compression;
+  private byte[] encoded;
+
+  @Setup
+  public void setup() throws IOException, InvalidRangeException {
+    NcStreamCompression.initBlockPool(blockThreads);
+    ncfile = NetcdfFile.open(Fixtures.getNetcdf3File().getPath());
+    var = ncfile.findVariable("temperature_levels");
+    var.setCaching(true);
+    var.read();
+
+    writer = new NcStreamWriter(ncfile, ncfile.getLocation());
+    switch (compress) {
+      case "deflate":
+        compression = NcStreamCompression.deflate();
+        break;
+      case "shuffle":
+        compression = NcStreamCompression.shuffleDeflate(-1);
+        break;
+      default:
+        compression = NcStreamCompression.none();
+    }
+    encoded = encode().toByteArray();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    NcStreamCompression.initBlockPool(0);
+    ncfile.close();
+  }
+
+  @Benchmark
+  public ByteArrayOutputStream encode() throws IOException, InvalidRangeException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(encoded == null ? 1000 * 1000 : encoded.length);
+    writer.sendData(var, var.getShapeAsSection(), out, compression);
+    return out;
+  }
+
+  @Benchmark
+  public Array decode() throws IOException {
+    NcStreamReader reader = new NcStreamReader();
+    return reader.readData(new ByteArrayInputStream(encoded), ncfile, ncfile.getLocation()).data;
+  }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.util.cache;
+
+import org.openjdk.jmh.annotations.*;
+import ucar.nc2.dataset.DatasetUrl;
+import ucar.nc2.util.CancelTask;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the FileCacheIF implementations under many concurrent acquire / release calls.
+ * The cached objects are not real files, so only the cost of the cache itself is measured.
+ * The number of files is larger than the cache limits, so that cleanups happen during the run.
+ *
+ * @since 10/18/2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileCacheBenchmark {
+
+  @Param({"FileCache", "FileCacheARC", "FileCacheGuava", "FileCacheStriped"})
+  public String impl;
+
+  @Param({"100", "1000"})
+  public int nfiles;
+
+  private FileCacheIF cache;
+  private DatasetUrl[] locations;
+  private final FileFactory factory = new FakeFileFactory();
+
+  @Setup
+  public void setup() {
+    int min = nfiles / 2, soft = (3 * nfiles) / 4, hard = nfiles;
+    switch (impl) {
+      case "FileCache":
+        cache = new FileCache(impl, min, soft, hard, 1);
+        break;
+      case "FileCacheARC":
+        cache = new FileCacheARC(impl, min, soft, hard, 1);
+        break;
+      case "FileCacheGuava":
+        cache = new FileCacheGuava(impl, soft);
+        break;
+      case "FileCacheStriped":
+        cache = new FileCacheStriped(impl, min, soft, hard, 1);
+        break;
+      default:
+        throw new IllegalArgumentException(impl);
+    }
+
+    locations = new DatasetUrl[nfiles];
+    for (int i = 0; i < nfiles; i++)
+      locations[i] = new DatasetUrl(null, "/data/file" + i + ".nc");
+  }
+
+  @TearDown
+  public void tearDown() {
+    cache.clearCache(true);
+    FileCache.shutdown();
+    FileCacheStriped.shutdown();
+  }
+
+  @Benchmark
+  @Threads(64)
+  public FileCacheable acquireRelease64() throws IOException {
+    return acquireRelease();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public FileCacheable acquireRelease1() throws IOException {
+    return acquireRelease();
+  }
+
+  private FileCacheable acquireRelease() throws IOException {
+    DatasetUrl location = locations[ThreadLocalRandom.current().nextInt(nfiles)];
+    FileCacheable file = cache.acquire(factory, location);
+    file.close();
+    return file;
+  }
+
+  private static class FakeFileFactory implements FileFactory {
+    public FileCacheable open(DatasetUrl location, int buffer_size, CancelTask cancelTask, Object iospMessage) {
+      return new FakeFile(location.trueurl);
+    }
+  }
+
+  private static class FakeFile implements FileCacheable {
+    private final String location;
+    private volatile FileCacheIF fileCache;
+
+    FakeFile(String location) {
+      this.location = location;
+    }
+
+    public String getLocation() {
+      return location;
+    }
+
+    public void close() throws IOException {
+      FileCacheIF cache = fileCache;
+      if (cache != null) cache.release(this);
+    }
+
+    public long getLastModified() {
+      return 0;
+    }
+
+    public void setFileCache(FileCacheIF fileCache) {
+      this.fileCache = fileCache;
+    }
+
+    public void release() {
+    }
+
+    public void reacquire() {
+    }
+  }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.unidata.io;
+
+import org.openjdk.jmh.annotations.*;
+import ucar.nc2.benchmark.Fixtures;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffered reads through RandomAccessFile, on a 32 MB local file.
+ * The file is in the OS page cache after the first iteration, so this measures the cost of the buffering, not the disk.
+ *
+ * @since 10/18/2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomAccessFileBenchmark {
+
+  @Param({"8192", "65536"})
+  public int bufferSize;
+
+  private RandomAccessFile raf;
+  private long[] randomPositions;
+  private final byte[] chunk = new byte[4096];
+  private final float[] floats = new float[256 * 1024];
+
+  @Setup
+  public void setup() throws IOException {
+    raf = new RandomAccessFile(Fixtures.getBinaryFile().getPath(), "r", bufferSize);
+    raf.order(RandomAccessFile.BIG_ENDIAN);
+
+    Random random = new Random(42);
+    randomPositions = new long[1000];
+    for (int i = 0; i < randomPositions.length; i++)
+      randomPositions[i] = (long) (random.nextDouble() * (raf.length() - 8));
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    raf.close();
+  }
+
+  /** read the whole file in 4 KB pieces */
+  @Benchmark
+  public long sequentialReadFully() throws IOException {
+    raf.seek(0);
+    long total = 0;
+    long n = raf.length() / chunk.length;
+    for (long i = 0; i < n; i++) {
+      raf.readFully(chunk);
+      total += chunk[0];
+    }
+    return total;
+  }
+
+  /** read 4 MB one int at a time */
+  @Benchmark
+  public long sequentialReadInt() throws IOException {
+    raf.seek(0);
+    long total = 0;
+    for (int i = 0; i < 1024 * 1024; i++)
+      total += raf.readInt();
+    return total;
+  }
+
+  /** read 1 MB of floats into an array */
+  @Benchmark
+  public float readFloatArray() throws IOException {
+    raf.seek(0);
+    raf.readFloat(floats, 0, floats.length);
+    return floats[floats.length - 1];
+  }
+
+  /** seek to 1000 random positions and read one int at each */
+  @Benchmark
+  public long randomSeekReadInt() throws IOException {
+    long total = 0;
+    for (long pos : randomPositions) {
+      raf.seek(pos);
+      total += raf.readInt();
+    }
+    return total;
+  }
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.jni.netcdf;
+
+import com.sun.jna.ptr.IntByReference;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.ma2.MAMath;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.Variable;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Calls into the netCDF-C library from many threads, serialized per file.
+ * Most tests use a fake library that records which calls are running at the same time.
+ *
+ * @since 10/18/2026
+ */
+public class TestNc4Locking {
+  private static final int NTHREADS = 4;
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @After
+  public void cleanup() {
+    Nc4Iosp.setPerFileLocking(false);
+  }
+
+  @Test
+  public void testFileId() {
+    int ncid = 3 << 16;
+    Assert.assertEquals(3, Nc4Locking.getFileId(ncid));
+    Assert.assertEquals(3, Nc4Locking.getFileId(ncid | 7)); // a group in the same file
+    Assert.assertNotEquals(Nc4Locking.getFileId(ncid), Nc4Locking.getFileId(4 << 16));
+  }
+
+  @Test
+  public void testSameFileSerialized() throws Exception {
+    FakeLibrary fake = new FakeLibrary();
+    Nc4prototypes nc4 = Nc4Locking.perFile(fake.proxy());
+    int ncid = 5 << 16;
+
+    runThreads(t -> {
+      IntByReference ndims = new IntByReference();
+      for (int i = 0; i < 50; i++)
+        Assert.assertEquals(0, nc4.nc_inq_ndims(ncid | t, ndims)); // each thread uses its own group
+      return null;
+    });
+    Assert.assertEquals(NTHREADS * 50, fake.ncalls.get());
+    Assert.assertEquals(1, fake.maxInFile.get());
+  }
+
+  @Test
+  public void testDifferentFilesConcurrent() throws Exception {
+    CountDownLatch allIn = new CountDownLatch(NTHREADS);
+    FakeLibrary fake = new FakeLibrary() {
+      @Override
+      void work(String name) throws InterruptedException {
+        allIn.countDown();
+        if (!allIn.await(10, TimeUnit.SECONDS))
+          Assert.fail("calls on different files were serialized");
+      }
+    };
+    Nc4prototypes nc4 = Nc4Locking.perFile(fake.proxy());
+
+    runThreads(t -> nc4.nc_inq_ndims((t + 1) << 16, new IntByReference()));
+    Assert.assertEquals(NTHREADS, fake.maxInFlight.get());
+  }
+
+  @Test
+  public void testLibraryCallsRunAlone() throws Exception {
+    AtomicBoolean overlapped = new AtomicBoolean();
+    FakeLibrary fake = new FakeLibrary() {
+      @Override
+      void work(String name) throws InterruptedException {
+        boolean libraryCall = name.equals("nc_open") || name.equals("nc_close") || name.equals("nc_strerror");
+        if (libraryCall && inFlight.get() != 1) overlapped.set(true);
+        Thread.sleep(1);
+        if (libraryCall && inFlight.get() != 1) overlapped.set(true);
+      }
+    };
+    Nc4prototypes nc4 = Nc4Locking.perFile(fake.proxy());
+
+    runThreads(t -> {
+      int ncid = (t + 1) << 16;
+      for (int i = 0; i < 20; i++) {
+        Assert.assertEquals(0, nc4.nc_open("file" + t, 0, new IntByReference()));
+        Assert.assertEquals(0, nc4.nc_inq_ndims(ncid, new IntByReference()));
+        Assert.assertEquals("fake", nc4.nc_strerror(i));
+        Assert.assertEquals(0, nc4.nc_close(ncid));
+      }
+      return null;
+    });
+    Assert.assertFalse(overlapped.get());
+    Assert.assertTrue(fake.maxInFlight.get() <= NTHREADS);
+  }
+
+  @Test
+  public void testExceptionPassesThrough() {
+    FakeLibrary fake = new FakeLibrary() {
+      @Override
+      void work(String name) {
+        throw new IllegalStateException(name);
+      }
+    };
+    Nc4prototypes nc4 = Nc4Locking.perFile(fake.proxy());
+    try {
+      nc4.nc_inq_ndims(1 << 16, new IntByReference());
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      Assert.assertEquals("nc_inq_ndims", e.getMessage());
+    }
+
+    // locks were released
+    fake = new FakeLibrary();
+    nc4 = Nc4Locking.perFile(fake.proxy());
+    Assert.assertEquals(0, nc4.nc_close(1 << 16));
+  }
+
+  @Test
+  public void testWriteAndReadFilesConcurrently() throws Exception {
+    Assume.assumeTrue("NetCDF-4 C library not present.", Nc4Iosp.isClibraryPresent());
+    Nc4Iosp.setPerFileLocking(true);
+    Assume.assumeTrue("HDF5 library is not thread-safe.", Nc4Iosp.isPerFileLocking());
+
+    String dir = tempFolder.getRoot().getPath();
+    runThreads(t -> {
+      String filename = dir + "/locking" + t + ".nc4";
+      Array data = Array.makeArray(DataType.INT, 100 * 100, t, 1).reshape(new int[]{100, 100});
+      for (int pass = 0; pass < 5; pass++) {
+        try (NetcdfFileWriter writer = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf4, filename)) {
+          writer.addDimension(null, "y", 100);
+          writer.addDimension(null, "x", 100);
+          Variable v = writer.addVariable(null, "data", DataType.INT, "y x");
+          writer.create();
+          writer.write(v, data);
+        }
+        try (NetcdfFile ncfile = NetcdfFile.open(filename)) {
+          Assert.assertTrue(MAMath.equals(data, ncfile.findVariable("data").read()));
+        }
+      }
+      return null;
+    });
+  }
+
+  /////////////////////////////////////////////////////////////////////
+
+  private interface Task {
+    Object call(int thread) throws Exception;
+  }
+
+  private static void runThreads(Task task) throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(NTHREADS);
+    try {
+      List<Future<Object>> results = new ArrayList<>();
+      for (int t = 0; t < NTHREADS; t++) {
+        int thread = t;
+        results.add(pool.submit((Callable<Object>) () -> task.call(thread)));
+      }
+      for (Future<Object> result : results)
+        result.get(); // rethrows assertion failures
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  // returns 0 from every call, counts the calls in flight, in all files and in the same file
+  private static class FakeLibrary {
+    final AtomicInteger ncalls = new AtomicInteger();
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    final AtomicInteger maxInFile = new AtomicInteger();
+    private final ConcurrentHashMap<Integer, AtomicInteger> inFile = new ConcurrentHashMap<>();
+
+    Nc4prototypes proxy() {
+      return (Nc4prototypes) Proxy.newProxyInstance(Nc4prototypes.class.getClassLoader(),
+              new Class[]{Nc4prototypes.class}, (proxy, method, args) -> call(method, args));
+    }
+
+    void work(String name) throws InterruptedException {
+      Thread.sleep(0, 100);
+    }
+
+    private Object call(Method method, Object[] args) throws InterruptedException {
+      ncalls.incrementAndGet();
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      AtomicInteger file = null;
+      if (args[0] instanceof Integer && !method.getName().equals("nc_strerror")) {
+        file = inFile.computeIfAbsent(Nc4Locking.getFileId((Integer) args[0]), k -> new AtomicInteger());
+        maxInFile.accumulateAndGet(file.incrementAndGet(), Math::max);
+      }
+      try {
+        work(method.getName());
+      } finally {
+        if (file != null) file.decrementAndGet();
+        inFlight.decrementAndGet();
+      }
+      return method.getReturnType() == String.class ? "fake" : 0;
+    }
+  }
+
+}
@@ -34,6 +34,7 @@ package thredds.client.catalog.builder;
 
 import org.jdom2.Document;
 import org.jdom2.Element;
+import org.jdom2.JDOMException;
 import org.jdom2.Namespace;
 import org.jdom2.input.SAXBuilder;
 import org.jdom2.input.StAXStreamBuilder;
@@ -51,18 +52,29 @@ import ucar.unidata.util.StringUtil2;
 
 import javax.annotation.Nullable;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
+import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.URL;
 import java.util.*;
 
 /**
  * Builds client Catalogs using JDOM2
  * Non validating.
+ * <p>
+ * XML documents are read with StAX, so that datasets go straight into DatasetBuilders, and the whole document
+ * is never in memory. Only the other elements, eg services and metadata, are read into small JDOM elements.
+ * buildFromJdom() reads a complete JDOM tree, with the same result.
+ * <p>
+ * So readDataset(DatasetBuilder, Element) is only called by buildFromJdom(). When reading XML, dataset elements go
+ * to readDataset(DatasetBuilder, XMLStreamReader, StAXStreamBuilder), which subclasses may override instead.
  *
  * @author caron
  * @since 1/8/2015
@@ -271,29 +283,11 @@ public class CatalogBuilder {
 
 
   /////////////////////////////////////////////////////////////////////
-  // JDOM
-
-  /* private void readXML(String fileName)  throws IOException {
-    try {
-      StAXStreamBuilder staxBuilder = new StAXStreamBuilder();
-      XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
-      XMLStreamReader xmlStreamReader = xmlInputFactory.createXMLStreamReader(new FileInputStream(fileName));
-      org.jdom2.Document jdomDoc = staxBuilder.build(xmlStreamReader);
-      readCatalog(jdomDoc.getRootElement());
-
-    } catch (Exception e) {
-      errlog.format("failed to read catalog at '%s' err='%s'%n", fileName, e);
-      logger.error("failed to read catalog at " + fileName, e);
-      // e.printStackTrace();
-      fatalError = true;
-    }
-  }  */
+  // StAX
 
   private void readXML(String location) throws IOException {
-     try {
-       SAXBuilder saxBuilder = new SAXBuilder();
-       org.jdom2.Document jdomDoc = saxBuilder.build(location);
-       readCatalog(jdomDoc.getRootElement());
+     try (InputStream in = openLocation(location)) {
+       readXML(in, location);
 
      } catch (Exception e) {
        errlog.format("failed to read catalog at '%s' err='%s'%n", location, e);
@@ -303,11 +297,18 @@ public class CatalogBuilder {
      }
    }
 
-  private void readXML(URI uri) throws IOException {
+  // location is a URL, or else a local file
+  private InputStream openLocation(String location) throws IOException {
     try {
-      SAXBuilder saxBuilder = new SAXBuilder();
-      org.jdom2.Document jdomDoc = saxBuilder.build(uri.toURL());
-      readCatalog(jdomDoc.getRootElement());
+      return new URL(location).openStream();
+    } catch (MalformedURLException e) {
+      return new FileInputStream(location);
+    }
+  }
+
+  private void readXML(URI uri) throws IOException {
+    try (InputStream in = uri.toURL().openStream()) {
+      readXML(in, uri.toString());
 
     } catch (Exception e) {
       errlog.format("failed to read catalog at '%s' err='%s'%n", uri.toString(), e);
@@ -319,10 +320,13 @@ public class CatalogBuilder {
 
   private void readXMLfromString(String catalogAsString) throws IOException {
     try {
-      StringReader in = new StringReader(catalogAsString);
-      SAXBuilder saxBuilder = new SAXBuilder();    // LOOK non-validating
-      org.jdom2.Document jdomDoc = saxBuilder.build(in);
-      readCatalog(jdomDoc.getRootElement());
+      XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();    // LOOK non-validating
+      XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(new StringReader(catalogAsString));
+      try {
+        readCatalog(reader);
+      } finally {
+        reader.close();
+      }
 
     } catch (Exception e) {
       errlog.format("failed to read catalogAsString err='%s'%n", e);
@@ -334,9 +338,7 @@ public class CatalogBuilder {
 
   private void readXML(InputStream stream) throws IOException {
     try {
-      SAXBuilder saxBuilder = new SAXBuilder();
-      org.jdom2.Document jdomDoc = saxBuilder.build(stream);
-      readCatalog(jdomDoc.getRootElement());
+      readXML(stream, null);
 
     } catch (Exception e) {
       errlog.format("failed to read catalogAsString err='%s'%n", e);
@@ -346,6 +348,131 @@ public class CatalogBuilder {
     }
   }
 
+  private void readXML(InputStream stream, String systemId) throws XMLStreamException, JDOMException {
+    XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();    // LOOK non-validating
+    XMLStreamReader reader = (systemId == null) ? xmlInputFactory.createXMLStreamReader(stream) :
+            xmlInputFactory.createXMLStreamReader(systemId, stream);
+    try {
+      readCatalog(reader);
+    } finally {
+      reader.close();
+    }
+  }
+
+  // the reader is positioned before the root element
+  private void readCatalog(XMLStreamReader reader) throws XMLStreamException, JDOMException {
+    while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+      if (!reader.hasNext()) throw new XMLStreamException("no root element");
+    }
+    StAXStreamBuilder staxBuilder = new StAXStreamBuilder();
+
+    Element catalogElem = makeElement(reader);
+    readCatalogAttributes(catalogElem);
+
+    // services and properties are expected before the datasets, as in the schema
+    while (nextChildElement(reader)) {
+      String name = reader.getLocalName();
+      if (name.equals("dataset")) {
+        addDataset(readDataset(null, reader, staxBuilder));
+        continue;
+      }
+
+      Element e = (Element) staxBuilder.fragment(reader);
+      if (name.equals("catalogRef")) {
+        addDataset(readCatalogRef(null, e));
+        continue;
+      }
+
+      if (e.getNamespace().equals(Catalog.defNS)) {
+        if (name.equals("service"))
+          addService(readService(e));
+        else if (name.equals("property"))
+          addProperty(readProperty(e));
+      }
+      addDataset(buildOtherDataset(null, e));
+    }
+  }
+
+  /**
+   * Read a dataset element, and its nested datasets, into DatasetBuilders.
+   * Nested datasets and catalogRefs are read as they are found. The dataset's other child elements are collected
+   * in a JDOM element that is otherwise empty, then read by the same methods as readDataset(DatasetBuilder, Element).
+   * <p>
+   * A subclass that needs the whole dataset element can override this to return
+   * readDataset(parent, (Element) staxBuilder.fragment(reader)).
+   *
+   * @param parent      parent dataset, or null for a top level dataset
+   * @param reader      positioned at the start of the dataset element; on return, at its end
+   * @param staxBuilder makes JDOM elements from the reader
+   * @return the dataset
+   */
+  protected DatasetBuilder readDataset(DatasetBuilder parent, XMLStreamReader reader, StAXStreamBuilder staxBuilder) throws XMLStreamException, JDOMException {
+    DatasetBuilder dataset = new DatasetBuilder(parent);
+    Element dsElem = makeElement(reader);
+    List<Object> children = new ArrayList<>();  // DatasetBuilders and other elements, in order
+
+    while (nextChildElement(reader)) {
+      String name = reader.getLocalName();
+      if (name.equals("dataset")) {
+        children.add(readDataset(dataset, reader, staxBuilder));
+
+      } else if (name.equals("catalogRef")) {
+        children.add(readCatalogRef(dataset, (Element) staxBuilder.fragment(reader)));
+
+      } else {
+        Element e = (Element) staxBuilder.fragment(reader);
+        dsElem.addContent(e);
+        children.add(e);
+      }
+    }
+
+    readDatasetInfo(dataset, dsElem);
+
+    // look for access elements
+    java.util.List<Element> aList = dsElem.getChildren("access", Catalog.defNS);
+    for (Element e : aList) {
+      dataset.addAccess(readAccess(dataset, e));
+    }
+
+    // add nested datasets (keep them in order)
+    for (Object child : children) {
+      if (child instanceof DatasetBuilder)
+        dataset.addDataset((DatasetBuilder) child);
+      else
+        dataset.addDataset(buildOtherDataset(dataset, (Element) child));
+    }
+
+    return dataset;
+  }
+
+  // an element with the reader's current element name and attributes, and no content
+  private Element makeElement(XMLStreamReader reader) {
+    Element elem = new Element(reader.getLocalName(), makeNamespace(reader.getPrefix(), reader.getNamespaceURI()));
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      Namespace ns = makeNamespace(reader.getAttributePrefix(i), reader.getAttributeNamespace(i));
+      elem.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i), ns);
+    }
+    return elem;
+  }
+
+  private Namespace makeNamespace(String prefix, String uri) {
+    if (uri == null || uri.isEmpty()) return Namespace.NO_NAMESPACE;
+    return Namespace.getNamespace(prefix == null ? "" : prefix, uri);
+  }
+
+  // advance to the start of the next child element, return false at the end of the current element
+  private boolean nextChildElement(XMLStreamReader reader) throws XMLStreamException {
+    while (reader.hasNext()) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) return true;
+      if (event == XMLStreamConstants.END_ELEMENT) return false;
+    }
+    return false;
+  }
+
+  /////////////////////////////////////////////////////////////////////
+  // JDOM
+
   /* <xsd:element name="catalog">
      <xsd:complexType>
        <xsd:sequence>
@@ -361,7 +488,36 @@ public class CatalogBuilder {
    </xsd:element>
    */
   private void readCatalog(Element catalogElem) {
+    readCatalogAttributes(catalogElem);
+
+    // read top-level services
+    java.util.List<Element> sList = catalogElem.getChildren("service", Catalog.defNS);
+    for (Element e : sList) {
+      addService(readService(e));
+    }
+
+    // read top-level properties
+    java.util.List<Element> pList = catalogElem.getChildren("property", Catalog.defNS);
+    for (Element e : pList) {
+      addProperty(readProperty(e));
+    }
 
+    // look for top-level dataset and catalogRefs elements (keep them in order)
+    java.util.List<Element> allChildren = catalogElem.getChildren();
+    for (Element e : allChildren) {
+      if (e.getName().equals("dataset")) {
+        addDataset(readDataset(null, e));
+
+      } else if (e.getName().equals("catalogRef")) {
+        addDataset(readCatalogRef(null, e));
+
+      } else {
+        addDataset(buildOtherDataset(null, e));
+      }
+    }
+  }
+
+  private void readCatalogAttributes(Element catalogElem) {
     String name = catalogElem.getAttributeValue("name");
     String catSpecifiedBaseURL = catalogElem.getAttributeValue("base");   // LOOK what is this ??
     String expiresS = catalogElem.getAttributeValue("expires");
@@ -388,32 +544,6 @@ public class CatalogBuilder {
     setName(name);
     setExpires(expires);
     setVersion(version);
-
-    // read top-level services
-    java.util.List<Element> sList = catalogElem.getChildren("service", Catalog.defNS);
-    for (Element e : sList) {
-      addService(readService(e));
-    }
-
-    // read top-level properties
-    java.util.List<Element> pList = catalogElem.getChildren("property", Catalog.defNS);
-    for (Element e : pList) {
-      addProperty(readProperty(e));
-    }
-
-    // look for top-level dataset and catalogRefs elements (keep them in order)
-    java.util.List<Element> allChildren = catalogElem.getChildren();
-    for (Element e : allChildren) {
-      if (e.getName().equals("dataset")) {
-        addDataset(readDataset(null, e));
-
-      } else if (e.getName().equals("catalogRef")) {
-        addDataset(readCatalogRef(null, e));
-
-      } else {
-        addDataset(buildOtherDataset(null, e));
-      }
-    }
   }
 
   // for overridding
@@ -32,10 +32,8 @@
  */
 package thredds.client.catalog.tools;
 
-import org.jdom2.Document;
-import org.jdom2.Element;
-import org.jdom2.Namespace;
-import org.jdom2.output.XMLOutputter;
+import org.jdom2.*;
+import org.xml.sax.helpers.NamespaceSupport;
 
 import thredds.client.catalog.*;
 import ucar.nc2.constants.CDM;
@@ -43,6 +41,9 @@ import ucar.nc2.units.DateRange;
 import ucar.nc2.units.DateType;
 import ucar.nc2.units.TimeDuration;
 
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -53,6 +54,9 @@ import java.util.List;
  * Write client side catalogs out as XML.
  * Used for server catalogs too.
  * Note there is no reference to the catalog's baseURI.
+ * <p>
+ * writeXML() streams the XML with StAX as it iterates over the datasets, so no document is built for large catalogs.
+ * writeCatalog() makes the equivalent JDOM document.
  *
  * @author caron
  * @since 1/11/2015
@@ -96,27 +100,21 @@ public class CatalogXmlWriter {
    * @throws IOException
    */
   public void writeXML(Catalog catalog, OutputStream os) throws IOException {
-    // Output the document, use standard formatter
-    //XMLOutputter fmt = new XMLOutputter();
-    //fmt.setNewlines(true);
-    //fmt.setIndent("  ");
-    //fmt.setTrimAllWhite( true);
-    XMLOutputter fmt = new XMLOutputter(org.jdom2.output.Format.getPrettyFormat());  // LOOK maybe compact ??
-    fmt.output(writeCatalog(catalog), os);
+    try {
+      XMLOutputFactory xmlOutputFactory = XMLOutputFactory.newInstance();
+      XMLStreamWriter out = xmlOutputFactory.createXMLStreamWriter(os, CDM.UTF8);
+      writeCatalog(catalog, out, new NamespaceSupport());
+      out.flush();
+      out.close();  // does not close os
+    } catch (XMLStreamException e) {
+      throw new IOException(e);
+    }
   }
 
   public Document writeCatalog(Catalog cat) {
-    Element rootElem = new Element("catalog", Catalog.defNS);
+    Element rootElem = makeCatalogElement(cat);
     Document doc = new Document(rootElem);
 
-    // attributes
-    if (cat.getName() != null)
-      rootElem.setAttribute("name", cat.getName());
-    rootElem.setAttribute("version", version);
-    rootElem.addNamespaceDeclaration(Catalog.xlinkNS);
-    if (cat.getExpires() != null)
-      rootElem.setAttribute("expires", cat.getExpires().toString());
-
     // services
     Iterator iter = cat.getServices().iterator();
     while (iter.hasNext()) {
@@ -153,6 +151,156 @@ public class CatalogXmlWriter {
     return doc;
   }
 
+  // the catalog element with its attributes, and no content
+  private Element makeCatalogElement(Catalog cat) {
+    Element rootElem = new Element("catalog", Catalog.defNS);
+
+    // attributes
+    if (cat.getName() != null)
+      rootElem.setAttribute("name", cat.getName());
+    rootElem.setAttribute("version", version);
+    rootElem.addNamespaceDeclaration(Catalog.xlinkNS);
+    if (cat.getExpires() != null)
+      rootElem.setAttribute("expires", cat.getExpires().toString());
+
+    return rootElem;
+  }
+
+  ////////////////////////////////////////////////////////////////////////
+  // StAX
+  // The catalog and dataset elements are written while iterating over the datasets.
+  // Everything else is made by the same methods as writeCatalog(), one small element at a time, and written out directly.
+
+  // nsScope tracks the namespace declarations in scope, so each is only written where it is first needed
+  private void writeCatalog(Catalog cat, XMLStreamWriter out, NamespaceSupport nsScope) throws XMLStreamException {
+    out.writeStartDocument(CDM.UTF8, "1.0");
+    writeStartElement(out, nsScope, makeCatalogElement(cat), 0, false);
+
+    for (Service service : cat.getServices())
+      writeElement(out, nsScope, writeService(service), 1);
+
+    for (Property p : cat.getProperties())
+      writeElement(out, nsScope, writeProperty(p), 1);
+
+    for (Dataset ds : cat.getDatasetsLocal())
+      writeDataset(out, nsScope, ds, 1);
+
+    writeEndElement(out, nsScope, 0);
+    out.writeCharacters("\n");
+    out.writeEndDocument();
+  }
+
+  private void writeDataset(XMLStreamWriter out, NamespaceSupport nsScope, Dataset ds, int depth) throws XMLStreamException {
+    if (ds instanceof CatalogRef) {
+      writeElement(out, nsScope, writeCatalogRef((CatalogRef) ds), depth);
+      return;
+    }
+
+    Element dsElem = new Element("dataset", Catalog.defNS);
+    writeDatasetInfo(ds, dsElem, false, raw);
+    List<Dataset> nestedList = ds.getDatasetsLocal();
+    if (nestedList.isEmpty()) {
+      writeElement(out, nsScope, dsElem, depth);
+      return;
+    }
+
+    writeStartElement(out, nsScope, dsElem, depth, false);
+    for (Element child : dsElem.getChildren())
+      writeElement(out, nsScope, child, depth + 1);
+    for (Dataset nested : nestedList)
+      writeDataset(out, nsScope, nested, depth + 1);
+    writeEndElement(out, nsScope, depth);
+  }
+
+  // write a JDOM element, indenting nested elements unless there is text mixed in with them
+  private void writeElement(XMLStreamWriter out, NamespaceSupport nsScope, Element elem, int depth) throws XMLStreamException {
+    List<Content> contents = elem.getContent();
+    boolean hasText = false;
+    boolean hasOther = false;
+    for (Content content : contents) {
+      if (content instanceof Text) {
+        if (((Text) content).getTextTrim().length() > 0) hasText = true;
+      } else {
+        hasOther = true;
+      }
+    }
+    if (!hasText && !hasOther) {
+      writeStartElement(out, nsScope, elem, depth, true);
+      return;
+    }
+
+    writeStartElement(out, nsScope, elem, depth, false);
+    if (hasText && !hasOther) {
+      out.writeCharacters(elem.getTextTrim());
+      writeEndElement(out, nsScope, -1);
+
+    } else {
+      int childDepth = hasText ? -1 : depth + 1;
+      for (Content content : contents) {
+        if (content instanceof CDATA)
+          out.writeCData(((CDATA) content).getText());
+        else if (content instanceof Text) {
+          if (hasText) out.writeCharacters(((Text) content).getText());
+        } else if (content instanceof Element)
+          writeElement(out, nsScope, (Element) content, childDepth);
+        else if (content instanceof Comment)
+          out.writeComment(((Comment) content).getText());
+      }
+      writeEndElement(out, nsScope, hasText ? -1 : depth);
+    }
+  }
+
+  // write the element start with its attributes, declaring any namespaces not already in scope
+  private void writeStartElement(XMLStreamWriter out, NamespaceSupport nsScope, Element elem, int depth, boolean isEmpty) throws XMLStreamException {
+    indent(out, depth);
+    Namespace ns = elem.getNamespace();
+    if (isEmpty)
+      out.writeEmptyElement(ns.getPrefix(), elem.getName(), ns.getURI());
+    else
+      out.writeStartElement(ns.getPrefix(), elem.getName(), ns.getURI());
+
+    nsScope.pushContext();
+    writeNamespace(out, nsScope, ns);
+    for (Namespace added : elem.getAdditionalNamespaces())
+      writeNamespace(out, nsScope, added);
+    for (Attribute att : elem.getAttributes()) {
+      Namespace attNs = att.getNamespace();
+      if (attNs == Namespace.NO_NAMESPACE) {
+        out.writeAttribute(att.getName(), att.getValue());
+      } else {
+        writeNamespace(out, nsScope, attNs);
+        out.writeAttribute(attNs.getPrefix(), attNs.getURI(), att.getName(), att.getValue());
+      }
+    }
+    if (isEmpty)
+      nsScope.popContext();
+  }
+
+  private void writeEndElement(XMLStreamWriter out, NamespaceSupport nsScope, int depth) throws XMLStreamException {
+    indent(out, depth);
+    out.writeEndElement();
+    nsScope.popContext();
+  }
+
+  private void writeNamespace(XMLStreamWriter out, NamespaceSupport nsScope, Namespace ns) throws XMLStreamException {
+    String bound = nsScope.getURI(ns.getPrefix());
+    if (ns.getURI().equals(bound == null ? "" : bound)) return;
+    nsScope.declarePrefix(ns.getPrefix(), ns.getURI());
+    if (ns.getPrefix().isEmpty())
+      out.writeDefaultNamespace(ns.getURI());
+    else
+      out.writeNamespace(ns.getPrefix(), ns.getURI());
+  }
+
+  // newline and indent; depth < 0 is no indent
+  private void indent(XMLStreamWriter out, int depth) throws XMLStreamException {
+    if (depth < 0) return;
+    StringBuilder sb = new StringBuilder(1 + 2 * depth).append('\n');
+    for (int i = 0; i < depth; i++)
+      sb.append("  ");
+    out.writeCharacters(sb.toString());
+  }
+
   private Element writeAccess(Access access) {
     Element accessElem = new Element("access", Catalog.defNS);
     accessElem.setAttribute("urlPath", access.getUrlPath());
@@ -352,8 +500,9 @@ public class CatalogXmlWriter {
         mdataElem.setAttribute("title", mdata.getTitle(), Catalog.xlinkNS);
 
     } else if (mdata.getContentObject() != null && mdata.getContentObject() instanceof Element) {
-      Element content = (Element) mdata.getContentObject();
-      mdataElem.setContent(content);
+      Element content = (Element) mdata.getContentObject();  // the original metadata element
+      for (Element child : content.getChildren())
+        mdataElem.addContent(child.clone());
     }
 
     return mdataElem;
@@ -957,6 +957,17 @@ public abstract class Array {
     return indexCalc instanceof IndexConstant;
   }
 
+  /**
+   * Find whether element i of getStorage() is element i of this Array, in canonical order.
+   * True for Arrays made by the factory methods and for reads, false for most sections and permutations.
+   * When true, loops can use getStorage() directly instead of an IndexIterator.
+   *
+   * @return true if the backing storage is in canonical order.
+   */
+  public boolean isCanonicalOrder() {
+    return indexCalc.isFastIterator();
+  }
+
   public boolean isVlen() {
     return false;
   }
@@ -650,12 +650,10 @@ public class NetcdfFile implements ucar.nc2.util.cache.FileCacheable, Closeable
       if (uncompressedFileName != null) {
         // open uncompressed file as a RandomAccessFile.
         raf = ucar.unidata.io.RandomAccessFile.acquire(uncompressedFileName, buffer_size);
-        //raf = new ucar.unidata.io.MMapRandomAccessFile(uncompressedFileName, "r");
 
       } else {
         // normal case - not compressed
         raf = ucar.unidata.io.RandomAccessFile.acquire(uriString, buffer_size);
-        //raf = new ucar.unidata.io.MMapRandomAccessFile(uriString, "r");
       }
     }
 
@@ -1546,7 +1544,6 @@ public class NetcdfFile implements ucar.nc2.util.cache.FileCacheable, Closeable
   public NetcdfFile(String filename) throws IOException {
     this.location = filename;
     ucar.unidata.io.RandomAccessFile raf = ucar.unidata.io.RandomAccessFile.acquire(filename);
-    //ucar.unidata.io.RandomAccessFile raf = new ucar.unidata.io.MMapRandomAccessFile(filename, "r");
     this.spi = SPFactory.getServiceProvider();
     spi.open(raf, this, null);
     finish();
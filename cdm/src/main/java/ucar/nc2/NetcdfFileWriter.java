@@ -36,6 +36,7 @@ import ucar.ma2.*;
 import ucar.nc2.constants.CDM;
 import ucar.nc2.iosp.IOServiceProviderWriter;
 import ucar.nc2.iosp.hdf5.H5header;
+import ucar.nc2.iosp.hdf5.H5iospWriter;
 import ucar.nc2.iosp.netcdf3.N3header;
 import ucar.nc2.iosp.netcdf3.N3iosp;
 import ucar.nc2.iosp.netcdf3.N3raf;
@@ -80,6 +81,19 @@ public class NetcdfFileWriter implements Closeable {
   static private org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(NetcdfFileWriter.class);
   static private Set<DataType> validN3types = EnumSet.of(DataType.BYTE, DataType.CHAR, DataType.SHORT, DataType.INT,
           DataType.DOUBLE, DataType.FLOAT);
+  static private boolean useJavaNetcdf4Writer = false;
+
+  /**
+   * Write new netcdf4 and netcdf4_classic files with H5iospWriter, in pure Java, instead of the netCDF-C library.
+   * Experimental, default is false: the files have not been checked against the netCDF-C and HDF5 tools,
+   * they can't be read until closed, and object headers are limited to 64 Kbytes.
+   * Existing files, and files with structures or user defined types, always use the netCDF-C library.
+   *
+   * @param b true to use H5iospWriter
+   */
+  static public void setUseJavaNetcdf4Writer(boolean b) {
+    useJavaNetcdf4Writer = b;
+  }
 
   /**
    * The kinds of netcdf file that can be written.
@@ -153,6 +167,7 @@ public class NetcdfFileWriter implements Closeable {
   ////////////////////////////////////////////////////////////////////////////////
   private final String location;
   private IOServiceProviderWriter spiw;
+  private final Nc4Chunking chunker;
 
   // modes
   private boolean defineMode;
@@ -210,21 +225,14 @@ public class NetcdfFileWriter implements Closeable {
 
     this.version = version;
     this.location = location;
-
-    if (version.useJniIosp()) {
-      IOServiceProviderWriter spi;
-      try {
-        //  Nc4Iosp.setLibraryAndPath(path, name);
-        Class iospClass = this.getClass().getClassLoader().loadClass("ucar.nc2.jni.netcdf.Nc4Iosp");
-        Constructor<IOServiceProviderWriter> ctor = iospClass.getConstructor(Version.class);
-        spi = ctor.newInstance(version);
-
-        Method method = iospClass.getMethod("setChunker", Nc4Chunking.class);
-        method.invoke(spi, chunker);
-      } catch (Throwable e) {
-        throw new IllegalArgumentException("ucar.nc2.jni.netcdf.Nc4Iosp failed, cannot use version " + version, e);
-      }
-      spiw = spi;
+    this.chunker = chunker;
+
+    if (isNewFile && version.isNetdf4format() && useJavaNetcdf4Writer) {
+      H5iospWriter h5writer = new H5iospWriter(version);
+      h5writer.setChunker(chunker);
+      spiw = h5writer;
+    } else if (version.useJniIosp()) {
+      spiw = makeJniIosp();
     } else {
       spiw = new N3raf();
     }
@@ -237,6 +245,22 @@ public class NetcdfFileWriter implements Closeable {
       defineMode = true;
   }
 
+  private IOServiceProviderWriter makeJniIosp() {
+    IOServiceProviderWriter spi;
+    try {
+      //  Nc4Iosp.setLibraryAndPath(path, name);
+      Class iospClass = this.getClass().getClassLoader().loadClass("ucar.nc2.jni.netcdf.Nc4Iosp");
+      Constructor<IOServiceProviderWriter> ctor = iospClass.getConstructor(Version.class);
+      spi = ctor.newInstance(version);
+
+      Method method = iospClass.getMethod("setChunker", Nc4Chunking.class);
+      method.invoke(spi, chunker);
+    } catch (Throwable e) {
+      throw new IllegalArgumentException("ucar.nc2.jni.netcdf.Nc4Iosp failed, cannot use version " + version, e);
+    }
+    return spi;
+  }
+
   /**
    * Set the fill flag: call before calling create() or doing any data writing. Only used by netcdf-3 (?).
    * If true, the data is first written with fill values.
@@ -300,6 +324,19 @@ public class NetcdfFileWriter implements Closeable {
     return ncfile;
   }
 
+  /**
+   * Get the metadata defined so far, without creating the file.
+   * Used to write a netcdf-3 file to a stream with N3outputStreamWriter instead of to disk.
+   * The returned NetcdfFile has no data, and this writer should be discarded afterwards.
+   *
+   * @return NetcdfFile containing the Dimensions, Variables, and Attributes that were added
+   */
+  public NetcdfFile getDefinedNetcdfFile() {
+    if (!defineMode) throw new IllegalStateException("Must be in define mode");
+    ncfile.finish();
+    return ncfile;
+  }
+
   public Version getVersion() {
     return version;
   }
@@ -881,6 +918,13 @@ public class NetcdfFileWriter implements Closeable {
       throw new UnsupportedOperationException("can only call create on a new file");
 
     ncfile.finish(); // ??
+
+    // structures and user defined types need the netCDF-C library
+    if (spiw instanceof H5iospWriter && !H5iospWriter.canWrite(ncfile, version)) {
+      spiw = makeJniIosp();
+      ncfile.spi = spiw;
+    }
+
     spiw.setFill(fill); // ??
     spiw.create(location, ncfile, extraHeader, preallocateSize, isLargeFile);
 
@@ -202,6 +202,18 @@ public interface EnhanceScaleMissing extends IsMissingEvaluator {
    */
   Array convertScaleOffsetMissing(Array data) throws IOException;
 
+  /**
+   * Convert data if hasScaleOffset, using scale and offset, into an Array supplied by the caller.
+   * Use this to reuse the same output Array when reading many sections of the same shape.
+   * Also if useNaNs = true, return NaN if value is missing data.
+   * @param data convert this
+   * @param out put the converted data here: same shape as data, and the converted data type. If null, a new Array is made.
+   *   Not used when there is no scale and offset; then the missing values of data are replaced in place.
+   * @return converted data: out if it was used, else data, or a new Array if out is null.
+   * @throws IllegalArgumentException if out has the wrong shape or data type
+   */
+  Array convertScaleOffsetMissing(Array data, Array out) throws IOException;
+
   /** Convert this byte value to a double, using scale/offset/missing value if applicable */
   double convertScaleOffsetMissing(byte value);
   /** Convert this short value to a double, using scale/offset/missing value if applicable */
@@ -40,6 +40,7 @@ import ucar.nc2.iosp.IOServiceProvider;
 import ucar.nc2.iosp.netcdf3.N3iosp;
 import ucar.nc2.util.Misc;
 
+import java.util.Arrays;
 import java.util.EnumSet;
 
 /**
@@ -644,8 +645,12 @@ class EnhanceScaleMissingImpl implements EnhanceScaleMissing {
   }
 
   public Array convertScaleOffsetMissing(Array data) {
+    return convertScaleOffsetMissing(data, null);
+  }
+
+  public Array convertScaleOffsetMissing(Array data, Array out) {
     if (hasScaleOffset())
-      data = convertScaleOffset(data);
+      data = convertScaleOffset(data, out);
     else if (hasMissing() && getUseNaNs())
       data = convertMissing(data);
     return data;
@@ -654,23 +659,39 @@ class EnhanceScaleMissingImpl implements EnhanceScaleMissing {
   /**
    * Convert Data with scale and offset.
    * Also translate missing data to NaNs if useNaNs = true.
+   * Arrays in canonical order use the loops over the backing storage, others use IndexIterators.
    *
    * @param in data to convert
+   * @param out put the converted data here, or null to allocate a new Array
    * @return converted data.
    */
-  private Array convertScaleOffset(Array in) {
+  private Array convertScaleOffset(Array in, Array out) {
     if (!hasScaleOffset) return in;
     if (debugRead) System.out.println("convertScaleOffset ");
 
-    Array out = Array.factory(convertedDataType, in.getShape());
+    if (out == null) {
+      out = Array.factory(convertedDataType, in.getShape());
+    } else {
+      if (out.getDataType() != convertedDataType)
+        throw new IllegalArgumentException("output Array must be " + convertedDataType + ", not " + out.getDataType());
+      if (!Arrays.equals(out.getShape(), in.getShape()))
+        throw new IllegalArgumentException("output Array shape " + Arrays.toString(out.getShape()) +
+                " must be " + Arrays.toString(in.getShape()));
+    }
+
+    // the same signedness for the storage loops and the iterator loops, so a section converts like its copy
+    boolean unsigned = isUnsigned || in.isUnsigned();
+    if (in.isCanonicalOrder() && out.isCanonicalOrder() && convertStorage(in, out, unsigned))
+      return out;
+
     IndexIterator iterIn = in.getIndexIterator();
     IndexIterator iterOut = out.getIndexIterator();
 
-    if (isUnsigned && in.getElementType() == byte.class)
+    if (unsigned && in.getElementType() == byte.class)
       convertScaleOffsetUnsignedByte(iterIn, iterOut);
-    else if (isUnsigned && in.getElementType() == short.class)
+    else if (unsigned && in.getElementType() == short.class)
       convertScaleOffsetUnsignedShort(iterIn, iterOut);
-    else if (isUnsigned && in.getElementType() == int.class)
+    else if (unsigned && in.getElementType() == int.class)
       convertScaleOffsetUnsignedInt(iterIn, iterOut);
     else {
       boolean checkMissing = useNaNs && hasMissing();
@@ -710,6 +731,115 @@ class EnhanceScaleMissingImpl implements EnhanceScaleMissing {
     }
   }
 
+  /*
+   * Scale and offset directly from the backing storage of in to the backing storage of out, both in canonical order.
+   * One loop for each packed type and float or double result, so the JIT can compile each one without type dispatch.
+   * Unsigned values are widened with a mask instead of a branch.
+   * Return false if there is no loop for these types, and the caller must use the IndexIterators.
+   */
+  private boolean convertStorage(Array in, Array out, boolean unsigned) {
+    int n = (int) in.getSize();
+    MissingTest mt = (useNaNs && hasMissing()) ? missingTest() : MissingTest.NONE;
+    Class<?> inType = in.getElementType();
+    Object inStorage = in.getStorage();
+
+    if (out.getElementType() == float.class) {
+      float[] result = (float[]) out.getStorage();
+      if (inType == byte.class) {
+        byte[] data = (byte[]) inStorage;
+        int mask = unsigned ? 0xff : -1;
+        for (int i = 0; i < n; i++) {
+          double val = scale * (data[i] & mask) + offset;
+          result[i] = mt.isMissing(val) ? Float.NaN : (float) val;
+        }
+      } else if (inType == short.class) {
+        short[] data = (short[]) inStorage;
+        int mask = unsigned ? 0xffff : -1;
+        for (int i = 0; i < n; i++) {
+          double val = scale * (data[i] & mask) + offset;
+          result[i] = mt.isMissing(val) ? Float.NaN : (float) val;
+        }
+      } else if (inType == int.class) {
+        int[] data = (int[]) inStorage;
+        long mask = unsigned ? 0xffffffffL : -1L;
+        for (int i = 0; i < n; i++) {
+          double val = scale * (data[i] & mask) + offset;
+          result[i] = mt.isMissing(val) ? Float.NaN : (float) val;
+        }
+      } else if (inType == long.class) {
+        long[] data = (long[]) inStorage;
+        for (int i = 0; i < n; i++) {
+          double val = scale * data[i] + offset;
+          result[i] = mt.isMissing(val) ? Float.NaN : (float) val;
+        }
+      } else if (inType == float.class) {
+        float[] data = (float[]) inStorage;
+        for (int i = 0; i < n; i++) {
+          double val = scale * data[i] + offset;
+          result[i] = mt.isMissing(val) ? Float.NaN : (float) val;
+        }
+      } else if (inType == double.class) {
+        double[] data = (double[]) inStorage;
+        for (int i = 0; i < n; i++) {
+          double val = scale * data[i] + offset;
+          result[i] = mt.isMissing(val) ? Float.NaN : (float) val;
+        }
+      } else {
+        return false;
+      }
+      return true;
+    }
+
+    if (out.getElementType() == double.class) {
+      double[] result = (double[]) out.getStorage();
+      if (inType == byte.class) {
+        byte[] data = (byte[]) inStorage;
+        int mask = unsigned ? 0xff : -1;
+        for (int i = 0; i < n; i++) {
+          double val = scale * (data[i] & mask) + offset;
+          result[i] = mt.isMissing(val) ? Double.NaN : val;
+        }
+      } else if (inType == short.class) {
+        short[] data = (short[]) inStorage;
+        int mask = unsigned ? 0xffff : -1;
+        for (int i = 0; i < n; i++) {
+          double val = scale * (data[i] & mask) + offset;
+          result[i] = mt.isMissing(val) ? Double.NaN : val;
+        }
+      } else if (inType == int.class) {
+        int[] data = (int[]) inStorage;
+        long mask = unsigned ? 0xffffffffL : -1L;
+        for (int i = 0; i < n; i++) {
+          double val = scale * (data[i] & mask) + offset;
+          result[i] = mt.isMissing(val) ? Double.NaN : val;
+        }
+      } else if (inType == long.class) {
+        long[] data = (long[]) inStorage;
+        for (int i = 0; i < n; i++) {
+          double val = scale * data[i] + offset;
+          result[i] = mt.isMissing(val) ? Double.NaN : val;
+        }
+      } else if (inType == float.class) {
+        float[] data = (float[]) inStorage;
+        for (int i = 0; i < n; i++) {
+          double val = scale * data[i] + offset;
+          result[i] = mt.isMissing(val) ? Double.NaN : val;
+        }
+      } else if (inType == double.class) {
+        double[] data = (double[]) inStorage;
+        for (int i = 0; i < n; i++) {
+          double val = scale * data[i] + offset;
+          result[i] = mt.isMissing(val) ? Double.NaN : val;
+        }
+      } else {
+        return false;
+      }
+      return true;
+    }
+
+    return false;
+  }
+
   /**
    * Translate missing data to NaNs. Data must be DOUBLE or FLOAT
    *
@@ -719,6 +849,26 @@ class EnhanceScaleMissingImpl implements EnhanceScaleMissing {
   private Array convertMissing(Array in) {
     if (debugRead) System.out.println("convertMissing ");
 
+    if (in.isCanonicalOrder()) {
+      MissingTest mt = missingTest();
+      int n = (int) in.getSize();
+      if (in.getElementType() == double.class) {
+        double[] data = (double[]) in.getStorage();
+        for (int i = 0; i < n; i++) {
+          if (mt.isMissing(data[i]))
+            data[i] = Double.NaN;
+        }
+        return in;
+      } else if (in.getElementType() == float.class) {
+        float[] data = (float[]) in.getStorage();
+        for (int i = 0; i < n; i++) {
+          if (mt.isMissing(data[i]))
+            data[i] = Float.NaN;
+        }
+        return in;
+      }
+    }
+
     IndexIterator iterIn = in.getIndexIterator();
     if (in.getElementType() == double.class) {
       while (iterIn.hasNext()) {
@@ -745,13 +895,53 @@ class EnhanceScaleMissingImpl implements EnhanceScaleMissing {
    */
   public float[] setMissingToNaN(float[] values) {
     if (!hasMissing()) return values;
+    MissingTest mt = missingTest();
     for (int i = 0; i < values.length; i++) {
-      if (isMissing_(values[i]))
+      if (mt.isMissing(values[i]))
         values[i] = Float.NaN;
     }
     return values;
   }
 
+  /*
+   * The same test as isMissing_(), with the settings captured once for a loop over the data.
+   * The unused tests become bounds that never match: valid_range of (-inf, inf), and a NaN _FillValue.
+   * Only missing_value, which compares with closeEnough, keeps a branch.
+   */
+  private MissingTest missingTest() {
+    boolean checkMin = invalidDataIsMissing && (hasValidRange || hasValidMin);
+    boolean checkMax = invalidDataIsMissing && (hasValidRange || (!hasValidMin && hasValidMax));
+    return new MissingTest(checkMin ? valid_min : Double.NEGATIVE_INFINITY,
+            checkMax ? valid_max : Double.POSITIVE_INFINITY,
+            (fillValueIsMissing && hasFillValue) ? fillValue : Double.NaN,
+            (missingDataIsMissing && hasMissingValue) ? missingValue : null);
+  }
+
+  private static final class MissingTest {
+    static final MissingTest NONE = new MissingTest(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NaN, null);
+
+    private final double lo, hi, fill;
+    private final double[] missingValues; // null if not used
+
+    private MissingTest(double lo, double hi, double fill, double[] missingValues) {
+      this.lo = lo;
+      this.hi = hi;
+      this.fill = fill;
+      this.missingValues = missingValues;
+    }
+
+    boolean isMissing(double val) {
+      return (val < lo) | (val > hi) | (val == fill) || (missingValues != null && isMissingValue(val));
+    }
+
+    private boolean isMissingValue(double val) {
+      for (double mv : missingValues)
+        if (Misc.closeEnough(val, mv))
+          return true;
+      return false;
+    }
+  }
+
   static public void main(String[] args) {
     double d = Double.NaN;
     float f = (float) d;
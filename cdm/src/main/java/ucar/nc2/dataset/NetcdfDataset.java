@@ -47,6 +47,8 @@ import ucar.nc2.stream.CdmRemote;
 import ucar.nc2.util.CancelTask;
 import ucar.nc2.util.CancelTaskImpl;
 import ucar.nc2.util.cache.FileCache;
+import ucar.nc2.util.cache.FileCacheIF;
+import ucar.nc2.util.cache.FileCacheStriped;
 import ucar.nc2.util.cache.FileFactory;
 
 import java.io.IOException;
@@ -262,7 +264,7 @@ public class NetcdfDataset extends ucar.nc2.NetcdfFile {
   ////////////////////////////////////////////////////////////////////////////////////
   // NetcdfFile caching
 
-  static private ucar.nc2.util.cache.FileCache netcdfFileCache = null;
+  static private ucar.nc2.util.cache.FileCacheIF netcdfFileCache = null;
   static private ucar.nc2.util.cache.FileFactory defaultNetcdfFileFactory = new MyNetcdfFileFactory();
 
   // no state, so a singleton is ok
@@ -300,6 +302,18 @@ public class NetcdfDataset extends ucar.nc2.NetcdfFile {
                                                         hardLimit, period);
   }
 
+  /**
+   * Enable file caching with the given cache, for example a ucar.nc2.util.cache.FileCacheStriped.
+   * call this before calling acquireFile().
+   * When application terminates, call NetcdfDataset.shutdown().
+   *
+   * @param cache use this cache, or null to disable. The previous cache, if any, is disabled.
+   */
+  static public synchronized void setNetcdfFileCache(ucar.nc2.util.cache.FileCacheIF cache) {
+    if (netcdfFileCache != null && netcdfFileCache != cache) netcdfFileCache.disable();
+    netcdfFileCache = cache;
+  }
+
   static public synchronized void disableNetcdfFileCache() {
     if (null != netcdfFileCache) netcdfFileCache.disable();
     netcdfFileCache = null;
@@ -312,6 +326,7 @@ public class NetcdfDataset extends ucar.nc2.NetcdfFile {
   static public synchronized void shutdown() {
     disableNetcdfFileCache();
     FileCache.shutdown();
+    FileCacheStriped.shutdown();
   }
 
   /**
@@ -657,7 +672,7 @@ public class NetcdfDataset extends ucar.nc2.NetcdfFile {
    * @return NetcdfFile object
    * @throws java.io.IOException on read error
    *
-  static private NetcdfFile openOrAcquireFile(FileCache cache, FileFactory factory, Object hashKey, String orgLocation,
+  static private NetcdfFile openOrAcquireFile(FileCacheIF cache, FileFactory factory, Object hashKey, String orgLocation,
                                               int buffer_size, ucar.nc2.util.CancelTask cancelTask, Object spiObject) throws IOException {
 
     if (orgLocation == null)
@@ -668,7 +683,7 @@ public class NetcdfDataset extends ucar.nc2.NetcdfFile {
     return openOrAcquireFile(cache, factory, hashKey, durl, buffer_size, cancelTask, spiObject);
   } */
 
-  static private NetcdfFile openOrAcquireFile(FileCache cache, FileFactory factory, Object hashKey, DatasetUrl durl,
+  static private NetcdfFile openOrAcquireFile(FileCacheIF cache, FileFactory factory, Object hashKey, DatasetUrl durl,
                                               int buffer_size, ucar.nc2.util.CancelTask cancelTask, Object spiObject) throws IOException {
 
     if (durl.serviceType != null) {
@@ -722,7 +737,7 @@ public class NetcdfDataset extends ucar.nc2.NetcdfFile {
    */
   static private final String DAP4_PATH = "dap4.cdm.nc2";
 
-  static private NetcdfFile acquireDODS(FileCache cache, FileFactory factory, Object hashKey,
+  static private NetcdfFile acquireDODS(FileCacheIF cache, FileFactory factory, Object hashKey,
                                         String location, int buffer_size, ucar.nc2.util.CancelTask cancelTask, Object spiObject) throws IOException {
     if (cache == null) {
       return openDodsByReflection(location, cancelTask);
@@ -732,7 +747,7 @@ public class NetcdfDataset extends ucar.nc2.NetcdfFile {
     return (NetcdfFile) cache.acquire(factory, hashKey, new DatasetUrl(ServiceType.OPENDAP, location), buffer_size, cancelTask, spiObject);
   }
 
-  static private NetcdfFile acquireDap4(FileCache cache,
+  static private NetcdfFile acquireDap4(FileCacheIF cache,
                                         FileFactory factory,
                                         Object hashKey,
                                         String location,
@@ -826,7 +841,7 @@ public class NetcdfDataset extends ucar.nc2.NetcdfFile {
 
   ////////////////////////////////////////////////////////////////////////////////////
 
-  static private NetcdfFile acquireNcml(FileCache cache, FileFactory factory, Object hashKey,
+  static private NetcdfFile acquireNcml(FileCacheIF cache, FileFactory factory, Object hashKey,
                                         String location, int buffer_size, ucar.nc2.util.CancelTask cancelTask, Object spiObject) throws IOException {
     if (cache == null) return NcMLReader.readNcML(location, cancelTask);
 
@@ -840,7 +855,7 @@ public class NetcdfDataset extends ucar.nc2.NetcdfFile {
     }
   }
 
-  static private NetcdfFile acquireCdmRemote(FileCache cache, FileFactory factory, Object hashKey,
+  static private NetcdfFile acquireCdmRemote(FileCacheIF cache, FileFactory factory, Object hashKey,
                                              String location, int buffer_size, ucar.nc2.util.CancelTask cancelTask, Object spiObject) throws IOException {
     if (cache == null) return new CdmRemote(location);
 
@@ -340,6 +340,10 @@ public class VariableDS extends ucar.nc2.Variable implements VariableEnhanced, E
     return scaleMissingProxy.convertScaleOffsetMissing(data);
   }
 
+  public Array convertScaleOffsetMissing(Array data, Array out) {
+    return scaleMissingProxy.convertScaleOffsetMissing(data, out);
+  }
+
   public double getValidMax() {
     return scaleMissingProxy.getValidMax();
   }
@@ -211,7 +211,7 @@ public class CFGridWriter2 {
 
       // optional lat/lon
       if (addLatLon) {
-        Projection proj = gcsWant.getProjection();
+        ProjectionImpl proj = gcsWant.getProjection();
         if ((null != proj) && !(proj instanceof LatLonProjection)) {
           total_size += addLatLon2D(ncd, varList, proj, gcsWant.getXHorizAxis(), gcsWant.getYHorizAxis());
           addLatLon = false; // ??
@@ -413,7 +413,7 @@ public class CFGridWriter2 {
     ctv.addAttribute(new Attribute(att.getShortName(), val));
   }
 
-  private long addLatLon2D(NetcdfFile ncfile, List<Variable> varList, Projection proj,
+  private long addLatLon2D(NetcdfFile ncfile, List<Variable> varList, ProjectionImpl proj,
                            CoordinateAxis xaxis, CoordinateAxis yaxis) throws IOException {
 
     double[] xData = (double[]) xaxis.read().get1DJavaArray(double.class);
@@ -443,18 +443,9 @@ public class CFGridWriter2 {
     int ny = yData.length;
 
     // create the data
-    ProjectionPointImpl projPoint = new ProjectionPointImpl();
-    LatLonPointImpl latlonPoint = new LatLonPointImpl();
-    double[] latData = new double[nx * ny];
-    double[] lonData = new double[nx * ny];
-    for (int i = 0; i < ny; i++) {
-      for (int j = 0; j < nx; j++) {
-        projPoint.setLocation(xData[j], yData[i]);
-        proj.projToLatLon(projPoint, latlonPoint);
-        latData[i * nx + j] = latlonPoint.getLatitude();
-        lonData[i * nx + j] = latlonPoint.getLongitude();
-      }
-    }
+    double[][] latlon = proj.projToLatLonGrid(xData, yData, true);
+    double[] latData = latlon[ProjectionImpl.INDEX_LAT];
+    double[] lonData = latlon[ProjectionImpl.INDEX_LON];
     Array latDataArray = Array.factory(DataType.DOUBLE, new int[]{ny, nx}, latData);
     latVar.setCachedData(latDataArray, false);
 
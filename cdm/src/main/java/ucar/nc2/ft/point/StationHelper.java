@@ -32,6 +32,7 @@
  */
 package ucar.nc2.ft.point;
 
+import ucar.unidata.geoloc.LatLonPoint;
 import ucar.unidata.geoloc.LatLonPointImpl;
 import ucar.unidata.geoloc.LatLonRect;
 import ucar.unidata.geoloc.Station;
@@ -51,6 +52,7 @@ import java.util.Map;
 public class StationHelper {
   private List<StationFeature> stations;
   private Map<String, StationFeature> stationHash;
+  private volatile StationIndex<StationFeature> index; // built on first spatial query
   private static final boolean debug = false;
 
   public StationHelper() {
@@ -61,6 +63,7 @@ public class StationHelper {
   public void addStation( StationFeature s) {
     stations.add(s);
     stationHash.put(s.getName(), s);
+    index = null;
   }
 
   public void setStations( List<StationFeature> nstations) {
@@ -70,6 +73,13 @@ public class StationHelper {
       addStation(s);
   }
 
+  private StationIndex<StationFeature> getIndex() {
+    StationIndex<StationFeature> result = index;
+    if (result == null)
+      index = result = new StationIndex<>(stations);
+    return result;
+  }
+
   private LatLonRect rect;
   public LatLonRect getBoundingBox() {
     if (rect == null) {
@@ -112,28 +122,25 @@ public class StationHelper {
 
   public List<Station> getStations(LatLonRect boundingBox) throws IOException {
     if (boundingBox == null) return getStations();
-    
-    LatLonPointImpl latlonPt = new LatLonPointImpl();
-    List<Station> result = new ArrayList<>();
-    for (StationFeature s : stations) {
-      latlonPt.set(s.getLatitude(), s.getLongitude());
-      if (boundingBox.contains(latlonPt))
-        result.add(s);
-    }
-    return result;
+
+    return new ArrayList<>(getIndex().getStations(boundingBox));
   }
 
   public List<StationFeature> getStationFeatures(LatLonRect boundingBox) throws IOException {
     if (boundingBox == null) return stations;
 
-    LatLonPointImpl latlonPt = new LatLonPointImpl();
-    List<StationFeature> result = new ArrayList<>();
-    for (StationFeature s : stations) {
-      latlonPt.set(s.getLatitude(), s.getLongitude());
-      if (boundingBox.contains(latlonPt))
-        result.add(s);
-    }
-    return result;
+    return getIndex().getStations(boundingBox);
+  }
+
+  /**
+   * Find the station closest to the given point.
+   * The metric is (lat-lat0)**2 + (cos(lat0)*(lon-lon0))**2
+   *
+   * @param pt the point
+   * @return the closest station, or null if there are none
+   */
+  public StationFeature findClosestStation(LatLonPoint pt) {
+    return getIndex().findClosestStation(pt.getLatitude(), pt.getLongitude());
   }
 
   public StationFeature getStation(String name) {
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.ft.point;
+
+import ucar.unidata.geoloc.LatLonPointImpl;
+import ucar.unidata.geoloc.LatLonRect;
+import ucar.unidata.geoloc.Station;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A packed grid bucket index over a fixed list of stations, for bounding box and nearest station queries.
+ * The globe is divided into nlat x 2*nlat cells of equal size in degrees, about 4 stations per cell.
+ * Each cell's stations are stored contiguously in one int array, as indices into the original list.
+ * <p>
+ * Bounding box queries give the same result, in the same order, as testing every station with
+ * LatLonRect.contains() on its normalized lat/lon, including boxes that cross the dateline.
+ * Nearest station queries use the metric (lat-lat0)**2 + (cos(lat0)*(lon-lon0))**2, as the NCSS does,
+ * ties going to the first station in the list.
+ * <p>
+ * Immutable, so thread safe.
+ *
+ * @since 10/18/2026
+ */
+public class StationIndex<T extends Station> {
+  private static final int STATIONS_PER_CELL = 4;
+  private static final int MAX_NLAT = 1024;
+  private static final double EPS = 1.0e-9; // same as LatLonRect.contains()
+
+  private final List<T> stations;
+  private final double[] lats, lons;   // normalized, by station index
+  private final int nlat, nlon;
+  private final double cellLat, cellLon;
+  private final int[] cellStart;       // stations in cell c are cellStations[cellStart[c] .. cellStart[c+1]-1]
+  private final int[] cellStations;    // station indices, ascending within each cell
+  private final int[] others;          // stations with missing or out of range coordinates, always tested
+
+  public StationIndex(List<T> stations) {
+    this.stations = new ArrayList<>(stations);
+    int n = this.stations.size();
+    lats = new double[n];
+    lons = new double[n];
+
+    nlat = Math.max(1, Math.min(MAX_NLAT, (int) Math.round(Math.sqrt(n / (2.0 * STATIONS_PER_CELL)))));
+    nlon = 2 * nlat;
+    cellLat = 180.0 / nlat;
+    cellLon = 360.0 / nlon;
+
+    // counting sort of the stations into their cells, which keeps them in order within a cell
+    int[] cell = new int[n];
+    int[] count = new int[nlat * nlon + 1];
+    int nothers = 0;
+    for (int i = 0; i < n; i++) {
+      Station s = this.stations.get(i);
+      double lat = s.getLatitude();
+      double lon = s.getLongitude();
+      if (Double.isNaN(lat) || Double.isNaN(lon) || Double.isInfinite(lon) || lat < -90.0 || lat > 90.0) {
+        cell[i] = -1;
+        nothers++;
+        continue;
+      }
+      lats[i] = lat;
+      lons[i] = LatLonPointImpl.lonNormal(lon);
+      cell[i] = row(lats[i]) * nlon + col(lons[i]);
+      count[cell[i] + 1]++;
+    }
+
+    cellStart = new int[nlat * nlon + 1];
+    for (int c = 0; c < nlat * nlon; c++)
+      cellStart[c + 1] = cellStart[c] + count[c + 1];
+    cellStations = new int[n - nothers];
+    others = new int[nothers];
+    int[] next = Arrays.copyOf(cellStart, cellStart.length - 1);
+    int o = 0;
+    for (int i = 0; i < n; i++) {
+      if (cell[i] < 0) others[o++] = i;
+      else cellStations[next[cell[i]]++] = i;
+    }
+  }
+
+  private int row(double lat) {
+    int i = (int) Math.floor((lat + 90.0) / cellLat);
+    return Math.max(0, Math.min(nlat - 1, i));
+  }
+
+  private int col(double lon) {
+    int j = (int) Math.floor((lon + 180.0) / cellLon);
+    return Math.max(0, Math.min(nlon - 1, j));
+  }
+
+  public List<T> getStations() {
+    return stations;
+  }
+
+  /**
+   * Find the stations inside the bounding box.
+   *
+   * @param bb the bounding box
+   * @return the stations inside it, in the order of the original list
+   */
+  public List<T> getStations(LatLonRect bb) {
+    int ilo = row(bb.getLatMin() - EPS);
+    int ihi = row(bb.getLatMax() + EPS);
+    double lonMin = bb.getLowerLeftPoint().getLongitude();
+    double lonMax = bb.getUpperRightPoint().getLongitude();
+
+    BitSet found = new BitSet(stations.size());
+    for (int i = ilo; i <= ihi; i++) {
+      if (bb.getWidth() >= 360.0) {
+        collect(bb, i, 0, nlon - 1, found);
+      } else if (bb.crossDateline()) {
+        collect(bb, i, col(lonMin), nlon - 1, found);
+        collect(bb, i, 0, col(lonMax), found);
+      } else {
+        collect(bb, i, col(lonMin), col(lonMax), found);
+      }
+    }
+    for (int idx : others) {
+      Station s = stations.get(idx);
+      if (bb.contains(LatLonPointImpl.latNormal(s.getLatitude()), LatLonPointImpl.lonNormal(s.getLongitude())))
+        found.set(idx);
+    }
+
+    List<T> result = new ArrayList<>(found.cardinality());
+    for (int idx = found.nextSetBit(0); idx >= 0; idx = found.nextSetBit(idx + 1))
+      result.add(stations.get(idx));
+    return result;
+  }
+
+  // the cells of a row are contiguous, so columns jlo..jhi are one run of cellStations
+  private void collect(LatLonRect bb, int row, int jlo, int jhi, BitSet found) {
+    if (jlo > jhi) return;
+    int start = cellStart[row * nlon + jlo];
+    int end = cellStart[row * nlon + jhi + 1];
+    for (int k = start; k < end; k++) {
+      int idx = cellStations[k];
+      if (bb.contains(lats[idx], lons[idx]))
+        found.set(idx);
+    }
+  }
+
+  /**
+   * Find the station closest to the given point.
+   * The metric is (lat-lat0)**2 + (cos(lat0)*(lon-lon0))**2
+   *
+   * @param lat latitude of the point
+   * @param lon longitude of the point
+   * @return the closest station, or null if there are none
+   */
+  public T findClosestStation(double lat, double lon) {
+    Closest closest = new Closest(lat, lon);
+
+    if (cellStations.length > 0) {
+      // widen a box of cells around the point until it holds a station
+      int i0 = row(lat);
+      int j0 = col(LatLonPointImpl.lonNormal(lon));
+      for (int k = 1; closest.index < 0 && k < 2 * nlon; k *= 2)
+        scan(i0 - k, i0 + k, j0 - k, j0 + k, closest);
+    }
+
+    if (closest.index >= 0) {
+      // then look at every cell that could hold a closer one
+      double dlat = Math.toDegrees(Math.sqrt(closest.dist));
+      double cos = Math.abs(closest.cos);
+      double dlon = (cos * 360.0 > dlat) ? dlat / cos : 360.0;
+      double lon0 = LatLonPointImpl.lonNormal(lon);
+      int jlo = (int) Math.floor((lon0 - dlon + 180.0) / cellLon);
+      int jhi = (int) Math.floor((lon0 + dlon + 180.0) / cellLon);
+      scan(row(lat - dlat) - 1, row(lat + dlat) + 1, jlo - 1, jhi + 1, closest);
+    }
+
+    for (int idx : others)
+      closest.test(idx, stations.get(idx).getLatitude(), stations.get(idx).getLongitude());
+
+    if (closest.index < 0) // no stations, or a missing lat/lon
+      return stations.isEmpty() ? null : stations.get(0);
+    return stations.get(closest.index);
+  }
+
+  // scan the cells in rows ilo..ihi and columns jlo..jhi, which wrap around the dateline
+  private void scan(int ilo, int ihi, int jlo, int jhi, Closest closest) {
+    ilo = Math.max(0, ilo);
+    ihi = Math.min(nlat - 1, ihi);
+    if (jhi - jlo + 1 >= nlon) {
+      jlo = 0;
+      jhi = nlon - 1;
+    }
+    for (int i = ilo; i <= ihi; i++) {
+      for (int j = jlo; j <= jhi; j++) {
+        int c = i * nlon + Math.floorMod(j, nlon);
+        for (int k = cellStart[c]; k < cellStart[c + 1]; k++) {
+          int idx = cellStations[k];
+          closest.test(idx, lats[idx], lons[idx]);
+        }
+      }
+    }
+  }
+
+  private static class Closest {
+    final double lat, lon, cos;
+    int index = -1;
+    double dist = Double.MAX_VALUE;
+
+    Closest(double lat, double lon) {
+      this.lat = lat;
+      this.lon = lon;
+      this.cos = Math.cos(Math.toRadians(lat));
+    }
+
+    void test(int idx, double lat1, double lon1) {
+      double dy = Math.toRadians(lat - lat1);
+      double dx = cos * Math.toRadians(lon - LatLonPointImpl.lonNormal(lon1, lon));
+      double d = dy * dy + dx * dx;
+      if (d < dist || (d == dist && idx < index)) {
+        dist = d;
+        index = idx;
+      }
+    }
+  }
+
+}
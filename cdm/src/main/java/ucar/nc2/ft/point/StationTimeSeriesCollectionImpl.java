@@ -106,6 +106,17 @@ public abstract class StationTimeSeriesCollectionImpl extends PointFeatureCCImpl
     return getStationHelper().getStationFeatures(boundingBox);
   }
 
+  /**
+   * Find the station closest to the given point, using the spatial index of the stations.
+   * The metric is (lat-lat0)**2 + (cos(lat0)*(lon-lon0))**2
+   *
+   * @param pt the point
+   * @return the closest station, or null if there are none
+   */
+  public StationFeature findClosestStation(ucar.unidata.geoloc.LatLonPoint pt) {
+    return getStationHelper().findClosestStation(pt);
+  }
+
   @Override
   public StationFeature findStationFeature(String name) {
     return getStationHelper().getStation(name);
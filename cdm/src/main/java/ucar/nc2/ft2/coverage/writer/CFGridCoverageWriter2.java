@@ -33,22 +33,30 @@
  */
 package ucar.nc2.ft2.coverage.writer;
 
+import ucar.ma2.Array;
 import ucar.ma2.DataType;
 import ucar.ma2.InvalidRangeException;
 import ucar.ma2.Section;
 import ucar.nc2.*;
 import ucar.nc2.constants.*;
 import ucar.nc2.ft2.coverage.*;
+import ucar.nc2.iosp.netcdf3.N3iosp;
+import ucar.nc2.iosp.netcdf3.N3outputStreamWriter;
 import ucar.nc2.time.CalendarDate;
 import ucar.nc2.util.Misc;
 import ucar.nc2.util.Optional;
 import ucar.unidata.geoloc.*;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Formatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.LongConsumer;
 
 /**
  * Write CF Compliant Grid file from a Coverage.
@@ -90,6 +98,32 @@ public class CFGridCoverageWriter2 {
     return writer2.writeFile(gdsOrg, gridNames, subset, addLatLon, testSizeOnly, writer);
   }
 
+  /**
+   * Write a netcdf-3 / CF file from a CoverageDataset to a stream, without making a file on disk.
+   * The header is written first, then each variable's data is read and written in file order,
+   * so only one variable's data is in memory at a time.
+   *
+   * @param gdsOrg    the CoverageDataset
+   * @param gridNames the list of coverage names to be written, or null for all
+   * @param subset    defines the requested subset
+   * @param addLatLon add 2D lat/lon coordinates if needed
+   * @param fileSize  if not null, is called with the size of the file in bytes before anything is written
+   * @param out       write to this stream; it is flushed but not closed
+   * @return total bytes of data, or empty if the subset has no data or is too large for the classic netcdf-3 format,
+   *   in which case nothing has been written
+   * @throws IOException
+   * @throws InvalidRangeException
+   */
+  public static ucar.nc2.util.Optional<Long> streamNetcdf3(CoverageCollection gdsOrg, List<String> gridNames,
+                               SubsetParams subset,
+                               boolean addLatLon,
+                               LongConsumer fileSize,
+                               OutputStream out) throws IOException, InvalidRangeException {
+
+    CFGridCoverageWriter2 writer2 = new CFGridCoverageWriter2();
+    return writer2.streamFile(gdsOrg, gridNames, subset, addLatLon, fileSize, out);
+  }
+
   private ucar.nc2.util.Optional<Long> writeFile(CoverageCollection gdsOrg, List<String> gridNames, SubsetParams subsetParams, boolean addLatLon, boolean testSizeOnly,
                                NetcdfFileWriter writer) throws IOException, InvalidRangeException {
 
@@ -114,6 +148,118 @@ public class CFGridCoverageWriter2 {
     boolean isLargeFile = isLargeFile(total_size);
     writer.setLargeFile(isLargeFile);
 
+    defineFile(subsetDataset, addLatLon, writer);
+
+    // finish define mode
+    writer.create();
+
+    // write the coordinate data
+    for (CoverageCoordAxis axis : subsetDataset.getCoordAxes()) {
+      Variable v = writer.findVariable(axis.getName());
+      if (v != null) {
+        if (show) System.out.printf("CFGridCoverageWriter2 write axis %s%n", v.getNameAndDimensions());
+        writer.write(v, axis.getCoordsAsArray());
+      } else {
+        logger.error("CFGridCoverageWriter2 No variable for %s%n", axis.getName());
+      }
+
+      if (axis.isInterval()) {
+        Variable vb = writer.findVariable(axis.getName() + BOUNDS);
+        writer.write(vb, axis.getCoordBoundsAsArray());
+      }
+    }
+
+    // write the grid data
+    for (Coverage grid : subsetDataset.getCoverages()) {
+      Variable v = writer.findVariable(grid.getName());
+      if (show) System.out.printf("CFGridCoverageWriter2 write grid %s%n", v.getNameAndDimensions());
+      writer.write(v, readGridData(gdsOrg, grid, subsetParams));
+    }
+
+    writer.close();
+
+    return Optional.of(total_size);
+  }
+
+  private ucar.nc2.util.Optional<Long> streamFile(CoverageCollection gdsOrg, List<String> gridNames, SubsetParams subsetParams, boolean addLatLon,
+                               LongConsumer fileSize, OutputStream out) throws IOException, InvalidRangeException {
+
+    Optional<CoverageCollection> opt = CoverageSubsetter2.makeCoverageDatasetSubset(gdsOrg, gridNames, subsetParams);
+    if (!opt.isPresent())
+      return ucar.nc2.util.Optional.empty(opt.getErrorMessage());
+
+    CoverageCollection subsetDataset = opt.get();
+
+    long total_size = 0;
+    for (Coverage grid : subsetDataset.getCoverages()) {
+      total_size += grid.getSizeInBytes();
+    }
+    if (isLargeFile(total_size))
+      return ucar.nc2.util.Optional.empty("Request size " + total_size + " too large for streaming netcdf-3");
+
+    // the writer is only used to define the metadata, it never creates a file
+    NetcdfFileWriter writer = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf3, subsetDataset.getName(), null);
+    defineFile(subsetDataset, addLatLon, writer);
+    NetcdfFile ncfile = writer.getDefinedNetcdfFile();
+
+    // the header must be complete before any data is written, and tells us the file size
+    N3outputStreamWriter n3writer = new N3outputStreamWriter(ncfile);
+    ByteArrayOutputStream header = new ByteArrayOutputStream(10 * 1000);
+    n3writer.writeHeader(new DataOutputStream(header), 0);
+    if (fileSize != null)
+      fileSize.accept(n3writer.calcFileSize(0));
+
+    DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(out, 64 * 1000));
+    header.writeTo(stream);
+
+    // data is written in the order of the variables in the header
+    for (Variable v : ncfile.getVariables()) {
+      Array data = readVariableData(gdsOrg, subsetDataset, subsetParams, v);
+      if (data.getSize() != v.getSize())
+        throw new IllegalStateException("CFGridCoverageWriter2 data for " + v.getNameAndDimensions() + " has size " + data.getSize());
+      if (show) System.out.printf("CFGridCoverageWriter2 stream %s%n", v.getNameAndDimensions());
+      n3writer.writeNonRecordData(v, stream, data);
+    }
+    stream.flush();
+
+    return Optional.of(total_size);
+  }
+
+  // find the data for a variable made by defineFile()
+  private Array readVariableData(CoverageCollection gdsOrg, CoverageCollection subsetDataset, SubsetParams subsetParams, Variable v)
+          throws IOException, InvalidRangeException {
+    String name = v.getShortName();
+
+    CoverageCoordAxis axis = subsetDataset.findCoordAxis(name);
+    if (axis != null)
+      return axis.getCoordsAsArray();
+
+    if (name.endsWith(BOUNDS)) {
+      axis = subsetDataset.findCoordAxis(name.substring(0, name.length() - BOUNDS.length()));
+      if (axis != null && axis.isInterval())
+        return axis.getCoordBoundsAsArray();
+    }
+
+    Coverage grid = subsetDataset.findCoverage(name);
+    if (grid != null)
+      return readGridData(gdsOrg, grid, subsetParams);
+
+    // otherwise its a scalar coordinate transform variable, which has no data of its own
+    return Array.factory(DataType.INT, new int[0], new int[]{N3iosp.NC_FILL_INT});
+  }
+
+  private Array readGridData(CoverageCollection gdsOrg, Coverage grid, SubsetParams subsetParams) throws IOException, InvalidRangeException {
+    // we need to call readData on the original
+    Coverage gridOrg = gdsOrg.findCoverage(grid.getName());
+    GeoReferencedArray array = gridOrg.readData(subsetParams);
+
+    // test conform to whatever axis.getCoordsAsArray() returns
+    checkConformance(gridOrg, grid, array, gdsOrg.getName());
+    return array.getData();
+  }
+
+  // add the dimensions, variables and attributes of the subsetted dataset
+  private void defineFile(CoverageCollection subsetDataset, boolean addLatLon, NetcdfFileWriter writer) {
     addGlobalAttributes(subsetDataset, writer);
 
     // each independent coordinate is a dimension
@@ -177,43 +323,6 @@ public class CFGridCoverageWriter2 {
     }
 
     addCFAnnotations(subsetDataset, writer, addLatLon);
-
-    // finish define mode
-    writer.create();
-
-    // write the coordinate data
-    for (CoverageCoordAxis axis : subsetDataset.getCoordAxes()) {
-      Variable v = writer.findVariable(axis.getName());
-      if (v != null) {
-        if (show) System.out.printf("CFGridCoverageWriter2 write axis %s%n", v.getNameAndDimensions());
-        writer.write(v, axis.getCoordsAsArray());
-      } else {
-        logger.error("CFGridCoverageWriter2 No variable for %s%n", axis.getName());
-      }
-
-      if (axis.isInterval()) {
-        Variable vb = writer.findVariable(axis.getName() + BOUNDS);
-        writer.write(vb, axis.getCoordBoundsAsArray());
-      }
-    }
-
-    // write the grid data
-    for (Coverage grid : subsetDataset.getCoverages()) {
-      // we need to call readData on the original
-      Coverage gridOrg = gdsOrg.findCoverage(grid.getName());
-      GeoReferencedArray array = gridOrg.readData(subsetParams);
-
-      // test conform to whatever axis.getCoordsAsArray() returns
-      checkConformance(gridOrg, grid, array, gdsOrg.getName());
-
-      Variable v = writer.findVariable(grid.getName());
-      if (show) System.out.printf("CFGridCoverageWriter2 write grid %s%n", v.getNameAndDimensions());
-      writer.write(v, array.getData());
-    }
-
-    writer.close();
-
-    return Optional.of(total_size);
   }
 
   private boolean isLargeFile(long total_size) {
@@ -59,6 +59,7 @@ import java.util.ArrayList;
  */
 public class IospHelper {
   static private boolean showLayoutTypes = false;
+  static private final int positionalBufferSize = 64 * 1000;
 
   /**
    * Read data subset from RandomAccessFile, create primitive array of size Layout.getTotalNelems.
@@ -178,6 +179,109 @@ public class IospHelper {
     throw new IllegalStateException("unknown type= " + dataType);
   }
 
+  /**
+   * Read data subset from RandomAccessFile using positional reads, create primitive array of size Layout.getTotalNelems.
+   * Reading is controlled by the Layout object. Does not use the file pointer, buffer or byte order of the
+   * RandomAccessFile, so may be called by any number of threads at once with the same RandomAccessFile.
+   *
+   * @param raf       read from here.
+   * @param index     handles skipping around in the file.
+   * @param dataType  dataType of the variable
+   * @param fillValue must be Number if dataType.isNumeric(), or String for STRING, byte[] for Structure, or null for none
+   * @param byteOrder byte order of the data in the file
+   * @param convertChar true if bytes should be converted to char for dataType CHAR
+   * @return primitive array with data read in
+   * @throws java.io.IOException on read error
+   */
+  static public Object readDataFillPositional(RandomAccessFile raf, Layout index, DataType dataType, Object fillValue,
+                                              ByteOrder byteOrder, boolean convertChar) throws java.io.IOException {
+    Object arr = (fillValue == null) ? makePrimitiveArray((int) index.getTotalNelems(), dataType) :
+            makePrimitiveArray((int) index.getTotalNelems(), dataType, fillValue);
+    return readDataPositional(raf, index, dataType, arr, byteOrder, convertChar);
+  }
+
+  /**
+   * Read data subset from RandomAccessFile using positional reads, place in given primitive array.
+   * Reading is controlled by the Layout object. Does not use the file pointer, buffer or byte order of the
+   * RandomAccessFile, so may be called by any number of threads at once with the same RandomAccessFile.
+   * Chunks smaller than the RandomAccessFile buffer size are read through a buffer of that size,
+   * so that small chunks close together in the file take one read, not one each.
+   *
+   * @param raf         read from here.
+   * @param layout      handles skipping around in the file.
+   * @param dataType    dataType of the variable
+   * @param arr         primitive array to read data into
+   * @param byteOrder   byte order of the data in the file
+   * @param convertChar true if bytes should be converted to char for dataType CHAR
+   * @return primitive array with data read in
+   * @throws java.io.IOException on read error
+   */
+  static public Object readDataPositional(RandomAccessFile raf, Layout layout, DataType dataType, Object arr,
+                                          ByteOrder byteOrder, boolean convertChar) throws java.io.IOException {
+    if (showLayoutTypes) System.out.println("***RAF positional LayoutType=" + layout.getClass().getName());
+    PositionalBuffer window = new PositionalBuffer(raf);
+
+    if (dataType.getPrimitiveClassType() == byte.class || dataType == DataType.CHAR) {
+      byte[] pa = (byte[]) arr;
+      while (layout.hasNext()) {
+        Layout.Chunk chunk = layout.next();
+        window.readFully(chunk.getSrcPos(), pa, (int) chunk.getDestElem(), chunk.getNelems());
+      }
+      if (convertChar && dataType == DataType.CHAR) return convertByteToChar(pa);
+      else return pa;
+
+    } else if (dataType == DataType.STRUCTURE) {
+      byte[] pa = (byte[]) arr;
+      int recsize = layout.getElemSize();
+      while (layout.hasNext()) {
+        Layout.Chunk chunk = layout.next();
+        window.readFully(chunk.getSrcPos(), pa, (int) chunk.getDestElem() * recsize, chunk.getNelems() * recsize);
+      }
+      return pa;
+    }
+
+    // read the bytes of each chunk in pieces of at most positionalBufferSize, and convert with the byte order
+    int elemSize = dataType.getSize();
+    byte[] bytes = null;
+    while (layout.hasNext()) {
+      Layout.Chunk chunk = layout.next();
+      long pos = chunk.getSrcPos();
+      int dest = (int) chunk.getDestElem();
+      int nelems = chunk.getNelems();
+      while (nelems > 0) {
+        int n = Math.min(nelems, positionalBufferSize / elemSize);
+        int nbytes = n * elemSize;
+        ByteBuffer bb;
+        if (window.isSmall(nbytes)) {
+          bb = window.read(pos, nbytes).order(byteOrder);
+        } else {
+          if (bytes == null || bytes.length < nbytes)
+            bytes = new byte[nbytes];
+          raf.readFully(pos, bytes, 0, nbytes);
+          bb = ByteBuffer.wrap(bytes, 0, nbytes).order(byteOrder);
+        }
+
+        if (dataType.getPrimitiveClassType() == short.class)
+          bb.asShortBuffer().get((short[]) arr, dest, n);
+        else if (dataType.getPrimitiveClassType() == int.class)
+          bb.asIntBuffer().get((int[]) arr, dest, n);
+        else if (dataType == DataType.FLOAT)
+          bb.asFloatBuffer().get((float[]) arr, dest, n);
+        else if (dataType == DataType.DOUBLE)
+          bb.asDoubleBuffer().get((double[]) arr, dest, n);
+        else if (dataType.getPrimitiveClassType() == long.class)
+          bb.asLongBuffer().get((long[]) arr, dest, n);
+        else
+          throw new IllegalStateException("unknown type= " + dataType);
+
+        pos += nbytes;
+        dest += n;
+        nelems -= n;
+      }
+    }
+    return arr;
+  }
+
   /**
    * Read data subset from PositioningDataInputStream, create primitive array of size Layout.getTotalNelems.
    * Reading is controlled by the Layout object.
@@ -885,4 +989,44 @@ public class IospHelper {
     return result;
   }
 
+  // Positional reads of small chunks through a buffer the size of the RandomAccessFile buffer.
+  // A chunk that is not already in the buffer fills it starting at the chunk, so following chunks nearby,
+  // eg the next records of a netcdf-3 record variable or the next rows of a strided subset, come from memory.
+  static private class PositionalBuffer {
+    private final RandomAccessFile raf;
+    private final byte[] buff;
+    private long start;  // file position of buff[0]
+    private int size;    // number of bytes in buff that were read
+
+    PositionalBuffer(RandomAccessFile raf) {
+      this.raf = raf;
+      this.buff = new byte[raf.getBufferSize()];
+    }
+
+    boolean isSmall(int nbytes) {
+      return nbytes < buff.length;
+    }
+
+    // nbytes must be small; the returned ByteBuffer is only valid until the next read
+    ByteBuffer read(long pos, int nbytes) throws IOException {
+      if (pos < start || pos + nbytes > start + size) {
+        int n = raf.read(pos, buff, 0, buff.length);
+        if (n < nbytes) {
+          raf.readFully(pos, buff, 0, nbytes); // partial read, or EOFException
+          n = nbytes;
+        }
+        start = pos;
+        size = n;
+      }
+      return ByteBuffer.wrap(buff, (int) (pos - start), nbytes);
+    }
+
+    void readFully(long pos, byte[] b, int off, int len) throws IOException {
+      if (isSmall(len))
+        read(pos, len).get(b, off, len);
+      else
+        raf.readFully(pos, b, off, len);
+    }
+  }
+
 }
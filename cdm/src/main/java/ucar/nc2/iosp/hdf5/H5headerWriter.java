@@ -0,0 +1,834 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.iosp.hdf5;
+
+import ucar.ma2.DataType;
+import ucar.nc2.constants.CDM;
+import ucar.unidata.io.RandomAccessFile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes the HDF5 structures of a netCDF-4 file: the superblock, object headers and their messages,
+ * version 1 B-trees of data chunks, and global heap collections.
+ * Only the formats that the netCDF-4 data model needs are written, using the newer versions where there is a choice:
+ * superblock version 2, version 2 object headers with compact links and attributes, and 8 byte offsets and lengths.
+ * File space is allocated by appending to the end of the file.
+ * See http://www.hdfgroup.org/HDF5/doc/H5.format.html
+ *
+ * @since 10/18/2026
+ */
+class H5headerWriter {
+  static final long UNDEF = -1L; // undefined address
+  static final int SIZE_OFFSETS = 8;
+  static final int SIZE_LENGTHS = 8;
+  static final int HEAP_ID_SIZE = 16; // nelems, collection address, object index
+  static final long UNLIMITED = -1L;  // maximum dataspace size of an unlimited dimension
+
+  static private final byte[] SIGNATURE = {(byte) 0x89, 'H', 'D', 'F', '\r', '\n', 0x1a, '\n'};
+  static private final int SUPERBLOCK_SIZE = 48;
+  static private final int BTREE_K = 32;  // default chunk B-tree K when the superblock has no value
+  static private final int HEAP_SIZE = 64 * 1024; // size of a global heap collection, unless an object needs more
+  static private final int HEAP_MAX_OBJECTS = 0xffff;
+  static private final int MAX_MESSAGE = 0xffff;
+
+  // message types
+  static final int DATASPACE = 1, LINK_INFO = 2, DATATYPE = 3, FILL_VALUE = 5, LINK = 6, LAYOUT = 8,
+          GROUP_INFO = 10, FILTER_PIPELINE = 11, ATTRIBUTE = 12, ATTRIBUTE_INFO = 21;
+
+  // space allocation times in the fill value message
+  static final int ALLOC_EARLY = 1, ALLOC_LATE = 2, ALLOC_INCR = 3;
+
+  private final RandomAccessFile raf;
+  private long eof = SUPERBLOCK_SIZE;
+  private GlobalHeap heap;
+
+  H5headerWriter(RandomAccessFile raf) {
+    this.raf = raf;
+  }
+
+  /**
+   * Allocate file space at the end of the file.
+   *
+   * @param size number of bytes
+   * @return address of the space
+   */
+  long allocate(long size) {
+    long address = eof;
+    eof += size;
+    return address;
+  }
+
+  long getEof() {
+    return eof;
+  }
+
+  /**
+   * Write the superblock, last, when the root group and the end of the file are known.
+   *
+   * @param rootAddress address of the root group object header
+   */
+  void writeSuperblock(long rootAddress) throws IOException {
+    Bytes b = new Bytes(SUPERBLOCK_SIZE);
+    b.put(SIGNATURE);
+    b.put(2); // version
+    b.put(SIZE_OFFSETS);
+    b.put(SIZE_LENGTHS);
+    b.put(0); // file consistency flags
+    b.putLong(0); // base address
+    b.putLong(UNDEF); // superblock extension
+    b.putLong(eof);
+    b.putLong(rootAddress);
+    b.putChecksum();
+    write(0, b);
+  }
+
+  void write(long address, Bytes b) throws IOException {
+    raf.seek(address);
+    raf.write(b.buf, 0, b.pos);
+  }
+
+  //////////////////////////////////////////////////////////////////////////////
+  // object headers
+
+  /**
+   * A message in an object header.
+   */
+  static class Message {
+    final int type;
+    final int flags;
+    final byte[] data;
+
+    Message(int type, int flags, Bytes data) {
+      if (data.pos > MAX_MESSAGE)
+        throw new IllegalArgumentException("HDF5 header message type " + type + " is too large (" + data.pos + " bytes)");
+      this.type = type;
+      this.flags = flags;
+      this.data = Arrays.copyOf(data.buf, data.pos);
+    }
+  }
+
+  /**
+   * Encode a version 2 object header. Creation order is tracked for the attributes,
+   * which are all stored in the header.
+   *
+   * @param messages the messages, with the attribute messages last
+   * @param nattrs   number of attribute messages
+   * @return the object header
+   */
+  static Bytes objectHeader(List<Message> messages, int nattrs) {
+    long chunkSize = 0;
+    for (Message m : messages)
+      chunkSize += 6 + m.data.length;
+
+    int sizeFlag = (chunkSize < 0x100) ? 0 : (chunkSize < 0x10000) ? 1 : 2;
+    int flags = sizeFlag | 4; // track attribute creation order
+    boolean phaseChange = nattrs > 8; // more compact attributes than the default
+    if (phaseChange) flags |= 0x10;
+
+    Bytes b = new Bytes((int) chunkSize + 32);
+    b.putAscii("OHDR");
+    b.put(2); // version
+    b.put(flags);
+    if (phaseChange) {
+      b.putShort(nattrs); // max compact
+      b.putShort(6);      // min dense
+    }
+    b.putSize(chunkSize, 1 << sizeFlag);
+
+    int attOrder = 0;
+    for (Message m : messages) {
+      b.put(m.type);
+      b.putShort(m.data.length);
+      b.put(m.flags);
+      b.putShort(m.type == ATTRIBUTE ? attOrder++ : 0); // creation order
+      b.put(m.data);
+    }
+    b.putChecksum();
+    return b;
+  }
+
+  static Message dataspace(long[] shape, long[] maxShape) {
+    Bytes b = new Bytes(4 + 16 * shape.length);
+    b.put(2); // version
+    b.put(shape.length);
+    b.put(maxShape == null ? 0 : 1);
+    b.put(shape.length == 0 ? 0 : 1); // scalar or simple
+    for (long len : shape)
+      b.putLong(len);
+    if (maxShape != null)
+      for (long len : maxShape)
+        b.putLong(len);
+    return new Message(DATASPACE, 0, b);
+  }
+
+  /** @return a null dataspace, used for empty attributes */
+  static Message dataspaceNull() {
+    Bytes b = new Bytes(4);
+    b.put(2);
+    b.put(0);
+    b.put(0);
+    b.put(2); // null
+    return new Message(DATASPACE, 0, b);
+  }
+
+  static Message datatype(Bytes type) {
+    return new Message(DATATYPE, 1, type);
+  }
+
+  /**
+   * Encode the datatype of a netCDF-4 atomic type. CHAR is a one character string, STRING is a variable length string.
+   *
+   * @param dataType the type
+   * @return the datatype, little endian
+   */
+  static Bytes datatype(DataType dataType) {
+    Bytes b = new Bytes(24);
+    switch (dataType) {
+      case BYTE:
+      case UBYTE:
+      case SHORT:
+      case USHORT:
+      case INT:
+      case UINT:
+      case LONG:
+      case ULONG:
+        putFixedPoint(b, dataType.getSize(), !dataType.isUnsigned());
+        break;
+
+      case FLOAT:
+        b.put(0x11); // version 1, floating point
+        b.put(0x20); // little endian, implied mantissa normalization
+        b.put(31);   // sign location
+        b.put(0);
+        b.putInt(4);
+        b.putShort(0);   // bit offset
+        b.putShort(32);  // precision
+        b.put(23);       // exponent location
+        b.put(8);        // exponent size
+        b.put(0);        // mantissa location
+        b.put(23);       // mantissa size
+        b.putInt(127);   // exponent bias
+        break;
+
+      case DOUBLE:
+        b.put(0x11);
+        b.put(0x20);
+        b.put(63);
+        b.put(0);
+        b.putInt(8);
+        b.putShort(0);
+        b.putShort(64);
+        b.put(52);
+        b.put(11);
+        b.put(0);
+        b.put(52);
+        b.putInt(1023);
+        break;
+
+      case CHAR:
+        putFixedString(b, 1, false);
+        break;
+
+      case STRING:
+        b.put(0x19); // version 1, variable length
+        b.put(0x01); // string, null terminated
+        b.put(0x01); // UTF-8
+        b.put(0);
+        b.putInt(HEAP_ID_SIZE);
+        putFixedPoint(b, 1, false); // base type is unsigned char
+        break;
+
+      default:
+        throw new IllegalArgumentException("Cant write " + dataType + " to a netCDF-4 file");
+    }
+    return b;
+  }
+
+  /**
+   * Encode a fixed length string datatype, as used by netCDF-4 text attributes.
+   *
+   * @param size number of bytes
+   * @param utf8 if not all ascii
+   * @return the datatype
+   */
+  static Bytes datatypeString(int size, boolean utf8) {
+    Bytes b = new Bytes(8);
+    putFixedString(b, size, utf8);
+    return b;
+  }
+
+  /** @return datatype of a variable length sequence of object references, used by DIMENSION_LIST */
+  static Bytes datatypeReferenceList() {
+    Bytes b = new Bytes(24);
+    b.put(0x19); // version 1, variable length
+    b.put(0);    // sequence
+    b.put(0);
+    b.put(0);
+    b.putInt(HEAP_ID_SIZE);
+    putObjectReference(b);
+    return b;
+  }
+
+  /** @return datatype of the REFERENCE_LIST compound {object reference dataset; int dimension} */
+  static Bytes datatypeDimensionReference() {
+    Bytes b = new Bytes(128);
+    b.put(0x16); // version 1, compound
+    b.putShort(2); // number of members
+    b.put(0);
+    b.putInt(16);
+    putCompoundMember(b, "dataset", 0);
+    putObjectReference(b);
+    putCompoundMember(b, "dimension", 8);
+    putFixedPoint(b, 4, true);
+    return b;
+  }
+
+  static private void putFixedPoint(Bytes b, int size, boolean signed) {
+    b.put(0x10); // version 1, fixed point
+    b.put(signed ? 0x08 : 0); // little endian
+    b.put(0);
+    b.put(0);
+    b.putInt(size);
+    b.putShort(0); // bit offset
+    b.putShort(8 * size); // precision
+  }
+
+  static private void putFixedString(Bytes b, int size, boolean utf8) {
+    b.put(0x13); // version 1, string
+    b.put(utf8 ? 0x10 : 0); // null terminated
+    b.put(0);
+    b.put(0);
+    b.putInt(size);
+  }
+
+  static private void putObjectReference(Bytes b) {
+    b.put(0x17); // version 1, reference
+    b.put(0);    // object reference
+    b.put(0);
+    b.put(0);
+    b.putInt(8);
+  }
+
+  // version 1 compound member: name padded to 8, offset, no array dimensions
+  static private void putCompoundMember(Bytes b, String name, int offset) {
+    byte[] nameb = name.getBytes(CDM.utf8Charset);
+    b.put(nameb);
+    b.putZeros(8 - nameb.length % 8);
+    b.putInt(offset);
+    b.put(0);           // dimensionality
+    b.putZeros(3 + 4 + 4 + 16); // reserved, permutation, reserved, dimension sizes
+  }
+
+  /**
+   * Fill value message, version 3.
+   *
+   * @param allocTime when space is allocated: ALLOC_EARLY, ALLOC_LATE or ALLOC_INCR
+   * @param fill   write the fill value when space is allocated
+   * @param value  the fill value, or null for the default (zeros)
+   * @return the message
+   */
+  static Message fillValue(int allocTime, boolean fill, byte[] value) {
+    Bytes b = new Bytes(8 + (value == null ? 0 : value.length));
+    b.put(3); // version
+    int flags = allocTime | (fill ? 2 : 1) << 2;
+    if (value != null) flags |= 0x20;
+    b.put(flags);
+    if (value != null) {
+      b.putInt(value.length);
+      b.put(value);
+    }
+    return new Message(FILL_VALUE, 1, b);
+  }
+
+  static Message layoutContiguous(long address, long size) {
+    Bytes b = new Bytes(18);
+    b.put(3); // version
+    b.put(1); // contiguous
+    b.putLong(address);
+    b.putLong(size);
+    return new Message(LAYOUT, 0, b);
+  }
+
+  static Message layoutChunked(long btreeAddress, int[] chunk, int elemSize) {
+    Bytes b = new Bytes(11 + 4 * (chunk.length + 1));
+    b.put(3); // version
+    b.put(2); // chunked
+    b.put(chunk.length + 1);
+    b.putLong(btreeAddress);
+    for (int len : chunk)
+      b.putInt(len);
+    b.putInt(elemSize);
+    return new Message(LAYOUT, 0, b);
+  }
+
+  /**
+   * Filter pipeline message, version 2. The filters are optional, as the HDF5 library makes them.
+   *
+   * @param shuffle  shuffle the bytes of each element
+   * @param elemSize element size for the shuffle
+   * @param deflate  deflate level, or 0 for none
+   * @return the message, or null if there are no filters
+   */
+  static Message filterPipeline(boolean shuffle, int elemSize, int deflate) {
+    int nfilters = (shuffle ? 1 : 0) + (deflate > 0 ? 1 : 0);
+    if (nfilters == 0) return null;
+    Bytes b = new Bytes(2 + 10 * nfilters);
+    b.put(2); // version
+    b.put(nfilters);
+    if (shuffle) {
+      b.putShort(2); // shuffle
+      b.putShort(1); // optional
+      b.putShort(1);
+      b.putInt(elemSize);
+    }
+    if (deflate > 0) {
+      b.putShort(1); // deflate
+      b.putShort(1);
+      b.putShort(1);
+      b.putInt(deflate);
+    }
+    return new Message(FILTER_PIPELINE, 1, b);
+  }
+
+  /**
+   * Attribute message, version 3.
+   *
+   * @param name      attribute name
+   * @param datatype  its datatype
+   * @param dataspace its dataspace message
+   * @param data      the values
+   * @return the message
+   */
+  static Message attribute(String name, Bytes datatype, Message dataspace, Bytes data) {
+    byte[] nameb = name.getBytes(CDM.utf8Charset);
+    Bytes b = new Bytes(8 + nameb.length + datatype.pos + dataspace.data.length + data.pos);
+    b.put(3); // version
+    b.put(0); // flags
+    b.putShort(nameb.length + 1);
+    b.putShort(datatype.pos);
+    b.putShort(dataspace.data.length);
+    b.put(isAscii(nameb) ? 0 : 1);
+    b.put(nameb);
+    b.put(0);
+    b.put(datatype.buf, 0, datatype.pos);
+    b.put(dataspace.data);
+    b.put(data.buf, 0, data.pos);
+    return new Message(ATTRIBUTE, 0, b);
+  }
+
+  /** @return attribute info message, for attributes stored in the object header */
+  static Message attributeInfo(int nattrs) {
+    Bytes b = new Bytes(20);
+    b.put(0); // version
+    b.put(1); // creation order tracked
+    b.putShort(nattrs); // maximum creation index
+    b.putLong(UNDEF);   // fractal heap
+    b.putLong(UNDEF);   // name index
+    return new Message(ATTRIBUTE_INFO, 0, b);
+  }
+
+  /** @return link info message, for links stored in the object header */
+  static Message linkInfo(int nlinks) {
+    Bytes b = new Bytes(26);
+    b.put(0); // version
+    b.put(1); // creation order tracked
+    b.putLong(nlinks); // maximum creation index
+    b.putLong(UNDEF);  // fractal heap
+    b.putLong(UNDEF);  // name index
+    return new Message(LINK_INFO, 0, b);
+  }
+
+  /** @return group info message, with default values */
+  static Message groupInfo() {
+    Bytes b = new Bytes(2);
+    b.put(0); // version
+    b.put(0); // flags
+    return new Message(GROUP_INFO, 0, b);
+  }
+
+  /**
+   * Hard link message.
+   *
+   * @param name    link name
+   * @param order   creation order
+   * @param address address of the object header
+   * @return the message
+   */
+  static Message link(String name, int order, long address) {
+    byte[] nameb = name.getBytes(CDM.utf8Charset);
+    boolean ascii = isAscii(nameb);
+    int lenSize = (nameb.length < 0x100) ? 0 : (nameb.length < 0x10000) ? 1 : 2;
+    Bytes b = new Bytes(24 + nameb.length);
+    b.put(1); // version
+    b.put(lenSize | 4 | (ascii ? 0 : 0x10)); // creation order present, charset if utf-8
+    b.putLong(order);
+    if (!ascii) b.put(1);
+    b.putSize(nameb.length, 1 << lenSize);
+    b.put(nameb);
+    b.putLong(address);
+    return new Message(LINK, 0, b);
+  }
+
+  static boolean isAscii(byte[] b) {
+    for (byte c : b)
+      if (c < 0) return false;
+    return true;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////
+  // chunk B-tree
+
+  /**
+   * A stored chunk of a variable.
+   */
+  static class ChunkEntry {
+    final long[] offset; // index of the first element in each dimension
+    final long address;
+    final int size;      // bytes stored
+
+    ChunkEntry(long[] offset, long address, int size) {
+      this.offset = offset;
+      this.address = address;
+      this.size = size;
+    }
+  }
+
+  /**
+   * Write the version 1 B-tree that indexes the chunks of a variable.
+   * Nodes are allocated at their full size, 2K entries, and filled up before starting another.
+   *
+   * @param entries  the chunks, in order of their offsets
+   * @param chunk    chunk shape
+   * @param elemSize element size in bytes
+   * @return address of the root node, or UNDEF if there are no chunks
+   */
+  long writeChunkBTree(List<ChunkEntry> entries, int[] chunk, int elemSize) throws IOException {
+    if (entries.isEmpty()) return UNDEF;
+
+    int keySize = 8 + 8 * (chunk.length + 1);
+    int nodeSize = 24 + 2 * BTREE_K * SIZE_OFFSETS + (2 * BTREE_K + 1) * keySize;
+
+    // each level is a list of (first key, child address, size), starting with the chunks
+    List<long[]> firstKeys = new ArrayList<>();
+    List<Long> children = new ArrayList<>();
+    List<Integer> sizes = new ArrayList<>();
+    for (ChunkEntry e : entries) {
+      firstKeys.add(e.offset);
+      children.add(e.address);
+      sizes.add(e.size);
+    }
+    ChunkEntry lastEntry = entries.get(entries.size() - 1);
+    long[] lastKey = new long[chunk.length];
+    for (int i = 0; i < chunk.length; i++)
+      lastKey[i] = lastEntry.offset[i] + chunk[i];
+
+    int level = 0;
+    while (true) {
+      int nnodes = (children.size() + 2 * BTREE_K - 1) / (2 * BTREE_K);
+      long[] addresses = new long[nnodes];
+      for (int n = 0; n < nnodes; n++)
+        addresses[n] = allocate(nodeSize);
+
+      List<long[]> nextKeys = new ArrayList<>();
+      List<Long> nextChildren = new ArrayList<>();
+      List<Integer> nextSizes = new ArrayList<>();
+      for (int n = 0; n < nnodes; n++) {
+        int start = n * 2 * BTREE_K;
+        int end = Math.min(children.size(), start + 2 * BTREE_K);
+        Bytes b = new Bytes(nodeSize);
+        b.putAscii("TREE");
+        b.put(1); // raw data chunks
+        b.put(level);
+        b.putShort(end - start);
+        b.putLong(n > 0 ? addresses[n - 1] : UNDEF);
+        b.putLong(n < nnodes - 1 ? addresses[n + 1] : UNDEF);
+        for (int i = start; i < end; i++) {
+          putChunkKey(b, sizes.get(i), firstKeys.get(i), 0);
+          b.putLong(children.get(i));
+        }
+        if (end < children.size())
+          putChunkKey(b, 0, firstKeys.get(end), 0);
+        else
+          putChunkKey(b, 0, lastKey, elemSize);
+        b.putZeros(nodeSize - b.pos);
+        write(addresses[n], b);
+
+        nextKeys.add(firstKeys.get(start));
+        nextChildren.add(addresses[n]);
+        nextSizes.add(0);
+      }
+
+      if (nnodes == 1) return addresses[0];
+      firstKeys = nextKeys;
+      children = nextChildren;
+      sizes = nextSizes;
+      level++;
+    }
+  }
+
+  static private void putChunkKey(Bytes b, int size, long[] offset, long elemOffset) {
+    b.putInt(size);
+    b.putInt(0); // filter mask
+    for (long off : offset)
+      b.putLong(off);
+    b.putLong(elemOffset);
+  }
+
+  //////////////////////////////////////////////////////////////////////////////
+  // global heap
+
+  /**
+   * Add an object to the global heap.
+   *
+   * @param data   contents of the object
+   * @param nelems number of elements in the object, eg the string length in bytes
+   * @return heap id of the object, as stored in variable length data
+   */
+  byte[] addHeapObject(byte[] data, int nelems) throws IOException {
+    int need = 16 + pad8(data.length);
+    if (heap == null || !heap.fits(need)) {
+      if (heap != null) heap.write();
+      heap = new GlobalHeap(Math.max(HEAP_SIZE, 16 + need + 16));
+    }
+    int index = heap.add(data);
+
+    Bytes id = new Bytes(HEAP_ID_SIZE);
+    id.putInt(nelems);
+    id.putLong(heap.address);
+    id.putInt(index);
+    return id.buf;
+  }
+
+  /**
+   * Read an object back from the global heap.
+   *
+   * @param id heap id, as returned from addHeapObject
+   * @return contents of the object
+   */
+  byte[] getHeapObject(byte[] id) throws IOException {
+    long address = Bytes.getLong(id, 4);
+    int index = Bytes.getInt(id, 12);
+    byte[] collection;
+    if (heap != null && heap.address == address) {
+      collection = heap.b.buf;
+    } else {
+      byte[] header = new byte[16];
+      raf.seek(address);
+      raf.readFully(header);
+      collection = new byte[(int) Bytes.getLong(header, 8)];
+      raf.seek(address);
+      raf.readFully(collection);
+    }
+
+    int pos = 16;
+    while (pos + 16 <= collection.length) {
+      int objIndex = Bytes.getShort(collection, pos);
+      int size = (int) Bytes.getLong(collection, pos + 8);
+      if (objIndex == 0) break;
+      if (objIndex == index)
+        return Arrays.copyOfRange(collection, pos + 16, pos + 16 + size);
+      pos += 16 + pad8(size);
+    }
+    throw new IOException("Cant find global heap object " + index + " at " + address);
+  }
+
+  /** Write the current global heap collection */
+  void flushHeap() throws IOException {
+    if (heap != null) heap.write();
+    heap = null;
+  }
+
+  static int pad8(int n) {
+    return (n + 7) & ~7;
+  }
+
+  private class GlobalHeap {
+    final long address;
+    final Bytes b;
+    int nobjects;
+
+    GlobalHeap(int size) {
+      address = allocate(size);
+      b = new Bytes(size);
+      b.putAscii("GCOL");
+      b.put(1); // version
+      b.putZeros(3);
+      b.putLong(size);
+    }
+
+    // room for the object, leaving either no free space or room for the free space object
+    boolean fits(int need) {
+      int left = b.buf.length - b.pos - need;
+      return nobjects < HEAP_MAX_OBJECTS && (left == 0 || left >= 16);
+    }
+
+    int add(byte[] data) {
+      int index = ++nobjects;
+      b.putShort(index);
+      b.putShort(0); // reference count
+      b.putInt(0);
+      b.putLong(data.length);
+      b.put(data);
+      b.putZeros(pad8(data.length) - data.length);
+      return index;
+    }
+
+    void write() throws IOException {
+      int free = b.buf.length - b.pos;
+      if (free >= 16) {
+        b.putShort(0); // free space object, size includes its header
+        b.putShort(0);
+        b.putInt(0);
+        b.putLong(free);
+      }
+      raf.seek(address);
+      raf.write(b.buf, 0, b.buf.length);
+    }
+  }
+
+  //////////////////////////////////////////////////////////////////////////////
+
+  /**
+   * A little endian byte buffer, which grows as needed.
+   */
+  static class Bytes {
+    byte[] buf;
+    int pos;
+
+    Bytes(int size) {
+      buf = new byte[size];
+    }
+
+    private void ensure(int n) {
+      if (pos + n > buf.length)
+        buf = Arrays.copyOf(buf, Math.max(2 * buf.length, pos + n));
+    }
+
+    void put(int v) {
+      ensure(1);
+      buf[pos++] = (byte) v;
+    }
+
+    void put(byte[] b) {
+      put(b, 0, b.length);
+    }
+
+    void put(byte[] b, int off, int len) {
+      ensure(len);
+      System.arraycopy(b, off, buf, pos, len);
+      pos += len;
+    }
+
+    void putZeros(int n) {
+      ensure(n);
+      pos += n;
+    }
+
+    void putAscii(String s) {
+      put(s.getBytes(CDM.utf8Charset));
+    }
+
+    void putShort(int v) {
+      put(v);
+      put(v >> 8);
+    }
+
+    void putInt(int v) {
+      putShort(v);
+      putShort(v >> 16);
+    }
+
+    void putLong(long v) {
+      putInt((int) v);
+      putInt((int) (v >> 32));
+    }
+
+    void putSize(long v, int nbytes) {
+      for (int i = 0; i < nbytes; i++)
+        put((int) (v >> (8 * i)));
+    }
+
+    // checksum of everything so far
+    void putChecksum() {
+      putInt(checksum(buf, 0, pos));
+    }
+
+    static int getShort(byte[] b, int pos) {
+      return (b[pos] & 0xff) | (b[pos + 1] & 0xff) << 8;
+    }
+
+    static int getInt(byte[] b, int pos) {
+      return getShort(b, pos) | getShort(b, pos + 2) << 16;
+    }
+
+    static long getLong(byte[] b, int pos) {
+      return (getInt(b, pos) & 0xffffffffL) | ((long) getInt(b, pos + 4)) << 32;
+    }
+  }
+
+  /**
+   * The checksum of HDF5 metadata: Bob Jenkins' lookup3 hashlittle(), with an initial value of 0.
+   * See http://burtleburtle.net/bob/c/lookup3.c
+   *
+   * @param k   data
+   * @param off starting here
+   * @param len number of bytes
+   * @return the checksum
+   */
+  @SuppressWarnings("fallthrough")
+  static int checksum(byte[] k, int off, int len) {
+    int a, b, c;
+    a = b = c = 0xdeadbeef + len;
+
+    while (len > 12) {
+      a += (k[off] & 0xff) + ((k[off + 1] & 0xff) << 8) + ((k[off + 2] & 0xff) << 16) + ((k[off + 3] & 0xff) << 24);
+      b += (k[off + 4] & 0xff) + ((k[off + 5] & 0xff) << 8) + ((k[off + 6] & 0xff) << 16) + ((k[off + 7] & 0xff) << 24);
+      c += (k[off + 8] & 0xff) + ((k[off + 9] & 0xff) << 8) + ((k[off + 10] & 0xff) << 16) + ((k[off + 11] & 0xff) << 24);
+
+      // mix
+      a -= c; a ^= Integer.rotateLeft(c, 4);  c += b;
+      b -= a; b ^= Integer.rotateLeft(a, 6);  a += c;
+      c -= b; c ^= Integer.rotateLeft(b, 8);  b += a;
+      a -= c; a ^= Integer.rotateLeft(c, 16); c += b;
+      b -= a; b ^= Integer.rotateLeft(a, 19); a += c;
+      c -= b; c ^= Integer.rotateLeft(b, 4);  b += a;
+
+      len -= 12;
+      off += 12;
+    }
+
+    switch (len) { // all the case statements fall through
+      case 12: c += (k[off + 11] & 0xff) << 24;
+      case 11: c += (k[off + 10] & 0xff) << 16;
+      case 10: c += (k[off + 9] & 0xff) << 8;
+      case 9: c += k[off + 8] & 0xff;
+      case 8: b += (k[off + 7] & 0xff) << 24;
+      case 7: b += (k[off + 6] & 0xff) << 16;
+      case 6: b += (k[off + 5] & 0xff) << 8;
+      case 5: b += k[off + 4] & 0xff;
+      case 4: a += (k[off + 3] & 0xff) << 24;
+      case 3: a += (k[off + 2] & 0xff) << 16;
+      case 2: a += (k[off + 1] & 0xff) << 8;
+      case 1: a += k[off] & 0xff;
+        break;
+      case 0:
+        return c;
+    }
+
+    // final
+    c ^= b; c -= Integer.rotateLeft(b, 14);
+    a ^= c; a -= Integer.rotateLeft(c, 11);
+    b ^= a; b -= Integer.rotateLeft(a, 25);
+    c ^= b; c -= Integer.rotateLeft(b, 16);
+    a ^= c; a -= Integer.rotateLeft(c, 4);
+    b ^= a; b -= Integer.rotateLeft(a, 14);
+    c ^= b; c -= Integer.rotateLeft(b, 24);
+    return c;
+  }
+
+}
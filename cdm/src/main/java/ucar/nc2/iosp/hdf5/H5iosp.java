@@ -42,12 +42,15 @@ import ucar.unidata.io.RandomAccessFile;
 import ucar.nc2.iosp.*;
 import ucar.nc2.iosp.hdf4.HdfEos;
 import ucar.nc2.iosp.hdf4.H4header;
+import ucar.nc2.util.cache.FileDataCache;
 import ucar.nc2.*;
 
 import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Formatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * HDF5 I/O
@@ -115,6 +118,57 @@ public class H5iosp extends AbstractIOServiceProvider {
     useHdfEos = val;
   }
 
+  //////////////////////////////////////////////////////////////////////////////////
+  // optional memory cache of uncompressed chunks, shared by all files
+
+  static private FileDataCache<byte[]> chunkCache = null;
+
+  /**
+   * Enable a memory cache of uncompressed data chunks, shared across all HDF5 / netCDF-4 files.
+   * @param maxBytes maximum number of uncompressed bytes to keep; if <= 0, the cache is disabled.
+   */
+  static public synchronized void initChunkCache(long maxBytes) {
+    chunkCache = (maxBytes > 0) ? new FileDataCache<>("H5iosp chunk cache", maxBytes, (byte[] b) -> b.length) : null;
+  }
+
+  static public synchronized void disableChunkCache() {
+    if (chunkCache != null) chunkCache.clearCache();
+    chunkCache = null;
+  }
+
+  /** @return the chunk cache, or null if not enabled */
+  static public synchronized FileDataCache<byte[]> getChunkCache() {
+    return chunkCache;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////
+  // optional thread pool to uncompress chunks in parallel, shared by all files
+
+  static private ForkJoinPool chunkDecodePool = null;
+
+  /**
+   * Uncompress the chunks of filtered variables in a pool of nthreads, shared across all HDF5 / netCDF-4 files.
+   * The compressed chunks are still read on the calling thread, and the results are copied in order.
+   * @param nthreads size of the pool; if <= 1, chunks are uncompressed serially on the calling thread.
+   */
+  static public synchronized void initChunkDecodePool(int nthreads) {
+    // publish the new pool before shutting down the old one, readers that still have the old one decode on their own thread
+    ExecutorService old = chunkDecodePool;
+    chunkDecodePool = (nthreads > 1) ? new ForkJoinPool(nthreads) : null;
+    if (old != null) old.shutdown();
+  }
+
+  /** @return the chunk decode pool, or null if not enabled */
+  static public synchronized ExecutorService getChunkDecodePool() {
+    return chunkDecodePool;
+  }
+
+  /** Release the chunk cache and the chunk decode pool */
+  static public void shutdown() {
+    disableChunkCache();
+    initChunkDecodePool(0);
+  }
+
   //////////////////////////////////////////////////////////////////////////////////
 
   //private RandomAccessFile raf;
@@ -163,7 +217,7 @@ public class H5iosp extends AbstractIOServiceProvider {
       if (debugFilter) System.out.println("read variable filtered " + v2.getFullName() + " vinfo = " + vinfo);
       assert vinfo.isChunked;
       ByteOrder bo = (vinfo.typeInfo.endian == 0) ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
-      layout = new H5tiledLayoutBB(v2, wantSection, raf, vinfo.mfp.getFilters(), bo);
+      layout = new H5tiledLayoutBB(v2, wantSection, raf, vinfo.mfp.getFilters(), bo, getChunkCache(), getChunkDecodePool());
       if (vinfo.typeInfo.isVString) {
         data = readFilteredStringData((LayoutBB) layout);
       } else{
@@ -334,8 +388,7 @@ public class H5iosp extends AbstractIOServiceProvider {
         if (debugStructure)
           System.out.println(" readStructure " + v.getFullName() + " chunk= " + chunk + " index.getElemSize= " + layout.getElemSize());
         // copy bytes directly into the underlying byte[] LOOK : assumes contiguous layout ??
-        raf.seek(chunk.getSrcPos());
-        raf.readFully(byteArray, (int) chunk.getDestElem() * recsize, chunk.getNelems() * recsize);
+        raf.readFully(chunk.getSrcPos(), byteArray, (int) chunk.getDestElem() * recsize, chunk.getNelems() * recsize);
       }
 
       // place data into an ArrayStructureBB
@@ -550,15 +603,18 @@ public class H5iosp extends AbstractIOServiceProvider {
         int recsize = layout.getElemSize();
         for (int i = 0; i < chunk.getNelems(); i++) {
           byte[] pa = new byte[recsize];
-          raf.seek(chunk.getSrcPos() + i * recsize);
-          raf.readFully(pa, 0, recsize);
+          raf.readFully(chunk.getSrcPos() + i * recsize, pa, 0, recsize);
           opArray.setObject(count++, ByteBuffer.wrap(pa));
         }
       }
       return opArray;
     }
 
-    // normal case
+    // normal case: positional reads, which need the byte order unless reading bytes
+    if (endian >= 0 || dataType.getSize() == 1) {
+      ByteOrder bo = (endian == RandomAccessFile.LITTLE_ENDIAN) ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+      return IospHelper.readDataFillPositional(raf, layout, dataType, fillValue, bo, convertChar);
+    }
     return IospHelper.readDataFill(raf, layout, dataType, fillValue, endian, convertChar);
   }
 
@@ -0,0 +1,1196 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.iosp.hdf5;
+
+import ucar.ma2.*;
+import ucar.nc2.*;
+import ucar.nc2.constants.CDM;
+import ucar.nc2.constants.DataFormatType;
+import ucar.nc2.iosp.AbstractIOServiceProvider;
+import ucar.nc2.iosp.IOServiceProviderWriter;
+import ucar.nc2.iosp.IospHelper;
+import ucar.nc2.iosp.netcdf3.N3iosp;
+import ucar.nc2.iosp.netcdf4.Nc4;
+import ucar.nc2.util.CancelTask;
+import ucar.nc2.write.Nc4Chunking;
+import ucar.nc2.write.Nc4ChunkingDefault;
+import ucar.unidata.io.RandomAccessFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static ucar.nc2.iosp.hdf5.H5headerWriter.*;
+
+/**
+ * Writes new netCDF-4 files in pure Java, without the netCDF-C library.
+ * Experimental: NetcdfFileWriter uses it only after NetcdfFileWriter.setUseJavaNetcdf4Writer(true).
+ * Covers the part of the netCDF-4 data model that CF needs: groups, shared and unlimited dimensions, attributes,
+ * and variables of the atomic types and String, contiguous or chunked, with the shuffle and deflate filters.
+ * Chunking, shuffle and deflate come from the Nc4Chunking strategy.
+ * Structures, enums, opaque and variable length types are not written; those, and modifying an existing file,
+ * need the netCDF-C library (Nc4Iosp), see canWrite().
+ * <p/>
+ * Data is written as it comes. A chunk is kept in memory until all of its elements have been written,
+ * then compressed, on the calling thread or, if initChunkEncodePool() was called, on a shared thread pool.
+ * The metadata (object headers, chunk indexes and the superblock) is written when the file is closed,
+ * so the file can't be read by other programs before then.
+ *
+ * @since 10/18/2026
+ */
+public class H5iospWriter extends AbstractIOServiceProvider implements IOServiceProviderWriter {
+  static private org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(H5iospWriter.class);
+  static private final int MAX_PENDING = 32; // chunks being compressed, per file
+
+  static private final String DIM_WITHOUT_VARIABLE = "This is a netCDF dimension but not a netCDF variable.";
+
+  // these are made from the data model, not copied from the attributes
+  static private final Set<String> skipAttributes = new HashSet<>(Arrays.asList(
+          H5header.HDF5_CLASS, H5header.HDF5_DIMENSION_LIST, H5header.HDF5_DIMENSION_SCALE,
+          H5header.HDF5_DIMENSION_LABELS, H5header.HDF5_REFERENCE_LIST, CDM.CHUNK_SIZES, CDM.COMPRESS,
+          Nc4.NETCDF4_DIMID, Nc4.NETCDF4_COORDINATES, Nc4.NETCDF4_STRICT, Nc4.NETCDF4_NC_PROPERTIES));
+
+  // optional thread pool to compress chunks in parallel, shared by all files
+  static private ForkJoinPool chunkEncodePool = null;
+
+  /**
+   * Compress the chunks of the files being written in parallel, using a thread pool shared by all files.
+   * Each file keeps a limited number of chunks waiting, so memory use stays bounded.
+   *
+   * @param nthreads size of the pool; if <= 1, chunks are compressed serially on the writing thread.
+   */
+  static public synchronized void initChunkEncodePool(int nthreads) {
+    // publish the new pool before shutting down the old one, writers that still have the old one compress on their own thread
+    ForkJoinPool old = chunkEncodePool;
+    chunkEncodePool = (nthreads > 1) ? new ForkJoinPool(nthreads) : null;
+    if (old != null) old.shutdown();
+  }
+
+  /** @return the chunk encode pool, or null if not enabled */
+  static public synchronized ExecutorService getChunkEncodePool() {
+    return chunkEncodePool;
+  }
+
+  //////////////////////////////////////////////////////////////////////////////
+
+  private final NetcdfFileWriter.Version version;
+  private Nc4Chunking chunker = new Nc4ChunkingDefault();
+  private boolean fill = true;
+
+  private H5headerWriter header;
+  private final Deque<Pending> pending = new ArrayDeque<>();
+  private byte[] emptyStringId; // heap id of "", what unwritten String elements read as
+  private boolean dryRun;       // sizing the object headers, dont add heap objects
+
+  public H5iospWriter(NetcdfFileWriter.Version version) {
+    this.version = version;
+  }
+
+  public void setChunker(Nc4Chunking chunker) {
+    if (chunker != null)
+      this.chunker = chunker;
+  }
+
+  @Override
+  public boolean isValidFile(RandomAccessFile raf) throws IOException {
+    return false; // only writes
+  }
+
+  @Override
+  public void open(RandomAccessFile raf, NetcdfFile ncfile, CancelTask cancelTask) throws IOException {
+    throw new UnsupportedOperationException("H5iospWriter only writes new files");
+  }
+
+  @Override
+  public void openForWriting(RandomAccessFile raf, NetcdfFile ncfile, CancelTask cancelTask) throws IOException {
+    throw new UnsupportedOperationException("Modifying an existing netCDF-4 file needs the netCDF-C library");
+  }
+
+  @Override
+  public String getFileTypeId() {
+    return DataFormatType.NETCDF4.getDescription();
+  }
+
+  @Override
+  public String getFileTypeDescription() {
+    return "netCDF-4 / HDF5 written in Java";
+  }
+
+  @Override
+  public void setFill(boolean fill) {
+    this.fill = fill;
+  }
+
+  @Override
+  public void create(String filename, NetcdfFile ncfile, int extra, long preallocateSize, boolean largeFile) throws IOException {
+    this.ncfile = ncfile;
+    this.location = filename;
+    ncfile.finish();
+    checkDataModel(ncfile.getRootGroup(), ncfile, version);
+
+    raf = new RandomAccessFile(filename, "rw");
+    raf.getRandomAccessFile().setLength(0);
+    raf.order(RandomAccessFile.LITTLE_ENDIAN);
+    header = new H5headerWriter(raf);
+
+    for (Variable v : ncfile.getVariables())
+      v.setSPobject(new Vinfo(v));
+  }
+
+  /**
+   * Can this writer write the file? Structures and user defined types need the netCDF-C library.
+   *
+   * @param ncfile  the file, in define mode
+   * @param version netcdf4 or netcdf4_classic
+   * @return true if it can
+   */
+  static public boolean canWrite(NetcdfFile ncfile, NetcdfFileWriter.Version version) {
+    try {
+      checkDataModel(ncfile.getRootGroup(), ncfile, version);
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  static private void checkDataModel(Group g, NetcdfFile ncfile, NetcdfFileWriter.Version version) {
+    if (g != ncfile.getRootGroup() && !version.isExtendedModel())
+      throw new IllegalArgumentException("Classic model can't have groups: " + g.getFullName());
+
+    for (Variable v : g.getVariables()) {
+      DataType dt = v.getDataType();
+      boolean ok;
+      switch (dt) {
+        case BYTE:
+        case CHAR:
+        case SHORT:
+        case INT:
+        case FLOAT:
+        case DOUBLE:
+          ok = true;
+          break;
+        case UBYTE:
+        case USHORT:
+        case UINT:
+        case LONG:
+        case ULONG:
+        case STRING:
+          ok = version.isExtendedModel();
+          break;
+        default:
+          ok = false;
+      }
+      if (!ok || v instanceof Structure || v.isVariableLength())
+        throw new IllegalArgumentException("Can't write " + dt + " variable " + v.getFullName() + " to a " + version + " file");
+    }
+
+    for (Group nested : g.getGroups())
+      checkDataModel(nested, ncfile, version);
+  }
+
+  @Override
+  public boolean rewriteHeader(boolean largeFile) throws IOException {
+    checkDataModel(ncfile.getRootGroup(), ncfile, version);
+    for (Variable v : ncfile.getVariables()) { // added in redefine mode
+      if (!(v.getSPobject() instanceof Vinfo))
+        v.setSPobject(new Vinfo(v));
+    }
+    return true;
+  }
+
+  @Override
+  public void updateAttribute(Variable v2, Attribute att) throws IOException {
+    // attributes are written from the data model when the file is closed
+    if (v2 == null)
+      ncfile.getRootGroup().addAttribute(att);
+    else
+      v2.addAttribute(att);
+  }
+
+  @Override
+  public int appendStructureData(Structure s, StructureData sdata) throws IOException, InvalidRangeException {
+    throw new UnsupportedOperationException("Structures are not supported by H5iospWriter");
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (raf == null) return;
+    finishPending();
+    raf.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (raf == null) return;
+    try {
+      storeAllChunks();
+      writeMetadata();
+      raf.setMinLength(header.getEof());
+    } finally {
+      pending.clear();
+      raf.close();
+      raf = null;
+    }
+  }
+
+  //////////////////////////////////////////////////////////////////////////////
+  // data
+
+  // how a variable is stored
+  private class Vinfo {
+    final DataType dataType;
+    final int elemSize;
+    final byte[] fillElem;   // one element, little endian: what unwritten elements read as
+    final boolean isChunked;
+    int[] chunk;             // chunk shape
+    int deflate;
+    boolean shuffle;
+
+    long address = UNDEF;    // contiguous data
+    long size;
+    final Map<ChunkKey, Chunk> chunks = new HashMap<>();
+    long btreeAddress = UNDEF;
+
+    Vinfo(Variable v) throws IOException {
+      dataType = v.getDataType();
+      elemSize = (dataType == DataType.STRING) ? HEAP_ID_SIZE : dataType.getSize();
+      fillElem = makeFillValue(v);
+      isChunked = version.isNetdf4format() && v.getRank() > 0 && (v.isUnlimited() || chunker.isChunked(v));
+
+      if (isChunked) {
+        chunk = makeChunkShape(v, chunker.computeChunking(v));
+        deflate = chunker.getDeflateLevel(v);
+        shuffle = chunker.isShuffle(v) && elemSize > 1;
+        long chunkBytes = elemSize;
+        for (int len : chunk) chunkBytes *= len;
+        if (chunkBytes > Integer.MAX_VALUE - 8)
+          throw new IllegalArgumentException("Chunks of " + v.getFullName() + " are too large: " + Arrays.toString(chunk));
+
+      } else {
+        size = v.getSize() * elemSize;
+        if (size > 0) {
+          address = header.allocate(size);
+          if (fill || dataType == DataType.STRING)
+            fillContiguous(this);
+          else {
+            raf.seek(address + size - 1); // so the data can be read back before it is written
+            raf.write(0);
+          }
+        }
+      }
+    }
+
+    boolean isFiltered() {
+      return shuffle || deflate > 0;
+    }
+
+    int chunkElems() {
+      int n = 1;
+      for (int len : chunk) n *= len;
+      return n;
+    }
+  }
+
+  // the _FillValue if valid, else the default fill value
+  private byte[] makeFillValue(Variable v) throws IOException {
+    if (v.getDataType() == DataType.STRING)
+      return getEmptyStringId();
+
+    Number fillValue = N3iosp.getFillValueDefault(v.getDataType());
+    Attribute att = v.findAttribute(CDM.FILL_VALUE);
+    if (att != null && isValidFillValue(v, att))
+      fillValue = att.getNumericValue();
+
+    ByteBuffer bb = ByteBuffer.allocate(v.getDataType().getSize()).order(ByteOrder.LITTLE_ENDIAN);
+    switch (v.getDataType()) {
+      case BYTE:
+      case UBYTE:
+      case CHAR:
+        bb.put(fillValue.byteValue());
+        break;
+      case SHORT:
+      case USHORT:
+        bb.putShort(fillValue.shortValue());
+        break;
+      case INT:
+      case UINT:
+        bb.putInt(fillValue.intValue());
+        break;
+      case LONG:
+      case ULONG:
+        bb.putLong(fillValue.longValue());
+        break;
+      case FLOAT:
+        bb.putFloat(fillValue.floatValue());
+        break;
+      case DOUBLE:
+        bb.putDouble(fillValue.doubleValue());
+        break;
+    }
+    return bb.array();
+  }
+
+  // same rules as Nc4Iosp
+  private boolean isValidFillValue(Variable v, Attribute att) {
+    if (att.getLength() != 1) {
+      log.warn("_FillValue length must be one on var = " + v.getFullName());
+      return false;
+    }
+    if (att.getDataType() != v.getDataType()) {
+      log.warn("_FillValue type must agree with var = " + v.getFullName() + " type " + att.getDataType() + "!=" + v.getDataType());
+      return false;
+    }
+    if (att.isUnsigned() != v.getDataType().isUnsigned()) {
+      log.warn("_FillValue isUnsigned must agree with var = " + v.getFullName() + " isUnsigned " + att.isUnsigned() + "!=" + v.getDataType().isUnsigned());
+      return false;
+    }
+    return true;
+  }
+
+  private byte[] getEmptyStringId() throws IOException {
+    if (emptyStringId == null)
+      emptyStringId = header.addHeapObject(new byte[0], 0);
+    return emptyStringId;
+  }
+
+  private int[] makeChunkShape(Variable v, long[] want) {
+    int[] shape = v.getShape();
+    int[] result = new int[shape.length];
+    for (int i = 0; i < shape.length; i++) {
+      long len = (want != null && i < want.length) ? want[i] : shape[i];
+      if (!v.getDimension(i).isUnlimited())
+        len = Math.min(len, shape[i]);
+      result[i] = (int) Math.max(1, Math.min(len, Integer.MAX_VALUE));
+    }
+    return result;
+  }
+
+  private void fillContiguous(Vinfo vinfo) throws IOException {
+    byte[] buff = makeFilled(vinfo, (int) Math.min(vinfo.size / vinfo.elemSize, 64 * 1024));
+    raf.seek(vinfo.address);
+    for (long done = 0; done < vinfo.size; done += buff.length)
+      raf.write(buff, 0, (int) Math.min(buff.length, vinfo.size - done));
+  }
+
+  private byte[] makeFilled(Vinfo vinfo, int nelems) {
+    byte[] result = new byte[nelems * vinfo.elemSize];
+    for (int i = 0; i < nelems; i++)
+      System.arraycopy(vinfo.fillElem, 0, result, i * vinfo.elemSize, vinfo.elemSize);
+    return result;
+  }
+
+  @Override
+  public void writeData(Variable v2, Section section, Array values) throws IOException, InvalidRangeException {
+    Vinfo vinfo = (Vinfo) v2.getSPobject();
+    int[] origin = section.getOrigin();
+    int[] count = section.getShape();
+    for (Range r : section.getRanges()) {
+      if (r.stride() != 1)
+        throw new InvalidRangeException("Strided writes are not supported: " + section);
+    }
+    extendUnlimited(v2, origin, count);
+
+    byte[] data = toBytes(vinfo, values);
+    long[] srcStride = strides(count);
+    if (vinfo.isChunked)
+      writeChunks(vinfo, v2, v2.getShape(), origin, count, data, srcStride);
+    else if (vinfo.address != UNDEF) {
+      int es = vinfo.elemSize;
+      forEachRun(count, 0, srcStride, offset(origin, v2.getShape()), strides(v2.getShape()), (src, dst, n) -> {
+        raf.seek(vinfo.address + dst * es);
+        raf.write(data, (int) src * es, n * es);
+      });
+    }
+  }
+
+  // grow the unlimited dimensions to hold the section, check the others
+  private void extendUnlimited(Variable v, int[] origin, int[] count) throws InvalidRangeException {
+    boolean extended = false;
+    for (int i = 0; i < v.getRank(); i++) {
+      Dimension dim = v.getDimension(i);
+      int last = origin[i] + count[i];
+      if (dim.isUnlimited()) {
+        if (last > dim.getLength()) {
+          dim.setLength(last);
+          extended = true;
+        }
+      } else if (origin[i] < 0 || last > dim.getLength()) {
+        throw new InvalidRangeException("Section " + Arrays.toString(origin) + " " + Arrays.toString(count) +
+                " is outside of " + v.getFullName() + " dimension " + dim.getShortName());
+      }
+    }
+
+    // need to let all unlimited variables know of new shape
+    if (extended) {
+      for (Variable uv : ncfile.getVariables()) {
+        if (uv.isUnlimited()) {
+          uv.resetShape();
+          uv.setCachedData(null, false);
+        }
+      }
+    }
+  }
+
+  // the values as little endian bytes, strings as global heap ids
+  private byte[] toBytes(Vinfo vinfo, Array values) throws IOException {
+    int n = (int) values.getSize();
+    if (vinfo.dataType == DataType.STRING) {
+      byte[] result = new byte[n * HEAP_ID_SIZE];
+      IndexIterator iter = values.getIndexIterator();
+      for (int i = 0; i < n; i++) {
+        Object s = iter.getObjectNext();
+        byte[] b = (s == null) ? new byte[0] : s.toString().getBytes(CDM.utf8Charset);
+        byte[] id = (b.length == 0) ? getEmptyStringId() : header.addHeapObject(b, b.length);
+        System.arraycopy(id, 0, result, i * HEAP_ID_SIZE, HEAP_ID_SIZE);
+      }
+      return result;
+    }
+
+    if (vinfo.dataType == DataType.CHAR)
+      return IospHelper.convertCharToByte((char[]) values.get1DJavaArray(DataType.CHAR));
+
+    // avoid a copy when only the signedness differs
+    DataType want = (values.getDataType().getPrimitiveClassType() == vinfo.dataType.getPrimitiveClassType()) ?
+            values.getDataType() : vinfo.dataType;
+    return toBytes(values.get1DJavaArray(want), n * vinfo.elemSize);
+  }
+
+  static private byte[] toBytes(Object pa, int nbytes) {
+    ByteBuffer bb = ByteBuffer.allocate(nbytes).order(ByteOrder.LITTLE_ENDIAN);
+    if (pa instanceof byte[])
+      bb.put((byte[]) pa);
+    else if (pa instanceof short[])
+      bb.asShortBuffer().put((short[]) pa);
+    else if (pa instanceof int[])
+      bb.asIntBuffer().put((int[]) pa);
+    else if (pa instanceof long[])
+      bb.asLongBuffer().put((long[]) pa);
+    else if (pa instanceof float[])
+      bb.asFloatBuffer().put((float[]) pa);
+    else if (pa instanceof double[])
+      bb.asDoubleBuffer().put((double[]) pa);
+    else
+      throw new IllegalArgumentException("Unsupported array type " + pa.getClass().getName());
+    return bb.array();
+  }
+
+  private void writeChunks(Vinfo vinfo, Variable v, int[] shape, int[] origin, int[] count, byte[] data, long[] srcStride) throws IOException {
+    int es = vinfo.elemSize;
+    long[] chunkStride = strides(vinfo.chunk);
+    forEachChunk(vinfo, origin, count, (chunkOrigin, lo, n) -> {
+      Chunk chunk = getChunkForWriting(vinfo, chunkOrigin);
+      long src = offset(lo, origin, srcStride);
+      long dst = offset(lo, chunkOrigin, chunkStride);
+      forEachRun(n, src, srcStride, dst, chunkStride, (s, d, len) -> {
+        System.arraycopy(data, (int) s * es, chunk.data, (int) d * es, len * es);
+        chunk.written.set((int) d, (int) d + len);
+      });
+      if (chunk.written.cardinality() >= neededElems(vinfo, v, shape, chunkOrigin))
+        storeChunk(vinfo, chunk);
+    });
+  }
+
+  // number of elements of the chunk inside the variable, a chunk is full along the unlimited dimensions
+  private int neededElems(Vinfo vinfo, Variable v, int[] shape, int[] chunkOrigin) {
+    int n = 1;
+    for (int i = 0; i < shape.length; i++) {
+      if (v.getDimension(i).isUnlimited())
+        n *= vinfo.chunk[i];
+      else
+        n *= Math.min(vinfo.chunk[i], shape[i] - chunkOrigin[i]);
+    }
+    return n;
+  }
+
+  private Chunk getChunkForWriting(Vinfo vinfo, int[] chunkOrigin) throws IOException {
+    ChunkKey key = new ChunkKey(chunkOrigin);
+    Chunk chunk = vinfo.chunks.get(key);
+    if (chunk == null) {
+      chunk = new Chunk(chunkOrigin);
+      vinfo.chunks.put(key, chunk);
+    }
+    if (chunk.data == null) {
+      if (chunk.isStored()) { // rewrite it
+        chunk.data = readChunk(vinfo, chunk);
+        chunk.written = new BitSet();
+        chunk.written.set(0, vinfo.chunkElems());
+      } else {
+        chunk.data = makeFilled(vinfo, vinfo.chunkElems());
+        chunk.written = new BitSet();
+      }
+    }
+    return chunk;
+  }
+
+  private void storeChunk(Vinfo vinfo, Chunk chunk) throws IOException {
+    byte[] data = chunk.data;
+    chunk.data = null;
+    chunk.written = null;
+
+    ExecutorService pool = getChunkEncodePool();
+    if (!vinfo.isFiltered()) {
+      writeChunk(chunk, data);
+    } else if (pool == null) {
+      writeChunk(chunk, encodeChunk(data, vinfo.elemSize, vinfo.shuffle, vinfo.deflate));
+    } else {
+      Callable<byte[]> encode = () -> encodeChunk(data, vinfo.elemSize, vinfo.shuffle, vinfo.deflate);
+      Future<byte[]> future;
+      try {
+        future = pool.submit(encode);
+      } catch (RejectedExecutionException e) { // the pool was shut down by initChunkEncodePool()
+        FutureTask<byte[]> task = new FutureTask<>(encode);
+        task.run();
+        future = task;
+      }
+      chunk.pending = true;
+      pending.add(new Pending(chunk, future));
+      if (pending.size() > MAX_PENDING)
+        finishOne();
+    }
+  }
+
+  private void writeChunk(Chunk chunk, byte[] stored) throws IOException {
+    if (chunk.filePos == UNDEF || stored.length > chunk.size)
+      chunk.filePos = header.allocate(stored.length);
+    chunk.size = stored.length;
+    raf.seek(chunk.filePos);
+    raf.write(stored, 0, stored.length);
+  }
+
+  // write the oldest compressed chunk
+  private void finishOne() throws IOException {
+    Pending p = pending.removeFirst();
+    try {
+      p.chunk.pending = false;
+      writeChunk(p.chunk, p.result.get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while compressing HDF5 chunk of " + location);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) throw (IOException) cause;
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      if (cause instanceof Error) throw (Error) cause;
+      throw new IOException(cause);
+    }
+  }
+
+  private void finishPending() throws IOException {
+    while (!pending.isEmpty())
+      finishOne();
+  }
+
+  // store the chunks that are still in memory. String chunks are all stored, since unwritten strings must have heap ids
+  private void storeAllChunks() throws IOException {
+    for (Variable v : ncfile.getVariables()) {
+      Vinfo vinfo = (Vinfo) v.getSPobject();
+      if (vinfo == null || !vinfo.isChunked) continue;
+      if (vinfo.dataType == DataType.STRING)
+        forEachChunk(vinfo, new int[v.getRank()], v.getShape(), (chunkOrigin, lo, n) -> getChunkForWriting(vinfo, chunkOrigin));
+      for (Chunk chunk : vinfo.chunks.values()) {
+        if (chunk.data != null)
+          storeChunk(vinfo, chunk);
+      }
+    }
+    finishPending();
+  }
+
+  static byte[] encodeChunk(byte[] data, int elemSize, boolean shuffle, int deflate) {
+    if (shuffle) {
+      int n = data.length / elemSize;
+      byte[] result = new byte[data.length];
+      for (int i = 0; i < n; i++)
+        for (int j = 0; j < elemSize; j++)
+          result[j * n + i] = data[i * elemSize + j];
+      data = result;
+    }
+    if (deflate > 0) {
+      Deflater deflater = new Deflater(deflate);
+      try {
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 64);
+        byte[] buff = new byte[64 * 1024];
+        while (!deflater.finished()) {
+          int n = deflater.deflate(buff);
+          out.write(buff, 0, n);
+        }
+        data = out.toByteArray();
+      } finally {
+        deflater.end();
+      }
+    }
+    return data;
+  }
+
+  static byte[] decodeChunk(byte[] stored, int nbytes, int elemSize, boolean shuffle, int deflate) throws IOException {
+    byte[] data = stored;
+    if (deflate > 0) {
+      Inflater inflater = new Inflater();
+      try {
+        inflater.setInput(stored);
+        data = new byte[nbytes];
+        int n = 0;
+        while (n < nbytes && !inflater.finished()) {
+          int got = inflater.inflate(data, n, nbytes - n);
+          if (got == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+            break;
+          n += got;
+        }
+      } catch (DataFormatException e) {
+        throw new IOException(e);
+      } finally {
+        inflater.end();
+      }
+    }
+    if (shuffle) {
+      int n = nbytes / elemSize;
+      byte[] result = new byte[nbytes];
+      for (int i = 0; i < n; i++)
+        for (int j = 0; j < elemSize; j++)
+          result[i * elemSize + j] = data[j * n + i];
+      data = result;
+    }
+    return data;
+  }
+
+  // the uncompressed contents of a stored chunk
+  private byte[] readChunk(Vinfo vinfo, Chunk chunk) throws IOException {
+    if (chunk.pending) finishPending();
+    byte[] stored = new byte[chunk.size];
+    raf.seek(chunk.filePos);
+    raf.readFully(stored);
+    return vinfo.isFiltered() ? decodeChunk(stored, vinfo.chunkElems() * vinfo.elemSize, vinfo.elemSize, vinfo.shuffle, vinfo.deflate) : stored;
+  }
+
+  @Override
+  public Array readData(Variable v2, Section section) throws IOException, InvalidRangeException {
+    Vinfo vinfo = (Vinfo) v2.getSPobject();
+    section = Section.fill(section, v2.getShape());
+
+    // read the enclosing section, then subset
+    boolean strided = false;
+    List<Range> bounds = new ArrayList<>();
+    List<Range> subset = new ArrayList<>();
+    for (Range r : section.getRanges()) {
+      strided |= (r.stride() != 1);
+      bounds.add(new Range(r.first(), r.last()));
+      subset.add(new Range(0, r.last() - r.first(), r.stride()));
+    }
+    if (strided)
+      return readData(v2, new Section(bounds)).sectionNoReduce(subset).copy();
+
+    int[] origin = section.getOrigin();
+    int[] count = section.getShape();
+    int es = vinfo.elemSize;
+    long[] dstStride = strides(count);
+    byte[] data = new byte[(int) section.computeSize() * es];
+
+    if (vinfo.isChunked) {
+      long[] chunkStride = strides(vinfo.chunk);
+      forEachChunk(vinfo, origin, count, (chunkOrigin, lo, n) -> {
+        Chunk chunk = vinfo.chunks.get(new ChunkKey(chunkOrigin));
+        byte[] chunkData;
+        if (chunk == null)
+          chunkData = makeFilled(vinfo, vinfo.chunkElems());
+        else if (chunk.data != null)
+          chunkData = chunk.data;
+        else
+          chunkData = readChunk(vinfo, chunk);
+        long src = offset(lo, chunkOrigin, chunkStride);
+        long dst = offset(lo, origin, dstStride);
+        forEachRun(n, src, chunkStride, dst, dstStride,
+                (s, d, len) -> System.arraycopy(chunkData, (int) s * es, data, (int) d * es, len * es));
+      });
+
+    } else if (vinfo.address != UNDEF) {
+      forEachRun(count, offset(origin, v2.getShape()), strides(v2.getShape()), 0, dstStride, (s, d, len) -> {
+        raf.seek(vinfo.address + s * es);
+        raf.readFully(data, (int) d * es, len * es);
+      });
+    }
+
+    if (vinfo.dataType == DataType.STRING) {
+      int n = data.length / HEAP_ID_SIZE;
+      String[] sa = new String[n];
+      for (int i = 0; i < n; i++) {
+        byte[] s = header.getHeapObject(Arrays.copyOfRange(data, i * HEAP_ID_SIZE, (i + 1) * HEAP_ID_SIZE));
+        sa[i] = new String(s, CDM.utf8Charset);
+      }
+      return Array.factory(DataType.STRING, count, sa);
+    }
+    return Array.factory(vinfo.dataType, count, ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN));
+  }
+
+  //////////////////////////////////////////////////////////////////////////////
+  // iterating over sections
+
+  private interface ChunkAction {
+    /**
+     * @param chunkOrigin index of the first element of the chunk
+     * @param lo          index of the first element of the intersection of the section and the chunk
+     * @param count       shape of the intersection
+     */
+    void apply(int[] chunkOrigin, int[] lo, int[] count) throws IOException;
+  }
+
+  private interface RunAction {
+    void apply(long src, long dst, int n) throws IOException;
+  }
+
+  // call action for each chunk that intersects the section
+  static private void forEachChunk(Vinfo vinfo, int[] origin, int[] count, ChunkAction action) throws IOException {
+    int rank = origin.length;
+    for (int len : count)
+      if (len <= 0) return;
+
+    int[] first = new int[rank];
+    int[] last = new int[rank];
+    for (int i = 0; i < rank; i++) {
+      first[i] = origin[i] / vinfo.chunk[i];
+      last[i] = (origin[i] + count[i] - 1) / vinfo.chunk[i];
+    }
+
+    int[] index = first.clone();
+    while (true) {
+      int[] chunkOrigin = new int[rank];
+      int[] lo = new int[rank];
+      int[] n = new int[rank];
+      for (int i = 0; i < rank; i++) {
+        chunkOrigin[i] = index[i] * vinfo.chunk[i];
+        lo[i] = Math.max(origin[i], chunkOrigin[i]);
+        n[i] = Math.min(origin[i] + count[i], chunkOrigin[i] + vinfo.chunk[i]) - lo[i];
+      }
+      action.apply(chunkOrigin, lo, n);
+
+      int dim = rank - 1;
+      while (dim >= 0 && index[dim] == last[dim]) {
+        index[dim] = first[dim];
+        dim--;
+      }
+      if (dim < 0) break;
+      index[dim]++;
+    }
+  }
+
+  // call action for each run of contiguous elements, which is the last dimension of count
+  static private void forEachRun(int[] count, long src, long[] srcStride, long dst, long[] dstStride, RunAction action) throws IOException {
+    int rank = count.length;
+    if (rank == 0) {
+      action.apply(src, dst, 1);
+      return;
+    }
+    for (int len : count)
+      if (len <= 0) return;
+
+    int[] index = new int[rank - 1];
+    while (true) {
+      long s = src, d = dst;
+      for (int i = 0; i < rank - 1; i++) {
+        s += index[i] * srcStride[i];
+        d += index[i] * dstStride[i];
+      }
+      action.apply(s, d, count[rank - 1]);
+
+      int dim = rank - 2;
+      while (dim >= 0 && index[dim] == count[dim] - 1) {
+        index[dim] = 0;
+        dim--;
+      }
+      if (dim < 0) break;
+      index[dim]++;
+    }
+  }
+
+  static private long[] strides(int[] shape) {
+    long[] result = new long[shape.length];
+    long stride = 1;
+    for (int i = shape.length - 1; i >= 0; i--) {
+      result[i] = stride;
+      stride *= shape[i];
+    }
+    return result;
+  }
+
+  static private long offset(int[] index, int[] shape) {
+    return offset(index, new int[index.length], strides(shape));
+  }
+
+  static private long offset(int[] index, int[] origin, long[] stride) {
+    long result = 0;
+    for (int i = 0; i < index.length; i++)
+      result += (index[i] - origin[i]) * stride[i];
+    return result;
+  }
+
+  private static class ChunkKey {
+    final int[] origin;
+
+    ChunkKey(int[] origin) {
+      this.origin = origin;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return (o instanceof ChunkKey) && Arrays.equals(origin, ((ChunkKey) o).origin);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(origin);
+    }
+  }
+
+  private static class Chunk {
+    final int[] origin;
+    byte[] data;       // uncompressed, while being written
+    BitSet written;    // elements of data that have been written
+    long filePos = UNDEF;
+    int size;          // stored bytes
+    boolean pending;   // being compressed
+
+    Chunk(int[] origin) {
+      this.origin = origin;
+    }
+
+    boolean isStored() {
+      return pending || filePos != UNDEF;
+    }
+  }
+
+  private static class Pending {
+    final Chunk chunk;
+    final Future<byte[]> result;
+
+    Pending(Chunk chunk, Future<byte[]> result) {
+      this.chunk = chunk;
+      this.result = result;
+    }
+  }
+
+  //////////////////////////////////////////////////////////////////////////////
+  // metadata, written when the file is closed
+
+  // an object header
+  private abstract class H5Object {
+    long address;
+
+    abstract Bytes encode() throws IOException;
+  }
+
+  private class H5Group extends H5Object {
+    final Group group;
+    final List<String> linkNames = new ArrayList<>();
+    final List<H5Object> links = new ArrayList<>();
+
+    H5Group(Group group) {
+      this.group = group;
+    }
+
+    void addLink(String name, H5Object obj) {
+      linkNames.add(name);
+      links.add(obj);
+    }
+
+    @Override
+    Bytes encode() throws IOException {
+      List<Message> messages = new ArrayList<>();
+      messages.add(linkInfo(links.size()));
+      messages.add(groupInfo());
+      for (int i = 0; i < links.size(); i++)
+        messages.add(link(linkNames.get(i), i, links.get(i).address));
+
+      List<Message> atts = makeAttributes(group.getAttributes(), null);
+      if (group == ncfile.getRootGroup() && !version.isExtendedModel())
+        atts.add(attributeScalarInt(Nc4.NETCDF4_STRICT, 1));
+      messages.add(attributeInfo(atts.size()));
+      messages.addAll(atts);
+      return objectHeader(messages, atts.size());
+    }
+  }
+
+  private class H5Dataset extends H5Object {
+    final Variable v;       // null for a dimension without a variable
+    final Dimension dim;    // if a dimension scale
+    int dimid;
+    final List<H5Dataset> dimensionList = new ArrayList<>(); // the dimension scales, if not a scale
+    final List<H5Dataset> refDatasets = new ArrayList<>();   // if a scale, the datasets that use it
+    final List<Integer> refDims = new ArrayList<>();
+
+    H5Dataset(Variable v, Dimension dim) {
+      this.v = v;
+      this.dim = dim;
+    }
+
+    @Override
+    Bytes encode() throws IOException {
+      List<Message> messages = new ArrayList<>();
+      List<Message> atts;
+      if (v != null) {
+        Vinfo vinfo = (Vinfo) v.getSPobject();
+        int[] shape = v.getShape();
+        long[] lshape = new long[shape.length];
+        long[] maxShape = null;
+        for (int i = 0; i < shape.length; i++) {
+          lshape[i] = shape[i];
+          if (v.getDimension(i).isUnlimited()) {
+            if (maxShape == null) maxShape = new long[shape.length];
+            maxShape[i] = UNLIMITED;
+          }
+        }
+        if (maxShape != null) {
+          for (int i = 0; i < shape.length; i++)
+            if (maxShape[i] != UNLIMITED) maxShape[i] = shape[i];
+        }
+
+        messages.add(dataspace(lshape, maxShape));
+        messages.add(datatype(H5headerWriter.datatype(vinfo.dataType)));
+        byte[] fillValue = (vinfo.dataType == DataType.STRING) ? null : vinfo.fillElem;
+        messages.add(fillValue(vinfo.isChunked ? ALLOC_INCR : ALLOC_EARLY, fill, fillValue));
+        if (vinfo.isChunked) {
+          messages.add(layoutChunked(vinfo.btreeAddress, vinfo.chunk, vinfo.elemSize));
+          Message filters = filterPipeline(vinfo.shuffle, vinfo.elemSize, vinfo.deflate);
+          if (filters != null) messages.add(filters);
+        } else {
+          messages.add(layoutContiguous(vinfo.address, vinfo.size));
+        }
+        atts = makeAttributes(v.getAttributes(), v);
+
+      } else { // netCDF-4 keeps a dimension without a variable in an empty dataset
+        int len = dim.getLength();
+        boolean unlimited = dim.isUnlimited();
+        messages.add(dataspace(new long[]{len}, unlimited ? new long[]{UNLIMITED} : null));
+        messages.add(datatype(H5headerWriter.datatype(DataType.FLOAT)));
+        messages.add(fillValue(unlimited ? ALLOC_INCR : ALLOC_LATE, false, null));
+        if (unlimited)
+          messages.add(layoutChunked(UNDEF, new int[]{1}, 4));
+        else
+          messages.add(layoutContiguous(UNDEF, len * 4L));
+        atts = new ArrayList<>();
+      }
+
+      if (dim != null) {
+        atts.add(attributeText(H5header.HDF5_CLASS, H5header.HDF5_DIMENSION_SCALE, true));
+        String name = (v != null) ? v.getShortName() : String.format("%s%10d", DIM_WITHOUT_VARIABLE, dim.getLength());
+        atts.add(attributeText(H5header.HDF5_DIMENSION_NAME, name, true));
+        if (!refDatasets.isEmpty()) {
+          Bytes data = new Bytes(16 * refDatasets.size());
+          for (int i = 0; i < refDatasets.size(); i++) {
+            data.putLong(refDatasets.get(i).address);
+            data.putInt(refDims.get(i));
+            data.putInt(0);
+          }
+          atts.add(attribute(H5header.HDF5_REFERENCE_LIST, datatypeDimensionReference(),
+                  dataspace(new long[]{refDatasets.size()}, null), data));
+        }
+        atts.add(attributeScalarInt(Nc4.NETCDF4_DIMID, dimid));
+
+      } else if (!dimensionList.isEmpty()) {
+        Bytes data = new Bytes(HEAP_ID_SIZE * dimensionList.size());
+        for (H5Dataset scale : dimensionList) {
+          Bytes ref = new Bytes(8);
+          ref.putLong(scale.address);
+          data.put(heapObject(ref.buf, 1));
+        }
+        atts.add(attribute(H5header.HDF5_DIMENSION_LIST, datatypeReferenceList(),
+                dataspace(new long[]{dimensionList.size()}, null), data));
+      }
+
+      messages.add(attributeInfo(atts.size()));
+      messages.addAll(atts);
+      return objectHeader(messages, atts.size());
+    }
+  }
+
+  private void writeMetadata() throws IOException {
+    List<H5Object> objects = new ArrayList<>();
+    Map<Dimension, H5Dataset> scales = new IdentityHashMap<>();
+    H5Group root = makeGroup(ncfile.getRootGroup(), objects, scales, new int[1]);
+
+    // the chunk indexes
+    for (Variable v : ncfile.getVariables()) {
+      Vinfo vinfo = (Vinfo) v.getSPobject();
+      if (!vinfo.isChunked) continue;
+      List<Chunk> stored = new ArrayList<>();
+      for (Chunk chunk : vinfo.chunks.values())
+        if (chunk.filePos != UNDEF) stored.add(chunk);
+      stored.sort((c1, c2) -> {
+        for (int i = 0; i < c1.origin.length; i++)
+          if (c1.origin[i] != c2.origin[i]) return Integer.compare(c1.origin[i], c2.origin[i]);
+        return 0;
+      });
+      List<ChunkEntry> entries = new ArrayList<>();
+      for (Chunk chunk : stored) {
+        long[] offset = new long[chunk.origin.length];
+        for (int i = 0; i < offset.length; i++) offset[i] = chunk.origin[i];
+        entries.add(new ChunkEntry(offset, chunk.filePos, chunk.size));
+      }
+      vinfo.btreeAddress = header.writeChunkBTree(entries, vinfo.chunk, vinfo.elemSize);
+    }
+
+    // sizes dont depend on the addresses, so the headers can be allocated first
+    dryRun = true;
+    for (H5Object obj : objects)
+      obj.address = header.allocate(obj.encode().pos);
+    dryRun = false;
+
+    for (H5Object obj : objects)
+      header.write(obj.address, obj.encode());
+    header.flushHeap();
+    header.writeSuperblock(root.address);
+  }
+
+  // links are made in netCDF-4 order: dimensions without variables, variables, then nested groups
+  private H5Group makeGroup(Group g, List<H5Object> objects, Map<Dimension, H5Dataset> scales, int[] dimid) {
+    H5Group h5group = new H5Group(g);
+    objects.add(h5group);
+
+    for (Dimension dim : g.getDimensions()) {
+      Variable cv = g.findVariable(dim.getShortName());
+      H5Dataset scale;
+      if (cv != null && isDimensionScale(cv)) {
+        scale = new H5Dataset(cv, dim);
+      } else {
+        scale = new H5Dataset(null, dim);
+        h5group.addLink(dim.getShortName(), scale);
+        objects.add(scale);
+      }
+      scale.dimid = dimid[0]++;
+      scales.put(dim, scale);
+    }
+
+    for (Variable v : g.getVariables()) {
+      H5Dataset ds;
+      String name = v.getShortName();
+      if (isDimensionScale(v)) {
+        ds = scales.get(v.getDimension(0));
+      } else {
+        ds = new H5Dataset(v, null);
+        if (g.findDimensionLocal(name) != null)
+          name = Nc4.NETCDF4_NON_COORD + name;
+
+        for (int i = 0; i < v.getRank(); i++) {
+          Dimension dim = v.getDimension(i);
+          H5Dataset scale = scales.get(dim);
+          if (scale == null) {
+            if (dim.isShared())
+              throw new IllegalStateException("Dimension " + dim.getShortName() + " of " + v.getFullName() + " not found");
+            scale = new H5Dataset(null, dim); // anonymous
+            scale.dimid = dimid[0]++;
+            scales.put(dim, scale);
+            h5group.addLink(v.getShortName() + "_Dim" + i, scale);
+            objects.add(scale);
+          }
+          ds.dimensionList.add(scale);
+          scale.refDatasets.add(ds);
+          scale.refDims.add(i);
+        }
+      }
+      h5group.addLink(name, ds);
+      objects.add(ds);
+    }
+
+    for (Group nested : g.getGroups())
+      h5group.addLink(nested.getShortName(), makeGroup(nested, objects, scales, dimid));
+    return h5group;
+  }
+
+  // a coordinate variable is a dimension scale: one dimension, declared in the same group, with the same name
+  private boolean isDimensionScale(Variable v) {
+    if (v.getRank() != 1) return false;
+    Dimension dim = v.getDimension(0);
+    return dim.isShared() && dim.getShortName().equals(v.getShortName()) &&
+            v.getParentGroup().findDimensionLocal(dim.getShortName()) == dim;
+  }
+
+  private byte[] heapObject(byte[] data, int nelems) throws IOException {
+    return dryRun ? new byte[HEAP_ID_SIZE] : header.addHeapObject(data, nelems);
+  }
+
+  private List<Message> makeAttributes(List<Attribute> atts, Variable v) throws IOException {
+    List<Message> result = new ArrayList<>();
+    for (Attribute att : atts) {
+      if (skipAttributes.contains(att.getShortName())) continue;
+      if (v != null && att.getShortName().equals(CDM.FILL_VALUE) && !isValidFillValue(v, att)) continue;
+      Message m = makeAttribute(att);
+      if (m != null) result.add(m);
+    }
+    return result;
+  }
+
+  private Message makeAttribute(Attribute att) throws IOException {
+    String name = att.getShortName();
+    int n = att.getLength();
+    if (att.isString()) {
+      if (n == 1)
+        return attributeText(name, att.getStringValue(), false);
+      Bytes data = new Bytes(HEAP_ID_SIZE * n);
+      for (int i = 0; i < n; i++) {
+        String s = att.getStringValue(i);
+        byte[] b = (s == null) ? new byte[0] : s.getBytes(CDM.utf8Charset);
+        data.put(heapObject(b, b.length));
+      }
+      return attribute(name, H5headerWriter.datatype(DataType.STRING), dataspace(new long[]{n}, null), data);
+    }
+
+    DataType dt = att.getDataType();
+    switch (dt) {
+      case CHAR:
+        return attributeText(name, new String((char[]) att.getValues().get1DJavaArray(DataType.CHAR)), false);
+      case BYTE:
+      case UBYTE:
+      case SHORT:
+      case USHORT:
+      case INT:
+      case UINT:
+      case LONG:
+      case ULONG:
+      case FLOAT:
+      case DOUBLE:
+        break;
+      default:
+        log.warn("Can't write attribute {} of type {}", name, dt);
+        return null;
+    }
+    if (n == 0)
+      return attribute(name, H5headerWriter.datatype(dt), dataspaceNull(), new Bytes(0));
+
+    byte[] values = toBytes(att.getValues().get1DJavaArray(dt), n * dt.getSize());
+    Bytes data = new Bytes(values.length);
+    data.put(values);
+    return attribute(name, H5headerWriter.datatype(dt), dataspace(new long[]{n}, null), data);
+  }
+
+  // netCDF-4 text attribute is a fixed length string, the HDF5 dimension scale attributes are null terminated
+  private Message attributeText(String name, String value, boolean nullTerminate) {
+    byte[] b = value.getBytes(CDM.utf8Charset);
+    int size = b.length + (nullTerminate ? 1 : 0);
+    if (size == 0)
+      return attribute(name, datatypeString(1, false), dataspaceNull(), new Bytes(0));
+    Bytes data = new Bytes(size);
+    data.put(b);
+    if (nullTerminate) data.put(0);
+    return attribute(name, datatypeString(size, !isAscii(b)), dataspace(new long[0], null), data);
+  }
+
+  private Message attributeScalarInt(String name, int value) {
+    Bytes data = new Bytes(4);
+    data.putInt(value);
+    return attribute(name, H5headerWriter.datatype(DataType.INT), dataspace(new long[0], null), data);
+  }
+
+}
@@ -40,34 +40,66 @@ import ucar.ma2.Section;
 import ucar.nc2.Variable;
 import ucar.nc2.iosp.LayoutBB;
 import ucar.nc2.iosp.LayoutBBTiled;
-import ucar.nc2.util.IO;
+import ucar.nc2.util.cache.FileDataCache;
 import ucar.unidata.io.RandomAccessFile;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 /**
  * Iterator to read/write subsets of an array.
  * This calculates byte offsets for HD5 chunked datasets.
  * Assumes that the data is stored in chunks, indexed by a Btree.
  * for filtered data
+ * <p>
+ * If a decode pool is given, compressed chunks are read ahead on the calling thread, and the filters
+ * (inflate, shuffle, etc) are applied in the pool. Chunks are still returned in btree order.
  *
  * @author caron
  */
 class H5tiledLayoutBB implements LayoutBB {
+  // reuse Inflaters and shuffle buffers across chunks; scratch buffers larger than this are not kept
+  private static final int MAX_SCRATCH_KEEP = 4 * 1000 * 1000;
+  private static final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+  private static final ThreadLocal<byte[]> scratchBuffers = new ThreadLocal<>();
+
+  private static byte[] scratch(int size) {
+    byte[] result = scratchBuffers.get();
+    if (result == null || result.length < size) {
+      result = new byte[size];
+      if (size <= MAX_SCRATCH_KEEP) scratchBuffers.set(result);
+    }
+    return result;
+  }
+
   private LayoutBBTiled delegate;
 
   private RandomAccessFile raf;
   private H5header.Filter[] filters;
   private ByteOrder byteOrder;
+  private FileDataCache<byte[]> chunkCache; // may be null
+  private long lastModified;        // only set if chunkCache != null
+  private ExecutorService decodePool; // may be null
                                                                                                      
   private Section want;
   private int[] chunkSize; // from the StorageLayout message (exclude the elemSize)
   private int elemSize; // last dimension of the StorageLayout message
   private int nChunkDims;
+  private int chunkBytes; // expected size of an uncompressed chunk, or 0 if unknown
 
   private boolean debug = false;
 
@@ -79,10 +111,14 @@ class H5tiledLayoutBB implements LayoutBB {
    * @param wantSection the wanted section of data, contains a List of Range objects. must be complete
    * @param raf the RandomAccessFile
    * @param filters set of filters that have been applied to the data
+   * @param byteOrder byte order of the data
+   * @param chunkCache cache of uncompressed chunks, may be null
+   * @param decodePool apply the filters in this pool, may be null
    * @throws InvalidRangeException if section invalid for this variable
    * @throws java.io.IOException   on io error
    */
-  H5tiledLayoutBB(Variable v2, Section wantSection, RandomAccessFile raf, H5header.Filter[] filters, ByteOrder byteOrder) throws InvalidRangeException, IOException {
+  H5tiledLayoutBB(Variable v2, Section wantSection, RandomAccessFile raf, H5header.Filter[] filters, ByteOrder byteOrder,
+                  FileDataCache<byte[]> chunkCache, ExecutorService decodePool) throws InvalidRangeException, IOException {
     wantSection = Section.fill(wantSection, v2.getShape());
 
     H5header.Vinfo vinfo = (H5header.Vinfo) v2.getSPobject();
@@ -92,6 +128,11 @@ class H5tiledLayoutBB implements LayoutBB {
     this.raf = raf;
     this.filters = filters;
     this.byteOrder = byteOrder;
+    this.decodePool = decodePool;
+    if (chunkCache != null) {
+      this.lastModified = FileDataCache.getLastModified(raf);
+      this.chunkCache = (lastModified != 0) ? chunkCache : null;  // otherwise chunks of different files could be confused
+    }
 
     // we have to translate the want section into the same rank as the storageSize, in order to be able to call
     // Section.intersect(). It appears that storageSize (actually msl.chunkSize) may have an extra dimension, reletive
@@ -108,9 +149,14 @@ class H5tiledLayoutBB implements LayoutBB {
     System.arraycopy(vinfo.storageSize, 0, chunkSize, 0, nChunkDims);
     this.elemSize = vinfo.storageSize[vinfo.storageSize.length - 1]; // last one is always the elements size
 
+    long nbytes = 1;
+    for (int size : vinfo.storageSize) nbytes *= size;
+    this.chunkBytes = (nbytes > 0 && nbytes <= Integer.MAX_VALUE - 8) ? (int) nbytes : 0;
+
     // create the data chunk iterator
     DataBTree.DataChunkIterator iter = vinfo.btree.getDataChunkIteratorFilter(this.want);
-    DataChunkIterator dcIter = new DataChunkIterator(iter);
+    LayoutBBTiled.DataChunkIterator dcIter = (decodePool == null) ? new DataChunkIterator(iter) :
+            new ReadAheadDataChunkIterator(iter, 2 * Runtime.getRuntime().availableProcessors());
     delegate = new LayoutBBTiled(dcIter, chunkSize, elemSize, this.want);
     
     if (debug) System.out.println(" H5tiledLayout: " + this);
@@ -161,11 +207,44 @@ class H5tiledLayoutBB implements LayoutBB {
     }
   }
 
+  // read ahead up to maxInFlight intersecting chunks, and apply their filters in the decodePool
+  private class ReadAheadDataChunkIterator implements LayoutBBTiled.DataChunkIterator {
+    private final DataBTree.DataChunkIterator delegate;
+    private final int maxInFlight;
+    private final Deque<DataChunk> readAhead = new ArrayDeque<>();
+    private int inFlight; // number of chunks in readAhead that are being decoded
+
+    ReadAheadDataChunkIterator(DataBTree.DataChunkIterator delegate, int maxInFlight) {
+      this.delegate = delegate;
+      this.maxInFlight = maxInFlight;
+    }
+
+    public boolean hasNext() {
+      return !readAhead.isEmpty() || delegate.hasNext();
+    }
+
+    public LayoutBBTiled.DataChunk next() throws IOException {
+      while (inFlight < maxInFlight && delegate.hasNext()) {
+        DataChunk dc = new DataChunk(delegate.next());
+        if (dc.intersectsWant()) {
+          dc.startDecode();
+          inFlight++;
+        }
+        readAhead.addLast(dc);
+      }
+
+      DataChunk result = readAhead.removeFirst();
+      if (result.decoded != null) inFlight--;
+      return result;
+    }
+  }
+
   private class DataChunk implements ucar.nc2.iosp.LayoutBBTiled.DataChunk {
     // Copied from ArrayList.
     private static final int MAX_ARRAY_LEN = Integer.MAX_VALUE - 8;
 
     DataBTree.DataChunk delegate;
+    private Future<byte[]> decoded; // only when read ahead
 
     DataChunk(DataBTree.DataChunk delegate) {
       this.delegate = delegate;
@@ -200,12 +279,89 @@ class H5tiledLayoutBB implements LayoutBB {
       return offset;
     }
 
+    boolean intersectsWant() {
+      try {
+        return new Section(getOffset(), chunkSize).intersects(want);
+      } catch (InvalidRangeException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    // read the compressed chunk on this thread, apply the filters in the decodePool
+    void startDecode() throws IOException {
+      if (chunkCache != null) {
+        byte[] cached = chunkCache.getIfPresent(raf.getLocation(), lastModified, delegate.filePos);
+        if (cached != null) {
+          decoded = CompletableFuture.completedFuture(cached);
+          return;
+        }
+      }
+
+      byte[] raw = readRaw();
+      Callable<byte[]> decode = () -> {
+        byte[] data = applyFilters(raw);
+        if (chunkCache != null) chunkCache.put(raf.getLocation(), lastModified, delegate.filePos, data);
+        return data;
+      };
+      try {
+        decoded = decodePool.submit(decode);
+      } catch (RejectedExecutionException e) { // the pool was shut down by H5iosp.initChunkDecodePool()
+        FutureTask<byte[]> task = new FutureTask<>(decode);
+        task.run();
+        decoded = task;
+      }
+    }
+
+    private byte[] getDecoded() throws IOException {
+      try {
+        return decoded.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while decoding HDF5 chunk " + delegate);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) throw (IOException) cause;
+        if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+        if (cause instanceof Error) throw (Error) cause;
+        throw new IOException(cause);
+      }
+    }
+
     public ByteBuffer getByteBuffer() throws IOException {
       try {
-        // read the data
-        byte[] data = new byte[delegate.size];
-        raf.seek(delegate.filePos);
-        raf.readFully(data);
+        byte[] data;
+        if (decoded != null)
+          data = getDecoded();
+        else if (chunkCache == null)
+          data = readFiltered();
+        else
+          data = chunkCache.get(raf.getLocation(), lastModified, delegate.filePos, this::readFiltered);
+
+        ByteBuffer result = ByteBuffer.wrap(data);
+        result.order(byteOrder);
+        return result;
+      } catch (OutOfMemoryError e) {
+        Error oom =  new OutOfMemoryError("Ran out of memory trying to read HDF5 filtered chunk. Either increase the " +
+                "JVM's heap size (use the -Xmx switch) or reduce the size of the dataset's chunks (use nccopy -c).");
+        oom.initCause(e);  // OutOfMemoryError lacks a constructor with a cause parameter.
+        throw oom;
+      }
+    }
+
+    // read the chunk and apply the filters
+    private byte[] readFiltered() throws IOException {
+      return applyFilters(readRaw());
+    }
+
+    private byte[] readRaw() throws IOException {
+      byte[] data = new byte[delegate.size];
+      raf.readFully(delegate.filePos, data, 0, data.length);
+      return data;
+    }
+
+    // does not use raf, so may be called from any thread
+    private byte[] applyFilters(byte[] data) throws IOException {
+      int len = data.length; // number of valid bytes in data; avoids copying when stripping checksums
 
       // apply filters backwards
       for (int i = filters.length - 1; i >= 0; i--) {
@@ -215,46 +371,57 @@ class H5tiledLayoutBB implements LayoutBB {
           continue;
         }
         if (f.id == 1) {
-          data = inflate(data);
+          data = inflate(data, len);
+          len = data.length;
         } else if (f.id == 2) {
-          data = shuffle(data, f.data[0]);
+          shuffle(data, len, f.data[0]);
         } else if (f.id == 3) {
-          data = checkfletcher32(data);
+          len = checkfletcher32(len);
         /* }  else if (f.id == 307) {
           data = unbzip2(data); */
         } else
           throw new RuntimeException("Unknown filter type="+f.id);
       }
 
-        ByteBuffer result = ByteBuffer.wrap(data);
-        result.order(byteOrder);
-        return result;
-      } catch (OutOfMemoryError e) {
-        Error oom =  new OutOfMemoryError("Ran out of memory trying to read HDF5 filtered chunk. Either increase the " +
-                "JVM's heap size (use the -Xmx switch) or reduce the size of the dataset's chunks (use nccopy -c).");
-        oom.initCause(e);  // OutOfMemoryError lacks a constructor with a cause parameter.
-        throw oom;
-      }
+      return (len == data.length) ? data : Arrays.copyOf(data, len);
     }
 
     /**
-     * inflate data
+     * inflate data, using the Inflater for this thread.
+     * The output array is sized from the storage layout, so normally no copies are made.
      *
      * @param compressed compressed data
-     * @return uncompressed data
+     * @param len number of valid bytes in compressed
+     * @return uncompressed data, exact length
      * @throws IOException on I/O error
      */
-    private byte[] inflate(byte[] compressed) throws IOException {
-      // run it through the Inflator
-      ByteArrayInputStream in = new ByteArrayInputStream(compressed);
-      java.util.zip.InflaterInputStream inflater = new java.util.zip.InflaterInputStream(in);
-      ByteArrayOutputStream out = new ByteArrayOutputStream(
-              Math.min(8 * compressed.length, MAX_ARRAY_LEN));  // Fixes KXL-349288
-      IO.copy(inflater, out);
-
-      byte[] uncomp = out.toByteArray();
-      if (debug) System.out.println(" inflate bytes in= " + compressed.length + " bytes out= " + uncomp.length);
-      return uncomp;
+    private byte[] inflate(byte[] compressed, int len) throws IOException {
+      Inflater inflater = inflaters.get();
+      inflater.reset();
+      inflater.setInput(compressed, 0, len);
+
+      byte[] uncomp = new byte[(chunkBytes > 0) ? chunkBytes : (int) Math.min(8L * len, MAX_ARRAY_LEN)];
+      int pos = 0;
+      try {
+        while (!inflater.finished()) {
+          if (pos == uncomp.length) { // larger than expected
+            if (pos == MAX_ARRAY_LEN)
+              throw new IOException("Uncompressed HDF5 chunk is larger than the maximum Java array length");
+            uncomp = Arrays.copyOf(uncomp, (int) Math.min(2L * pos + 8, MAX_ARRAY_LEN));
+          }
+          int n = inflater.inflate(uncomp, pos, uncomp.length - pos);
+          if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+            throw new IOException("Truncated or corrupt deflated HDF5 chunk " + delegate);
+          pos += n;
+        }
+      } catch (DataFormatException e) {
+        throw new IOException(e);
+      } finally {
+        inflater.reset(); // dont hold on to the input
+      }
+
+      if (debug) System.out.println(" inflate bytes in= " + len + " bytes out= " + pos);
+      return (pos == uncomp.length) ? uncomp : Arrays.copyOf(uncomp, pos);
     }
 
     /* private byte[] unbzip2(byte[] compressed) throws IOException {
@@ -279,37 +446,26 @@ class H5tiledLayoutBB implements LayoutBB {
      } */
 
      // just strip off the 4-byte fletcher32 checksum at the end
-    private byte[] checkfletcher32(byte[] org) throws IOException {
-      byte[] result = new byte[org.length-4];
-      System.arraycopy(org, 0, result, 0, result.length);
-      if (debug) System.out.println(" checkfletcher32 bytes in= " + org.length + " bytes out= " + result.length);
-      return result;
+    private int checkfletcher32(int len) throws IOException {
+      if (debug) System.out.println(" checkfletcher32 bytes in= " + len + " bytes out= " + (len - 4));
+      return len - 4;
     }
 
-    private byte[] shuffle(byte[] data, int n) throws IOException {
-      if (debug) System.out.println(" shuffle bytes in= " + data.length + " n= " + n);
-
-      assert data.length % n == 0;
-      if (n <= 1) return data;
+    // unshuffle in place; trailing bytes that dont make a full element are left as is
+    private void shuffle(byte[] data, int len, int n) throws IOException {
+      if (debug) System.out.println(" shuffle bytes in= " + len + " n= " + n);
+      if (n <= 1) return;
 
-      int m = data.length / n;
-      int[] count = new int[n];
-      for (int k = 0; k < n; k++) count[k] = k * m;
+      int m = len / n;
+      byte[] org = scratch(m * n);
+      System.arraycopy(data, 0, org, 0, m * n);
 
-      byte[] result = new byte[data.length];
-      /* for (int i = 0; i < data.length; i += n) {
-        for (int k = 0; k < n; k++) {
-          result[count[k]++] = data[i + k];
-        }
-      } */
-
-      for (int i = 0; i < m; i++) {
-        for (int j = 0; j < n; j++) {
-          result[i*n+j] = data[i + count[j]];
+      for (int j = 0; j < n; j++) {
+        int start = j * m;
+        for (int i = 0; i < m; i++) {
+          data[i * n + j] = org[start + i];
         }
       }
-
-      return result;
     }
 
     boolean isBitSet(int val, int bitno) {
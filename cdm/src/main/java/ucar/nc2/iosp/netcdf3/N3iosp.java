@@ -522,17 +522,17 @@ public abstract class N3iosp extends AbstractIOServiceProvider implements IOServ
     ArrayStructureBB structureArray = new ArrayStructureBB(members, new int[]{recordRange.length()});
 
     // note dependency on raf; should probably defer to subclass
-    // loop over records
+    // loop over records, with positional reads so that any number of threads may read at once
     byte[] result = structureArray.getByteBuffer().array();
     int count = 0;
     for (int recnum : recordRange) {
       if (debugRecord) System.out.println(" read record " + recnum);
-      raf.seek(header.recStart + recnum * header.recsize); // where the record starts
+      long pos = header.recStart + recnum * header.recsize; // where the record starts
 
       if (recnum != header.numrecs - 1)
-        raf.readFully(result, (int) (count * header.recsize), (int) header.recsize);
+        raf.readFully(pos, result, (int) (count * header.recsize), (int) header.recsize);
       else
-        raf.read(result, (int) (count * header.recsize), (int) header.recsize); // "wart" allows file to be one byte short. since its always padding, we allow
+        raf.read(pos, result, (int) (count * header.recsize), (int) header.recsize); // "wart" allows file to be one byte short. since its always padding, we allow
       count++;
     }
 
@@ -623,12 +623,27 @@ public abstract class N3iosp extends AbstractIOServiceProvider implements IOServ
     N3header.Vinfo vinfo = (N3header.Vinfo) v2.getSPobject();
     DataType dataType = v2.getDataType();
 
+    // data not yet written is read as fill values
+    if (!isOnDisk(v2, vinfo))
+      return super.readToByteChannel(v2, section, channel);
+
     Layout layout = (!v2.isUnlimited()) ? new LayoutRegular(vinfo.begin, v2.getElementSize(), v2.getShape(), section) :
       new LayoutRegularSegmented(vinfo.begin, v2.getElementSize(), header.recsize, v2.getShape(), section);
 
     return readData(layout, dataType, channel);
   }
 
+  // is all of the variable's data inside the file
+  private boolean isOnDisk(ucar.nc2.Variable v2, N3header.Vinfo vinfo) throws IOException {
+    long nbytes = v2.getSize() * v2.getElementSize();
+    if (!v2.isUnlimited())
+      return vinfo.begin + nbytes <= raf.length();
+    int nrecs = v2.getShape(0);
+    if (nrecs == 0)
+      return true;
+    return vinfo.begin + (long) (nrecs - 1) * header.recsize + nbytes / nrecs <= raf.length();
+  }
+
   private long readRecordData(ucar.nc2.Structure s, Section section, WritableByteChannel out) throws java.io.IOException, InvalidRangeException {
     long count = 0;
 
@@ -652,7 +667,6 @@ public abstract class N3iosp extends AbstractIOServiceProvider implements IOServ
 
     for (int recnum : recordRange) {
         if (debugRecord) System.out.println(" read record " + recnum);
-        raf.seek(header.recStart + recnum * header.recsize); // where the record starts
         count += raf.readToByteChannel(out, header.recStart + recnum * header.recsize, header.recsize);
       }
     // }
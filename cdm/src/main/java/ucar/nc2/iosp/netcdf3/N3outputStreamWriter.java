@@ -41,6 +41,7 @@ import ucar.nc2.iosp.IospHelper;
 
 import java.util.List;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.io.DataOutputStream;
 import java.io.FileOutputStream;
 import java.io.BufferedOutputStream;
@@ -154,42 +155,48 @@ public class N3outputStreamWriter extends N3streamWriter {
   /////////////////////////////////////////////
 
 
+  private ByteBuffer buffer;
+
+  // convert to big endian bytes a buffer at a time, rather than one stream call per byte
   private long writeData(Variable v, DataOutputStream stream, Array values) throws java.io.IOException {
     DataType dataType = v.getDataType();
+    if (buffer == null)
+      buffer = ByteBuffer.allocate(64 * 1024); // big endian by default
     IndexIterator ii = values.getIndexIterator();
-
-    if (dataType == DataType.BYTE) {
-      while (ii.hasNext())
-        stream.write(ii.getByteNext());
-      return values.getSize();
-
-    } else if (dataType == DataType.CHAR) {
-      while (ii.hasNext())
-        stream.write(ii.getByteNext());
-      return values.getSize();
-
-    } else if (dataType == DataType.SHORT) {
-      while (ii.hasNext())
-        stream.writeShort(ii.getShortNext());
-      return 2 * values.getSize();
-
-    } else if (dataType == DataType.INT) {
-      while (ii.hasNext())
-        stream.writeInt(ii.getIntNext());
-      return 4 * values.getSize();
-
-    } else if (dataType == DataType.FLOAT) {
-      while (ii.hasNext())
-        stream.writeFloat(ii.getFloatNext());
-      return 4 * values.getSize();
-
-    } else if (dataType == DataType.DOUBLE) {
-      while (ii.hasNext())
-        stream.writeDouble(ii.getDoubleNext());
-      return 8 * values.getSize();
+    long nbytes = 0;
+
+    while (ii.hasNext()) {
+      buffer.clear();
+      switch (dataType) {
+        case BYTE:
+        case CHAR:
+          while (ii.hasNext() && buffer.hasRemaining())
+            buffer.put(ii.getByteNext());
+          break;
+        case SHORT:
+          while (ii.hasNext() && buffer.remaining() >= 2)
+            buffer.putShort(ii.getShortNext());
+          break;
+        case INT:
+          while (ii.hasNext() && buffer.remaining() >= 4)
+            buffer.putInt(ii.getIntNext());
+          break;
+        case FLOAT:
+          while (ii.hasNext() && buffer.remaining() >= 4)
+            buffer.putFloat(ii.getFloatNext());
+          break;
+        case DOUBLE:
+          while (ii.hasNext() && buffer.remaining() >= 8)
+            buffer.putDouble(ii.getDoubleNext());
+          break;
+        default:
+          throw new IllegalStateException("dataType= " + dataType);
+      }
+      stream.write(buffer.array(), 0, buffer.position());
+      nbytes += buffer.position();
     }
 
-    throw new IllegalStateException("dataType= " + dataType);
+    return nbytes;
   }
 
   private int writeDataFast(Variable v, DataOutputStream stream, Array values) throws java.io.IOException {
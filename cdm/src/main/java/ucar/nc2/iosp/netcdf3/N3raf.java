@@ -37,6 +37,7 @@ import ucar.nc2.constants.CDM;
 import ucar.nc2.iosp.Layout;
 import ucar.nc2.iosp.IospHelper;
 
+import java.nio.ByteOrder;
 import java.nio.channels.WritableByteChannel;
 
 
@@ -55,12 +56,13 @@ public class N3raf extends N3iosp  {
 
   /**
    * Read data subset from file for a variable, create primitive array.
+   * Uses positional reads, so any number of threads may read at once.
    * @param index handles skipping around in the file.
    * @param dataType dataType of the variable
    * @return primitive array with data read in
    */
  protected Object readData( Layout index, DataType dataType) throws java.io.IOException {
-   return IospHelper.readDataFill(raf, index, dataType, null, -1);
+   return IospHelper.readDataFillPositional(raf, index, dataType, null, ByteOrder.BIG_ENDIAN, true);
  }
 
   /**
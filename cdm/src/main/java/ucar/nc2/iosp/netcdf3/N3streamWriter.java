@@ -57,7 +57,7 @@ public abstract class N3streamWriter {
   protected ucar.nc2.NetcdfFile ncfile;
   protected Map<Variable,Vinfo> vinfoMap = new HashMap<Variable,Vinfo>();
   protected List<Vinfo> vinfoList = new ArrayList<Vinfo>(); // output order of the variables
-  protected boolean debug=false, debugPos=true, debugWriteData = false;
+  protected boolean debug=false, debugPos=false, debugWriteData = false;
   protected int recStart, recSize;
   protected boolean usePadding = true;
   protected long filePos = 0;
@@ -191,6 +191,16 @@ public abstract class N3streamWriter {
     if (debugPos) System.out.println("header written filePos= " + filePos+" recsize= "+recSize);
   }
 
+  /**
+   * Size of the complete file, which is known once the header has been written.
+   *
+   * @param numrec number of records that will be written
+   * @return file size in bytes
+   */
+  public long calcFileSize(int numrec) {
+    return recStart + ((long) numrec) * recSize;
+  }
+
   private Vinfo writeVar(DataOutputStream stream, Variable var, int offset) throws IOException {
     int hsize = 0;
     hsize += writeString(stream, N3iosp.makeValidNetcdfObjectName( var.getShortName()));
@@ -43,7 +43,13 @@ import java.io.*;
 import java.util.*;
 import java.nio.channels.FileLock;
 import java.nio.channels.OverlappingFileLockException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
+import ucar.unidata.io.InMemoryRandomAccessFile;
 import ucar.unidata.io.bzip2.CBZip2InputStream;
 import ucar.unidata.io.bzip2.BZip2ReadException;
 
@@ -153,7 +159,10 @@ public class Level2VolumeScan {
         RandomAccessFile uraf = null;
         File uncompressedFile = DiskCache.getFileStandardPolicy(raf.getLocation() + ".uncompress");
 
-        if (uncompressedFile.exists() && uncompressedFile.length() > 0) {
+        if (!Nexrad2IOServiceProvider.getUncompressToDisk()) {
+          uraf = uncompressInMemory(raf);
+
+        } else if (uncompressedFile.exists() && uncompressedFile.length() > 0) {
           // see if its locked - another thread is writing it
           try (FileInputStream fstream = new FileInputStream(uncompressedFile)) {
             //lock = fstream.getChannel().lock(0, 1, true); // wait till its unlocked
@@ -668,85 +677,8 @@ public class Level2VolumeScan {
     }
 
     try {
-        inputRaf.seek(0);
-        byte[] header = new byte[Level2Record.FILE_HEADER_SIZE];
-        int bytesRead = inputRaf.read(header);
-        if (bytesRead != header.length)
-        {
-            throw new IOException("Error reading NEXRAD2 header -- got " +
-                    bytesRead + " rather than" + header.length);
-        }
-        outputRaf.write(header);
-
-        boolean eof = false;
-        int numCompBytes;
-        byte[] ubuff = new byte[40000];
-        byte[] obuff = new byte[40000];
-
-        CBZip2InputStream cbzip2 = new CBZip2InputStream();
-        while (!eof) {
-            try {
-                numCompBytes = inputRaf.readInt();
-                if (numCompBytes == -1) {
-                    if (log.isDebugEnabled())
-                        log.debug("  done: numCompBytes=-1 ");
-                    break;
-                }
-            } catch (EOFException ee) {
-                log.debug("got EOFException");
-                break; // assume this is ok
-            }
-
-            if (log.isDebugEnabled()) {
-                log.debug("reading compressed bytes " + numCompBytes + " input starts at " + inputRaf.getFilePointer() + "; output starts at " + outputRaf.getFilePointer());
-
-            }
-          /*
-          * For some stupid reason, the last block seems to
-          * have the number of bytes negated.  So, we just
-          * assume that any negative number (other than -1)
-          * is the last block and go on our merry little way.
-          */
-            if (numCompBytes < 0) {
-                if (log.isDebugEnabled())
-                    log.debug("last block?" + numCompBytes);
-                numCompBytes = -numCompBytes;
-                eof = true;
-            }
-            byte[] buf = new byte[numCompBytes];
-            inputRaf.readFully(buf);
-            ByteArrayInputStream bis = new ByteArrayInputStream(buf, 2,
-                    numCompBytes - 2);
-
-            //CBZip2InputStream cbzip2 = new CBZip2InputStream(bis);
-            cbzip2.setStream(bis);
-            int total = 0;
-            int nread;
-          /*
-          while ((nread = cbzip2.read(ubuff)) != -1) {
-            dout2.write(ubuff, 0, nread);
-            total += nread;
-          }
-          */
-            try {
-                while ((nread = cbzip2.read(ubuff)) != -1) {
-                    if (total + nread > obuff.length) {
-                        byte[] temp = obuff;
-                        obuff = new byte[temp.length * 2];
-                        System.arraycopy(temp, 0, obuff, 0, temp.length);
-                    }
-                    System.arraycopy(ubuff, 0, obuff, total, nread);
-                    total += nread;
-                }
-                if (obuff.length >= 0) outputRaf.write(obuff, 0, total);
-            } catch (BZip2ReadException ioe) {
-                log.warn("Nexrad2IOSP.uncompress ", ioe);
-            }
-            float nrecords = (float) (total / 2432.0);
-            if (log.isDebugEnabled())
-                log.debug("  unpacked " + total + " num bytes " + nrecords + " records; ouput ends at " + outputRaf.getFilePointer());
-        }
-
+        outputRaf.write(readHeader(inputRaf));
+        uncompressBlocks(inputRaf, Nexrad2IOServiceProvider.getDecodePool(), outputRaf::write);
         outputRaf.flush();
     } catch (IOException e) {
         if (outputRaf != null) outputRaf.close();
@@ -771,6 +703,149 @@ public class Level2VolumeScan {
     return outputRaf;
   }
 
+  /**
+   * Uncompress into memory, without writing an uncompressed copy to disk.
+   *
+   * @param inputRaf file to uncompress
+   * @return in-memory raf of the uncompressed file, with the location of the compressed file
+   * @throws IOException on read error
+   */
+  private RandomAccessFile uncompressInMemory(RandomAccessFile inputRaf) throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream((int) Math.min(Integer.MAX_VALUE - 8, 8 * inputRaf.length()));
+    bos.write(readHeader(inputRaf));
+    uncompressBlocks(inputRaf, Nexrad2IOServiceProvider.getDecodePool(), bos::write);
+    return new InMemoryRandomAccessFile(inputRaf.getLocation(), bos.toByteArray());
+  }
+
+  private byte[] readHeader(RandomAccessFile inputRaf) throws IOException {
+    inputRaf.seek(0);
+    byte[] header = new byte[Level2Record.FILE_HEADER_SIZE];
+    int bytesRead = inputRaf.read(header);
+    if (bytesRead != header.length) {
+      throw new IOException("Error reading NEXRAD2 header -- got " +
+              bytesRead + " rather than" + header.length);
+    }
+    return header;
+  }
+
+  interface BlockWriter {
+    void write(byte[] b, int off, int len) throws IOException;
+  }
+
+  static private final int maxInFlight = 16; // compressed blocks read ahead while the pool uncompresses
+  static private final ThreadLocal<CBZip2InputStream> decoders = ThreadLocal.withInitial(CBZip2InputStream::new);
+
+  /**
+   * Uncompress the sequence of bzip2 blocks that follows the header, and write them in order.
+   * Each block is compressed independently, so with a pool they are uncompressed in parallel,
+   * while this thread reads ahead the next compressed blocks.
+   *
+   * @param inputRaf positioned at the first block
+   * @param pool     uncompress in this pool, or serially on this thread if null
+   * @param out      write the uncompressed blocks here
+   * @throws IOException on read error
+   */
+  static void uncompressBlocks(RandomAccessFile inputRaf, ExecutorService pool, BlockWriter out) throws IOException {
+    Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+    try {
+      boolean eof = false;
+      while (!eof) {
+        int numCompBytes;
+        try {
+          numCompBytes = inputRaf.readInt();
+          if (numCompBytes == -1) {
+            if (log.isDebugEnabled())
+              log.debug("  done: numCompBytes=-1 ");
+            break;
+          }
+        } catch (EOFException ee) {
+          log.debug("got EOFException");
+          break; // assume this is ok
+        }
+
+        if (log.isDebugEnabled())
+          log.debug("reading compressed bytes " + numCompBytes + " input starts at " + inputRaf.getFilePointer());
+
+        /*
+        * For some stupid reason, the last block seems to
+        * have the number of bytes negated.  So, we just
+        * assume that any negative number (other than -1)
+        * is the last block and go on our merry little way.
+        */
+        if (numCompBytes < 0) {
+          if (log.isDebugEnabled())
+            log.debug("last block?" + numCompBytes);
+          numCompBytes = -numCompBytes;
+          eof = true;
+        }
+        byte[] buf = new byte[numCompBytes];
+        inputRaf.readFully(buf);
+
+        if (pool == null) {
+          byte[] ubuff = uncompressBlock(buf);
+          out.write(ubuff, 0, ubuff.length);
+        } else {
+          Future<byte[]> future;
+          try {
+            future = pool.submit(() -> uncompressBlock(buf));
+          } catch (RejectedExecutionException e) { // the pool was shut down by Nexrad2IOServiceProvider.initDecodePool()
+            FutureTask<byte[]> task = new FutureTask<>(() -> uncompressBlock(buf));
+            task.run();
+            future = task;
+          }
+          inFlight.addLast(future);
+          if (inFlight.size() >= maxInFlight) {
+            byte[] ubuff = getUncompressed(inFlight.removeFirst());
+            out.write(ubuff, 0, ubuff.length);
+          }
+        }
+      }
+
+      while (!inFlight.isEmpty()) {
+        byte[] ubuff = getUncompressed(inFlight.removeFirst());
+        out.write(ubuff, 0, ubuff.length);
+      }
+
+    } finally {
+      for (Future<byte[]> f : inFlight)
+        f.cancel(true);
+    }
+  }
+
+  // uncompress one bzip2 block, which starts with "BZ". A bad block is skipped.
+  static private byte[] uncompressBlock(byte[] buf) throws IOException {
+    CBZip2InputStream cbzip2 = decoders.get();
+    ByteArrayOutputStream bos = new ByteArrayOutputStream(8 * buf.length);
+    byte[] ubuff = new byte[40000];
+    int nread;
+    try {
+      cbzip2.setStream(new ByteArrayInputStream(buf, 2, buf.length - 2));
+      while ((nread = cbzip2.read(ubuff)) != -1)
+        bos.write(ubuff, 0, nread);
+    } catch (BZip2ReadException ioe) {
+      log.warn("Nexrad2IOSP.uncompress ", ioe);
+      return new byte[0];
+    }
+    if (log.isDebugEnabled())
+      log.debug("  unpacked " + bos.size() + " num bytes " + (bos.size() / 2432.0f) + " records");
+    return bos.toByteArray();
+  }
+
+  static private byte[] getUncompressed(Future<byte[]> f) throws IOException {
+    try {
+      return f.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while uncompressing NEXRAD2 block");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) throw (IOException) cause;
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      if (cause instanceof Error) throw (Error) cause;
+      throw new IOException(cause);
+    }
+  }
+
   // check if compressed file seems ok
   static public long testValid(String ufilename) throws IOException {
     boolean lookForHeader = false;
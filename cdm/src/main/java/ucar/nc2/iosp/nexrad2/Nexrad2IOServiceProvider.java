@@ -46,6 +46,8 @@ import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * An IOServiceProvider for NEXRAD level II files.
@@ -57,6 +59,43 @@ public class Nexrad2IOServiceProvider extends AbstractIOServiceProvider {
   static private final int MISSING_INT = -9999;
   static private final float MISSING_FLOAT = Float.NaN;
 
+  //////////////////////////////////////////////////////////////////////////////////
+  // uncompressing bzip2 volume scans, shared by all files
+
+  static private ForkJoinPool decodePool = null;
+  static private volatile boolean uncompressToDisk = true;
+
+  /**
+   * Uncompress the bzip2 blocks of compressed volume scans in a pool of nthreads, shared across all files.
+   * The compressed blocks are still read on the calling thread, and the results are written in order.
+   * @param nthreads size of the pool; if <= 1, blocks are uncompressed serially on the calling thread.
+   */
+  static public synchronized void initDecodePool(int nthreads) {
+    // publish the new pool before shutting down the old one, readers that still have the old one uncompress on their own thread
+    ForkJoinPool old = decodePool;
+    decodePool = (nthreads > 1) ? new ForkJoinPool(nthreads) : null;
+    if (old != null) old.shutdown();
+  }
+
+  /** @return the decode pool, or null if not enabled */
+  static public synchronized ExecutorService getDecodePool() {
+    return decodePool;
+  }
+
+  /**
+   * If true (the default), a compressed volume scan is uncompressed to a file in the DiskCache, which is reused
+   * by later opens of the same file. If false, it is uncompressed into memory each time it is opened,
+   * and nothing is written to disk.
+   * @param toDisk write the uncompressed copy to disk
+   */
+  static public void setUncompressToDisk(boolean toDisk) {
+    uncompressToDisk = toDisk;
+  }
+
+  static public boolean getUncompressToDisk() {
+    return uncompressToDisk;
+  }
+
 
   public boolean isValidFile( RandomAccessFile raf) throws IOException {
     try {
@@ -62,6 +62,7 @@ public class CdmRemote extends ucar.nc2.NetcdfFile {
   // static private org.slf4SCHEMEj.Logger logger = org.slf4j.LoggerFactory.getLogger(CdmRemote.class);
   static private boolean showRequest = false;
   static private boolean compress = false;
+  static private boolean shuffle = false;
 
   static public void setDebugFlags(ucar.nc2.util.DebugFlags debugFlag) {
     showRequest = debugFlag.isSet("CdmRemote/showRequest");
@@ -71,6 +72,15 @@ public class CdmRemote extends ucar.nc2.NetcdfFile {
     compress = b;
   }
 
+  /**
+   * Also ask for the bytes of each element to be shuffled before compression, which usually compresses
+   * floating point data better. The server must know the SHUFFLE_DEFLATE compression.
+   * Only used if setAllowCompression(true).
+   */
+  static public void setAllowShuffle(boolean b) {
+    shuffle = b;
+  }
+
 
   /**
    * Create the canonical form of the URL.
@@ -159,6 +169,8 @@ public class CdmRemote extends ucar.nc2.NetcdfFile {
     f.format("%s?req=data", remoteURI);
     if (compress)
       f.format("&deflate=5");
+    if (compress && shuffle)
+      f.format("&shuffle=true");
     //f.format("&var=%s", v.getShortName());
     f.format("&var=%s", v.getFullNameEscaped());
     if ((section != null) && (section.computeSize() != v.getSize()) && (v.getDataType() != DataType.SEQUENCE)) {
@@ -191,7 +203,7 @@ public class CdmRemote extends ucar.nc2.NetcdfFile {
         int readLen = Integer.parseInt(s);
         if (showRequest)
           System.out.printf(" content-length = %d%n", readLen);
-        if (v.getDataType() != DataType.SEQUENCE) {
+        if (v.getDataType() != DataType.SEQUENCE && !compress) {
           int wantSize = (int) (v.getElementSize() * (section == null ? v.getSize() : section.computeSize()));
           if (readLen != wantSize)
             throw new IOException("content-length= " + readLen + " not equal expected Size= " + wantSize); // LOOK
@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.stream;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compressed data of an ncstream data message, as independently compressed blocks.
+ * <p>
+ * Each block is deflated on its own, all but the last ending with a sync flush, and the zlib header and
+ * Adler-32 trailer are put around all of them. So the blocks together are one zlib stream, that readers
+ * which don't know about blocks can inflate as before. The Data message has the uncompressed size of the blocks
+ * (blockSize) and the compressed size of each (blockCompressedSize), the zlib header counted in the first block and
+ * the trailer in the last, so each block can be inflated on its own.
+ * <p>
+ * With SHUFFLE_DEFLATE the bytes of each block are grouped by their position in the element before deflating,
+ * which makes floating point data compress better and faster.
+ * This is not readable by older readers, who know only DEFLATE.
+ *
+ * @since 10/18/2026
+ */
+class NcStreamBlocks {
+  static private final int ZLIB_HEADER = 2;
+  static private final int ZLIB_TRAILER = 4;
+  static private final int MAX_PENDING = 32;
+
+  /**
+   * Compress the bytes written to it in blocks, on the calling thread or in the pool.
+   * Call finish() after the last byte, then writeTo().
+   */
+  static class BlockOutputStream extends OutputStream {
+    private final boolean shuffle;
+    private final int level, elemSize, blockSize;
+    private final ExecutorService pool;
+    private final List<Future<Block>> blocks = new ArrayList<>();
+    private byte[] current;
+    private int count, uncompressedSize;
+    private Block[] compressed;
+
+    /**
+     * @param shuffle   shuffle the bytes of each element before deflate
+     * @param level     deflate level, -1 for the default
+     * @param elemSize  size of each element in bytes
+     * @param blockSize uncompressed size of each block, rounded down to a multiple of elemSize
+     * @param pool      compress blocks in this pool, or null to compress on the calling thread
+     */
+    BlockOutputStream(boolean shuffle, int level, int elemSize, int blockSize, ExecutorService pool) {
+      this.shuffle = shuffle && elemSize > 1;
+      this.level = level;
+      this.elemSize = elemSize;
+      this.blockSize = Math.max(elemSize, blockSize - blockSize % elemSize);
+      this.pool = pool;
+      this.current = new byte[this.blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      if (count == blockSize) endBlock(false);
+      current[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      while (len > 0) {
+        if (count == blockSize) endBlock(false);
+        int n = Math.min(len, blockSize - count);
+        System.arraycopy(b, off, current, count, n);
+        count += n;
+        off += n;
+        len -= n;
+      }
+    }
+
+    private void endBlock(boolean last) throws IOException {
+      byte[] data = current;
+      int len = count;
+      boolean first = blocks.isEmpty();
+      uncompressedSize += len;
+      Callable<Block> task = () -> compress(data, len, first, last);
+      if (pool == null) {
+        blocks.add(done(task));
+      } else {
+        blocks.add(submit(pool, task));
+        waitFor(blocks.size() - MAX_PENDING); // bound the uncompressed blocks in memory
+      }
+      current = last ? null : new byte[blockSize];
+      count = 0;
+    }
+
+    private Block compress(byte[] data, int len, boolean first, boolean last) {
+      if (shuffle) data = shuffle(data, len, elemSize);
+      Adler32 adler = new Adler32();
+      adler.update(data, 0, len);
+
+      Deflater deflater = new Deflater(level, true);
+      try {
+        deflater.setInput(data, 0, len);
+        byte[] out = new byte[len + len / 1000 + 64];
+        int n = 0;
+        if (first) {
+          int header = zlibHeader(level);
+          out[n++] = (byte) (header >> 8);
+          out[n++] = (byte) header;
+        }
+        if (last) deflater.finish();
+        while (true) {
+          if (n == out.length) out = Arrays.copyOf(out, 2 * out.length);
+          int avail = out.length - n;
+          int got = last ? deflater.deflate(out, n, avail) : deflater.deflate(out, n, avail, Deflater.SYNC_FLUSH);
+          n += got;
+          if (last ? deflater.finished() : got < avail) break; // sync flush is complete when output is not full
+        }
+        return new Block(out, n, (int) adler.getValue(), len);
+      } finally {
+        deflater.end();
+      }
+    }
+
+    /** compress the last block and wait for all of them */
+    void finish() throws IOException {
+      if (compressed != null) return;
+      endBlock(true);
+      waitFor(blocks.size());
+      compressed = new Block[blocks.size()];
+      for (int i = 0; i < compressed.length; i++)
+        compressed[i] = get(blocks.get(i));
+    }
+
+    private void waitFor(int n) throws IOException {
+      for (int i = 0; i < n; i++)
+        get(blocks.get(i));
+    }
+
+    int getBlockSize() {
+      return blockSize;
+    }
+
+    int getUncompressedSize() {
+      return uncompressedSize;
+    }
+
+    /** the compressed size of each block, including the zlib header and trailer */
+    List<Integer> getBlockCompressedSizes() {
+      List<Integer> result = new ArrayList<>(compressed.length);
+      for (int i = 0; i < compressed.length; i++)
+        result.add(compressed[i].size + (i == compressed.length - 1 ? ZLIB_TRAILER : 0));
+      return result;
+    }
+
+    int getCompressedSize() {
+      int size = ZLIB_TRAILER;
+      for (Block b : compressed) size += b.size;
+      return size;
+    }
+
+    /** write the blocks and the zlib trailer to out */
+    int writeTo(OutputStream out) throws IOException {
+      long adler = 1;
+      for (Block b : compressed) {
+        out.write(b.data, 0, b.size);
+        adler = adler32Combine(adler, b.adler & 0xffffffffL, b.len);
+      }
+      out.write(new byte[]{(byte) (adler >> 24), (byte) (adler >> 16), (byte) (adler >> 8), (byte) adler});
+      return getCompressedSize();
+    }
+  }
+
+  private static class Block {
+    final byte[] data;
+    final int size, adler, len;
+
+    Block(byte[] data, int size, int adler, int len) {
+      this.data = data;
+      this.size = size;
+      this.adler = adler;
+      this.len = len;
+    }
+  }
+
+  /**
+   * Uncompress the data of a DEFLATE or SHUFFLE_DEFLATE message that was compressed in blocks,
+   * on the calling thread or in the pool.
+   *
+   * @param dproto   the data message, with the block sizes
+   * @param datab    the compressed data
+   * @param elemSize size of each element in bytes, to unshuffle
+   * @param pool     uncompress blocks in this pool, or null to uncompress on the calling thread
+   * @return the uncompressed data
+   */
+  static byte[] inflate(NcStreamProto.Data dproto, byte[] datab, int elemSize, ExecutorService pool) throws IOException {
+    boolean shuffle = dproto.getCompress() == NcStreamProto.Compress.SHUFFLE_DEFLATE && elemSize > 1;
+    int nblocks = dproto.getBlockCompressedSizeCount();
+    int blockSize = dproto.getBlockSize();
+    byte[] result = new byte[dproto.getUncompressedSize()];
+    if (nblocks == 0 || blockSize <= 0 || (long) blockSize * (nblocks - 1) > result.length)
+      throw new IOException("Bad block sizes in compressed data of " + dproto.getVarName());
+
+    List<Future<Integer>> adlers = new ArrayList<>(nblocks);
+    int start = 0;
+    for (int i = 0; i < nblocks; i++) {
+      int bstart = start + (i == 0 ? ZLIB_HEADER : 0);
+      int blen = dproto.getBlockCompressedSize(i) - (i == 0 ? ZLIB_HEADER : 0) - (i == nblocks - 1 ? ZLIB_TRAILER : 0);
+      int rstart = i * blockSize;
+      int rlen = (i == nblocks - 1) ? result.length - rstart : blockSize;
+      if (blen < 0 || bstart + blen > datab.length)
+        throw new IOException("Bad block sizes in compressed data of " + dproto.getVarName());
+      Callable<Integer> task = () -> inflateBlock(datab, bstart, blen, result, rstart, rlen, shuffle ? elemSize : 1);
+      adlers.add((pool == null || nblocks == 1) ? done(task) : submit(pool, task));
+      start += dproto.getBlockCompressedSize(i);
+    }
+
+    // check the zlib trailer
+    long adler = 1;
+    for (int i = 0; i < nblocks; i++) {
+      int rlen = (i == nblocks - 1) ? result.length - i * blockSize : blockSize;
+      adler = adler32Combine(adler, get(adlers.get(i)) & 0xffffffffL, rlen);
+    }
+    int t = start - ZLIB_TRAILER;
+    long want = ((datab[t] & 0xffL) << 24) | ((datab[t + 1] & 0xff) << 16) | ((datab[t + 2] & 0xff) << 8) | (datab[t + 3] & 0xff);
+    if (adler != want)
+      throw new IOException("Checksum error in compressed data of " + dproto.getVarName());
+    return result;
+  }
+
+  // returns the Adler-32 of the inflated bytes, before unshuffling
+  private static int inflateBlock(byte[] in, int start, int len, byte[] result, int rstart, int rlen, int elemSize)
+          throws IOException {
+    byte[] out = (elemSize > 1) ? new byte[rlen] : result;
+    int ostart = (elemSize > 1) ? 0 : rstart;
+    Inflater inflater = new Inflater(true);
+    try {
+      inflater.setInput(in, start, len);
+      int n = 0;
+      while (n < rlen) {
+        int got = inflater.inflate(out, ostart + n, rlen - n);
+        if (got == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()))
+          throw new IOException("Compressed block is truncated");
+        n += got;
+      }
+    } catch (DataFormatException e) {
+      throw new IOException(e.getMessage(), e);
+    } finally {
+      inflater.end();
+    }
+
+    Adler32 adler = new Adler32();
+    adler.update(out, ostart, rlen);
+    if (elemSize > 1)
+      System.arraycopy(unshuffle(out, rlen, elemSize), 0, result, rstart, rlen);
+    return (int) adler.getValue();
+  }
+
+  /////////////////////////////////////////////////////////////////////
+
+  // byte b of element i goes to b * nelems + i; a partial element at the end stays in place
+  static byte[] shuffle(byte[] data, int len, int elemSize) {
+    byte[] result = new byte[len];
+    int nelems = len / elemSize;
+    for (int i = 0; i < nelems; i++)
+      for (int b = 0; b < elemSize; b++)
+        result[b * nelems + i] = data[i * elemSize + b];
+    int done = nelems * elemSize;
+    System.arraycopy(data, done, result, done, len - done);
+    return result;
+  }
+
+  static byte[] unshuffle(byte[] data, int len, int elemSize) {
+    byte[] result = new byte[len];
+    int nelems = len / elemSize;
+    for (int i = 0; i < nelems; i++)
+      for (int b = 0; b < elemSize; b++)
+        result[i * elemSize + b] = data[b * nelems + i];
+    int done = nelems * elemSize;
+    System.arraycopy(data, done, result, done, len - done);
+    return result;
+  }
+
+  // the zlib header java.util.zip.Deflater writes at this level
+  static int zlibHeader(int level) {
+    int flevel = (level < 0 || level == 6) ? 2 : (level < 2) ? 0 : (level < 6) ? 1 : 3;
+    int header = (0x78 << 8) | (flevel << 6);
+    return header + 31 - header % 31;
+  }
+
+  // the Adler-32 of two sequences, from the Adler-32 of each and the length of the second, as zlib's adler32_combine
+  static long adler32Combine(long adler1, long adler2, long len2) {
+    final long BASE = 65521;
+    long rem = len2 % BASE;
+    long sum1 = adler1 & 0xffff;
+    long sum2 = (rem * sum1) % BASE;
+    sum1 += (adler2 & 0xffff) + BASE - 1;
+    sum2 += ((adler1 >> 16) & 0xffff) + ((adler2 >> 16) & 0xffff) + BASE - rem;
+    if (sum1 >= BASE) sum1 -= BASE;
+    if (sum1 >= BASE) sum1 -= BASE;
+    if (sum2 >= (BASE << 1)) sum2 -= (BASE << 1);
+    if (sum2 >= BASE) sum2 -= BASE;
+    return sum1 | (sum2 << 16);
+  }
+
+  private static <T> Future<T> done(Callable<T> task) throws IOException {
+    try {
+      return CompletableFuture.completedFuture(task.call());
+    } catch (IOException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+  }
+
+  // a pool shut down by NcStreamCompression.initBlockPool() rejects the task, so do it on the calling thread
+  private static <T> Future<T> submit(ExecutorService pool, Callable<T> task) throws IOException {
+    try {
+      return pool.submit(task);
+    } catch (RejectedExecutionException e) {
+      return done(task);
+    }
+  }
+
+  private static <T> T get(Future<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while compressing ncstream data");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) throw (IOException) cause;
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      if (cause instanceof Error) throw (Error) cause;
+      throw new IOException(cause);
+    }
+  }
+
+}
@@ -35,11 +35,36 @@ package ucar.nc2.stream;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Created by rmay on 8/10/15.
  */
 public class NcStreamCompression {
+    /** uncompressed size of the blocks that data messages are compressed in */
+    static public final int BLOCK_SIZE = 256 * 1024;
+
+    // optional thread pool to compress and uncompress blocks in parallel, shared by all streams
+    static private ForkJoinPool blockPool = null;
+
+    /**
+     * Compress and uncompress the blocks of ncstream data messages in a pool of nthreads, shared by all writers
+     * and readers, eg the cdmremote server and client.
+     * @param nthreads size of the pool; if <= 1, blocks are done serially on the calling thread.
+     */
+    static public synchronized void initBlockPool(int nthreads) {
+        // publish the new pool before shutting down the old one, streams that still have the old one work on their own thread
+        ForkJoinPool old = blockPool;
+        blockPool = (nthreads > 1) ? new ForkJoinPool(nthreads) : null;
+        if (old != null) old.shutdown();
+    }
+
+    /** @return the block pool, or null if not enabled */
+    static public synchronized ExecutorService getBlockPool() {
+        return blockPool;
+    }
+
     NcStreamProto.Compress type;
     Object compressInfo;
 
@@ -64,6 +89,29 @@ public class NcStreamCompression {
         return new NcStreamCompression(NcStreamProto.Compress.DEFLATE, level);
     }
 
+    /**
+     * Deflate after grouping the bytes of each element by significance, which usually compresses
+     * floating point data better and faster. Older readers, which know only DEFLATE, can't read it.
+     */
+    public static NcStreamCompression shuffleDeflate(int level) {
+        return new NcStreamCompression(NcStreamProto.Compress.SHUFFLE_DEFLATE, level);
+    }
+
+    /**
+     * Set up a stream that compresses the data of a message in blocks of BLOCK_SIZE, in the block pool if enabled.
+     * Not for NONE.
+     * @param elemSize size of each element in bytes
+     */
+    NcStreamBlocks.BlockOutputStream setupBlocks(int elemSize) {
+        boolean shuffle = (type == NcStreamProto.Compress.SHUFFLE_DEFLATE);
+        return new NcStreamBlocks.BlockOutputStream(shuffle, getLevel(), elemSize, BLOCK_SIZE, getBlockPool());
+    }
+
+    // limit level to range [-1, 9], where -1 is default deflate setting.
+    private int getLevel() {
+        return Math.min(Math.max((Integer)compressInfo, -1), 9);
+    }
+
     public OutputStream setupStream(OutputStream out, int size)
             throws IOException
     {
@@ -71,8 +119,7 @@ public class NcStreamCompression {
             // For compression (currently deflate) we compress the data, then
             // will write the block size, and then data, when the stream is closed.
             case DEFLATE:
-                // limit level to range [-1, 9], where -1 is default deflate setting.
-                int level = Math.min(Math.max((Integer)compressInfo, -1), 9);
+                int level = getLevel();
                 int bufferSize = Math.min(size / 2, 512 * 1024 * 1024);
                 return new NcStreamCompressedOutputStream(out, bufferSize, level);
 
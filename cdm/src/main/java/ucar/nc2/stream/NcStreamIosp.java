@@ -102,6 +102,7 @@ public class NcStreamIosp extends AbstractIOServiceProvider {
     ByteOrder bo;
     int nelems, uncompressedLen;
     NcStreamProto.StructureData sdata;
+    NcStreamProto.Data blocks; // compressed in blocks
 
     DataStorage(int size, long filePos, NcStreamProto.Data dproto) {
       this.size = size;
@@ -113,6 +114,8 @@ public class NcStreamIosp extends AbstractIOServiceProvider {
       isDeflate = dproto.getCompress() == NcStreamProto.Compress.DEFLATE;
       if (isDeflate)
         uncompressedLen = dproto.getUncompressedSize();
+      if (dproto.getBlockCompressedSizeCount() > 0)
+        blocks = dproto;
     }
 
     @Override
@@ -144,7 +147,11 @@ public class NcStreamIosp extends AbstractIOServiceProvider {
         byte[] data = new byte[dataStorage.size];
         raf.readFully(data);
 
-        if (dataStorage.isDeflate) {
+        if (dataStorage.blocks != null) {
+          result = ByteBuffer.wrap(NcStreamBlocks.inflate(dataStorage.blocks, data, v.getElementSize(), NcStreamCompression.getBlockPool()));
+          result.order(dataStorage.bo);
+
+        } else if (dataStorage.isDeflate) {
           ByteArrayInputStream bin = new ByteArrayInputStream(data);
           InflaterInputStream in = new InflaterInputStream(bin);
           ByteArrayOutputStream bout = new ByteArrayOutputStream(data.length * 7);
@@ -257,6 +257,14 @@ public final class NcStreamProto {
      * <code>DEFLATE = 1;</code>
      */
     DEFLATE(1, 1),
+    /**
+     * <code>SHUFFLE_DEFLATE = 2;</code>
+     *
+     * <pre>
+     * bytes of each element grouped by significance, then deflated
+     * </pre>
+     */
+    SHUFFLE_DEFLATE(2, 2),
     UNRECOGNIZED(-1, -1),
     ;
 
@@ -268,6 +276,14 @@ public final class NcStreamProto {
      * <code>DEFLATE = 1;</code>
      */
     public static final int DEFLATE_VALUE = 1;
+    /**
+     * <code>SHUFFLE_DEFLATE = 2;</code>
+     *
+     * <pre>
+     * bytes of each element grouped by significance, then deflated
+     * </pre>
+     */
+    public static final int SHUFFLE_DEFLATE_VALUE = 2;
 
 
     public final int getNumber() {
@@ -282,6 +298,7 @@ public final class NcStreamProto {
       switch (value) {
         case 0: return NONE;
         case 1: return DEFLATE;
+        case 2: return SHUFFLE_DEFLATE;
         default: return null;
       }
     }
@@ -13320,6 +13337,40 @@ public final class NcStreamProto {
      */
     int getUncompressedSize();
 
+    /**
+     * <code>optional uint32 blockSize = 9;</code>
+     *
+     * <pre>
+     * uncompressed size of each block but the last, when compressed in blocks
+     * </pre>
+     */
+    int getBlockSize();
+
+    /**
+     * <code>repeated uint32 blockCompressedSize = 10;</code>
+     *
+     * <pre>
+     * compressed size of each block
+     * </pre>
+     */
+    java.util.List<java.lang.Integer> getBlockCompressedSizeList();
+    /**
+     * <code>repeated uint32 blockCompressedSize = 10;</code>
+     *
+     * <pre>
+     * compressed size of each block
+     * </pre>
+     */
+    int getBlockCompressedSizeCount();
+    /**
+     * <code>repeated uint32 blockCompressedSize = 10;</code>
+     *
+     * <pre>
+     * compressed size of each block
+     * </pre>
+     */
+    int getBlockCompressedSize(int index);
+
     public ucar.nc2.stream.NcStreamProto.Data.BigendPresentCase getBigendPresentCase();
   }
   /**
@@ -13340,6 +13391,8 @@ public final class NcStreamProto {
       compress_ = 0;
       vdata_ = false;
       uncompressedSize_ = 0;
+      blockSize_ = 0;
+      blockCompressedSize_ = java.util.Collections.emptyList();
     }
 
     @java.lang.Override
@@ -13417,6 +13470,32 @@ public final class NcStreamProto {
               uncompressedSize_ = input.readUInt32();
               break;
             }
+            case 72: {
+
+              blockSize_ = input.readUInt32();
+              break;
+            }
+            case 80: {
+              if (!((mutable_bitField0_ & 0x00000200) == 0x00000200)) {
+                blockCompressedSize_ = new java.util.ArrayList<java.lang.Integer>();
+                mutable_bitField0_ |= 0x00000200;
+              }
+              blockCompressedSize_.add(input.readUInt32());
+              break;
+            }
+            case 82: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              if (!((mutable_bitField0_ & 0x00000200) == 0x00000200) && input.getBytesUntilLimit() > 0) {
+                blockCompressedSize_ = new java.util.ArrayList<java.lang.Integer>();
+                mutable_bitField0_ |= 0x00000200;
+              }
+              while (input.getBytesUntilLimit() > 0) {
+                blockCompressedSize_.add(input.readUInt32());
+              }
+              input.popLimit(limit);
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -13426,6 +13505,9 @@ public final class NcStreamProto {
             new com.google.protobuf.InvalidProtocolBufferException(
                 e.getMessage()).setUnfinishedMessage(this));
       } finally {
+        if (((mutable_bitField0_ & 0x00000200) == 0x00000200)) {
+          blockCompressedSize_ = java.util.Collections.unmodifiableList(blockCompressedSize_);
+        }
         makeExtensionsImmutable();
       }
     }
@@ -13441,6 +13523,7 @@ public final class NcStreamProto {
               ucar.nc2.stream.NcStreamProto.Data.class, ucar.nc2.stream.NcStreamProto.Data.Builder.class);
     }
 
+    private int bitField0_;
     private int bigendPresentCase_ = 0;
     private java.lang.Object bigendPresent_;
     public enum BigendPresentCase
@@ -13623,6 +13706,54 @@ public final class NcStreamProto {
       return uncompressedSize_;
     }
 
+    public static final int BLOCKSIZE_FIELD_NUMBER = 9;
+    private int blockSize_;
+    /**
+     * <code>optional uint32 blockSize = 9;</code>
+     *
+     * <pre>
+     * uncompressed size of each block but the last, when compressed in blocks
+     * </pre>
+     */
+    public int getBlockSize() {
+      return blockSize_;
+    }
+
+    public static final int BLOCKCOMPRESSEDSIZE_FIELD_NUMBER = 10;
+    private java.util.List<java.lang.Integer> blockCompressedSize_;
+    /**
+     * <code>repeated uint32 blockCompressedSize = 10;</code>
+     *
+     * <pre>
+     * compressed size of each block
+     * </pre>
+     */
+    public java.util.List<java.lang.Integer>
+        getBlockCompressedSizeList() {
+      return blockCompressedSize_;
+    }
+    /**
+     * <code>repeated uint32 blockCompressedSize = 10;</code>
+     *
+     * <pre>
+     * compressed size of each block
+     * </pre>
+     */
+    public int getBlockCompressedSizeCount() {
+      return blockCompressedSize_.size();
+    }
+    /**
+     * <code>repeated uint32 blockCompressedSize = 10;</code>
+     *
+     * <pre>
+     * compressed size of each block
+     * </pre>
+     */
+    public int getBlockCompressedSize(int index) {
+      return blockCompressedSize_.get(index);
+    }
+    private int blockCompressedSizeMemoizedSerializedSize = -1;
+
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
       byte isInitialized = memoizedIsInitialized;
@@ -13635,6 +13766,7 @@ public final class NcStreamProto {
 
     public void writeTo(com.google.protobuf.CodedOutputStream output)
                         throws java.io.IOException {
+      getSerializedSize();
       if (!getVarNameBytes().isEmpty()) {
         com.google.protobuf.GeneratedMessage.writeString(output, 1, varName_);
       }
@@ -13660,6 +13792,16 @@ public final class NcStreamProto {
       if (uncompressedSize_ != 0) {
         output.writeUInt32(8, uncompressedSize_);
       }
+      if (blockSize_ != 0) {
+        output.writeUInt32(9, blockSize_);
+      }
+      if (getBlockCompressedSizeList().size() > 0) {
+        output.writeRawVarint32(82);
+        output.writeRawVarint32(blockCompressedSizeMemoizedSerializedSize);
+      }
+      for (int i = 0; i < blockCompressedSize_.size(); i++) {
+        output.writeUInt32NoTag(blockCompressedSize_.get(i));
+      }
     }
 
     public int getSerializedSize() {
@@ -13699,6 +13841,24 @@ public final class NcStreamProto {
         size += com.google.protobuf.CodedOutputStream
           .computeUInt32Size(8, uncompressedSize_);
       }
+      if (blockSize_ != 0) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeUInt32Size(9, blockSize_);
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < blockCompressedSize_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeUInt32SizeNoTag(blockCompressedSize_.get(i));
+        }
+        size += dataSize;
+        if (!getBlockCompressedSizeList().isEmpty()) {
+          size += 1;
+          size += com.google.protobuf.CodedOutputStream
+              .computeInt32SizeNoTag(dataSize);
+        }
+        blockCompressedSizeMemoizedSerializedSize = dataSize;
+      }
       memoizedSize = size;
       return size;
     }
@@ -13828,6 +13988,10 @@ public final class NcStreamProto {
 
         uncompressedSize_ = 0;
 
+        blockSize_ = 0;
+
+        blockCompressedSize_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000200);
         bigendPresentCase_ = 0;
         bigendPresent_ = null;
         return this;
@@ -13852,6 +14016,8 @@ public final class NcStreamProto {
 
       public ucar.nc2.stream.NcStreamProto.Data buildPartial() {
         ucar.nc2.stream.NcStreamProto.Data result = new ucar.nc2.stream.NcStreamProto.Data(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
         result.varName_ = varName_;
         result.dataType_ = dataType_;
         if (sectionBuilder_ == null) {
@@ -13866,6 +14032,13 @@ public final class NcStreamProto {
         result.compress_ = compress_;
         result.vdata_ = vdata_;
         result.uncompressedSize_ = uncompressedSize_;
+        result.blockSize_ = blockSize_;
+        if (((bitField0_ & 0x00000200) == 0x00000200)) {
+          blockCompressedSize_ = java.util.Collections.unmodifiableList(blockCompressedSize_);
+          bitField0_ = (bitField0_ & ~0x00000200);
+        }
+        result.blockCompressedSize_ = blockCompressedSize_;
+        result.bitField0_ = to_bitField0_;
         result.bigendPresentCase_ = bigendPresentCase_;
         onBuilt();
         return result;
@@ -13904,6 +14077,19 @@ public final class NcStreamProto {
         if (other.getUncompressedSize() != 0) {
           setUncompressedSize(other.getUncompressedSize());
         }
+        if (other.getBlockSize() != 0) {
+          setBlockSize(other.getBlockSize());
+        }
+        if (!other.blockCompressedSize_.isEmpty()) {
+          if (blockCompressedSize_.isEmpty()) {
+            blockCompressedSize_ = other.blockCompressedSize_;
+            bitField0_ = (bitField0_ & ~0x00000200);
+          } else {
+            ensureBlockCompressedSizeIsMutable();
+            blockCompressedSize_.addAll(other.blockCompressedSize_);
+          }
+          onChanged();
+        }
         switch (other.getBigendPresentCase()) {
           case BIGEND: {
             setBigend(other.getBigend());
@@ -13953,6 +14139,7 @@ public final class NcStreamProto {
         return this;
       }
 
+      private int bitField0_;
 
       private java.lang.Object varName_ = "";
       /**
@@ -14415,6 +14602,138 @@ public final class NcStreamProto {
         onChanged();
         return this;
       }
+
+      private int blockSize_ ;
+      /**
+       * <code>optional uint32 blockSize = 9;</code>
+       *
+       * <pre>
+       * uncompressed size of each block but the last, when compressed in blocks
+       * </pre>
+       */
+      public int getBlockSize() {
+        return blockSize_;
+      }
+      /**
+       * <code>optional uint32 blockSize = 9;</code>
+       *
+       * <pre>
+       * uncompressed size of each block but the last, when compressed in blocks
+       * </pre>
+       */
+      public Builder setBlockSize(int value) {
+        
+        blockSize_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional uint32 blockSize = 9;</code>
+       *
+       * <pre>
+       * uncompressed size of each block but the last, when compressed in blocks
+       * </pre>
+       */
+      public Builder clearBlockSize() {
+        
+        blockSize_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private java.util.List<java.lang.Integer> blockCompressedSize_ = java.util.Collections.emptyList();
+      private void ensureBlockCompressedSizeIsMutable() {
+        if (!((bitField0_ & 0x00000200) == 0x00000200)) {
+          blockCompressedSize_ = new java.util.ArrayList<java.lang.Integer>(blockCompressedSize_);
+          bitField0_ |= 0x00000200;
+         }
+      }
+      /**
+       * <code>repeated uint32 blockCompressedSize = 10;</code>
+       *
+       * <pre>
+       * compressed size of each block
+       * </pre>
+       */
+      public java.util.List<java.lang.Integer>
+          getBlockCompressedSizeList() {
+        return java.util.Collections.unmodifiableList(blockCompressedSize_);
+      }
+      /**
+       * <code>repeated uint32 blockCompressedSize = 10;</code>
+       *
+       * <pre>
+       * compressed size of each block
+       * </pre>
+       */
+      public int getBlockCompressedSizeCount() {
+        return blockCompressedSize_.size();
+      }
+      /**
+       * <code>repeated uint32 blockCompressedSize = 10;</code>
+       *
+       * <pre>
+       * compressed size of each block
+       * </pre>
+       */
+      public int getBlockCompressedSize(int index) {
+        return blockCompressedSize_.get(index);
+      }
+      /**
+       * <code>repeated uint32 blockCompressedSize = 10;</code>
+       *
+       * <pre>
+       * compressed size of each block
+       * </pre>
+       */
+      public Builder setBlockCompressedSize(
+          int index, int value) {
+        ensureBlockCompressedSizeIsMutable();
+        blockCompressedSize_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated uint32 blockCompressedSize = 10;</code>
+       *
+       * <pre>
+       * compressed size of each block
+       * </pre>
+       */
+      public Builder addBlockCompressedSize(int value) {
+        ensureBlockCompressedSizeIsMutable();
+        blockCompressedSize_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated uint32 blockCompressedSize = 10;</code>
+       *
+       * <pre>
+       * compressed size of each block
+       * </pre>
+       */
+      public Builder addAllBlockCompressedSize(
+          java.lang.Iterable<? extends java.lang.Integer> values) {
+        ensureBlockCompressedSizeIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, blockCompressedSize_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated uint32 blockCompressedSize = 10;</code>
+       *
+       * <pre>
+       * compressed size of each block
+       * </pre>
+       */
+      public Builder clearBlockCompressedSize() {
+        blockCompressedSize_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000200);
+        onChanged();
+        return this;
+      }
       public final Builder setUnknownFields(
           final com.google.protobuf.UnknownFieldSet unknownFields) {
         return this;
@@ -23147,43 +23466,45 @@ public final class NcStreamProto {
       "r\022\017\n\007message\030\001 \001(\t\022\014\n\004code\030\002 \001(\r\"4\n\005Rang" +
       "e\022\r\n\005start\030\001 \001(\004\022\014\n\004size\030\002 \001(\004\022\016\n\006stride" +
       "\030\003 \001(\004\" \n\007Section\022\025\n\005range\030\001 \003(\0132\006.Range",
-      "\"\312\001\n\004Data\022\017\n\007varName\030\001 \001(\t\022\033\n\010dataType\030\002" +
+      "\"\372\001\n\004Data\022\017\n\007varName\030\001 \001(\t\022\033\n\010dataType\030\002" +
       " \001(\0162\t.DataType\022\031\n\007section\030\003 \001(\0132\010.Secti" +
       "on\022\020\n\006bigend\030\004 \001(\010H\000\022\017\n\007version\030\005 \001(\r\022\033\n" +
       "\010compress\030\006 \001(\0162\t.Compress\022\r\n\005vdata\030\007 \001(" +
-      "\010\022\030\n\020uncompressedSize\030\010 \001(\rB\020\n\016bigend_pr" +
-      "esent\"q\n\rStructureData\022\016\n\006member\030\001 \003(\r\022\014" +
-      "\n\004data\030\002 \001(\014\022\021\n\theapCount\030\003 \003(\r\022\r\n\005sdata" +
-      "\030\004 \003(\t\022\r\n\005nrows\030\005 \001(\004\022\021\n\trowLength\030\006 \001(\r" +
-      "\"\201\002\n\007DataCol\022\014\n\004name\030\001 \001(\t\022\033\n\010dataType\030\002" +
-      " \001(\0162\t.DataType\022\031\n\007section\030\003 \001(\0132\010.Secti",
-      "on\022\016\n\006bigend\030\004 \001(\010\022\017\n\007version\030\005 \001(\r\022\016\n\006i" +
-      "sVlen\030\007 \001(\010\022\016\n\006nelems\030\t \001(\r\022\020\n\010primdata\030" +
-      "\n \001(\014\022\022\n\nstringdata\030\013 \003(\t\022\r\n\005vlens\030\014 \003(\r" +
-      "\022\022\n\nopaquedata\030\r \003(\014\022&\n\nstructdata\030\016 \001(\013" +
-      "2\022.ArrayStructureCol\"1\n\021ArrayStructureCo" +
-      "l\022\034\n\nmemberData\030\001 \003(\0132\010.DataCol\"\205\002\n\007Data" +
-      "Row\022\020\n\010fullName\030\001 \001(\t\022\033\n\010dataType\030\002 \001(\0162" +
-      "\t.DataType\022\031\n\007section\030\003 \001(\0132\010.Section\022\016\n" +
-      "\006bigend\030\004 \001(\010\022\017\n\007version\030\005 \001(\r\022\016\n\006isVlen" +
-      "\030\007 \001(\010\022\016\n\006nelems\030\t \001(\r\022\020\n\010primdata\030\n \001(\014",
-      "\022\022\n\nstringdata\030\013 \003(\t\022\r\n\005vlens\030\014 \003(\r\022\022\n\no" +
-      "paquedata\030\r \003(\014\022&\n\nstructdata\030\016 \001(\0132\022.Ar" +
-      "rayStructureRow\"W\n\006Member\022\021\n\tshortName\030\001" +
-      " \001(\t\022\033\n\010dataType\030\002 \001(\0162\t.DataType\022\r\n\005sha" +
-      "pe\030\003 \003(\r\022\016\n\006isVlen\030\004 \001(\010\"\256\001\n\021ArrayStruct" +
-      "ureRow\022\030\n\007members\030\001 \003(\0132\007.Member\022\r\n\005nrow" +
-      "s\030\005 \001(\004\022\021\n\trowLength\030\006 \001(\r\022\017\n\007fixdata\030\n " +
-      "\001(\014\022\022\n\nstringdata\030\013 \003(\t\022\020\n\010bytedata\030\r \003(" +
-      "\014\022&\n\nstructdata\030\016 \003(\0132\022.ArrayStructureRo" +
-      "w*\325\001\n\010DataType\022\010\n\004CHAR\020\000\022\010\n\004BYTE\020\001\022\t\n\005SH",
-      "ORT\020\002\022\007\n\003INT\020\003\022\010\n\004LONG\020\004\022\t\n\005FLOAT\020\005\022\n\n\006D" +
-      "OUBLE\020\006\022\n\n\006STRING\020\007\022\r\n\tSTRUCTURE\020\010\022\014\n\010SE" +
-      "QUENCE\020\t\022\t\n\005ENUM1\020\n\022\t\n\005ENUM2\020\013\022\t\n\005ENUM4\020" +
-      "\014\022\n\n\006OPAQUE\020\r\022\t\n\005UBYTE\020\016\022\n\n\006USHORT\020\017\022\010\n\004" +
-      "UINT\020\020\022\t\n\005ULONG\020\021*!\n\010Compress\022\010\n\004NONE\020\000\022" +
-      "\013\n\007DEFLATE\020\001B \n\017ucar.nc2.streamB\rNcStrea" +
-      "mProtob\006proto3"
+      "\010\022\030\n\020uncompressedSize\030\010 \001(\r\022\021\n\tblockSize" +
+      "\030\t \001(\r\022\033\n\023blockCompressedSize\030\n \003(\rB\020\n\016b" +
+      "igend_present\"q\n\rStructureData\022\016\n\006member" +
+      "\030\001 \003(\r\022\014\n\004data\030\002 \001(\014\022\021\n\theapCount\030\003 \003(\r\022" +
+      "\r\n\005sdata\030\004 \003(\t\022\r\n\005nrows\030\005 \001(\004\022\021\n\trowLeng" +
+      "th\030\006 \001(\r\"\201\002\n\007DataCol\022\014\n\004name\030\001 \001(\t\022\033\n\010da",
+      "taType\030\002 \001(\0162\t.DataType\022\031\n\007section\030\003 \001(\013" +
+      "2\010.Section\022\016\n\006bigend\030\004 \001(\010\022\017\n\007version\030\005 " +
+      "\001(\r\022\016\n\006isVlen\030\007 \001(\010\022\016\n\006nelems\030\t \001(\r\022\020\n\010p" +
+      "rimdata\030\n \001(\014\022\022\n\nstringdata\030\013 \003(\t\022\r\n\005vle" +
+      "ns\030\014 \003(\r\022\022\n\nopaquedata\030\r \003(\014\022&\n\nstructda" +
+      "ta\030\016 \001(\0132\022.ArrayStructureCol\"1\n\021ArrayStr" +
+      "uctureCol\022\034\n\nmemberData\030\001 \003(\0132\010.DataCol\"" +
+      "\205\002\n\007DataRow\022\020\n\010fullName\030\001 \001(\t\022\033\n\010dataTyp" +
+      "e\030\002 \001(\0162\t.DataType\022\031\n\007section\030\003 \001(\0132\010.Se" +
+      "ction\022\016\n\006bigend\030\004 \001(\010\022\017\n\007version\030\005 \001(\r\022\016",
+      "\n\006isVlen\030\007 \001(\010\022\016\n\006nelems\030\t \001(\r\022\020\n\010primda" +
+      "ta\030\n \001(\014\022\022\n\nstringdata\030\013 \003(\t\022\r\n\005vlens\030\014 " +
+      "\003(\r\022\022\n\nopaquedata\030\r \003(\014\022&\n\nstructdata\030\016 " +
+      "\001(\0132\022.ArrayStructureRow\"W\n\006Member\022\021\n\tsho" +
+      "rtName\030\001 \001(\t\022\033\n\010dataType\030\002 \001(\0162\t.DataTyp" +
+      "e\022\r\n\005shape\030\003 \003(\r\022\016\n\006isVlen\030\004 \001(\010\"\256\001\n\021Arr" +
+      "ayStructureRow\022\030\n\007members\030\001 \003(\0132\007.Member" +
+      "\022\r\n\005nrows\030\005 \001(\004\022\021\n\trowLength\030\006 \001(\r\022\017\n\007fi" +
+      "xdata\030\n \001(\014\022\022\n\nstringdata\030\013 \003(\t\022\020\n\010byted" +
+      "ata\030\r \003(\014\022&\n\nstructdata\030\016 \003(\0132\022.ArrayStr",
+      "uctureRow*\325\001\n\010DataType\022\010\n\004CHAR\020\000\022\010\n\004BYTE" +
+      "\020\001\022\t\n\005SHORT\020\002\022\007\n\003INT\020\003\022\010\n\004LONG\020\004\022\t\n\005FLOA" +
+      "T\020\005\022\n\n\006DOUBLE\020\006\022\n\n\006STRING\020\007\022\r\n\tSTRUCTURE" +
+      "\020\010\022\014\n\010SEQUENCE\020\t\022\t\n\005ENUM1\020\n\022\t\n\005ENUM2\020\013\022\t" +
+      "\n\005ENUM4\020\014\022\n\n\006OPAQUE\020\r\022\t\n\005UBYTE\020\016\022\n\n\006USHO" +
+      "RT\020\017\022\010\n\004UINT\020\020\022\t\n\005ULONG\020\021*6\n\010Compress\022\010\n" +
+      "\004NONE\020\000\022\013\n\007DEFLATE\020\001\022\023\n\017SHUFFLE_DEFLATE\020" +
+      "\002B \n\017ucar.nc2.streamB\rNcStreamProtob\006pro" +
+      "to3"
     };
     com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
         new com.google.protobuf.Descriptors.FileDescriptor.    InternalDescriptorAssigner() {
@@ -23268,7 +23589,7 @@ public final class NcStreamProto {
     internal_static_Data_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_Data_descriptor,
-        new java.lang.String[] { "VarName", "DataType", "Section", "Bigend", "Version", "Compress", "Vdata", "UncompressedSize", "BigendPresent", });
+        new java.lang.String[] { "VarName", "DataType", "Section", "Bigend", "Version", "Compress", "Vdata", "UncompressedSize", "BlockSize", "BlockCompressedSize", "BigendPresent", });
     internal_static_StructureData_descriptor =
       getDescriptor().getMessageTypes().get(11);
     internal_static_StructureData_fieldAccessorTable = new
@@ -211,7 +211,13 @@ public class NcStreamReader {
     Array data;
     NcStreamProto.Compress compress = dproto.getCompress();
     int uncompressedSize = dproto.getUncompressedSize();
-    if (compress == NcStreamProto.Compress.DEFLATE) {
+    if (dproto.getBlockCompressedSizeCount() > 0) { // DEFLATE or SHUFFLE_DEFLATE in blocks
+      byte[] resultb = NcStreamBlocks.inflate(dproto, datab, dataType.getSize(), NcStreamCompression.getBlockPool());
+      data = Array.factory(dataType, section.getShape(), ByteBuffer.wrap(resultb));
+      total_uncompressedSize += uncompressedSize;
+      total_compressedSize += dsize;
+
+    } else if (compress == NcStreamProto.Compress.DEFLATE) {
       ByteArrayInputStream bin = new ByteArrayInputStream(datab);
       InflaterInputStream in = new InflaterInputStream(bin);
       byte[] resultb = new byte[uncompressedSize];
@@ -103,6 +103,13 @@ public class NcStreamWriter {
     ByteOrder bo = ByteOrder.nativeOrder(); // reader makes right
     long size = 0;
     size += writeBytes(out, NcStream.MAGIC_DATA); // magic
+
+    // only fixed length primitive data is compressed, in blocks, which must be done before the dataProto
+    if (!isCompressible(v))
+      compress = NcStreamCompression.none();
+    if (compress.type != NcStreamProto.Compress.NONE)
+      return size + sendCompressedData(v, section, out, compress, bo, (int) uncompressedLength);
+
     NcStreamProto.Data dataProto = NcStream.encodeDataProto(v, section, compress.type, bo, (int) uncompressedLength);
     byte[] datab = dataProto.toByteArray();
     size += NcStream.writeVInt(out, datab.length); // dataProto len
@@ -144,9 +151,38 @@ public class NcStreamWriter {
     return size;
   }
 
-  // LOOK compression not used
+  private boolean isCompressible(Variable v) {
+    DataType dt = v.getDataType();
+    return !v.isVariableLength() && (dt != DataType.STRING) && (dt != DataType.OPAQUE) &&
+            (dt != DataType.STRUCTURE) && (dt != DataType.SEQUENCE);
+  }
+
+  // the data is compressed in blocks, in the block pool if enabled, while it is being read
+  private long sendCompressedData(Variable v, Section section, OutputStream out, NcStreamCompression compress,
+                                  ByteOrder bo, int uncompressedLength) throws IOException, InvalidRangeException {
+    NcStreamBlocks.BlockOutputStream blocks = compress.setupBlocks(v.getElementSize());
+    v.readToStream(section, blocks);
+    blocks.finish();
+
+    NcStreamProto.Data.Builder builder = NcStream.encodeDataProto(v, section, compress.type, bo, uncompressedLength).toBuilder();
+    builder.setBlockSize(blocks.getBlockSize());
+    builder.addAllBlockCompressedSize(blocks.getBlockCompressedSizes());
+    byte[] datab = builder.build().toByteArray();
+
+    long size = 0;
+    size += NcStream.writeVInt(out, datab.length); // dataProto len
+    size += writeBytes(out, datab); // dataProto
+    size += NcStream.writeVInt(out, blocks.getCompressedSize());
+    size += blocks.writeTo(out);
+    if (show) System.out.printf(" NcStreamWriter sent %d bytes compressed in %d blocks%n", size, builder.getBlockCompressedSizeCount());
+    return size;
+  }
+
+  // compressed data is sent in a version 1 data message, which NcStreamReader also reads
   public long sendData2(Variable v, Section section, OutputStream out, NcStreamCompression compress) throws IOException, InvalidRangeException {
     if (show) System.out.printf(" %s section=%s%n", v.getFullName(), section);
+    if (compress.type != NcStreamProto.Compress.NONE && isCompressible(v))
+      return sendData(v, section, out, compress);
 
     boolean isVlen = v.isVariableLength(); //  && v.getRank() > 1;
     if (isVlen)
@@ -0,0 +1,552 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.util.cache;
+
+import ucar.nc2.dataset.DatasetUrl;
+import ucar.nc2.time.CalendarDateFormatter;
+import ucar.nc2.util.CancelTask;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keep cache of open FileCacheable objects, with the same contract and limits as FileCache,
+ * but without any cache-wide lock on the acquire / release path.
+ * <ol>
+ * <li>Unlocked files are kept in a lock-free deque for each hashKey; acquire pops the most recently released one.
+ * <li>Each file has an atomic state (IDLE, LOCKED, REMOVED), so acquire, release, cleanup and eject
+ *     decide ownership of a file with a single compare-and-set.
+ * <li>The only locking is on the ConcurrentHashMap bin of a single hashKey, when a released file is pushed back.
+ * <li>Cleanup closes the least recently used unlocked files, down to minElements. It runs in a shared daemon thread
+ *     shortly after the softLimit is exceeded and periodically, and in the calling thread when the hardLimit is exceeded.
+ *     At most one cleanup runs at a time; other threads never wait for it.
+ * </ol>
+ * As with FileCache, the limits are numbers of open files, not bytes: the open file handles are what runs out,
+ * and FileCacheable does not report the memory a file holds.
+ * <p/>
+ * Call shutdown() when exiting the program, in order to shut down the cleanup thread.
+ * disable() cancels the periodic cleanup of this cache, so a cache that is replaced should be disabled.
+ *
+ * @since 10/18/2026
+ */
+@ThreadSafe
+public class FileCacheStriped implements FileCacheIF {
+  static private final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(FileCacheStriped.class);
+  static private final org.slf4j.Logger cacheLog = org.slf4j.LoggerFactory.getLogger("cacheLogger");
+
+  static private final int IDLE = 0;
+  static private final int LOCKED = 1;
+  static private final int REMOVED = 2;
+
+  static private ScheduledExecutorService exec;
+
+  /**
+   * You must call shutdown() to shut down the background thread in order to get a clean process shutdown.
+   */
+  public static synchronized void shutdown() {
+    if (exec != null)
+      exec.shutdownNow();
+    exec = null;
+  }
+
+  private static synchronized ScheduledExecutorService getExecutor() {
+    if (exec == null) {
+      exec = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "FileCacheStriped");
+        t.setDaemon(true);
+        return t;
+      });
+    }
+    return exec;
+  }
+
+  /////////////////////////////////////////////////////////////////////////////////////////
+
+  private final String name;
+  private final int minElements, softLimit, hardLimit;
+  private final long period; // msecs
+
+  private final AtomicBoolean disabled = new AtomicBoolean(false);
+  private final AtomicBoolean scheduled = new AtomicBoolean(false); // a background cleanup is scheduled
+  private final AtomicBoolean cleaning = new AtomicBoolean(false);  // a cleanup is running
+  private final AtomicInteger count = new AtomicInteger();          // number of files not REMOVED
+  private ScheduledFuture<?> periodic; // the periodic cleanup, guarded by this
+
+  private final ConcurrentHashMap<Object, ConcurrentLinkedDeque<CacheFile>> idle; // unlocked files, by hashKey
+  private final ConcurrentHashMap<FileCacheable, CacheFile> files;                // all files in the cache
+
+  // stats
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder miss = new LongAdder();
+  private final LongAdder cleanups = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private volatile ConcurrentHashMap<Object, Tracker> track;
+
+  /**
+   * Constructor.
+   *
+   * @param name                of file cache
+   * @param minElementsInMemory keep this number in the cache
+   * @param softLimit           trigger a background cleanup if it goes over this number.
+   * @param hardLimit           if > 0, cleanup in the calling thread if it goes over this number.
+   * @param period              if > 0, do periodic cleanups every this number of seconds.
+   */
+  public FileCacheStriped(String name, int minElementsInMemory, int softLimit, int hardLimit, int period) {
+    this.name = name;
+    this.minElements = minElementsInMemory;
+    this.softLimit = softLimit;
+    this.hardLimit = hardLimit;
+    this.period = (long) 1000 * period;
+
+    int concurrency = Math.max(16, Runtime.getRuntime().availableProcessors());
+    idle = new ConcurrentHashMap<>(2 * softLimit, 0.75f, concurrency);
+    files = new ConcurrentHashMap<>(4 * softLimit, 0.75f, concurrency);
+
+    schedulePeriodicCleanup();
+  }
+
+  private synchronized void schedulePeriodicCleanup() {
+    if (period <= 0 || periodic != null) return;
+    periodic = getExecutor().scheduleAtFixedRate(this::periodicCleanup, period, period, TimeUnit.MILLISECONDS);
+    if (cacheLog.isDebugEnabled())
+      cacheLog.debug("FileCacheStriped " + name + " cleanup every " + period / 1000 + " secs");
+  }
+
+  private synchronized void cancelPeriodicCleanup() {
+    if (periodic != null) periodic.cancel(false);
+    periodic = null;
+  }
+
+  @Override
+  public void enable() {
+    disabled.set(false);
+    schedulePeriodicCleanup();
+  }
+
+  /**
+   * Disable the cache, force release all files, and cancel the periodic cleanup.
+   * You must still call shutdown() before exiting the application.
+   */
+  @Override
+  public void disable() {
+    disabled.set(true);
+    cancelPeriodicCleanup();
+    clearCache(true);
+  }
+
+  @Override
+  public FileCacheable acquire(FileFactory factory, DatasetUrl durl) throws IOException {
+    return acquire(factory, durl.trueurl, durl, -1, null, null);
+  }
+
+  /**
+   * Acquire a FileCacheable from the cache, and lock it so no one else can use it.
+   * If not already in cache, open it with the FileFactory, and put in cache.
+   * App should call FileCacheable.close when done, and the file is then released instead of closed.
+   *
+   * @param factory     use this factory to open the file if not in the cache; may not be null
+   * @param hashKey     unique key for this file. If null, the location will be used
+   * @param location    file location, may also used as the cache name, will be passed to the NetcdfFileFactory
+   * @param buffer_size RandomAccessFile buffer size, if <= 0, use default size
+   * @param cancelTask  user can cancel, ok to be null.
+   * @param spiObject   passed to the factory if object needs to be recreated
+   * @return FileCacheable corresponding to location.
+   * @throws IOException on error
+   */
+  @Override
+  public FileCacheable acquire(FileFactory factory, Object hashKey, DatasetUrl location,
+                               int buffer_size, CancelTask cancelTask, Object spiObject) throws IOException {
+    if (null == hashKey) hashKey = location.trueurl;
+    if (null == hashKey) throw new IllegalArgumentException();
+
+    Tracker t = null;
+    ConcurrentHashMap<Object, Tracker> tracking = track;
+    if (tracking != null)
+      t = tracking.computeIfAbsent(hashKey, Tracker::new);
+
+    FileCacheable ncfile = acquireCacheOnly(hashKey);
+    if (ncfile != null) {
+      hits.increment();
+      if (t != null) t.hit.increment();
+      return ncfile;
+    }
+    miss.increment();
+    if (t != null) t.miss.increment();
+
+    ncfile = factory.open(location, buffer_size, cancelTask, spiObject);
+    if (cacheLog.isDebugEnabled())
+      cacheLog.debug("FileCacheStriped " + name + " acquire " + hashKey + " " + ncfile.getLocation());
+
+    // user may have canceled
+    if ((cancelTask != null) && (cancelTask.isCancel())) {
+      ncfile.close();
+      return null;
+    }
+
+    if (disabled.get()) return ncfile;
+
+    // the new file starts out locked, so it goes into the idle deque only on release
+    files.put(ncfile, new CacheFile(ncfile, hashKey));
+    int size = count.incrementAndGet();
+
+    if (hardLimit > 0 && size > hardLimit) {
+      cleanup(hardLimit);
+
+    } else if (softLimit > 0 && size > softLimit) {
+      if (scheduled.compareAndSet(false, true)) {
+        try {
+          getExecutor().schedule(() -> {
+            scheduled.set(false);
+            cleanup(softLimit);
+          }, 100, TimeUnit.MILLISECONDS); // as FileCache, let a burst of opens finish first
+        } catch (RejectedExecutionException e) {
+          scheduled.set(false); // shutdown was called
+        }
+      }
+    }
+
+    return ncfile;
+  }
+
+  // find an unlocked file in the cache and lock it, or return null
+  private FileCacheable acquireCacheOnly(Object hashKey) {
+    if (disabled.get()) return null;
+
+    ConcurrentLinkedDeque<CacheFile> deque = idle.get(hashKey);
+    if (deque == null) return null;
+
+    CacheFile want;
+    while ((want = deque.pollFirst()) != null) {
+      if (!want.state.compareAndSet(IDLE, LOCKED))
+        continue; // cleanup or eject got it first
+
+      FileCacheable ncfile = want.ncfile;
+      if (ncfile.getLastModified() != want.lastModified) {
+        if (cacheLog.isDebugEnabled())
+          cacheLog.debug("FileCacheStriped " + name + ": acquire from cache " + hashKey + " " + ncfile.getLocation() + " was changed; discard");
+        remove(want);
+        continue;
+      }
+
+      try {
+        ncfile.reacquire(); // rehydrate
+      } catch (IOException ioe) {
+        if (cacheLog.isDebugEnabled())
+          cacheLog.debug("FileCacheStriped " + name + " acquire from cache " + hashKey + " " + ncfile.getLocation() +
+                  " failed: " + ioe.getMessage());
+        remove(want);
+        continue;
+      }
+      return ncfile;
+    }
+    return null;
+  }
+
+  /**
+   * Release the file. This unlocks it, updates its lastAccessed date.
+   * Normally applications need not call this, just close the file as usual.
+   *
+   * @param ncfile release this file.
+   * @return true if file was in cache, false if it was not
+   */
+  @Override
+  public boolean release(FileCacheable ncfile) throws IOException {
+    if (ncfile == null) return false;
+
+    if (disabled.get()) {
+      ncfile.setFileCache(null); // prevent infinite loops
+      ncfile.close();
+      return false;
+    }
+
+    CacheFile file = files.get(ncfile); // using hashCode of the FileCacheable
+    if (file == null) return false;
+
+    file.lastAccessed = System.currentTimeMillis();
+    file.countAccessed.increment();
+    ncfile.release();
+
+    if (!file.state.compareAndSet(LOCKED, IDLE)) {
+      cacheLog.warn("FileCacheStriped " + name + " release " + ncfile.getLocation() + " not locked; hash= " + ncfile.hashCode());
+      return file.state.get() != REMOVED;
+    }
+
+    // push it back while holding the bin for this key, so it cant land in a deque that is being dropped
+    idle.compute(file.hashKey, (key, deque) -> {
+      if (deque == null) deque = new ConcurrentLinkedDeque<>();
+      deque.offerFirst(file);
+      return deque;
+    });
+
+    if (cacheLog.isDebugEnabled())
+      cacheLog.debug("FileCacheStriped " + name + " release " + ncfile.getLocation() + "; hash= " + ncfile.hashCode());
+    return true;
+  }
+
+  /**
+   * Remove all instances of object from the cache, including locked ones.
+   * @param hashKey the object
+   */
+  @Override
+  public void eject(Object hashKey) {
+    if (disabled.get()) return;
+
+    for (CacheFile file : files.values()) {
+      if (file.hashKey.equals(hashKey))
+        evictAny(file);
+    }
+    idle.remove(hashKey);
+  }
+
+  /**
+   * Remove all cache entries.
+   *
+   * @param force if true, remove them even if they are currently locked.
+   */
+  @Override
+  public void clearCache(boolean force) {
+    int deleted = 0;
+    for (CacheFile file : files.values()) {
+      if (force ? evictAny(file) : evict(file, IDLE))
+        deleted++;
+    }
+    dropEmptyDeques();
+
+    if (cacheLog.isDebugEnabled())
+      cacheLog.debug("*FileCacheStriped " + name + " clearCache force= " + force + " deleted= " + deleted + " left=" + files.size());
+  }
+
+  private void periodicCleanup() {
+    if (disabled.get()) return;
+    cleanup(softLimit);
+  }
+
+  /**
+   * Cleanup the cache, bringing it down to minElements.
+   * Closes the least recently used unlocked files first; will not close locked files.
+   * Returns immediately if another cleanup is running.
+   */
+  void cleanup(int maxElements) {
+    if (!cleaning.compareAndSet(false, true)) return;
+    try {
+      int size = count.get();
+      if (size <= minElements) return;
+      cleanups.increment();
+
+      List<Snapshot> unlocked = new ArrayList<>(size);
+      for (CacheFile file : files.values()) {
+        if (file.state.get() == IDLE) unlocked.add(new Snapshot(file));
+      }
+      Collections.sort(unlocked); // oldest first
+
+      int need2delete = size - minElements;
+      int removed = 0;
+      for (Snapshot s : unlocked) {
+        if (removed >= need2delete) break;
+        if (evict(s.file, IDLE)) // may have been acquired since we looked
+          removed++;
+      }
+      evictions.add(removed);
+      dropEmptyDeques();
+
+      if (size - removed > maxElements)
+        cacheLog.warn("FileCacheStriped " + name + " cleanup couldnt remove enough to keep under the maximum= " + maxElements +
+                " due to locked files; currently at = " + (size - removed));
+      if (cacheLog.isDebugEnabled())
+        cacheLog.debug("FileCacheStriped {} cleanup had={} removed={}", name, size, removed);
+
+    } catch (Throwable t) {
+      log.error("FileCacheStriped " + name + " cleanup failed", t);
+
+    } finally {
+      cleaning.set(false);
+    }
+  }
+
+  // discard a locked file that can no longer be used
+  private void remove(CacheFile file) {
+    evict(file, LOCKED);
+  }
+
+  // remove and close the file if it is in the expected state; return true if this thread did it
+  private boolean evict(CacheFile file, int expect) {
+    if (!file.state.compareAndSet(expect, REMOVED)) return false;
+
+    count.decrementAndGet();
+    files.remove(file.ncfile);
+    if (expect == IDLE) {
+      ConcurrentLinkedDeque<CacheFile> deque = idle.get(file.hashKey);
+      if (deque != null) deque.remove(file);
+    }
+    close(file);
+    return true;
+  }
+
+  // remove and close the file whether or not it is locked; return true if this thread did it
+  private boolean evictAny(CacheFile file) {
+    while (true) {
+      int state = file.state.get();
+      if (state == REMOVED) return false;
+      if (evict(file, state)) {
+        if (state == LOCKED)
+          cacheLog.warn("FileCacheStriped " + name + " force close locked file= " + file);
+        return true;
+      }
+    }
+  }
+
+  private void close(CacheFile file) {
+    FileCacheable ncfile = file.ncfile;
+    try {
+      ncfile.setFileCache(null); // unhook the caching
+      ncfile.close();
+    } catch (IOException e) {
+      log.error("FileCacheStriped " + name + " close failed on " + ncfile.getLocation(), e);
+    }
+  }
+
+  private void dropEmptyDeques() {
+    for (Object key : idle.keySet())
+      idle.computeIfPresent(key, (k, deque) -> deque.isEmpty() ? null : deque);
+  }
+
+  /////////////////////////////////////////////////////////////////////////////////////////
+  // debugging
+
+  public String getName() {
+    return name;
+  }
+
+  /** @return number of files in the cache, locked or not */
+  public int getCount() {
+    return count.get();
+  }
+
+  @Override
+  public void showCache(Formatter format) {
+    format.format("%nFileCacheStriped %s (min=%d softLimit=%d hardLimit=%d scour=%d secs):%n", name, minElements, softLimit, hardLimit, period / 1000);
+    format.format(" isLocked  accesses lastAccess                   location %n");
+    for (CacheFile file : sortedFiles()) {
+      format.format("%8s %9d %s == %s %n", file.isLocked(), file.countAccessed.sum(),
+              CalendarDateFormatter.toDateTimeStringISO(file.lastAccessed), file.ncfile.getLocation());
+    }
+    showStats(format);
+  }
+
+  @Override
+  public List<String> showCache() {
+    List<String> result = new ArrayList<>();
+    for (CacheFile file : sortedFiles())
+      result.add(file.toString());
+    return result;
+  }
+
+  private List<CacheFile> sortedFiles() {
+    List<Snapshot> all = new ArrayList<>(files.size());
+    for (CacheFile file : files.values())
+      all.add(new Snapshot(file));
+    Collections.sort(all); // oldest are on top
+
+    List<CacheFile> result = new ArrayList<>(all.size());
+    for (Snapshot s : all)
+      result.add(s.file);
+    return result;
+  }
+
+  @Override
+  public void showStats(Formatter format) {
+    format.format("  hits= %d miss= %d nfiles= %d elems= %d cleanups= %d evictions= %d%n",
+            hits.sum(), miss.sum(), count.get(), idle.size(), cleanups.sum(), evictions.sum());
+  }
+
+  @Override
+  public void resetTracking() {
+    track = new ConcurrentHashMap<>(5000);
+  }
+
+  @Override
+  public void showTracking(Formatter format) {
+    ConcurrentHashMap<Object, Tracker> tracking = track;
+    if (tracking == null) return;
+    List<Tracker> all = new ArrayList<>(tracking.values());
+    all.sort(Comparator.comparingLong(Tracker::total));
+
+    long countAll = 0, countHits = 0, countMiss = 0;
+    int seq = 0;
+    format.format("%nTracking All files in cache %s%n", name);
+    format.format("    #    accum       hit    miss  file%n");
+    for (Tracker t : all) {
+      seq++;
+      long hit = t.hit.sum(), miss = t.miss.sum();
+      countAll += hit + miss;
+      countHits += hit;
+      countMiss += miss;
+      format.format("%6d  %7d : %6d %6d %s%n", seq, countAll, hit, miss, t.key);
+    }
+    float r = (countAll == 0) ? 0 : ((float) countHits) / countAll;
+    format.format("  total=%7d : %6d %6d hit ratio=%f%n", countAll, countHits, countMiss, r);
+  }
+
+  private static class Tracker {
+    final Object key;
+    final LongAdder hit = new LongAdder();
+    final LongAdder miss = new LongAdder();
+
+    Tracker(Object key) {
+      this.key = key;
+    }
+
+    long total() {
+      return hit.sum() + miss.sum();
+    }
+  }
+
+  // lastAccessed changes while sorting, so sort on a copy of it
+  private static class Snapshot implements Comparable<Snapshot> {
+    final CacheFile file;
+    final long lastAccessed;
+
+    Snapshot(CacheFile file) {
+      this.file = file;
+      this.lastAccessed = file.lastAccessed;
+    }
+
+    public int compareTo(Snapshot o) {
+      return Long.compare(lastAccessed, o.lastAccessed);
+    }
+  }
+
+  private class CacheFile {
+    final FileCacheable ncfile;
+    final Object hashKey;
+    final long lastModified;
+    final AtomicInteger state = new AtomicInteger(LOCKED);
+    final LongAdder countAccessed = new LongAdder();
+    volatile long lastAccessed;
+
+    CacheFile(FileCacheable ncfile, Object hashKey) {
+      this.ncfile = ncfile;
+      this.hashKey = hashKey;
+      this.lastModified = ncfile.getLastModified();
+      this.lastAccessed = System.currentTimeMillis();
+      ncfile.setFileCache(FileCacheStriped.this);
+    }
+
+    // a removed file is not in the cache, but may still be in use
+    String isLocked() {
+      int s = state.get();
+      return (s == REMOVED) ? "removed" : String.valueOf(s == LOCKED);
+    }
+
+    public String toString() {
+      return isLocked() + " " + countAccessed.sum() + " " + CalendarDateFormatter.toDateTimeStringISO(lastAccessed) + "   " + ncfile.getLocation();
+    }
+  }
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.util.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import ucar.unidata.io.MMapRandomAccessFile;
+import ucar.unidata.io.RandomAccessFile;
+import ucar.unidata.io.SharedRandomAccessFile;
+
+import java.io.IOException;
+import java.util.Formatter;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.ToIntFunction;
+
+/**
+ * Memory cache of data that was read from files and decoded, eg uncompressed HDF5 chunks or unpacked GRIB records.
+ * Shared by all open files, and bounded by the total number of bytes held; least recently used entries are evicted first.
+ * Keyed by file location, file last modified, and the file position the data was read from.
+ * Only local files should be cached, see getLastModified().
+ *
+ * @param <V> type of the cached data, usually a primitive array
+ * @since 10/18/2026
+ */
+public class FileDataCache<V> {
+
+  /**
+   * The last modified time to key the data of this file with, or 0 if it must not be cached.
+   * Only local files have a location that names them uniquely and a last modified time that changes when they are rewritten;
+   * in-memory files have just a name, and remote files don't report a last modified time.
+   * Call once when the file is opened, not on every read.
+   *
+   * @param raf the open file
+   * @return last modified time of a local file, or 0 if not known
+   */
+  public static long getLastModified(RandomAccessFile raf) {
+    boolean isLocal = raf.getClass() == RandomAccessFile.class || raf instanceof SharedRandomAccessFile || raf instanceof MMapRandomAccessFile;
+    return isLocal ? raf.getLastModified() : 0;
+  }
+
+  private final String name;
+  private final long maxBytes;
+  private final ToIntFunction<V> sizeOf;
+  private final Cache<Key, V> cache;
+
+  /**
+   * Constructor.
+   * @param name     name of the cache, for display
+   * @param maxBytes maximum number of bytes to keep, must be > 0
+   * @param sizeOf   number of bytes in a cached value
+   */
+  public FileDataCache(String name, long maxBytes, ToIntFunction<V> sizeOf) {
+    if (maxBytes <= 0) throw new IllegalArgumentException("maxBytes must be > 0");
+    this.name = name;
+    this.maxBytes = maxBytes;
+    this.sizeOf = sizeOf;
+    this.cache = CacheBuilder.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((Key key, V value) -> sizeOf.applyAsInt(value))
+            .recordStats()
+            .build();
+  }
+
+  /**
+   * Get the data from the cache, or use the loader to read it.
+   * Concurrent requests for the same data wait for a single load.
+   *
+   * @param location     location of the file the data is in
+   * @param lastModified last modified time of the file, from getLastModified(), must not be 0
+   * @param filePos      file position the data is read from
+   * @param loader       reads the data when not in the cache
+   * @return the data; callers must not modify it.
+   * @throws IOException on read error
+   */
+  public V get(String location, long lastModified, long filePos, Callable<V> loader) throws IOException {
+    Key key = new Key(location, lastModified, filePos);
+    try {
+      return cache.get(key, loader);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) throw (IOException) cause;
+      throw new RuntimeException(cause);
+    } catch (UncheckedExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      throw e;
+    } catch (ExecutionError e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Error) throw (Error) cause;
+      throw e;
+    }
+  }
+
+  /**
+   * Get the data if it is in the cache.
+   * @return the data, or null if not in the cache
+   */
+  public V getIfPresent(String location, long lastModified, long filePos) {
+    return cache.getIfPresent(new Key(location, lastModified, filePos));
+  }
+
+  /** Add data to the cache */
+  public void put(String location, long lastModified, long filePos, V data) {
+    cache.put(new Key(location, lastModified, filePos), data);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /** @return number of entries currently in the cache */
+  public long getCount() {
+    return cache.size();
+  }
+
+  /** @return approximate number of bytes currently in the cache */
+  public long getBytes() {
+    long total = 0;
+    for (V value : cache.asMap().values())
+      total += sizeOf.applyAsInt(value);
+    return total;
+  }
+
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  public void clearCache() {
+    cache.invalidateAll();
+  }
+
+  public void showCache(Formatter f) {
+    CacheStats stats = cache.stats();
+    f.format("%n%s%n", name);
+    f.format("  maxBytes= %d count= %d bytes= %d%n", maxBytes, getCount(), getBytes());
+    f.format("  hits= %d misses= %d evictions= %d hitRate= %.3f%n",
+            stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate());
+  }
+
+  public void showStats(Formatter f) {
+    f.format("%s", cache.stats());
+  }
+
+  @Override
+  public String toString() {
+    return name + " maxBytes=" + maxBytes;
+  }
+
+  private static class Key {
+    final String location;
+    final long lastModified;
+    final long filePos;
+
+    Key(String location, long lastModified, long filePos) {
+      this.location = location;
+      this.lastModified = lastModified;
+      this.filePos = filePos;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key key = (Key) o;
+      return lastModified == key.lastModified && filePos == key.filePos && location.equals(key.location);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = location.hashCode();
+      result = 31 * result + (int) (lastModified ^ (lastModified >>> 32));
+      result = 31 * result + (int) (filePos ^ (filePos >>> 32));
+      return result;
+    }
+  }
+
+}
@@ -36,6 +36,7 @@ import ucar.unidata.geoloc.projection.LatLonProjection;
 import ucar.unidata.util.*;
 
 import java.util.*;
+import java.util.stream.IntStream;
 
 /**
  * Superclass for our implementations of geoloc.Projection.
@@ -422,8 +423,12 @@ public abstract class ProjectionImpl implements Projection, java.io.Serializable
               + "from array not same length as to array");
     }
 
+    ProjectionPointImpl ppi = new ProjectionPointImpl();
+    LatLonPointImpl llpi = new LatLonPointImpl();
+
     for (int i = 0; i < from[0].length; i++) {
-      LatLonPoint endL = projToLatLon(from[0][i], from[1][i]);
+      ppi.setLocation(from[0][i], from[1][i]);
+      LatLonPoint endL = projToLatLon(ppi, llpi);
       to[0][i] = endL.getLatitude();
       to[1][i] = endL.getLongitude();
     }
@@ -661,6 +666,101 @@ public abstract class ProjectionImpl implements Projection, java.io.Serializable
     return to;
   }
 
+  ///////////////////////////////////////////////////////////////////////////////////
+  // large arrays, split into blocks that are converted in parallel
+
+  // points in each block; large enough that the copies and the task overhead dont matter
+  static private final int BLOCK_SIZE = 16 * 1024;
+
+  /**
+   * Convert projection coordinates to lat/lon coordinates, for large arrays such as all the points of a grid.
+   * The arrays are split into blocks, and each block is converted by projToLatLon(double[][], double[][]),
+   * so subclasses only need to override that method.
+   * When parallel, the blocks are converted in the common ForkJoinPool; projections keep no state
+   * in their fields while converting, so one projection can be used by several threads at once.
+   *
+   * @param from     array of projection coordinates: from[2][n], where
+   *                 (from[0][i], from[1][i]) is the (x, y) coordinate of the ith point
+   * @param to       resulting array of lat/lon coordinates: to[2][n] where
+   *                 (to[0][i], to[1][i]) is the (lat, lon) coordinate of the ith point
+   * @param parallel convert the blocks in parallel
+   * @return the "to" array
+   */
+  public double[][] projToLatLon(double[][] from, double[][] to, boolean parallel) {
+    int n = from[0].length;
+    if (!parallel || n < 2 * BLOCK_SIZE)
+      return projToLatLon(from, to);
+    if (to[0].length != n || to[1].length != n)
+      throw new IllegalArgumentException("ProjectionImpl.projToLatLon: from array not same length as to array");
+
+    IntStream.range(0, (n + BLOCK_SIZE - 1) / BLOCK_SIZE).parallel().forEach(block -> {
+      int start = block * BLOCK_SIZE;
+      int end = Math.min(n, start + BLOCK_SIZE);
+      double[][] fromBlock = new double[][]{Arrays.copyOfRange(from[0], start, end), Arrays.copyOfRange(from[1], start, end)};
+      double[][] toBlock = projToLatLon(fromBlock, new double[2][end - start]);
+      System.arraycopy(toBlock[0], 0, to[0], start, end - start);
+      System.arraycopy(toBlock[1], 0, to[1], start, end - start);
+    });
+    return to;
+  }
+
+  /**
+   * Convert lat/lon coordinates to projection coordinates, for large arrays.
+   * The arrays are split into blocks, and each block is converted by latLonToProj(double[][], double[][], int, int).
+   * When parallel, the blocks are converted in the common ForkJoinPool.
+   *
+   * @param from     array of lat/lon coordinates: from[2][n], where
+   *                 (from[0][i], from[1][i]) is the (lat, lon) coordinate of the ith point
+   * @param to       resulting array of projection coordinates: to[2][n]
+   *                 where (to[0][i], to[1][i]) is the (x, y) coordinate of the ith point
+   * @param parallel convert the blocks in parallel
+   * @return the "to" array
+   */
+  public double[][] latLonToProj(double[][] from, double[][] to, boolean parallel) {
+    int n = from[0].length;
+    if (!parallel || n < 2 * BLOCK_SIZE)
+      return latLonToProj(from, to, INDEX_LAT, INDEX_LON);
+    if (to[0].length != n || to[1].length != n)
+      throw new IllegalArgumentException("ProjectionImpl.latLonToProj: from array not same length as to array");
+
+    IntStream.range(0, (n + BLOCK_SIZE - 1) / BLOCK_SIZE).parallel().forEach(block -> {
+      int start = block * BLOCK_SIZE;
+      int end = Math.min(n, start + BLOCK_SIZE);
+      double[][] fromBlock = new double[][]{Arrays.copyOfRange(from[0], start, end), Arrays.copyOfRange(from[1], start, end)};
+      double[][] toBlock = latLonToProj(fromBlock, new double[2][end - start], INDEX_LAT, INDEX_LON);
+      System.arraycopy(toBlock[0], 0, to[0], start, end - start);
+      System.arraycopy(toBlock[1], 0, to[1], start, end - start);
+    });
+    return to;
+  }
+
+  /**
+   * Compute the lat/lon coordinates of every point of a grid with 1D projection coordinates,
+   * for example the 2D lat and lon variables of a projected dataset.
+   *
+   * @param xcoords  x coordinates of the grid, length nx
+   * @param ycoords  y coordinates of the grid, length ny
+   * @param parallel convert in parallel, see projToLatLon(double[][], double[][], boolean)
+   * @return double[2][ny * nx], the lat and lon of point (y, x) at index y * nx + x.
+   *   Longitudes are normalized to [-180, 180], the same as projToLatLon(ProjectionPoint).
+   */
+  public double[][] projToLatLonGrid(double[] xcoords, double[] ycoords, boolean parallel) {
+    int nx = xcoords.length;
+    int ny = ycoords.length;
+    double[][] from = new double[2][nx * ny];
+    for (int j = 0; j < ny; j++) {
+      System.arraycopy(xcoords, 0, from[INDEX_X], j * nx, nx);
+      Arrays.fill(from[INDEX_Y], j * nx, (j + 1) * nx, ycoords[j]);
+    }
+    double[][] latlon = projToLatLon(from, new double[2][nx * ny], parallel);
+    double[] lon = latlon[INDEX_LON];
+    for (int i = 0; i < lon.length; i++) {
+      if (!Double.isInfinite(lon[i]))  // points off the map stay INVALID
+        lon[i] = LatLonPointImpl.lonNormal(lon[i]);
+    }
+    return latlon;
+  }
+
   // bounding box utilities
 
   /**
@@ -232,6 +232,108 @@ public class RotatedPole extends ProjectionImpl {
     return destPoint;
   }
 
+  /**
+   * Convert lat/lon coordinates to projection coordinates.
+   *
+   * @param from     array of lat/lon coordinates: from[2][n], where
+   *                 (from[latIndex][i], from[lonIndex][i]) is the (lat,lon)
+   *                 coordinate of the ith point
+   * @param to       resulting array of projection coordinates: to[2][n]
+   *                 where (to[0][i], to[1][i]) is the (rotated lon, rotated lat)
+   *                 coordinate of the ith point
+   * @param latIndex index of lat coordinate; must be 0 or 1
+   * @param lonIndex index of lon coordinate; must be 0 or 1
+   * @return the "to" array
+   */
+  @Override
+  public double[][] latLonToProj(double[][] from, double[][] to, int latIndex, int lonIndex) {
+    int cnt = from[0].length;
+    double[] fromLatA = from[latIndex];
+    double[] fromLonA = from[lonIndex];
+    double[] resultXA = to[INDEX_X];
+    double[] resultYA = to[INDEX_Y];
+
+    // rotate around Z-axis, then around Y-axis
+    double z00 = rotZ[0][0], z01 = rotZ[0][1], z02 = rotZ[0][2];
+    double z10 = rotZ[1][0], z11 = rotZ[1][1], z12 = rotZ[1][2];
+    double z20 = rotZ[2][0], z21 = rotZ[2][1], z22 = rotZ[2][2];
+    double y00 = rotY[0][0], y01 = rotY[0][1], y02 = rotY[0][2];
+    double y10 = rotY[1][0], y11 = rotY[1][1], y12 = rotY[1][2];
+    double y20 = rotY[2][0], y21 = rotY[2][1], y22 = rotY[2][2];
+
+    for (int i = 0; i < cnt; i++) {
+      double lat = fromLatA[i] * RAD_PER_DEG;
+      double lon = fromLonA[i] * RAD_PER_DEG;
+
+      double cosLat = Math.cos(lat);
+      double p0x = cosLat * Math.cos(lon);
+      double p0y = cosLat * Math.sin(lon);
+      double p0z = Math.sin(lat);
+
+      double p1x = z00 * p0x + z01 * p0y + z02 * p0z;
+      double p1y = z10 * p0x + z11 * p0y + z12 * p0z;
+      double p1z = z20 * p0x + z21 * p0y + z22 * p0z;
+
+      double p2x = y00 * p1x + y01 * p1y + y02 * p1z;
+      double p2y = y10 * p1x + y11 * p1y + y12 * p1z;
+      double p2z = y20 * p1x + y21 * p1y + y22 * p1z;
+
+      resultXA[i] = LatLonPointImpl.range180(Math.atan2(p2y, p2x) * DEG_PER_RAD);
+      resultYA[i] = Math.asin(p2z) * DEG_PER_RAD;
+    }
+    return to;
+  }
+
+  /**
+   * Convert projection coordinates to lat/lon coordinate.
+   *
+   * @param from array of projection coordinates: from[2][n], where
+   *             (from[0][i], from[1][i]) is the (rotated lon, rotated lat) coordinate
+   *             of the ith point
+   * @param to   resulting array of lat/lon coordinates: to[2][n] where
+   *             (to[0][i], to[1][i]) is the (lat, lon) coordinate of
+   *             the ith point
+   * @return the "to" array
+   */
+  @Override
+  public double[][] projToLatLon(double[][] from, double[][] to) {
+    int cnt = from[0].length;
+    double[] fromXA = from[INDEX_X];
+    double[] fromYA = from[INDEX_Y];
+    double[] toLatA = to[INDEX_LAT];
+    double[] toLonA = to[INDEX_LON];
+
+    // inverse rotate around Y-axis, then around Z-axis, using the transposed matrices
+    double z00 = rotZ[0][0], z01 = rotZ[0][1], z02 = rotZ[0][2];
+    double z10 = rotZ[1][0], z11 = rotZ[1][1], z12 = rotZ[1][2];
+    double z20 = rotZ[2][0], z21 = rotZ[2][1], z22 = rotZ[2][2];
+    double y00 = rotY[0][0], y01 = rotY[0][1], y02 = rotY[0][2];
+    double y10 = rotY[1][0], y11 = rotY[1][1], y12 = rotY[1][2];
+    double y20 = rotY[2][0], y21 = rotY[2][1], y22 = rotY[2][2];
+
+    for (int i = 0; i < cnt; i++) {
+      double lonR = LatLonPointImpl.range180(fromXA[i]) * RAD_PER_DEG;
+      double latR = fromYA[i] * RAD_PER_DEG;
+
+      double cosLat = Math.cos(latR);
+      double p0x = cosLat * Math.cos(lonR);
+      double p0y = cosLat * Math.sin(lonR);
+      double p0z = Math.sin(latR);
+
+      double p1x = y00 * p0x + y10 * p0y + y20 * p0z;
+      double p1y = y01 * p0x + y11 * p0y + y21 * p0z;
+      double p1z = y02 * p0x + y12 * p0y + y22 * p0z;
+
+      double p2x = z00 * p1x + z10 * p1y + z20 * p1z;
+      double p2y = z01 * p1x + z11 * p1y + z21 * p1z;
+      double p2z = z02 * p1x + z12 * p1y + z22 * p1z;
+
+      toLonA[i] = Math.atan2(p2y, p2x) * DEG_PER_RAD;
+      toLatA[i] = Math.asin(p2z) * DEG_PER_RAD;
+    }
+    return to;
+  }
+
   public boolean crossSeam(ProjectionPoint pt1, ProjectionPoint pt2) {
      return Math.abs(pt1.getX() - pt2.getX()) > 270.0;
   }
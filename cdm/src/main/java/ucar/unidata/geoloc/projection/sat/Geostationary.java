@@ -181,6 +181,55 @@ public class Geostationary extends ProjectionImpl {
     return destPoint;
   }
 
+  /**
+   * Convert lat/lon coordinates to projection coordinates, one navigation call per point.
+   *
+   * @param from     array of lat/lon coordinates: from[2][n]
+   * @param to       resulting array of projection coordinates: to[2][n]
+   * @param latIndex index of lat coordinate; must be 0 or 1
+   * @param lonIndex index of lon coordinate; must be 0 or 1
+   * @return the "to" array
+   */
+  @Override
+  public double[][] latLonToProj(double[][] from, double[][] to, int latIndex, int lonIndex) {
+    int cnt = from[0].length;
+    double[] fromLatA = from[latIndex];
+    double[] fromLonA = from[lonIndex];
+    double[] resultXA = to[INDEX_X];
+    double[] resultYA = to[INDEX_Y];
+
+    for (int i = 0; i < cnt; i++) {
+      double[] satCoords = navigation.earthToSat(fromLonA[i], fromLatA[i]);
+      resultXA[i] = satCoords[0];
+      resultYA[i] = satCoords[1];
+    }
+    return to;
+  }
+
+  /**
+   * Convert projection coordinates to lat/lon coordinates, one navigation call per point.
+   * Points off the earth disk are NaN, as in projToLatLon(ProjectionPoint, LatLonPointImpl).
+   *
+   * @param from array of projection coordinates: from[2][n]
+   * @param to   resulting array of lat/lon coordinates: to[2][n]
+   * @return the "to" array
+   */
+  @Override
+  public double[][] projToLatLon(double[][] from, double[][] to) {
+    int cnt = from[0].length;
+    double[] fromXA = from[INDEX_X];
+    double[] fromYA = from[INDEX_Y];
+    double[] toLatA = to[INDEX_LAT];
+    double[] toLonA = to[INDEX_LON];
+
+    for (int i = 0; i < cnt; i++) {
+      double[] lonlat = navigation.satToEarth(fromXA[i], fromYA[i]);
+      toLonA[i] = lonlat[0];
+      toLatA[i] = lonlat[1];
+    }
+    return to;
+  }
+
   @Override
   public boolean crossSeam(ProjectionPoint pt1, ProjectionPoint pt2) {
     // either point is infinite
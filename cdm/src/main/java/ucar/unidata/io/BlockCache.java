@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.unidata.io;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.io.IOException;
+import java.util.Formatter;
+
+/**
+ * Memory cache of fixed size file blocks, shared by all read only RandomAccessFiles.
+ * Bounded by the total number of bytes held, least recently used blocks are evicted first.
+ * Keyed by the canonical path of the file, its last modified time, and the block number,
+ * so a rewritten file does not see the blocks of the old one.
+ * <p/>
+ * Only full blocks are kept. The last, partial block of a file is always read from the file, so files that
+ * grow (eg netCDF-3 record variables) are seen correctly.
+ * Large reads are not cached, so reading data does not evict the headers and index blocks
+ * (HDF5 B-trees and heaps, GRIB indices) that the cache is for.
+ *
+ * @since 10/18/2026
+ */
+public class BlockCache {
+  static public final int defaultBlockSize = 16 * 1024;
+  static private final int maxBlocksPerRead = 4;
+
+  private final String name;
+  private final long maxBytes;
+  private final int blockSize;
+  private final Cache<Key, byte[]> cache;
+
+  /**
+   * Constructor.
+   * @param name      name of the cache, for display
+   * @param maxBytes  maximum number of bytes to keep, must be > 0
+   * @param blockSize size of the cached blocks in bytes, must be > 0
+   */
+  public BlockCache(String name, long maxBytes, int blockSize) {
+    if (maxBytes <= 0) throw new IllegalArgumentException("maxBytes must be > 0");
+    if (blockSize <= 0) throw new IllegalArgumentException("blockSize must be > 0");
+    this.name = name;
+    this.maxBytes = maxBytes;
+    this.blockSize = blockSize;
+    this.cache = CacheBuilder.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((Key key, byte[] value) -> value.length)
+            .recordStats()
+            .build();
+  }
+
+  /** @return true if a read of len bytes goes through the cache; larger reads go directly to the file */
+  boolean isCached(int len) {
+    return len <= maxBlocksPerRead * blockSize;
+  }
+
+  /**
+   * Read up to len bytes at pos, from the cached blocks, using the reader for the blocks not in the cache.
+   *
+   * @param file   the file being read
+   * @param pos    start here in the file
+   * @param b      put data into this array
+   * @param off    the offset in the array
+   * @param len    the number of bytes to read
+   * @param reader reads the file directly
+   * @return the actual number of bytes read, less than len only at the end of the file, or -1 if pos is at or past the end of the file
+   * @throws IOException on read error
+   */
+  int read(FileId file, long pos, byte[] b, int off, int len, BlockReader reader) throws IOException {
+    int done = 0;
+    while (done < len) {
+      long blockNo = (pos + done) / blockSize;
+      int inBlock = (int) (pos + done - blockNo * blockSize);
+
+      Key key = new Key(file, blockNo);
+      byte[] block = cache.getIfPresent(key);
+      int avail = blockSize;
+      if (block == null) {
+        block = new byte[blockSize];
+        avail = readBlock(reader, blockNo * blockSize, block);
+        if (avail == blockSize)
+          cache.put(key, block);
+      }
+
+      if (inBlock >= avail) break; // end of file
+      int count = Math.min(len - done, avail - inBlock);
+      System.arraycopy(block, inBlock, b, off + done, count);
+      done += count;
+      if (avail < blockSize) break; // end of file
+    }
+    return (done == 0 && len > 0) ? -1 : done;
+  }
+
+  // read until the block is full or at the end of file
+  private int readBlock(BlockReader reader, long pos, byte[] block) throws IOException {
+    int n = 0;
+    while (n < block.length) {
+      int count = reader.read(pos + n, block, n, block.length - n);
+      if (count < 0) break;
+      n += count;
+    }
+    return n;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  public int getBlockSize() {
+    return blockSize;
+  }
+
+  /** @return number of blocks currently in the cache */
+  public long getCount() {
+    return cache.size();
+  }
+
+  /** @return number of bytes currently in the cache */
+  public long getBytes() {
+    return cache.size() * blockSize;
+  }
+
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  public void clearCache() {
+    cache.invalidateAll();
+  }
+
+  public void showCache(Formatter f) {
+    CacheStats stats = cache.stats();
+    f.format("%n%s%n", name);
+    f.format("  maxBytes= %d blockSize= %d count= %d bytes= %d%n", maxBytes, blockSize, getCount(), getBytes());
+    f.format("  hits= %d misses= %d evictions= %d hitRate= %.3f%n",
+            stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate());
+  }
+
+  public void showStats(Formatter f) {
+    f.format("%s", cache.stats());
+  }
+
+  @Override
+  public String toString() {
+    return name + " maxBytes=" + maxBytes + " blockSize=" + blockSize;
+  }
+
+  ////////////////////////////////////////////////////////////////////////////////////
+
+  /** Reads the file directly, like RandomAccessFile.read_() */
+  interface BlockReader {
+    int read(long pos, byte[] b, int off, int len) throws IOException;
+  }
+
+  /** Identifies one version of a file: its canonical path, last modified time and length. */
+  static class FileId {
+    final String path;
+    final long lastModified;
+    final long length;
+
+    FileId(String path, long lastModified, long length) {
+      this.path = path;
+      this.lastModified = lastModified;
+      this.length = length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      FileId fileId = (FileId) o;
+      return lastModified == fileId.lastModified && length == fileId.length && path.equals(fileId.path);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = path.hashCode();
+      result = 31 * result + (int) (lastModified ^ (lastModified >>> 32));
+      result = 31 * result + (int) (length ^ (length >>> 32));
+      return result;
+    }
+  }
+
+  private static class Key {
+    final FileId file;
+    final long blockNo;
+
+    Key(FileId file, long blockNo) {
+      this.file = file;
+      this.blockNo = blockNo;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key key = (Key) o;
+      return blockNo == key.blockNo && file.equals(key.file);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = file.hashCode();
+      result = 31 * result + (int) (blockNo ^ (blockNo >>> 32));
+      return result;
+    }
+  }
+
+}
@@ -78,7 +78,8 @@ public class InMemoryRandomAccessFile extends ucar.unidata.io.RandomAccessFile {
 
   @Override
   protected int read_(long pos, byte[] b, int offset, int len) throws IOException {
-    len = Math.min(len, (int) (buffer.length - pos));
+    if (pos >= buffer.length) return -1;
+    len = (int) Math.min(len, buffer.length - pos);
     // copy out of buffer
     System.arraycopy(buffer, (int) pos, b, offset, len);
     return len;
@@ -32,94 +32,255 @@
  */
 package ucar.unidata.io;
 
-import java.io.*;
-import java.nio.channels.FileChannel;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
- * Use NIO MappedByteBuffer to implement a RandomAccessFile.
- * Limited to 2G size. Not currently used - NOT UP TO DATE DO NOT USE
+ * A read only RandomAccessFile that reads through memory mapped segments of the file, so files of any size
+ * (not limited to 2 GB) are read at page cache speed without read system calls.
+ * Segments are mapped on first use. If the file grows, the new part is mapped when it is read.
+ * readToByteChannel() writes directly from the mapped memory.
+ * <p/>
+ * As with other RandomAccessFiles, the file pointer reads are thread confined, and the positional reads may be
+ * called from any number of threads. close() waits for reads in progress, then unmaps the segments, so that the
+ * mappings are released when the file is closed or evicted from the file cache, not when the
+ * buffers are garbage collected. On JVMs where that is not possible, unmapping is left to the garbage collector.
+ *
  * @author john
+ * @see RandomAccessFile#setMemoryMapped
  */
 public class MMapRandomAccessFile extends RandomAccessFile {
+  static private final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MMapRandomAccessFile.class);
 
-  private MappedByteBuffer source;
+  static public final long defaultSegmentSize = 1L << 30; // 1 GB
+
+  private final long segmentSize;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock(); // close() excludes reads
+  private final List<MappedByteBuffer> retired = new ArrayList<>(); // replaced partial segments, unmapped on close; guarded by this
+  private volatile Mapping mapping;
 
   /**
-    * Constructor for in-memory "files"
-    * @param location used as a name
-    * @param mode the open mode
-    * @throws java.io.IOException on error
-    */
+   * Open a file for reading through memory mapped segments.
+   *
+   * @param location   location of the file
+   * @param bufferSize size of the read buffer, used by the file pointer reads
+   * @throws IOException on open error
+   */
+  public MMapRandomAccessFile(String location, int bufferSize) throws IOException {
+    this(location, bufferSize, defaultSegmentSize);
+  }
+
+  /**
+   * Open a file for reading through memory mapped segments.
+   *
+   * @param location    location of the file
+   * @param bufferSize  size of the read buffer, used by the file pointer reads
+   * @param segmentSize size of the mapped segments, at most Integer.MAX_VALUE
+   * @throws IOException on open error
+   */
+  public MMapRandomAccessFile(String location, int bufferSize, long segmentSize) throws IOException {
+    super(location, "r", bufferSize);
+    if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("segmentSize must be > 0 and <= Integer.MAX_VALUE");
+    this.segmentSize = segmentSize;
+    this.mapping = new Mapping(new MappedByteBuffer[0], 0);
+  }
+
+  /**
+   * Only read only mode is supported.
+   * @param location location of the file
+   * @param mode     must be "r"
+   * @throws java.io.IOException on error
+   * @deprecated use MMapRandomAccessFile(String location, int bufferSize)
+   */
+  @Deprecated
   public MMapRandomAccessFile(String location, String mode) throws IOException {
-    super(location, mode, 1);
-    FileChannel channel = file.getChannel();
-    source = channel.map( readonly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE, (long) 0, channel.size());
-    //channel.close();
-
-    bufferStart = 0;
-	  dataSize = (int) channel.size();
-	  dataEnd = channel.size();
-    filePosition = 0;
-    buffer = null;
-    endOfFile = false;
+    this(location, defaultBufferSize);
+    if (!mode.equals("r")) {
+      close();
+      throw new IllegalArgumentException("MMapRandomAccessFile is read only");
+    }
+  }
+
+  @Override
+  protected int read_(long pos, byte[] b, int offset, int len) throws IOException {
+    lock.readLock().lock();
+    try {
+      Mapping m = getMapping(pos + len);
+      if (pos >= m.length) return -1;
+      int n = (int) Math.min(len, m.length - pos);
+      int done = 0;
+      while (done < n) {
+        ByteBuffer bb = m.slice(pos + done);
+        int count = Math.min(n - done, bb.remaining());
+        bb.get(b, offset + done, count);
+        done += count;
+      }
+      return n;
+    } finally {
+      lock.readLock().unlock();
+    }
   }
 
+  @Override
+  protected int readUncached_(long pos, byte[] b, int offset, int len) throws IOException {
+    return read_(pos, b, offset, len); // the mapping does not use the block cache
+  }
 
-  public void flush() throws IOException {
-    if (bufferModified) {
-      source.force();
-      bufferModified = false;
+  @Override
+  public int read(long pos, byte[] b, int off, int len) throws IOException {
+    if (pos < 0)
+      throw new IOException("Negative read position " + pos + " in " + location);
+    return read_(pos, b, off, len);
+  }
+
+  @Override
+  public long readToByteChannel(WritableByteChannel dest, long offset, long nbytes) throws IOException {
+    lock.readLock().lock();
+    try {
+      Mapping m = getMapping(offset + nbytes);
+      long end = Math.min(offset + nbytes, m.length);
+      long pos = offset;
+      while (pos < end) {
+        ByteBuffer bb = m.slice(pos);
+        if (bb.remaining() > end - pos)
+          bb.limit(bb.position() + (int) (end - pos));
+        while (bb.hasRemaining())
+          pos += dest.write(bb);
+      }
+      return Math.max(end - offset, 0);
+    } finally {
+      lock.readLock().unlock();
     }
   }
 
-  public long length( ) {
-    return dataEnd;
+  @Override
+  public void flush() throws IOException {
+    if (bufferModified)
+      throw new IOException("Cannot write to read only file " + location);
   }
 
-  public void seek( long pos ) {
-    filePosition = pos;
-    if( filePosition < dataEnd )
-      source.position((int) filePosition);
-    else
-      endOfFile = true;
+  @Override
+  protected void closeFile() throws IOException {
+    lock.writeLock().lock();
+    try {
+      Mapping m = mapping;
+      if (m != null) {
+        mapping = null;
+        for (MappedByteBuffer seg : m.segments)
+          unmap(seg);
+        synchronized (this) {
+          for (MappedByteBuffer seg : retired)
+            unmap(seg);
+          retired.clear();
+        }
+      }
+      super.closeFile();
+    } finally {
+      lock.writeLock().unlock();
+    }
   }
 
-   public void unread( ) {
-     seek( filePosition-1);
-   }
+  // the current mapping, extended if the file has grown and end is past it
+  private Mapping getMapping(long end) throws IOException {
+    Mapping m = mapping;
+    if (m == null)
+      throw new IOException("File is closed " + location);
+    if (end <= m.length)
+      return m;
 
-  public int read() throws IOException {
-    // If the file position is within the data, return the byte...
-    if( filePosition < dataEnd ) {
-      filePosition++;
-      return source.get() & 0xff;
+    synchronized (this) {
+      m = mapping;
+      long fileLength = file.getChannel().size();
+      if (fileLength <= m.length)
+        return m;
 
-    } else {
-       return -1;
+      int nsegs = (int) ((fileLength + segmentSize - 1) / segmentSize);
+      MappedByteBuffer[] segments = Arrays.copyOf(m.segments, nsegs);
+      int first = m.segments.length;
+      if (first > 0 && m.segments[first - 1].capacity() < segmentSize) {
+        first--; // the last segment was partial, map it again to its new size
+        retired.add(m.segments[first]); // another thread may still be reading it
+      }
+      for (int i = first; i < nsegs; i++) {
+        long start = i * segmentSize;
+        segments[i] = file.getChannel().map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, fileLength - start));
+      }
+      mapping = m = new Mapping(segments, fileLength);
+      return m;
     }
   }
 
-   public int readBytes( byte dst[], int offset, int length ) throws IOException {
-     if( endOfFile ) return -1;
-
-     length = (int) Math.min( length, dataEnd - filePosition);
-     if (length > 0) {
-       source.get(dst, offset, length);
-       filePosition += length;
-     }
-     return length;
-   }
-
-  public void write( int b ) throws IOException {
-     source.put( (byte)b);
-     filePosition++;
-     bufferModified = true;
+  // the mapped segments and the file length they cover; immutable
+  private class Mapping {
+    final MappedByteBuffer[] segments;
+    final long length;
+
+    Mapping(MappedByteBuffer[] segments, long length) {
+      this.segments = segments;
+      this.length = length;
+    }
+
+    // a view of the segment containing pos, positioned at pos; views do not change the position of the shared segment
+    ByteBuffer slice(long pos) {
+      int segno = (int) (pos / segmentSize);
+      ByteBuffer bb = segments[segno].duplicate();
+      bb.position((int) (pos - segno * segmentSize));
+      return bb;
+    }
   }
 
-  public void writeBytes( byte dst[], int offset, int length ) throws IOException {
-    source.put(dst, offset, length);
-    filePosition += length;
+  ////////////////////////////////////////////////////////////////////////////////////
+  // unmap now, rather than when the buffer is garbage collected
+
+  private interface Unmapper {
+    void unmap(ByteBuffer bb) throws Exception;
+  }
+
+  static private final Unmapper unmapper = makeUnmapper();
+
+  static private Unmapper makeUnmapper() {
+    try { // java 9 and later
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      Object unsafe = theUnsafe.get(null);
+      return bb -> invokeCleaner.invoke(unsafe, bb);
+    } catch (Exception e) {
+      // not available
+    }
+
+    try { // java 8
+      Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+      Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+      return bb -> {
+        Object c = cleaner.invoke(bb);
+        if (c != null) clean.invoke(c);
+      };
+    } catch (Exception e) {
+      logger.info("MMapRandomAccessFile cannot unmap files, they are unmapped when garbage collected");
+      return null;
+    }
+  }
+
+  static private void unmap(MappedByteBuffer bb) {
+    if (unmapper == null) return;
+    try {
+      unmapper.unmap(bb);
+    } catch (Exception e) {
+      logger.warn("MMapRandomAccessFile unmap failed", e);
+    }
   }
 
-}
\ No newline at end of file
+}
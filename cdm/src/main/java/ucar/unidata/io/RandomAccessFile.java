@@ -44,7 +44,11 @@ import ucar.unidata.util.StringUtil2;
 
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -68,6 +72,8 @@ import java.util.concurrent.atomic.AtomicLong;
  * Freeware Java Classes</a>.
  * <p/>
  * Must be thread confined - that is, can only be used by a single thread at a time..
+ * The exception is the positional reads, read(long pos, ...) and readFully(long pos, ...), which
+ * do not use or change the file pointer or the buffer, and may be called from any number of threads.
  *
  * @author Alex McManus
  * @author Russ Rew
@@ -191,13 +197,99 @@ public class RandomAccessFile implements DataInput, DataOutput, FileCacheable, C
   static private final ucar.nc2.util.cache.FileFactory factory = new FileFactory() {
     public FileCacheable open(DatasetUrl durl, int buffer_size, CancelTask cancelTask, Object iospMessage) throws IOException {
       String location = StringUtil2.replace(durl.trueurl, "\\", "/"); // canonicalize the name
-      RandomAccessFile result = new RandomAccessFile(location, "r", buffer_size);
+      RandomAccessFile result = openReadOnly(location, buffer_size);
       result.cacheState = 1;  // in use
       return result;
     }
   };
 
   static private FileCacheIF cache = null;
+  static private volatile boolean shareOpenFiles = false;
+
+  /**
+   * If true, the read only files from acquire() are SharedRandomAccessFiles, so all of them that are open on the same
+   * file, on any thread, read through a single file descriptor. Default is false.
+   *
+   * @param share share the open files of acquire()
+   */
+  static public void setShareOpenFiles(boolean share) {
+    shareOpenFiles = share;
+  }
+
+  static public boolean getShareOpenFiles() {
+    return shareOpenFiles;
+  }
+
+  static private volatile List<String> mmapPrefixes = Collections.emptyList();
+  static private volatile List<String> mmapSuffixes = Collections.emptyList();
+
+  /**
+   * The read only files from acquire() whose location starts with one of the prefixes, or ends with one of the
+   * suffixes, are MMapRandomAccessFiles. Use for large files on fast local disks.
+   *
+   * @param prefixes location prefixes, usually directories; null or empty for none
+   * @param suffixes location suffixes, usually file types like ".nc" or ".ncx4"; null or empty for none
+   */
+  static public void setMemoryMapped(List<String> prefixes, List<String> suffixes) {
+    mmapPrefixes = nonEmpty(prefixes);
+    mmapSuffixes = nonEmpty(suffixes);
+  }
+
+  // an empty prefix or suffix would match every file
+  static private List<String> nonEmpty(List<String> list) {
+    List<String> result = new ArrayList<>();
+    if (list != null)
+      for (String s : list)
+        if (s != null && !s.isEmpty()) result.add(s);
+    return result;
+  }
+
+  /**
+   * @param location location of the file
+   * @return true if acquire() opens this location as an MMapRandomAccessFile
+   */
+  static public boolean isMemoryMapped(String location) {
+    for (String prefix : mmapPrefixes)
+      if (location.startsWith(prefix)) return true;
+    for (String suffix : mmapSuffixes)
+      if (location.endsWith(suffix)) return true;
+    return false;
+  }
+
+  static private RandomAccessFile openReadOnly(String location, int buffer_size) throws IOException {
+    if (isMemoryMapped(location))
+      return new MMapRandomAccessFile(location, buffer_size);
+    if (shareOpenFiles)
+      return new SharedRandomAccessFile(location, buffer_size);
+    return new RandomAccessFile(location, "r", buffer_size);
+  }
+
+  /////////////////////////////////////////////////////////////////////////////////////////////
+  // optional memory cache of file blocks, shared by all read only files
+
+  static private volatile BlockCache blockCache = null;
+
+  /**
+   * Enable a memory cache of file blocks, shared by all read only RandomAccessFiles and SharedRandomAccessFiles.
+   * Small reads (filling the buffer, positional reads) then go through the cache, so the headers and indices of
+   * hot files are read from disk once rather than once per open file. Large reads and readToByteChannel() go
+   * directly to the file.
+   *
+   * @param maxBytes maximum number of bytes to keep; if <= 0, the cache is disabled.
+   */
+  static public synchronized void initBlockCache(long maxBytes) {
+    blockCache = (maxBytes > 0) ? new BlockCache("RandomAccessFile block cache", maxBytes, BlockCache.defaultBlockSize) : null;
+  }
+
+  static public synchronized void disableBlockCache() {
+    if (blockCache != null) blockCache.clearCache();
+    blockCache = null;
+  }
+
+  /** @return the block cache, or null if not enabled */
+  static public BlockCache getBlockCache() {
+    return blockCache;
+  }
 
   static public synchronized void enableDefaultGlobalFileCache() {
     if (cache != null) cache.disable();
@@ -215,14 +307,14 @@ public class RandomAccessFile implements DataInput, DataOutput, FileCacheable, C
 
   static public RandomAccessFile acquire(String location) throws IOException {
     if (cache == null)
-      return new RandomAccessFile(location, "r");
+      return openReadOnly(location, defaultBufferSize);
     else
       return (RandomAccessFile) cache.acquire(factory, new DatasetUrl(null, location));
   }
 
   static public RandomAccessFile acquire(String location, int buffer_size) throws IOException {
     if (cache == null)
-      return new RandomAccessFile(location, "r", buffer_size);
+      return openReadOnly(location, buffer_size);
     else
       return (RandomAccessFile) cache.acquire(factory, location, new DatasetUrl(null, location), buffer_size, null, null);
   }
@@ -309,6 +401,12 @@ public class RandomAccessFile implements DataInput, DataOutput, FileCacheable, C
    */
   private boolean extendMode = false;
 
+  /**
+   * the canonical path, last modified time and length of this file in the block cache, found on first use,
+   * and again after reacquire(), flush(), reopening the file and readIntUnbuffered()
+   */
+  private volatile BlockCache.FileId blockCacheId;
+
   /**
    * Constructor, for subclasses
    *
@@ -440,6 +538,16 @@ public class RandomAccessFile implements DataInput, DataOutput, FileCacheable, C
       if (showOpen) System.out.println("  close " + location);
     }
 
+    closeFile();
+  }
+
+  /**
+   * Close the underlying file. Called by close() when the file is not returned to the file cache.
+   * Subclasses that do not read from a java.io.RandomAccessFile override this to release their own resources.
+   *
+   * @throws IOException if an I/O error occurrs.
+   */
+  protected void closeFile() throws IOException {
     if (file == null)
       return;
 
@@ -468,6 +576,7 @@ public class RandomAccessFile implements DataInput, DataOutput, FileCacheable, C
   @Override
   public void reacquire() {
     cacheState = 1;
+    blockCacheId = null; // FileCache has checked that it is unchanged, use the current last modified
   }
 
   @Override
@@ -592,6 +701,7 @@ public class RandomAccessFile implements DataInput, DataOutput, FileCacheable, C
    * @throws IOException if an I/O error occurs.
    */
   public void flush() throws IOException {
+    blockCacheId = null; // stat the file again on the next cached read
     if (bufferModified) {
       file.seek(bufferStart);
       file.write(buffer, 0, dataSize);
@@ -747,10 +857,116 @@ public class RandomAccessFile implements DataInput, DataOutput, FileCacheable, C
     return nbytes - need;
   }
 
+  /**
+   * Read up to <code>len</code> bytes at the specified file position, without using or changing the
+   * file pointer or the buffer. Unlike the other reads, this may be called by any number of threads at once.
+   * Reads the underlying file with FileChannel.read(ByteBuffer, long); subclasses without a file use read_().
+   * If the file is being written, the buffer is flushed first.
+   * Interrupting a thread in this read closes the FileChannel; the read fails with an InterruptedIOException,
+   * and the file is reopened, so that other threads and later reads can still use it.
+   *
+   * @param pos start here in the file
+   * @param b   put data into this array
+   * @param off the offset in the array
+   * @param len the number of bytes to read
+   * @return the actual number of bytes read, or -1 if pos is at or past the end of the file
+   * @throws IOException if an I/O error occurs.
+   */
+  public int read(long pos, byte[] b, int off, int len) throws IOException {
+    if (pos < 0)
+      throw new IOException("Negative read position " + pos + " in " + location);
+    if (file == null)
+      return read_(pos, b, off, len);
+    if (bufferModified)
+      flush();
+
+    BlockCache bc = blockCache;
+    int n = useBlockCache(bc, len) ? bc.read(getBlockCacheId(), pos, b, off, len, this::readChannel) : readChannel(pos, b, off, len);
+    if (extendMode && (n < len)) {
+      Arrays.fill(b, off + Math.max(n, 0), off + len, (byte) 0);
+      n = len;
+    }
+    return n;
+  }
+
+  /**
+   * Read exactly <code>len</code> bytes at the specified file position, without using or changing the
+   * file pointer or the buffer. May be called by any number of threads at once, see read(long, byte[], int, int).
+   *
+   * @param pos start here in the file
+   * @param b   put data into this array
+   * @param off the offset in the array
+   * @param len the number of bytes to read
+   * @throws EOFException if the file ends before all the bytes are read.
+   * @throws IOException  if an I/O error occurs.
+   */
+  public void readFully(long pos, byte[] b, int off, int len) throws IOException {
+    int n = 0;
+    while (n < len) {
+      int count = read(pos + n, b, off + n, len - n);
+      if (count < 0)
+        throw new EOFException("Reading " + location + " at " + (pos + n) + " file length = " + length());
+      n += count;
+    }
+  }
+
+  private int readChannel(long pos, byte[] b, int off, int len) throws IOException {
+    ByteBuffer bb = ByteBuffer.wrap(b, off, len);
+    for (int attempt = 0; ; attempt++) {
+      java.io.RandomAccessFile f = file;
+      try {
+        readChannel(f.getChannel(), pos + bb.position() - off, bb); // a retry continues where the read stopped
+        break;
+
+      } catch (ClosedByInterruptException e) {
+        reopenFile(f);
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while reading " + location);
+
+      } catch (ClosedChannelException e) { // another thread was interrupted while reading, so try again once
+        if (attempt > 0) throw e;
+        reopenFile(f);
+      }
+    }
+    int n = bb.position() - off;
+    if (n == 0 && len > 0)
+      n = -1;
+    if (debugAccess) {
+      if (showRead)
+        System.out.println(" **read " + location + " = " + len + " bytes at " + pos);
+      debug_nseeks.incrementAndGet();
+      debug_nbytes.addAndGet(len);
+    }
+    return n;
+  }
+
+  // an interrupted channel read closes the file, so open it again, unless this has been closed or another thread reopened it
+  private synchronized void reopenFile(java.io.RandomAccessFile failed) throws IOException {
+    if (file == null)
+      throw new ClosedChannelException();
+    if (file == failed) {
+      file = new java.io.RandomAccessFile(location, readonly ? "r" : "rw");
+      fileChannel = null;
+      blockCacheId = null; // the file may have been replaced, stat it again
+    }
+  }
+
+  // positional read from the channel until bb is full or at the end of file; -1 if at the end of file
+  static int readChannel(FileChannel channel, long pos, ByteBuffer bb) throws IOException {
+    int start = bb.position();
+    int len = bb.remaining();
+    while (bb.hasRemaining()) {
+      if (channel.read(bb, pos + bb.position() - start) < 0)
+        break;
+    }
+    int n = bb.position() - start;
+    return (n == 0 && len > 0) ? -1 : n;
+  }
 
   /**
    * Read directly from file, without going through the buffer.
-   * All reading goes through here or readToByteChannel;
+   * All reading goes through here or readToByteChannel; if the block cache is enabled, small reads of
+   * read only files are satisfied from it.
    *
    * @param pos    start here in the file
    * @param b      put data into this buffer
@@ -760,6 +976,44 @@ public class RandomAccessFile implements DataInput, DataOutput, FileCacheable, C
    * @throws IOException on io error
    */
   protected int read_(long pos, byte[] b, int offset, int len) throws IOException {
+    BlockCache bc = blockCache;
+    if (useBlockCache(bc, len))
+      return bc.read(getBlockCacheId(), pos, b, offset, len, this::readFile);
+    return readFile(pos, b, offset, len);
+  }
+
+  /**
+   * Read directly from file like read_(), but never from the block cache, for data that may have been changed
+   * by another writer since it was cached, eg the number of records of a netcdf-3 file that is being extended.
+   * Subclasses whose read_() uses the block cache override this.
+   *
+   * @param pos    start here in the file
+   * @param b      put data into this buffer
+   * @param offset buffer offset
+   * @param len    this number of bytes
+   * @return actual number of bytes read
+   * @throws IOException on io error
+   */
+  protected int readUncached_(long pos, byte[] b, int offset, int len) throws IOException {
+    return (file != null) ? readFile(pos, b, offset, len) : read_(pos, b, offset, len);
+  }
+
+  // small reads of read only files go through the block cache, if enabled
+  boolean useBlockCache(BlockCache bc, int len) {
+    return bc != null && readonly && !extendMode && bc.isCached(len);
+  }
+
+  BlockCache.FileId getBlockCacheId() throws IOException {
+    BlockCache.FileId id = blockCacheId;
+    if (id == null) {
+      File f = new File(location);
+      id = new BlockCache.FileId(f.getCanonicalPath(), f.lastModified(), f.length());
+      blockCacheId = id;
+    }
+    return id;
+  }
+
+  private int readFile(long pos, byte[] b, int offset, int len) throws IOException {
     file.seek(pos);
     int n = file.read(b, offset, len);
     if (debugAccess) {
@@ -1253,7 +1507,9 @@ public class RandomAccessFile implements DataInput, DataOutput, FileCacheable, C
   }
 
   /**
-   * Read an integer at the given position, bypassing all buffering.
+   * Read an integer at the given position, bypassing all buffering, including the block cache.
+   * Used to see if the file has been changed, so later reads through the block cache use the
+   * current last modified time of the file.
    *
    * @param pos read a byte at this position
    * @return The int that was read
@@ -1261,7 +1517,8 @@ public class RandomAccessFile implements DataInput, DataOutput, FileCacheable, C
    */
   public final int readIntUnbuffered(long pos) throws IOException {
     byte[] bb = new byte[4];
-    read_(pos, bb, 0, 4);
+    blockCacheId = null; // stat the file again on the next cached read
+    readUncached_(pos, bb, 0, 4);
     int ch1 = bb[0] & 0xff;
     int ch2 = bb[1] & 0xff;
     int ch3 = bb[2] & 0xff;
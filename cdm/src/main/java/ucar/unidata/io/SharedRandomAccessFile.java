@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.unidata.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A read only RandomAccessFile that shares one open FileChannel with all the other SharedRandomAccessFiles
+ * on the same file. Each instance has its own file pointer, buffer and byte order, and as usual is thread confined.
+ * But all reads are positional FileChannel reads, which do not use the channel's position,
+ * so any number of instances, on any threads, read the file through a single file descriptor.
+ * The channel is closed when the last instance using it is closed.
+ * <p/>
+ * Interrupting a thread that is reading a FileChannel closes the channel. The interrupted read fails with an
+ * InterruptedIOException, and the channel is reopened for the other instances.
+ *
+ * @since 10/18/2026
+ */
+public class SharedRandomAccessFile extends RandomAccessFile {
+  static private final Map<String, SharedChannel> channels = new HashMap<>(); // guarded by channels
+  static private final AtomicInteger openChannels = new AtomicInteger();
+
+  /**
+   * Debugging, do not use.
+   *
+   * @return number of shared channels that are open
+   */
+  static public int getOpenChannelCount() {
+    return openChannels.get();
+  }
+
+  static private SharedChannel acquireChannel(String location) throws IOException {
+    long lastModified = new File(location).lastModified();
+    synchronized (channels) {
+      SharedChannel sc = channels.get(location);
+      if (sc == null || sc.lastModified != lastModified) { // a replaced file gets a new channel, the old one closes with its last user
+        sc = new SharedChannel(location, lastModified);
+        channels.put(location, sc);
+      }
+      sc.refCount++;
+      return sc;
+    }
+  }
+
+  static private void releaseChannel(SharedChannel sc) throws IOException {
+    synchronized (channels) {
+      if (--sc.refCount > 0) return;
+      if (channels.get(sc.location) == sc)
+        channels.remove(sc.location);
+    }
+    sc.close();
+  }
+
+  ////////////////////////////////////////////////////////////////////////////////////
+
+  private SharedChannel shared;
+
+  /**
+   * Open a file for reading, sharing the channel of any other SharedRandomAccessFile open on it.
+   *
+   * @param location   location of the file
+   * @param bufferSize size of read buffer
+   * @throws IOException on open error
+   */
+  public SharedRandomAccessFile(String location, int bufferSize) throws IOException {
+    super(bufferSize < 0 ? defaultBufferSize : bufferSize);
+    this.location = location;
+    this.shared = acquireChannel(location);
+
+    if (debugLeaks)
+      openFiles.add(location);
+  }
+
+  /**
+   * Callers of this use its file pointer, so each SharedRandomAccessFile opens its own on first use.
+   *
+   * @return a java.io.RandomAccessFile of this file, closed when this is closed.
+   */
+  @Override
+  public java.io.RandomAccessFile getRandomAccessFile() {
+    if (file == null) {
+      try {
+        file = new java.io.RandomAccessFile(location, "r");
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return file;
+  }
+
+  @Override
+  protected int read_(long pos, byte[] b, int offset, int len) throws IOException {
+    BlockCache bc = getBlockCache();
+    if (useBlockCache(bc, len))
+      return bc.read(getBlockCacheId(), pos, b, offset, len, this::readShared);
+    return readShared(pos, b, offset, len);
+  }
+
+  @Override
+  protected int readUncached_(long pos, byte[] b, int offset, int len) throws IOException {
+    return readShared(pos, b, offset, len);
+  }
+
+  private int readShared(long pos, byte[] b, int offset, int len) throws IOException {
+    return getShared().read(pos, ByteBuffer.wrap(b, offset, len));
+  }
+
+  @Override
+  public long readToByteChannel(WritableByteChannel dest, long offset, long nbytes) throws IOException {
+    SharedChannel sc = getShared();
+    long need = nbytes;
+    while (need > 0) {
+      long pos = offset, want = need;
+      long count = sc.withChannel(ch -> ch.transferTo(pos, want, dest));
+      if (count <= 0) break;
+      need -= count;
+      offset += count;
+    }
+    return nbytes - need;
+  }
+
+  @Override
+  public long length() throws IOException {
+    return Math.max(getShared().withChannel(FileChannel::size), dataEnd);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (bufferModified)
+      throw new IOException("Cannot write to read only file " + location);
+  }
+
+  @Override
+  protected void closeFile() throws IOException {
+    if (file != null) {
+      file.close();
+      file = null;
+    }
+    SharedChannel sc = shared;
+    if (sc == null) return;
+    shared = null;
+    releaseChannel(sc);
+  }
+
+  private SharedChannel getShared() throws IOException {
+    SharedChannel sc = shared;
+    if (sc == null)
+      throw new IOException("File is closed " + location);
+    return sc;
+  }
+
+  ////////////////////////////////////////////////////////////////////////////////////
+
+  private interface ChannelOp<T> {
+    T apply(FileChannel channel) throws IOException;
+  }
+
+  // the FileChannel of one file, and the number of SharedRandomAccessFiles using it
+  static private class SharedChannel {
+    final String location;
+    final long lastModified;
+    int refCount; // guarded by channels
+    private volatile FileChannel channel;
+    private boolean closed; // guarded by this
+
+    SharedChannel(String location, long lastModified) throws IOException {
+      this.location = location;
+      this.lastModified = lastModified;
+      this.channel = open();
+      openChannels.incrementAndGet();
+    }
+
+    private FileChannel open() throws IOException {
+      return new java.io.RandomAccessFile(location, "r").getChannel(); // FileNotFoundException like RandomAccessFile
+    }
+
+    // positional read until bb is full or at the end of file; -1 if at the end of file
+    int read(long pos, ByteBuffer bb) throws IOException {
+      int start = bb.position();
+      int len = bb.remaining();
+      withChannel(ch -> readChannel(ch, pos + bb.position() - start, bb)); // a retry continues where the read stopped
+      int n = bb.position() - start;
+      return (n == 0 && len > 0) ? -1 : n;
+    }
+
+    // if another thread was interrupted while using the channel it is closed, so reopen and try again once
+    <T> T withChannel(ChannelOp<T> op) throws IOException {
+      for (int attempt = 0; ; attempt++) {
+        FileChannel ch = channel;
+        try {
+          return op.apply(ch);
+
+        } catch (ClosedByInterruptException e) {
+          reopen(ch);
+          throw new InterruptedIOException("Interrupted while reading " + location);
+
+        } catch (ClosedChannelException e) {
+          if (attempt > 0) throw e;
+          reopen(ch);
+        }
+      }
+    }
+
+    private synchronized void reopen(FileChannel failed) throws IOException {
+      if (closed)
+        throw new ClosedChannelException();
+      if (channel == failed)
+        channel = open();
+    }
+
+    synchronized void close() throws IOException {
+      if (closed) return;
+      closed = true;
+      openChannels.decrementAndGet();
+      channel.close();
+    }
+  }
+
+}
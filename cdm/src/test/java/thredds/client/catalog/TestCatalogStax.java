@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package thredds.client.catalog;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.jdom2.input.StAXStreamBuilder;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+import org.junit.Assert;
+import org.junit.Test;
+import thredds.client.catalog.builder.CatalogBuilder;
+import thredds.client.catalog.builder.DatasetBuilder;
+import thredds.client.catalog.tools.CatalogXmlWriter;
+import ucar.unidata.util.test.TestDir;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reading and writing catalogs with StAX gives the same catalogs as with JDOM.
+ *
+ * @since 10/18/2026
+ */
+public class TestCatalogStax {
+  private static final String[] filenames = {"test0.xml", "test1.xml", "test2.xml", "InvCatalog-1.0.xml", "testMetadata.xml",
+          "nestedServices.xml", "TestTimeCoverage.xml", "TestHarvest.xml", "testCatref.xml", "TestInherit.1.0.xml",
+          "TestAlias.xml", "TestFilter.xml", "MetadataLink.xml", "enhancedCat.xml", "DifTest.xml", "ZoneMetadata.xml"};
+
+  private final XMLOutputter fmt = new XMLOutputter(Format.getPrettyFormat());
+
+  private String toXml(Catalog cat) {
+    return fmt.outputString(new CatalogXmlWriter().writeCatalog(cat));
+  }
+
+  @Test
+  public void testRead() throws Exception {
+    for (String filename : filenames) {
+      File file = new File(TestDir.cdmLocalTestDataDir + "thredds/catalog/" + filename);
+      URI uri = file.toURI();
+
+      Catalog stax = new CatalogBuilder().buildFromLocation(file.getPath(), uri);
+      Assert.assertNotNull(filename, stax);
+
+      Document doc = new SAXBuilder().build(file);
+      Catalog jdom = new CatalogBuilder().buildFromJdom(doc.getRootElement(), uri);
+      Assert.assertNotNull(filename, jdom);
+
+      Assert.assertEquals(filename, toXml(jdom), toXml(stax));
+    }
+  }
+
+  @Test
+  public void testWrite() throws Exception {
+    for (String filename : filenames) {
+      File file = new File(TestDir.cdmLocalTestDataDir + "thredds/catalog/" + filename);
+      URI uri = file.toURI();
+      Catalog cat = new CatalogBuilder().buildFromLocation(file.getPath(), uri);
+      Assert.assertNotNull(filename, cat);
+
+      ByteArrayOutputStream bout = new ByteArrayOutputStream();
+      new CatalogXmlWriter().writeXML(cat, bout);
+      Document streamed = new SAXBuilder().build(new ByteArrayInputStream(bout.toByteArray()));
+      Assert.assertEquals(filename, toXml(cat), fmt.outputString(streamed));
+
+      Catalog back = new CatalogBuilder().buildFromStream(new ByteArrayInputStream(bout.toByteArray()), uri);
+      Assert.assertNotNull(filename, back);
+      Assert.assertEquals(filename, toXml(cat), toXml(back));
+    }
+  }
+
+  @Test
+  public void testReadWholeDatasetElement() throws Exception {
+    for (String filename : filenames) {
+      File file = new File(TestDir.cdmLocalTestDataDir + "thredds/catalog/" + filename);
+      URI uri = file.toURI();
+      Catalog stax = new CatalogBuilder().buildFromLocation(file.getPath(), uri);
+
+      // a subclass that overrides the streaming hook to read the dataset element with readDataset(DatasetBuilder, Element)
+      AtomicInteger count = new AtomicInteger();
+      Catalog whole = new CatalogBuilder() {
+        @Override
+        protected DatasetBuilder readDataset(DatasetBuilder parent, XMLStreamReader reader, StAXStreamBuilder staxBuilder) throws XMLStreamException, JDOMException {
+          count.incrementAndGet();
+          return readDataset(parent, (Element) staxBuilder.fragment(reader));
+        }
+      }.buildFromLocation(file.getPath(), uri);
+      Assert.assertNotNull(filename, whole);
+
+      Assert.assertEquals(filename, toXml(stax), toXml(whole));
+      Assert.assertEquals(filename, countTopDatasets(whole), count.get());
+    }
+  }
+
+  private int countTopDatasets(Catalog cat) {
+    int n = 0;
+    for (Dataset ds : cat.getDatasetsLocal())
+      if (!(ds instanceof CatalogRef)) n++;
+    return n;
+  }
+
+}
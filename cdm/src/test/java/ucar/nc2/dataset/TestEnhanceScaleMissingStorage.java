@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.dataset;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ucar.ma2.*;
+import ucar.nc2.Attribute;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.Variable;
+import ucar.nc2.constants.CDM;
+
+import java.io.IOException;
+
+/**
+ * Compare the loops of EnhanceScaleMissingImpl over the backing storage with the value by value conversion,
+ * for signed and unsigned packed data, with _FillValue, missing_value and valid_min/valid_max.
+ *
+ * @since 10/18/2026
+ */
+public class TestEnhanceScaleMissingStorage {
+  @ClassRule
+  public static TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static final int NY = 16, NX = 32;
+  private static String filename;
+
+  @BeforeClass
+  public static void writeFile() throws IOException, InvalidRangeException {
+    filename = tempFolder.newFile("scaleMissing.nc").getAbsolutePath();
+    try (NetcdfFileWriter writer = NetcdfFileWriter.createNew(filename, true)) {
+      writer.addDimension("y", NY);
+      writer.addDimension("x", NX);
+
+      Variable v = writer.addVariable("byte", DataType.BYTE, "y x");
+      v.addAttribute(new Attribute(CDM.SCALE_FACTOR, 0.5f));
+      v.addAttribute(new Attribute(CDM.ADD_OFFSET, 280.0f));
+      v.addAttribute(new Attribute(CDM.FILL_VALUE, (byte) -127));
+      v.addAttribute(new Attribute(CDM.VALID_RANGE, Array.factory(DataType.BYTE, new int[]{2}, new byte[]{-120, 120})));
+
+      v = writer.addVariable("ubyte", DataType.BYTE, "y x");
+      v.addAttribute(new Attribute(CDM.UNSIGNED, "true"));
+      v.addAttribute(new Attribute(CDM.SCALE_FACTOR, 0.5));
+      v.addAttribute(new Attribute(CDM.ADD_OFFSET, -10.0));
+      v.addAttribute(new Attribute(CDM.MISSING_VALUE, (byte) -1));
+
+      v = writer.addVariable("short", DataType.SHORT, "y x");
+      v.addAttribute(new Attribute(CDM.SCALE_FACTOR, 0.01f));
+      v.addAttribute(new Attribute(CDM.ADD_OFFSET, 280.0f));
+      v.addAttribute(new Attribute(CDM.FILL_VALUE, (short) -32767));
+      v.addAttribute(new Attribute("valid_min", (short) -32000));
+
+      v = writer.addVariable("ushort", DataType.SHORT, "y x");
+      v.addAttribute(new Attribute(CDM.UNSIGNED, "true"));
+      v.addAttribute(new Attribute(CDM.SCALE_FACTOR, 0.01f));
+      v.addAttribute(new Attribute("valid_max", (short) 60000));
+
+      v = writer.addVariable("int", DataType.INT, "y x");
+      v.addAttribute(new Attribute(CDM.SCALE_FACTOR, 1.0e-3));
+      v.addAttribute(new Attribute(CDM.ADD_OFFSET, 7.0));
+      v.addAttribute(new Attribute(CDM.MISSING_VALUE, Array.factory(DataType.INT, new int[]{2}, new int[]{-999, 999})));
+
+      v = writer.addVariable("uint", DataType.INT, "y x");
+      v.addAttribute(new Attribute(CDM.UNSIGNED, "true"));
+      v.addAttribute(new Attribute(CDM.SCALE_FACTOR, 1.0e-3f));
+      v.addAttribute(new Attribute("valid_max", 2000000000));
+
+      v = writer.addVariable("float", DataType.FLOAT, "y x");
+      v.addAttribute(new Attribute(CDM.MISSING_VALUE, -999.0f));
+      v.addAttribute(new Attribute("valid_max", 1000.0f));
+
+      writer.create();
+
+      int n = NY * NX;
+      int[] shape = new int[]{NY, NX};
+      byte[] bvals = new byte[n];
+      short[] svals = new short[n];
+      int[] ivals = new int[n];
+      float[] fvals = new float[n];
+      for (int i = 0; i < n; i++) {
+        bvals[i] = (byte) (i - 128);
+        svals[i] = (short) ((i * 263) - 32768);
+        ivals[i] = (i % 7 == 0) ? -999 : (i % 11 == 0) ? 999 : (i * 16777259) - 1000;
+        fvals[i] = (i % 5 == 0) ? -999.0f : (i - 100) * 3.5f;
+      }
+      svals[7] = (short) -32767;
+      writer.write(writer.findVariable("byte"), Array.factory(DataType.BYTE, shape, bvals));
+      writer.write(writer.findVariable("ubyte"), Array.factory(DataType.BYTE, shape, bvals));
+      writer.write(writer.findVariable("short"), Array.factory(DataType.SHORT, shape, svals));
+      writer.write(writer.findVariable("ushort"), Array.factory(DataType.SHORT, shape, svals));
+      writer.write(writer.findVariable("int"), Array.factory(DataType.INT, shape, ivals));
+      writer.write(writer.findVariable("uint"), Array.factory(DataType.INT, shape, ivals));
+      writer.write(writer.findVariable("float"), Array.factory(DataType.FLOAT, shape, fvals));
+    }
+  }
+
+  @Test
+  public void testByte() throws IOException, InvalidRangeException {
+    check("byte", DataType.FLOAT);
+    check("ubyte", DataType.DOUBLE);
+  }
+
+  @Test
+  public void testShort() throws IOException, InvalidRangeException {
+    check("short", DataType.FLOAT);
+    check("ushort", DataType.FLOAT);
+  }
+
+  @Test
+  public void testInt() throws IOException, InvalidRangeException {
+    check("int", DataType.DOUBLE);
+    check("uint", DataType.FLOAT);
+  }
+
+  @Test
+  public void testMissingOnly() throws IOException, InvalidRangeException {
+    check("float", DataType.FLOAT);
+  }
+
+  @Test
+  public void testSectionMatchesCopy() throws IOException, InvalidRangeException {
+    try (NetcdfDataset ds = NetcdfDataset.openDataset(filename, false, null)) {
+      for (String varName : new String[]{"byte", "ubyte", "short", "ushort", "int", "uint"}) {
+        VariableDS v = (VariableDS) ds.findVariable(varName);
+        EnhanceScaleMissingImpl scaleMissing = new EnhanceScaleMissingImpl(v, true, true, true, true);
+        Array raw = v.read();
+
+        // the array signedness, as well as the variable's, must be the same for a section and for its copy
+        DataType dt = raw.getDataType();
+        Array[] arrays = new Array[]{raw, Array.factory(dt.withSign(!dt.isUnsigned()), raw.getShape(), raw.getStorage())};
+        for (Array array : arrays) {
+          String what = varName + " " + array.getDataType();
+          Array section = array.section(new int[]{1, 2}, new int[]{NY / 2, NX / 4}, new int[]{2, 3});
+          Assert.assertFalse(what, section.isCanonicalOrder());
+          Array copy = section.copy();
+          Assert.assertTrue(what, copy.isCanonicalOrder());
+          Assert.assertEquals(what, section.isUnsigned(), copy.isUnsigned());
+          compare(what + " section", scaleMissing.convertScaleOffsetMissing(copy), scaleMissing.convertScaleOffsetMissing(section));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testOutputArray() throws IOException {
+    try (NetcdfDataset ds = NetcdfDataset.openDataset(filename, false, null)) {
+      EnhanceScaleMissingImpl scaleMissing = new EnhanceScaleMissingImpl((VariableDS) ds.findVariable("short"));
+      Array raw = ds.findVariable("short").read();
+      Array expected = scaleMissing.convertScaleOffsetMissing(raw);
+
+      Array out = Array.factory(DataType.FLOAT, raw.getShape());
+      for (int i = 0; i < 2; i++) {
+        Assert.assertSame(out, scaleMissing.convertScaleOffsetMissing(raw, out));
+        Assert.assertArrayEquals((float[]) expected.getStorage(), (float[]) out.getStorage(), 0.0f);
+      }
+
+      try {
+        scaleMissing.convertScaleOffsetMissing(raw, Array.factory(DataType.DOUBLE, raw.getShape()));
+        Assert.fail("wrong output data type");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+      try {
+        scaleMissing.convertScaleOffsetMissing(raw, Array.factory(DataType.FLOAT, new int[]{NX, NY}));
+        Assert.fail("wrong output shape");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+
+  // the backing storage loops, and the iterator loops for a permuted view, must match the value by value conversion
+  private void check(String varName, DataType convertedType) throws IOException, InvalidRangeException {
+    try (NetcdfDataset ds = NetcdfDataset.openDataset(filename, false, null)) {
+      VariableDS v = (VariableDS) ds.findVariable(varName);
+      EnhanceScaleMissingImpl scaleMissing = new EnhanceScaleMissingImpl(v, true, true, true, true);
+      Assert.assertEquals(varName, convertedType, scaleMissing.getConvertedDataType());
+
+      Array raw = v.read();
+      Array expected = convertByValue(scaleMissing, raw, convertedType);
+      Array converted = scaleMissing.convertScaleOffsetMissing(raw.copy());
+      compare(varName, expected, converted);
+
+      Array permuted = scaleMissing.convertScaleOffsetMissing(raw.copy().permute(new int[]{1, 0}));
+      compare(varName + " permuted", expected.permute(new int[]{1, 0}), permuted);
+
+      int countMissing = 0;
+      IndexIterator ii = converted.getIndexIterator();
+      while (ii.hasNext())
+        if (Double.isNaN(ii.getDoubleNext())) countMissing++;
+      Assert.assertTrue(varName + " has no missing values", countMissing > 0);
+    }
+  }
+
+  private Array convertByValue(EnhanceScaleMissingImpl scaleMissing, Array raw, DataType convertedType) {
+    Array result = Array.factory(convertedType, raw.getShape());
+    IndexIterator in = raw.getIndexIterator();
+    IndexIterator out = result.getIndexIterator();
+    while (in.hasNext()) {
+      if (raw.getElementType() == byte.class)
+        out.setDoubleNext(scaleMissing.convertScaleOffsetMissing(in.getByteNext()));
+      else if (raw.getElementType() == short.class)
+        out.setDoubleNext(scaleMissing.convertScaleOffsetMissing(in.getShortNext()));
+      else if (raw.getElementType() == int.class)
+        out.setDoubleNext(scaleMissing.convertScaleOffsetMissing(in.getIntNext()));
+      else
+        out.setDoubleNext(scaleMissing.convertScaleOffsetMissing(in.getDoubleNext()));
+    }
+    return result;
+  }
+
+  private void compare(String what, Array expected, Array result) {
+    Assert.assertEquals(what, expected.getDataType(), result.getDataType());
+    IndexIterator iter1 = expected.getIndexIterator();
+    IndexIterator iter2 = result.getIndexIterator();
+    while (iter1.hasNext()) {
+      double v1 = iter1.getDoubleNext();
+      double v2 = iter2.getDoubleNext();
+      Assert.assertEquals(what + " at " + iter1, 0, Double.compare(v1, v2));
+    }
+  }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.ft.point;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ucar.unidata.geoloc.LatLonPointImpl;
+import ucar.unidata.geoloc.LatLonRect;
+import ucar.unidata.geoloc.Station;
+import ucar.unidata.geoloc.StationImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The station index gives the same answers as a linear scan.
+ *
+ * @since 10/18/2026
+ */
+public class TestStationIndex {
+
+  private List<Station> makeStations(int n, long seed) {
+    Random random = new Random(seed);
+    List<Station> stations = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      double lat, lon;
+      if (i % 3 == 0) { // a cluster across the dateline
+        lat = 50.0 + 10.0 * random.nextDouble();
+        lon = 170.0 + 20.0 * random.nextDouble(); // some are > 180
+      } else {
+        lat = -90.0 + 180.0 * random.nextDouble();
+        lon = -180.0 + 360.0 * random.nextDouble();
+      }
+      stations.add(new StationImpl("stn" + i, null, null, lat, lon, 0.0));
+    }
+    if (n > 7)
+      stations.add(new StationImpl("dup", null, null, stations.get(7).getLatitude(), stations.get(7).getLongitude(), 0.0));
+    stations.add(new StationImpl("edge", null, null, 10.0, 180.0, 0.0));
+    stations.add(new StationImpl("missing", null, null, Double.NaN, Double.NaN, 0.0));
+    return stations;
+  }
+
+  private List<Station> scan(List<Station> stations, LatLonRect bb) {
+    LatLonPointImpl latlonPt = new LatLonPointImpl();
+    List<Station> result = new ArrayList<>();
+    for (Station s : stations) {
+      latlonPt.set(s.getLatitude(), s.getLongitude());
+      if (bb.contains(latlonPt))
+        result.add(s);
+    }
+    return result;
+  }
+
+  private Station scanClosest(List<Station> stations, double lat, double lon) {
+    double cos = Math.cos(Math.toRadians(lat));
+    Station min_station = stations.get(0);
+    double min_dist = Double.MAX_VALUE;
+    for (Station s : stations) {
+      double lat1 = s.getLatitude();
+      double lon1 = LatLonPointImpl.lonNormal(s.getLongitude(), lon);
+      double dy = Math.toRadians(lat - lat1);
+      double dx = cos * Math.toRadians(lon - lon1);
+      double dist = dy * dy + dx * dx;
+      if (dist < min_dist) {
+        min_dist = dist;
+        min_station = s;
+      }
+    }
+    return min_station;
+  }
+
+  @Test
+  public void testBoundingBox() {
+    Random random = new Random(11);
+    for (int n : new int[]{0, 1, 10, 5000}) {
+      List<Station> stations = makeStations(n, n);
+      StationIndex<Station> index = new StationIndex<>(stations);
+
+      List<LatLonRect> boxes = new ArrayList<>();
+      boxes.add(new LatLonRect("40,160,20,40"));   // crosses the dateline
+      boxes.add(new LatLonRect("-90,-180,180,360"));
+      boxes.add(new LatLonRect("10,170,0,10"));     // exactly on the edge station
+      boxes.add(new LatLonRect("0,-10,10,20"));
+      for (int i = 0; i < 200; i++) {
+        double lat = -90.0 + 180.0 * random.nextDouble();
+        double lon = -180.0 + 360.0 * random.nextDouble();
+        double dlat = (90.0 - lat) * random.nextDouble();
+        boxes.add(new LatLonRect(new LatLonPointImpl(lat, lon), dlat, 100.0 * random.nextDouble()));
+      }
+
+      for (LatLonRect bb : boxes)
+        Assert.assertEquals(bb.toString2(), scan(stations, bb), index.getStations(bb));
+    }
+  }
+
+  @Test
+  public void testClosest() {
+    Random random = new Random(13);
+    for (int n : new int[]{1, 10, 5000}) {
+      List<Station> stations = makeStations(n, n);
+      StationIndex<Station> index = new StationIndex<>(stations);
+
+      for (int i = 0; i < 500; i++) {
+        double lat = -90.0 + 180.0 * random.nextDouble();
+        double lon = -180.0 + 360.0 * random.nextDouble();
+        if (i % 5 == 0) lat = 55.0 + random.nextDouble(); // near the dateline cluster
+        if (i % 10 == 0) lon = 179.9 + 0.2 * random.nextDouble();
+        Assert.assertEquals(lat + " " + lon, scanClosest(stations, lat, lon), index.findClosestStation(lat, lon));
+      }
+
+      // ties go to the first station
+      Station s7 = stations.get(7 < n ? 7 : 0);
+      Assert.assertSame(scanClosest(stations, s7.getLatitude(), s7.getLongitude()),
+              index.findClosestStation(s7.getLatitude(), s7.getLongitude()));
+    }
+
+    Assert.assertNull(new StationIndex<Station>(new ArrayList<Station>()).findClosestStation(0.0, 0.0));
+  }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.ft2.coverage.writer;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ucar.ma2.Array;
+import ucar.ma2.InvalidRangeException;
+import ucar.ma2.MAMath;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.Variable;
+import ucar.nc2.ft2.coverage.*;
+import ucar.nc2.util.Optional;
+import ucar.unidata.util.test.TestDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test CFGridCoverageWriter2.streamNetcdf3() makes the same file as writing through NetcdfFileWriter.
+ *
+ * @since 10/18/2026
+ */
+public class TestCFGridCoverageWriter2Stream {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testStreamSameAsFile() throws IOException, InvalidRangeException {
+    String endpoint = TestDir.cdmLocalTestDataDir + "permuteTest.nc";
+
+    try (FeatureDatasetCoverage cc = CoverageDatasetFactory.open(endpoint)) {
+      Assert.assertNotNull(endpoint, cc);
+      CoverageCollection gcs = cc.getCoverageCollections().get(0);
+      SubsetParams params = new SubsetParams();
+      params.set(SubsetParams.timeAll, true);
+
+      File outFile = tempFolder.newFile("testStream.nc");
+      NetcdfFileWriter writer = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf3, outFile.getPath(), null);
+      Optional<Long> fileSizeo = CFGridCoverageWriter2.writeOrTestSize(gcs, Lists.newArrayList("tzyx", "yx"), params, false, false, writer);
+      Assert.assertTrue(fileSizeo.getErrorMessage(), fileSizeo.isPresent());
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      AtomicLong reportedSize = new AtomicLong();
+      Optional<Long> streamSizeo = CFGridCoverageWriter2.streamNetcdf3(gcs, Lists.newArrayList("tzyx", "yx"), params, false, reportedSize::set, out);
+      Assert.assertTrue(streamSizeo.getErrorMessage(), streamSizeo.isPresent());
+      Assert.assertEquals(fileSizeo.get(), streamSizeo.get());
+      Assert.assertEquals(out.size(), reportedSize.get());
+
+      try (NetcdfFile fromFile = NetcdfFile.open(outFile.getPath());
+           NetcdfFile fromStream = NetcdfFile.openInMemory("testStream.nc", out.toByteArray())) {
+        Assert.assertEquals(fromFile.getVariables().size(), fromStream.getVariables().size());
+        for (Variable v : fromFile.getVariables()) {
+          Variable vs = fromStream.findVariable(v.getFullNameEscaped());
+          Assert.assertNotNull(v.getFullName(), vs);
+          Assert.assertEquals(v.getFullName(), v.getDataType(), vs.getDataType());
+          Assert.assertArrayEquals(v.getFullName(), v.getShape(), vs.getShape());
+          Assert.assertEquals(v.getFullName(), v.getAttributes().size(), vs.getAttributes().size());
+
+          Array data = v.read();
+          Array dataStream = vs.read();
+          Assert.assertTrue(v.getFullName(), MAMath.equals(data, dataStream));
+        }
+      }
+    }
+  }
+
+}
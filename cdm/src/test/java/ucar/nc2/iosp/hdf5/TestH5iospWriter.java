@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.iosp.hdf5;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ucar.ma2.*;
+import ucar.nc2.*;
+import ucar.nc2.constants.CDM;
+import ucar.nc2.iosp.netcdf3.N3iosp;
+import ucar.nc2.write.Nc4Chunking;
+import ucar.nc2.write.Nc4ChunkingDefault;
+import ucar.nc2.write.Nc4ChunkingStrategy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Writing netCDF-4 files with H5iospWriter, and reading them back with H5iosp.
+ *
+ * @since 10/18/2026
+ */
+public class TestH5iospWriter {
+  private static final int NY = 60, NX = 70, NT = 5;
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Before
+  public void setup() {
+    NetcdfFileWriter.setUseJavaNetcdf4Writer(true);
+  }
+
+  @After
+  public void cleanup() {
+    NetcdfFileWriter.setUseJavaNetcdf4Writer(false);
+    H5iospWriter.initChunkEncodePool(0);
+  }
+
+  @Test
+  public void testChecksum() {
+    Assert.assertEquals(0xdeadbeef, H5headerWriter.checksum(new byte[0], 0, 0));
+    byte[] b = "Four score and seven years ago".getBytes(CDM.utf8Charset);
+    Assert.assertEquals(0x17770551, H5headerWriter.checksum(b, 0, b.length));
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException, InvalidRangeException {
+    String filename = tempFolder.newFile("test.nc4").getPath();
+    writeFile(filename, makeChunker());
+
+    try (NetcdfFile ncfile = NetcdfFile.open(filename)) {
+      Group root = ncfile.getRootGroup();
+      Assert.assertEquals("global", root.findAttribute("title").getStringValue());
+      Attribute multi = root.findAttribute("history");
+      Assert.assertEquals(3, multi.getLength());
+      Assert.assertEquals("three", multi.getStringValue(2));
+      Assert.assertArrayEquals(new int[]{1, 2, 3}, (int[]) root.findAttribute("ints").getValues().copyTo1DJavaArray());
+      Assert.assertEquals("", root.findAttribute("empty").getStringValue());
+
+      Dimension y = ncfile.findDimension("y");
+      Assert.assertEquals(NY, y.getLength());
+      Dimension time = ncfile.findDimension("time");
+      Assert.assertTrue(time.isUnlimited());
+      Assert.assertEquals(NT, time.getLength());
+
+      // contiguous coordinate variable
+      Variable x = ncfile.findVariable("x");
+      Assert.assertEquals("x", x.getDimensionsString());
+      Assert.assertEquals("m", x.findAttribute("units").getStringValue());
+      Assert.assertTrue(MAMath.equals(Array.makeArray(DataType.DOUBLE, NX, 0, .5), x.read()));
+
+      // chunked, deflated and shuffled
+      Variable data = ncfile.findVariable("data");
+      Assert.assertEquals("y x", data.getDimensionsString());
+      Assert.assertEquals(-1.0f, data.findAttribute(CDM.FILL_VALUE).getNumericValue().floatValue(), 0);
+      Assert.assertTrue(MAMath.equals(makeData(), data.read()));
+      Assert.assertTrue(MAMath.equals(makeData().section(new int[]{10, 5}, new int[]{7, 15}, new int[]{3, 2}),
+              data.read("10:29:3,5:34:2")));
+
+      // unlimited, written one record at a time
+      Variable temp = ncfile.findVariable("temp");
+      Assert.assertEquals("time y", temp.getDimensionsString());
+      Array tempData = temp.read();
+      for (int t = 0; t < NT; t++)
+        for (int j = 0; j < NY; j++)
+          Assert.assertEquals(t * 1000 + j, tempData.getShort(t * NY + j));
+      Assert.assertTrue(MAMath.equals(Array.makeArray(DataType.INT, NT, 100, 1), ncfile.findVariable("time").read()));
+
+      ArrayChar names = (ArrayChar) ncfile.findVariable("name").read();
+      Assert.assertEquals("name3", names.getString(3));
+      ArrayObject labels = (ArrayObject) ncfile.findVariable("label").read();
+      Assert.assertEquals("label 2 é", labels.getObject(2));
+      Assert.assertEquals("", labels.getObject(NY - 1)); // never written
+
+      Assert.assertEquals(42, ncfile.findVariable("scalar").readScalarInt());
+      Assert.assertEquals(DataType.UINT, ncfile.findVariable("unsigned").getDataType());
+      Assert.assertEquals(-1, ncfile.findVariable("unsigned").read().getInt(0));
+
+      // a variable with the name of a dimension, that is not its coordinate variable
+      Variable notCoord = ncfile.findVariable("y");
+      Assert.assertNotNull(notCoord);
+      Assert.assertEquals("x", notCoord.getDimensionsString());
+
+      Group sub = ncfile.findGroup("sub");
+      Assert.assertEquals("in sub", sub.findAttribute("title").getStringValue());
+      Variable subvar = sub.findVariable("subvar");
+      Assert.assertEquals("z y", subvar.getDimensionsString());
+      Assert.assertTrue(MAMath.equals(Array.makeArray(DataType.LONG, 3 * NY, 0, 1).reshape(new int[]{3, NY}), subvar.read()));
+    }
+  }
+
+  @Test
+  public void testUnwrittenDataIsFilled() throws IOException, InvalidRangeException {
+    String filename = tempFolder.newFile("fill.nc4").getPath();
+    try (NetcdfFileWriter writer = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf4, filename, makeChunker())) {
+      writer.addDimension(null, "y", NY);
+      writer.addDimension(null, "x", NX);
+      Variable chunked = writer.addVariable(null, "chunked", DataType.FLOAT, "y x");
+      chunked.addAttribute(new Attribute(CDM.FILL_VALUE, -1.0f));
+      Variable contiguous = writer.addVariable(null, "contiguous", DataType.INT, "x");
+      writer.create();
+
+      writer.write(chunked, new int[]{1, 2}, Array.makeArray(DataType.FLOAT, 5, 1, 1).reshape(new int[]{1, 5}));
+      writer.write(contiguous, new int[]{10}, Array.makeArray(DataType.INT, 2, 7, 1));
+    }
+
+    try (NetcdfFile ncfile = NetcdfFile.open(filename)) {
+      Array chunked = ncfile.findVariable("chunked").read();
+      Index ima = chunked.getIndex();
+      Assert.assertEquals(-1.0f, chunked.getFloat(ima.set(0, 0)), 0);
+      Assert.assertEquals(1.0f, chunked.getFloat(ima.set(1, 2)), 0);
+      Assert.assertEquals(5.0f, chunked.getFloat(ima.set(1, 6)), 0);
+      Assert.assertEquals(-1.0f, chunked.getFloat(ima.set(1, 7)), 0);
+      Assert.assertEquals(-1.0f, chunked.getFloat(ima.set(NY - 1, NX - 1)), 0);
+
+      Array contiguous = ncfile.findVariable("contiguous").read();
+      Assert.assertEquals(7, contiguous.getInt(10));
+      Assert.assertEquals(8, contiguous.getInt(11));
+      Assert.assertEquals(N3iosp.NC_FILL_INT, contiguous.getInt(0));
+    }
+  }
+
+  @Test
+  public void testPoolWritesSameFile() throws IOException, InvalidRangeException {
+    File serial = tempFolder.newFile("serial.nc4");
+    writeNumbers(serial.getPath());
+
+    H5iospWriter.initChunkEncodePool(3);
+    Assert.assertNotNull(H5iospWriter.getChunkEncodePool());
+    File parallel = tempFolder.newFile("parallel.nc4");
+    writeNumbers(parallel.getPath());
+
+    Assert.assertArrayEquals(Files.readAllBytes(serial.toPath()), Files.readAllBytes(parallel.toPath()));
+    try (NetcdfFile ncfile = NetcdfFile.open(parallel.getPath())) {
+      Assert.assertTrue(MAMath.equals(makeData(), ncfile.findVariable("data").read()));
+    }
+  }
+
+  @Test
+  public void testClassicModel() throws IOException, InvalidRangeException {
+    String filename = tempFolder.newFile("classic.nc").getPath();
+    try (NetcdfFileWriter writer = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf4_classic, filename)) {
+      writer.addUnlimitedDimension("time");
+      Variable v = writer.addVariable(null, "v", DataType.DOUBLE, "time");
+      writer.create();
+      writer.write(v, Array.makeArray(DataType.DOUBLE, 3, 0, 1));
+      writer.write(v, new int[]{3}, Array.makeArray(DataType.DOUBLE, 2, 3, 1));
+    }
+
+    try (NetcdfFile ncfile = NetcdfFile.open(filename)) {
+      Assert.assertNull(ncfile.findGlobalAttribute("_nc3_strict"));
+      Assert.assertTrue(MAMath.equals(Array.makeArray(DataType.DOUBLE, 5, 0, 1), ncfile.findVariable("v").read()));
+    }
+  }
+
+  @Test
+  public void testStructuresNeedClibrary() {
+    NetcdfFile ncfile = new NetcdfFileSubclass();
+    ncfile.addDimension(null, new Dimension("n", 3));
+    Variable v = new Variable(ncfile, null, null, "v", DataType.INT, "n");
+    ncfile.addVariable(null, v);
+    Assert.assertTrue(H5iospWriter.canWrite(ncfile, NetcdfFileWriter.Version.netcdf4));
+
+    Variable s = new Structure(ncfile, null, null, "s");
+    s.setDimensions("n");
+    ncfile.addVariable(null, s);
+    Assert.assertFalse(H5iospWriter.canWrite(ncfile, NetcdfFileWriter.Version.netcdf4));
+  }
+
+  /////////////////////////////////////////////////////////////////////
+
+  private static Nc4Chunking makeChunker() {
+    Nc4ChunkingDefault chunker = new Nc4ChunkingDefault(5, true);
+    chunker.setMinVariableSize(4 * NX * NY); // data is chunked, the others are contiguous
+    chunker.setDefaultChunkSize(4000);       // many chunks
+    chunker.setMinChunksize(400);
+    return chunker;
+  }
+
+  private static Array makeData() {
+    return Array.makeArray(DataType.FLOAT, NY * NX, 0, .25).reshape(new int[]{NY, NX});
+  }
+
+  private void writeFile(String filename, Nc4Chunking chunker) throws IOException, InvalidRangeException {
+    try (NetcdfFileWriter writer = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf4, filename, chunker)) {
+      writer.addGroupAttribute(null, new Attribute("title", "global"));
+      writer.addGroupAttribute(null, new Attribute("history", Arrays.asList("one", "two", "three")));
+      writer.addGroupAttribute(null, new Attribute("ints", Array.makeArray(DataType.INT, 3, 1, 1)));
+      writer.addGroupAttribute(null, new Attribute("empty", ""));
+
+      writer.addDimension(null, "y", NY);
+      writer.addDimension(null, "x", NX);
+      writer.addDimension(null, "strlen", 8);
+      writer.addUnlimitedDimension("time");
+
+      Variable x = writer.addVariable(null, "x", DataType.DOUBLE, "x");
+      x.addAttribute(new Attribute("units", "m"));
+      Variable data = writer.addVariable(null, "data", DataType.FLOAT, "y x");
+      data.addAttribute(new Attribute(CDM.FILL_VALUE, -1.0f));
+      Variable time = writer.addVariable(null, "time", DataType.INT, "time");
+      Variable temp = writer.addVariable(null, "temp", DataType.SHORT, "time y");
+      Variable name = writer.addVariable(null, "name", DataType.CHAR, "y strlen");
+      Variable label = writer.addVariable(null, "label", DataType.STRING, "y");
+      Variable scalar = writer.addVariable(null, "scalar", DataType.INT, "");
+      Variable unsigned = writer.addVariable(null, "unsigned", DataType.UINT, "x");
+      Variable notCoord = writer.addVariable(null, "y", DataType.FLOAT, "x");
+
+      Group sub = writer.addGroup(writer.addGroup(null, ""), "sub");
+      writer.addGroupAttribute(sub, new Attribute("title", "in sub"));
+      writer.addDimension(sub, "z", 3);
+      Variable subvar = writer.addVariable(sub, "subvar", DataType.LONG, "z y");
+
+      writer.create();
+
+      writer.write(x, Array.makeArray(DataType.DOUBLE, NX, 0, .5));
+      writer.write(data, makeData());
+      for (int t = 0; t < NT; t++) {
+        writer.write(time, new int[]{t}, Array.makeArray(DataType.INT, 1, 100 + t, 1));
+        writer.write(temp, new int[]{t, 0}, Array.makeArray(DataType.SHORT, NY, t * 1000, 1).reshape(new int[]{1, NY}));
+      }
+
+      ArrayObject.D1 names = (ArrayObject.D1) Array.factory(DataType.STRING, new int[]{NY});
+      ArrayObject.D1 labels = (ArrayObject.D1) Array.factory(DataType.STRING, new int[]{NY - 1});
+      for (int j = 0; j < NY; j++) {
+        names.set(j, "name" + j);
+        if (j < NY - 1) labels.set(j, "label " + j + " é");
+      }
+      writer.writeStringData(name, names);
+      writer.write(label, labels);
+      writer.write(scalar, Array.factory(DataType.INT, new int[0], new int[]{42}));
+      writer.write(unsigned, Array.makeArray(DataType.INT, NX, -1, 0));
+      writer.write(notCoord, Array.makeArray(DataType.FLOAT, NX, 0, 1));
+      writer.write(subvar, Array.makeArray(DataType.LONG, 3 * NY, 0, 1).reshape(new int[]{3, NY}));
+    }
+  }
+
+  private void writeNumbers(String filename) throws IOException, InvalidRangeException {
+    Nc4Chunking chunker = Nc4ChunkingStrategy.factory(Nc4Chunking.Strategy.standard, 9, true);
+    ((Nc4ChunkingDefault) chunker).setDefaultChunkSize(2000);
+    try (NetcdfFileWriter writer = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf4, filename, chunker)) {
+      writer.addDimension(null, "y", NY);
+      writer.addDimension(null, "x", NX);
+      writer.addUnlimitedDimension("time");
+      Variable data = writer.addVariable(null, "data", DataType.FLOAT, "y x");
+      Variable temp = writer.addVariable(null, "temp", DataType.DOUBLE, "time y x");
+      writer.create();
+
+      writer.write(data, makeData());
+      for (int t = 0; t < NT; t++)
+        writer.write(temp, new int[]{t, 0, 0}, makeData().reshape(new int[]{1, NY, NX}));
+    }
+  }
+
+}
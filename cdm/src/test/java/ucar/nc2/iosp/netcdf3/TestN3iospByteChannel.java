@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.iosp.netcdf3;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.ma2.Section;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.Variable;
+import ucar.nc2.iosp.IospHelper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+
+/**
+ * N3iosp.readToByteChannel() sends the same bytes as reading the data into an Array.
+ *
+ * @since 10/18/2026
+ */
+public class TestN3iospByteChannel {
+  private static final int NT = 6, NY = 20, NX = 30;
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private File makeFile() throws Exception {
+    File file = tempFolder.newFile("channel.nc");
+    try (NetcdfFileWriter writer = NetcdfFileWriter.createNew(NetcdfFileWriter.Version.netcdf3, file.getPath())) {
+      writer.addUnlimitedDimension("time");
+      writer.addDimension(null, "y", NY);
+      writer.addDimension(null, "x", NX);
+      Variable fixed = writer.addVariable(null, "fixed", DataType.DOUBLE, "y x");
+      Variable rec = writer.addVariable(null, "rec", DataType.FLOAT, "time y x");
+      writer.create();
+
+      Array data = Array.factory(DataType.DOUBLE, new int[]{NY, NX});
+      for (int i = 0; i < data.getSize(); i++)
+        data.setDouble(i, i * 0.5);
+      writer.write(fixed, data);
+
+      Array recData = Array.factory(DataType.FLOAT, new int[]{NT, NY, NX});
+      for (int i = 0; i < recData.getSize(); i++)
+        recData.setFloat(i, i * 0.25f);
+      writer.write(rec, recData);
+    }
+    return file;
+  }
+
+  private byte[] transfer(Variable v, Section section) throws Exception {
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    long n = v.readToByteChannel(section, Channels.newChannel(bout));
+    Assert.assertEquals(bout.size(), n);
+    return bout.toByteArray();
+  }
+
+  private byte[] copy(Variable v, Section section) throws Exception {
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    IospHelper.copyToByteChannel(v.read(section), Channels.newChannel(bout));
+    return bout.toByteArray();
+  }
+
+  @Test
+  public void testSameAsArray() throws Exception {
+    try (NetcdfFile ncfile = NetcdfFile.open(makeFile().getPath())) {
+      Variable fixed = ncfile.findVariable("fixed");
+      for (Section s : new Section[]{fixed.getShapeAsSection(), new Section("2:17:3,1:28:2")})
+        Assert.assertArrayEquals(copy(fixed, s), transfer(fixed, s));
+
+      Variable rec = ncfile.findVariable("rec");
+      for (Section s : new Section[]{rec.getShapeAsSection(), new Section("1:5:2,0:19:4,3:3")})
+        Assert.assertArrayEquals(copy(rec, s), transfer(rec, s));
+    }
+  }
+
+  @Test
+  public void testMissingRecords() throws Exception {
+    File file = makeFile();
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.setLength(raf.length() - NY * NX * 4 / 2); // half of the last record is gone
+    }
+
+    try (NetcdfFile ncfile = NetcdfFile.open(file.getPath())) {
+      Variable rec = ncfile.findVariable("rec");
+      Section s = rec.getShapeAsSection();
+      byte[] b = transfer(rec, s);
+      Assert.assertEquals(NT * NY * NX * 4, b.length);
+      Assert.assertArrayEquals(copy(rec, s), b);
+    }
+  }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.iosp.nexrad2;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ucar.unidata.io.InMemoryRandomAccessFile;
+import ucar.unidata.io.RandomAccessFile;
+import ucar.unidata.util.test.TestDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Uncompressing the bzip2 blocks of a Level II volume scan, serially and in parallel, to disk and to memory.
+ * Level2_synthetic.ar2v has 6 blocks of 120 non-radial messages with a known byte pattern,
+ * the last with its length negated.
+ *
+ * @since 10/18/2026
+ */
+public class TestLevel2Uncompress {
+  private static final String filename = TestDir.cdmLocalTestDataDir + "nexrad2/Level2_synthetic.ar2v";
+  private static final int NBLOCKS = 6, NMESS = 120, SIZE = 2432;
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @BeforeClass
+  public static void init() throws IOException {
+    NexradStationDB.init();
+  }
+
+  @After
+  public void cleanup() {
+    Nexrad2IOServiceProvider.initDecodePool(0);
+    Nexrad2IOServiceProvider.setUncompressToDisk(true);
+  }
+
+  @Test
+  public void testUncompressBlocks() throws Exception {
+    byte[] serial = uncompressBlocks(null);
+    checkMessages(serial);
+
+    ExecutorService pool = Executors.newFixedThreadPool(3);
+    try {
+      Assert.assertArrayEquals(serial, uncompressBlocks(pool));
+    } finally {
+      pool.shutdown();
+    }
+
+    // a reader that still has a pool replaced by initDecodePool() uncompresses on its own thread
+    Assert.assertArrayEquals(serial, uncompressBlocks(pool));
+  }
+
+  @Test
+  public void testUncompressToDisk() throws IOException {
+    Nexrad2IOServiceProvider.initDecodePool(3);
+    File copy = copyToTemp();
+    Level2VolumeScan volScan = new Level2VolumeScan(RandomAccessFile.acquire(copy.getPath()), null);
+    try {
+      Assert.assertEquals(copy.getPath() + ".uncompress", volScan.raf.getLocation());
+      checkVolume(volScan.raf);
+      Assert.assertEquals("KFTG", volScan.getStationId());
+    } finally {
+      volScan.raf.close();
+    }
+    Assert.assertTrue(new File(copy.getPath() + ".uncompress").exists());
+  }
+
+  @Test
+  public void testUncompressInMemory() throws IOException {
+    Nexrad2IOServiceProvider.initDecodePool(3);
+    Nexrad2IOServiceProvider.setUncompressToDisk(false);
+    File copy = copyToTemp();
+    Level2VolumeScan volScan = new Level2VolumeScan(RandomAccessFile.acquire(copy.getPath()), null);
+    try {
+      Assert.assertTrue(volScan.raf instanceof InMemoryRandomAccessFile);
+      Assert.assertEquals(copy.getPath(), volScan.raf.getLocation());
+      checkVolume(volScan.raf);
+    } finally {
+      volScan.raf.close();
+    }
+    Assert.assertFalse(new File(copy.getPath() + ".uncompress").exists());
+  }
+
+  private byte[] uncompressBlocks(ExecutorService pool) throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (RandomAccessFile raf = new RandomAccessFile(filename, "r")) {
+      raf.order(RandomAccessFile.BIG_ENDIAN);
+      raf.seek(Level2Record.FILE_HEADER_SIZE);
+      Level2VolumeScan.uncompressBlocks(raf, pool, bos::write);
+    }
+    return bos.toByteArray();
+  }
+
+  private File copyToTemp() throws IOException {
+    File copy = new File(tempFolder.getRoot(), "Level2_synthetic.ar2v");
+    Files.copy(new File(filename).toPath(), copy.toPath());
+    return copy;
+  }
+
+  private void checkVolume(RandomAccessFile raf) throws IOException {
+    byte[] header = new byte[Level2Record.FILE_HEADER_SIZE];
+    byte[] messages = new byte[NBLOCKS * NMESS * SIZE];
+    raf.seek(0);
+    raf.readFully(header);
+    raf.readFully(messages);
+    Assert.assertEquals(header.length + messages.length, raf.length());
+    Assert.assertEquals("AR2V0006", new String(header, 0, 8, "US-ASCII"));
+    checkMessages(messages);
+  }
+
+  private void checkMessages(byte[] b) {
+    Assert.assertEquals(NBLOCKS * NMESS * SIZE, b.length);
+    for (int i = 0; i < NBLOCKS * NMESS; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        byte expect = (j == 15) ? 2 : (byte) (i * 31 + j * 7);
+        if (b[i * SIZE + j] != expect)
+          Assert.fail("message " + i + " byte " + j);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.stream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.ma2.MAMath;
+import ucar.ma2.Section;
+import ucar.nc2.Dimension;
+import ucar.nc2.Group;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFileSubclass;
+import ucar.nc2.Variable;
+import ucar.nc2.util.IO;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Adler32;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * ncstream data messages compressed in blocks.
+ *
+ * @since 10/18/2026
+ */
+public class TestNcStreamBlocks {
+  private static final int NY = 300, NX = 500; // 600 Kb of floats, 3 blocks
+
+  @After
+  public void cleanup() {
+    NcStreamCompression.initBlockPool(0);
+  }
+
+  private NetcdfFile makeFile() {
+    NetcdfFileSubclass ncfile = new NetcdfFileSubclass();
+    Group root = ncfile.getRootGroup();
+    ncfile.addDimension(root, new Dimension("y", NY));
+    ncfile.addDimension(root, new Dimension("x", NX));
+
+    Variable v = new Variable(ncfile, root, null, "temperature", DataType.FLOAT, "y x");
+    Random random = new Random(17);
+    Array data = Array.factory(DataType.FLOAT, new int[]{NY, NX});
+    for (int i = 0; i < data.getSize(); i++)
+      data.setFloat(i, 270.0f + (i % NX) * 0.01f + random.nextFloat());
+    v.setCachedData(data, false);
+    ncfile.addVariable(root, v);
+
+    Variable s = new Variable(ncfile, root, null, "name", DataType.STRING, "");
+    s.setCachedData(Array.factory(DataType.STRING, new int[0], new Object[]{"not compressed"}), false);
+    ncfile.addVariable(root, s);
+    ncfile.finish();
+    return ncfile;
+  }
+
+  private byte[] send(NetcdfFile ncfile, String varName, Section section, NcStreamCompression compress) throws Exception {
+    Variable v = ncfile.findVariable(varName);
+    NcStreamWriter writer = new NcStreamWriter(ncfile, "test");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writer.sendData(v, section == null ? v.getShapeAsSection() : section, out, compress);
+    return out.toByteArray();
+  }
+
+  private Array receive(NetcdfFile ncfile, byte[] message) throws IOException {
+    return new NcStreamReader().readData(new ByteArrayInputStream(message), ncfile, "test").data;
+  }
+
+  private NcStreamProto.Data getDataProto(byte[] message) throws IOException {
+    ByteArrayInputStream in = new ByteArrayInputStream(message);
+    Assert.assertTrue(NcStream.readAndTest(in, NcStream.MAGIC_DATA));
+    byte[] dp = new byte[NcStream.readVInt(in)];
+    NcStream.readFully(in, dp);
+    return NcStreamProto.Data.parseFrom(dp);
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    NetcdfFile ncfile = makeFile();
+    Variable v = ncfile.findVariable("temperature");
+    Array want = v.read();
+
+    for (NcStreamCompression compress : new NcStreamCompression[]{NcStreamCompression.deflate(),
+            NcStreamCompression.deflate(1), NcStreamCompression.shuffleDeflate(1)}) {
+      byte[] message = send(ncfile, "temperature", null, compress);
+      NcStreamProto.Data dproto = getDataProto(message);
+      Assert.assertEquals(compress.type, dproto.getCompress());
+      Assert.assertEquals(NcStreamCompression.BLOCK_SIZE, dproto.getBlockSize());
+      Assert.assertEquals(3, dproto.getBlockCompressedSizeCount());
+      Assert.assertEquals(NY * NX * 4, dproto.getUncompressedSize());
+      Assert.assertTrue(message.length < NY * NX * 4);
+      Assert.assertTrue(MAMath.equals(want, receive(ncfile, message)));
+    }
+
+    // a section that is one partial block, and an exact multiple of the block size
+    Section small = new Section("10:19,0:99");
+    Assert.assertTrue(MAMath.equals(v.read(small), receive(ncfile, send(ncfile, "temperature", small, NcStreamCompression.shuffleDeflate(5)))));
+    Section exact = new Section("0:255,0:255");
+    Assert.assertEquals(NcStreamCompression.BLOCK_SIZE, exact.computeSize() * 4);
+    Assert.assertTrue(MAMath.equals(v.read(exact), receive(ncfile, send(ncfile, "temperature", exact, NcStreamCompression.deflate()))));
+  }
+
+  @Test
+  public void testOneZlibStream() throws Exception {
+    NetcdfFile ncfile = makeFile();
+    byte[] message = send(ncfile, "temperature", null, NcStreamCompression.deflate());
+
+    // what older readers do with DEFLATE
+    ByteArrayInputStream in = new ByteArrayInputStream(message);
+    Assert.assertTrue(NcStream.readAndTest(in, NcStream.MAGIC_DATA));
+    NcStream.readFully(in, new byte[NcStream.readVInt(in)]);
+    byte[] datab = new byte[NcStream.readVInt(in)];
+    NcStream.readFully(in, datab);
+    Assert.assertEquals(0, in.available());
+
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    IO.copy(new InflaterInputStream(new ByteArrayInputStream(datab)), bout);
+    Array data = Array.factory(DataType.FLOAT, new int[]{NY, NX}, ByteBuffer.wrap(bout.toByteArray()));
+    Assert.assertTrue(MAMath.equals(ncfile.findVariable("temperature").read(), data));
+  }
+
+  @Test
+  public void testPoolSameAsSerial() throws Exception {
+    NetcdfFile ncfile = makeFile();
+    byte[] serial = send(ncfile, "temperature", null, NcStreamCompression.shuffleDeflate(-1));
+
+    NcStreamCompression.initBlockPool(4);
+    Assert.assertNotNull(NcStreamCompression.getBlockPool());
+    byte[] parallel = send(ncfile, "temperature", null, NcStreamCompression.shuffleDeflate(-1));
+    Assert.assertArrayEquals(serial, parallel);
+    Assert.assertTrue(MAMath.equals(ncfile.findVariable("temperature").read(), receive(ncfile, parallel)));
+
+    // a pool replaced by initBlockPool() rejects the blocks, which are then done on the calling thread
+    ExecutorService shutDown = Executors.newFixedThreadPool(2);
+    shutDown.shutdown();
+    ByteArrayInputStream in = new ByteArrayInputStream(parallel);
+    Assert.assertTrue(NcStream.readAndTest(in, NcStream.MAGIC_DATA));
+    byte[] dp = new byte[NcStream.readVInt(in)];
+    NcStream.readFully(in, dp);
+    byte[] datab = new byte[NcStream.readVInt(in)];
+    NcStream.readFully(in, datab);
+    NcStreamProto.Data dproto = NcStreamProto.Data.parseFrom(dp);
+    Assert.assertArrayEquals(NcStreamBlocks.inflate(dproto, datab, 4, null), NcStreamBlocks.inflate(dproto, datab, 4, shutDown));
+  }
+
+  @Test
+  public void testStringsNotCompressed() throws Exception {
+    NetcdfFile ncfile = makeFile();
+    byte[] message = send(ncfile, "name", null, NcStreamCompression.deflate());
+    Assert.assertEquals(NcStreamProto.Compress.NONE, getDataProto(message).getCompress());
+    Assert.assertEquals("not compressed", receive(ncfile, message).getObject(0));
+  }
+
+  @Test
+  public void testChecksum() throws Exception {
+    NetcdfFile ncfile = makeFile();
+    byte[] message = send(ncfile, "temperature", null, NcStreamCompression.deflate());
+    message[message.length - 1] ^= 1; // last byte of the zlib trailer
+    try {
+      receive(ncfile, message);
+      Assert.fail();
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Checksum error"));
+    }
+  }
+
+  @Test
+  public void testAdler32Combine() {
+    byte[] data = new byte[100 * 1000];
+    new Random(3).nextBytes(data);
+    Adler32 all = new Adler32();
+    all.update(data);
+    for (int split : new int[]{0, 1, 65521, 70000, data.length}) {
+      Adler32 a1 = new Adler32();
+      a1.update(data, 0, split);
+      Adler32 a2 = new Adler32();
+      a2.update(data, split, data.length - split);
+      Assert.assertEquals(all.getValue(), NcStreamBlocks.adler32Combine(a1.getValue(), a2.getValue(), data.length - split));
+    }
+  }
+
+  @Test
+  public void testShuffle() {
+    byte[] data = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+    byte[] shuffled = NcStreamBlocks.shuffle(data, data.length, 4);
+    Assert.assertArrayEquals(new byte[]{1, 5, 2, 6, 3, 7, 4, 8, 9, 10}, shuffled);
+    Assert.assertArrayEquals(data, NcStreamBlocks.unshuffle(shuffled, data.length, 4));
+  }
+
+}
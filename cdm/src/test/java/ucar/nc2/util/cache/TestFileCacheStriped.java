@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.util.cache;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import ucar.nc2.dataset.DatasetUrl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test FileCacheStriped
+ *
+ * @since 10/18/2026
+ */
+public class TestFileCacheStriped {
+
+  static class MyFile implements FileCacheable {
+    final String location;
+    volatile long lastModified = 1;
+    volatile FileCacheIF cache;
+    final AtomicInteger inUse = new AtomicInteger();
+    volatile boolean reallyClosed;
+
+    MyFile(String location) {
+      this.location = location;
+    }
+
+    public String getLocation() {
+      return location;
+    }
+
+    public void close() throws IOException {
+      if (cache != null && cache.release(this)) return;
+      reallyClosed = true;
+    }
+
+    public long getLastModified() {
+      return lastModified;
+    }
+
+    public void setFileCache(FileCacheIF fileCache) {
+      this.cache = fileCache;
+    }
+
+    public void release() throws IOException {
+    }
+
+    public void reacquire() throws IOException {
+    }
+  }
+
+  static class MyFactory implements FileFactory {
+    final AtomicInteger opens = new AtomicInteger();
+    final List<MyFile> opened = new CopyOnWriteArrayList<>();
+
+    public FileCacheable open(DatasetUrl location, int buffer_size, ucar.nc2.util.CancelTask cancelTask, Object iospMessage) throws IOException {
+      opens.incrementAndGet();
+      MyFile f = new MyFile(location.trueurl);
+      opened.add(f);
+      return f;
+    }
+  }
+
+  private final MyFactory factory = new MyFactory();
+  private FileCacheStriped cache;
+
+  @After
+  public void after() {
+    if (cache != null) cache.clearCache(true);
+  }
+
+  private MyFile acquire(String location) throws IOException {
+    return (MyFile) cache.acquire(factory, new DatasetUrl(null, location));
+  }
+
+  @Test
+  public void testHitAndMiss() throws IOException {
+    cache = new FileCacheStriped("test", 5, 10, 20, 0);
+
+    MyFile f1 = acquire("A");
+    f1.close();
+    Assert.assertFalse(f1.reallyClosed);
+
+    MyFile f2 = acquire("A");
+    Assert.assertSame(f1, f2);
+    Assert.assertEquals(1, factory.opens.get());
+
+    // a locked file is not handed out twice
+    MyFile f3 = acquire("A");
+    Assert.assertNotSame(f2, f3);
+    Assert.assertEquals(2, factory.opens.get());
+    Assert.assertEquals(2, cache.getCount());
+
+    f2.close();
+    f3.close();
+    Assert.assertEquals(2, cache.showCache().size());
+  }
+
+  @Test
+  public void testModifiedIsDiscarded() throws IOException {
+    cache = new FileCacheStriped("test", 5, 10, 20, 0);
+
+    MyFile f1 = acquire("A");
+    f1.close();
+    f1.lastModified = 2;
+
+    MyFile f2 = acquire("A");
+    Assert.assertNotSame(f1, f2);
+    Assert.assertTrue(f1.reallyClosed);
+    Assert.assertEquals(1, cache.getCount());
+    f2.close();
+  }
+
+  @Test
+  public void testHardLimitKeepsMinElements() throws IOException {
+    cache = new FileCacheStriped("test", 5, 0, 20, 0); // no background cleanup
+
+    for (int i = 0; i < 21; i++) {
+      MyFile f = acquire("file" + i);
+      f.close();
+    }
+    // going over the hard limit cleans up in the calling thread, oldest first
+    Assert.assertEquals(5, cache.getCount());
+    Assert.assertTrue(factory.opened.get(0).reallyClosed);
+    Assert.assertFalse(factory.opened.get(20).reallyClosed);
+  }
+
+  @Test
+  public void testCleanupSkipsLockedFiles() throws IOException {
+    cache = new FileCacheStriped("test", 0, 10, 3, 0);
+
+    List<MyFile> locked = new ArrayList<>();
+    for (int i = 0; i < 5; i++)
+      locked.add(acquire("file" + i));
+
+    for (MyFile f : locked)
+      Assert.assertFalse(f.reallyClosed);
+    Assert.assertEquals(5, cache.getCount());
+
+    for (MyFile f : locked)
+      f.close();
+    cache.clearCache(false);
+    Assert.assertEquals(0, cache.getCount());
+    for (MyFile f : locked)
+      Assert.assertTrue(f.reallyClosed);
+  }
+
+  @Test
+  public void testEjectAndClear() throws IOException {
+    cache = new FileCacheStriped("test", 5, 10, 20, 0);
+
+    MyFile a1 = acquire("A");
+    MyFile a2 = acquire("A");
+    MyFile b = acquire("B");
+    a1.close();
+
+    cache.eject("A");
+    Assert.assertTrue(a1.reallyClosed);
+    Assert.assertTrue(a2.reallyClosed);
+    Assert.assertEquals(1, cache.getCount());
+
+    cache.clearCache(false); // b is locked
+    Assert.assertFalse(b.reallyClosed);
+    cache.clearCache(true);
+    Assert.assertTrue(b.reallyClosed);
+    Assert.assertEquals(0, cache.getCount());
+  }
+
+  @Test
+  public void testDisabled() throws IOException {
+    cache = new FileCacheStriped("test", 5, 10, 20, 0);
+    cache.disable();
+
+    MyFile f1 = acquire("A");
+    f1.close();
+    MyFile f2 = acquire("A");
+    Assert.assertNotSame(f1, f2);
+    Assert.assertEquals(0, cache.getCount());
+    cache.enable();
+  }
+
+  @Test
+  public void testConcurrentAccess() throws Exception {
+    cache = new FileCacheStriped("test", 20, 0, 60, 0); // cleanups run in the acquiring threads
+    int nthreads = 64;
+    int nfiles = 50;
+    int nacquires = 2000;
+
+    AtomicInteger failures = new AtomicInteger();
+    ExecutorService pool = Executors.newFixedThreadPool(nthreads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < nthreads; t++) {
+        long seed = t;
+        futures.add(pool.submit(() -> {
+          Random r = new Random(seed);
+          for (int i = 0; i < nacquires; i++) {
+            try {
+              MyFile f = acquire("file" + r.nextInt(nfiles));
+              // nobody else may be using it, and it must still be open
+              if (f.inUse.incrementAndGet() != 1 || f.reallyClosed) failures.incrementAndGet();
+              f.inUse.decrementAndGet();
+              f.close();
+            } catch (Throwable e) {
+              failures.incrementAndGet();
+            }
+          }
+        }));
+      }
+      for (Future<?> f : futures)
+        f.get(60, TimeUnit.SECONDS);
+    } finally {
+      pool.shutdownNow();
+    }
+
+    Assert.assertEquals(0, failures.get());
+    Assert.assertTrue(cache.getCount() <= nfiles + nthreads);
+
+    // every open file is either in the cache or was really closed
+    int open = 0;
+    for (MyFile f : factory.opened)
+      if (!f.reallyClosed) open++;
+    Assert.assertEquals(cache.getCount(), open);
+  }
+
+}
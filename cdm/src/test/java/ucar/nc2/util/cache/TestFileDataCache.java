@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.util.cache;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ucar.unidata.io.InMemoryRandomAccessFile;
+import ucar.unidata.io.RandomAccessFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Formatter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test FileDataCache
+ *
+ * @since 10/18/2026
+ */
+public class TestFileDataCache {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testHitsAndMisses() throws IOException {
+    FileDataCache<byte[]> cache = new FileDataCache<>("test", 1000, (byte[] b) -> b.length);
+    AtomicInteger loads = new AtomicInteger();
+
+    byte[] b1 = cache.get("file1", 1L, 100, () -> { loads.incrementAndGet(); return new byte[10]; });
+    byte[] b2 = cache.get("file1", 1L, 100, () -> { loads.incrementAndGet(); return new byte[10]; });
+    Assert.assertSame(b1, b2);
+    Assert.assertEquals(1, loads.get());
+
+    // different file, position or modification time are different entries
+    cache.get("file2", 1L, 100, () -> { loads.incrementAndGet(); return new byte[10]; });
+    cache.get("file1", 1L, 200, () -> { loads.incrementAndGet(); return new byte[10]; });
+    cache.get("file1", 2L, 100, () -> { loads.incrementAndGet(); return new byte[10]; });
+    Assert.assertEquals(4, loads.get());
+
+    Assert.assertEquals(1, cache.getStats().hitCount());
+    Assert.assertEquals(4, cache.getStats().missCount());
+    Assert.assertEquals(4, cache.getCount());
+    Assert.assertEquals(40, cache.getBytes());
+
+    Formatter f = new Formatter();
+    cache.showCache(f);
+    Assert.assertTrue(f.toString().contains("hits= 1"));
+
+    cache.clearCache();
+    Assert.assertEquals(0, cache.getCount());
+  }
+
+  @Test
+  public void testSizeOf() throws IOException {
+    FileDataCache<float[]> cache = new FileDataCache<>("test", 1000, (float[] f) -> 4 * f.length);
+    cache.get("file", 1L, 0, () -> new float[10]);
+    cache.get("file", 1L, 40, () -> new float[15]);
+    Assert.assertEquals(100, cache.getBytes());
+
+    for (int i = 0; i < 100; i++)
+      cache.get("file", 1L, 1000 + i, () -> new float[25]);
+    Assert.assertTrue(cache.getBytes() <= 1000);
+  }
+
+  @Test
+  public void testBoundedBySize() throws IOException {
+    FileDataCache<byte[]> cache = new FileDataCache<>("test", 1000, (byte[] b) -> b.length);
+    for (int i = 0; i < 100; i++)
+      cache.get("file", 1L, i, () -> new byte[100]);
+
+    Assert.assertTrue(cache.getBytes() <= 1000);
+    Assert.assertTrue(cache.getStats().evictionCount() > 0);
+  }
+
+  @Test
+  public void testLoaderException() throws IOException {
+    FileDataCache<byte[]> cache = new FileDataCache<>("test", 1000, (byte[] b) -> b.length);
+    try {
+      cache.get("file", 1L, 0, () -> { throw new IOException("bad data"); });
+      Assert.fail();
+    } catch (IOException e) {
+      Assert.assertEquals("bad data", e.getMessage());
+    }
+    Assert.assertEquals(0, cache.getCount());
+
+    // unchecked exceptions are not wrapped
+    try {
+      cache.get("file", 1L, 0, () -> { throw new IllegalStateException("bad state"); });
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      Assert.assertEquals("bad state", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testOnlyLocalFiles() throws IOException {
+    File file = tempFolder.newFile("data.bin");
+    try (RandomAccessFile raf = new RandomAccessFile(file.getPath(), "r")) {
+      Assert.assertEquals(file.lastModified(), FileDataCache.getLastModified(raf));
+    }
+
+    // an in-memory file with the name of a real file is not cached
+    try (RandomAccessFile raf = new InMemoryRandomAccessFile(file.getPath(), new byte[10])) {
+      Assert.assertEquals(0, FileDataCache.getLastModified(raf));
+    }
+  }
+
+}
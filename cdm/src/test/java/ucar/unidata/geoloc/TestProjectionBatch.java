@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.unidata.geoloc;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import ucar.unidata.geoloc.projection.*;
+import ucar.unidata.geoloc.projection.proj4.AlbersEqualAreaEllipse;
+import ucar.unidata.geoloc.projection.sat.Geostationary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The array conversions of ProjectionImpl, serial and split into parallel blocks,
+ * must give the same answers as converting one point at a time.
+ *
+ * @since 10/18/2026
+ */
+@RunWith(Parameterized.class)
+public class TestProjectionBatch {
+  private static final int NPTS = 40 * 1000; // enough for several parallel blocks
+
+  @Parameterized.Parameters(name = "{0}")
+  public static List<Object[]> getTestParameters() {
+    List<Object[]> result = new ArrayList<>();
+    result.add(new Object[]{new LambertConformal(40.0, -100.0, 30.0, 60.0)});
+    result.add(new Object[]{new Stereographic(90.0, -105.0, 0.933)});
+    result.add(new Object[]{new Mercator(-105.0, 20.0)});
+    result.add(new Object[]{new RotatedPole(37.5, 177.5)});
+    result.add(new Object[]{new RotatedLatLon(-30.0, 15.0, 0.0)});
+    result.add(new Object[]{new Sinusoidal(0.0, 0.0, 0.0, 6371.007)});
+    result.add(new Object[]{new AlbersEqualAreaEllipse()});
+    result.add(new Object[]{new Geostationary(-75.0)});
+    return result;
+  }
+
+  private final ProjectionImpl proj;
+
+  public TestProjectionBatch(ProjectionImpl proj) {
+    this.proj = proj;
+  }
+
+  @Test
+  public void testLatLonToProj() {
+    double[][] latlon = makeLatLon();
+    double[][] expected = new double[2][NPTS];
+    LatLonPointImpl llpt = new LatLonPointImpl();
+    for (int i = 0; i < NPTS; i++) {
+      llpt.set(latlon[0][i], latlon[1][i]);
+      ProjectionPoint pt = proj.latLonToProj(llpt, new ProjectionPointImpl());
+      expected[0][i] = pt.getX();
+      expected[1][i] = pt.getY();
+    }
+
+    compare(expected, proj.latLonToProj(latlon, new double[2][NPTS], false));
+    compare(expected, proj.latLonToProj(latlon, new double[2][NPTS], true));
+  }
+
+  @Test
+  public void testProjToLatLon() {
+    double[][] proj2D = proj.latLonToProj(makeLatLon());
+    double[][] expected = new double[2][NPTS];
+    ProjectionPointImpl pt = new ProjectionPointImpl();
+    for (int i = 0; i < NPTS; i++) {
+      pt.setLocation(proj2D[0][i], proj2D[1][i]);
+      LatLonPoint llpt = proj.projToLatLon(pt, new LatLonPointImpl());
+      expected[0][i] = llpt.getLatitude();
+      expected[1][i] = llpt.getLongitude();
+    }
+
+    compare(expected, normalLon(proj.projToLatLon(proj2D, new double[2][NPTS], false)));
+    compare(expected, normalLon(proj.projToLatLon(proj2D, new double[2][NPTS], true)));
+  }
+
+  @Test
+  public void testProjToLatLonGrid() {
+    testProjToLatLonGrid(-100.0);
+    testProjToLatLonGrid(179.0); // crosses the dateline
+  }
+
+  private void testProjToLatLonGrid(double centerLon) {
+    double[] xcoords = new double[300];
+    double[] ycoords = new double[200];
+    ProjectionPoint center = proj.latLonToProj(new LatLonPointImpl(45.0, centerLon));
+    for (int i = 0; i < xcoords.length; i++)
+      xcoords[i] = center.getX() + (i - 150) * (proj.isLatLon() ? 0.1 : 10.0);
+    for (int j = 0; j < ycoords.length; j++)
+      ycoords[j] = center.getY() + (j - 100) * (proj.isLatLon() ? 0.1 : 10.0);
+
+    double[][] latlon = proj.projToLatLonGrid(xcoords, ycoords, true);
+    Assert.assertEquals(xcoords.length * ycoords.length, latlon[0].length);
+    for (int j = 0; j < ycoords.length; j += 7) {
+      for (int i = 0; i < xcoords.length; i += 11) {
+        LatLonPoint llpt = proj.projToLatLon(new ProjectionPointImpl(xcoords[i], ycoords[j]), new LatLonPointImpl());
+        int index = j * xcoords.length + i;
+        Assert.assertEquals(llpt.getLatitude(), latlon[ProjectionImpl.INDEX_LAT][index], 1.0e-9);
+        Assert.assertEquals(llpt.getLongitude(), latlon[ProjectionImpl.INDEX_LON][index], 1.0e-9);
+      }
+    }
+    for (double lon : latlon[ProjectionImpl.INDEX_LON])
+      Assert.assertTrue(proj.getClassName() + " lon " + lon, Double.isInfinite(lon) || Double.isNaN(lon) || (lon >= -180.0 && lon <= 180.0));
+  }
+
+  private double[][] makeLatLon() {
+    Random r = new Random(17);
+    double[][] latlon = new double[2][NPTS];
+    for (int i = 0; i < NPTS; i++) {
+      latlon[0][i] = 170.0 * (r.nextDouble() - .5);
+      latlon[1][i] = 360.0 * (r.nextDouble() - .5);
+    }
+    return latlon;
+  }
+
+  // the point conversions return longitudes in [-180, 180], the array conversions do not normalize
+  private double[][] normalLon(double[][] latlon) {
+    for (int i = 0; i < NPTS; i++)
+      latlon[1][i] = LatLonPointImpl.lonNormal(latlon[1][i]);
+    return latlon;
+  }
+
+  private void compare(double[][] expected, double[][] result) {
+    for (int k = 0; k < 2; k++) {
+      for (int i = 0; i < NPTS; i++) {
+        Assert.assertEquals(proj.getClassName() + " [" + k + "][" + i + "]", expected[k][i], result[k][i], 1.0e-9);
+      }
+    }
+  }
+
+}
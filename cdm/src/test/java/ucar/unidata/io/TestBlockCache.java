@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.unidata.io;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.Variable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * Reading through the RandomAccessFile block cache.
+ *
+ * @since 10/18/2026
+ */
+public class TestBlockCache {
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static final int NBYTES = 300 * 1000 + 123; // not a multiple of the block size
+  private static final long MAXBYTES = 40 * BlockCache.defaultBlockSize;
+
+  private byte[] content;
+  private File file;
+
+  @Before
+  public void setup() throws IOException {
+    content = makeContent(NBYTES, 17);
+    file = tempFolder.newFile("blocks.bin");
+    write(file, content, false);
+    RandomAccessFile.initBlockCache(MAXBYTES);
+  }
+
+  @After
+  public void cleanup() {
+    RandomAccessFile.disableBlockCache();
+  }
+
+  @Test
+  public void testReadsGoThroughCache() throws IOException {
+    BlockCache bc = RandomAccessFile.getBlockCache();
+    Assert.assertNotNull(bc);
+
+    for (int pass = 0; pass < 2; pass++) {
+      try (RandomAccessFile raf = new RandomAccessFile(file.getPath(), "r")) {
+        checkReads(raf);
+      }
+      try (RandomAccessFile raf = new SharedRandomAccessFile(file.getPath(), 1000)) {
+        checkReads(raf);
+      }
+    }
+
+    Assert.assertTrue(bc.getStats().hitCount() > 0);
+    Assert.assertTrue(bc.getStats().missCount() > 0);
+    Assert.assertTrue(bc.getBytes() <= MAXBYTES);
+
+    // a different name for the same file uses the same blocks
+    String other = file.getParent() + "/./" + file.getName();
+    long misses = bc.getStats().missCount();
+    try (RandomAccessFile raf = new RandomAccessFile(other, "r")) {
+      byte[] b = new byte[100];
+      raf.readFully(1000, b, 0, b.length);
+      assertContent(1000, b);
+    }
+    Assert.assertEquals(misses, bc.getStats().missCount());
+
+    bc.clearCache();
+    Assert.assertEquals(0, bc.getCount());
+  }
+
+  @Test
+  public void testLargeReadsBypassCache() throws IOException {
+    BlockCache bc = RandomAccessFile.getBlockCache();
+    try (RandomAccessFile raf = new RandomAccessFile(file.getPath(), "r")) {
+      byte[] b = new byte[NBYTES - 10];
+      raf.readFully(5, b, 0, b.length);
+      assertContent(5, b);
+    }
+    Assert.assertEquals(0, bc.getStats().requestCount());
+  }
+
+  @Test
+  public void testGrowingFile() throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file.getPath(), "r")) {
+      byte[] b = new byte[500];
+      Assert.assertEquals(323, raf.read(NBYTES - 323, b, 0, b.length));
+
+      byte[] more = makeContent(5000, 23);
+      write(file, more, true);
+      raf.readFully(NBYTES - 323, b, 0, b.length);
+      for (int i = 0; i < 323; i++)
+        Assert.assertEquals(content[NBYTES - 323 + i], b[i]);
+      for (int i = 323; i < b.length; i++)
+        Assert.assertEquals(more[i - 323], b[i]);
+    }
+  }
+
+  @Test
+  public void testNetcdf3RecordsAppended() throws Exception {
+    String ncfile = tempFolder.newFile("growing.nc").getPath();
+    int ny = 50, nx = 60; // each record is larger than a block
+    try (NetcdfFileWriter writer = NetcdfFileWriter.createNew(ncfile, false)) {
+      writer.addUnlimitedDimension("time");
+      writer.addDimension("y", ny);
+      writer.addDimension("x", nx);
+      writer.addVariable("rec", DataType.FLOAT, "time y x");
+      writer.create();
+      writer.write(writer.findVariable("rec"), Array.makeArray(DataType.FLOAT, 2 * ny * nx, 0.0, 1.0).reshape(new int[]{2, ny, nx}));
+    }
+
+    try (NetcdfFile nc = NetcdfFile.open(ncfile)) {
+      Variable rec = nc.findVariable("rec");
+      Assert.assertEquals(2, rec.getShape(0));
+      Assert.assertFalse(nc.syncExtend()); // numrecs is now in the block cache
+
+      try (NetcdfFileWriter writer = NetcdfFileWriter.openExisting(ncfile)) {
+        Array more = Array.makeArray(DataType.FLOAT, 3 * ny * nx, 2 * ny * nx, 1.0).reshape(new int[]{3, ny, nx});
+        writer.write(writer.findVariable("rec"), new int[]{2, 0, 0}, more);
+      }
+
+      Assert.assertTrue(nc.syncExtend());
+      Assert.assertEquals(5, nc.findDimension("time").getLength());
+      Assert.assertEquals(5, rec.getShape(0));
+      Array last = rec.read("4,:,:");
+      for (int i = 0; i < last.getSize(); i++)
+        Assert.assertEquals(4 * ny * nx + i, last.getFloat(i), 0.0);
+    }
+  }
+
+  @Test
+  public void testRewrittenFile() throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file.getPath(), "r")) {
+      checkReads(raf);
+    }
+
+    long lastModified = file.lastModified();
+    content = makeContent(NBYTES, 99);
+    write(file, content, false);
+    Assert.assertTrue(file.setLastModified(lastModified - 10000));
+
+    try (RandomAccessFile raf = new RandomAccessFile(file.getPath(), "r")) {
+      checkReads(raf);
+    }
+  }
+
+  @Test
+  public void testRewrittenFileSameTime() throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file.getPath(), "r")) {
+      byte[] b = new byte[100];
+      raf.readFully(1000, b, 0, b.length);
+      assertContent(1000, b);
+
+      // same last modified time, different length: seen after flush(), and by a new handle
+      long lastModified = file.lastModified();
+      content = makeContent(NBYTES + 1000, 99);
+      write(file, content, false);
+      Assert.assertTrue(file.setLastModified(lastModified));
+
+      raf.flush();
+      raf.readFully(1000, b, 0, b.length);
+      assertContent(1000, b);
+    }
+
+    try (RandomAccessFile raf = new RandomAccessFile(file.getPath(), "r")) {
+      byte[] b = new byte[100];
+      raf.readFully(2000, b, 0, b.length);
+      assertContent(2000, b);
+    }
+  }
+
+  @Test
+  public void testWritableFilesNotCached() throws IOException {
+    BlockCache bc = RandomAccessFile.getBlockCache();
+    try (RandomAccessFile raf = new RandomAccessFile(file.getPath(), "rw")) {
+      checkReads(raf);
+    }
+    Assert.assertEquals(0, bc.getStats().requestCount());
+  }
+
+  private void checkReads(RandomAccessFile raf) throws IOException {
+    Random r = new Random(3);
+    byte[] b = new byte[3000];
+    for (int i = 0; i < 200; i++) {
+      int pos = r.nextInt(NBYTES - b.length);
+      int len = 1 + r.nextInt(b.length);
+      raf.seek(pos);
+      raf.readFully(b, 0, len);
+      assertContent(pos, b, len);
+
+      pos = r.nextInt(NBYTES - b.length);
+      raf.readFully(pos, b, 0, len);
+      assertContent(pos, b, len);
+    }
+    raf.seek(NBYTES - 10);
+    Assert.assertEquals(content[NBYTES - 1], raf.readBytes(10)[9]);
+    Assert.assertEquals(-1, raf.read());
+  }
+
+  private void assertContent(int pos, byte[] b) {
+    assertContent(pos, b, b.length);
+  }
+
+  private void assertContent(int pos, byte[] b, int len) {
+    for (int i = 0; i < len; i++)
+      Assert.assertEquals(content[pos + i], b[i]);
+  }
+
+  private static byte[] makeContent(int n, long seed) {
+    byte[] b = new byte[n];
+    new Random(seed).nextBytes(b);
+    return b;
+  }
+
+  private static void write(File file, byte[] b, boolean append) throws IOException {
+    try (OutputStream out = new FileOutputStream(file, append)) {
+      out.write(b);
+    }
+  }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.unidata.io;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.ma2.MAMath;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFileWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reading through memory mapped segments, using small segments so that reads cross segment boundaries.
+ *
+ * @since 10/18/2026
+ */
+public class TestMMapRandomAccessFile {
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static final int NBYTES = 100 * 1000 + 7;
+  private static final int SEGMENT = 4000;
+
+  private byte[] content;
+  private File file;
+
+  @Before
+  public void setup() throws IOException {
+    content = makeContent(NBYTES, 5);
+    file = tempFolder.newFile("mmap.bin");
+    write(file, content, false);
+  }
+
+  @Test
+  public void testReads() throws Exception {
+    try (RandomAccessFile raf = new MMapRandomAccessFile(file.getPath(), 1000, SEGMENT)) {
+      Assert.assertEquals(NBYTES, raf.length());
+      Random r = new Random(11);
+      byte[] b = new byte[3 * SEGMENT];
+      for (int i = 0; i < 200; i++) {
+        int pos = r.nextInt(NBYTES - b.length);
+        int len = 1 + r.nextInt(b.length);
+        raf.seek(pos);
+        raf.readFully(b, 0, len);
+        assertContent(pos, b, len);
+      }
+
+      raf.order(RandomAccessFile.LITTLE_ENDIAN);
+      raf.seek(SEGMENT - 2); // an int across a segment boundary
+      int expect = (content[SEGMENT - 2] & 0xff) | (content[SEGMENT - 1] & 0xff) << 8 |
+              (content[SEGMENT] & 0xff) << 16 | (content[SEGMENT + 1] & 0xff) << 24;
+      Assert.assertEquals(expect, raf.readInt());
+
+      raf.seek(NBYTES - 3);
+      Assert.assertEquals(3, raf.read(b, 0, 10));
+      Assert.assertEquals(-1, raf.read());
+      Assert.assertEquals(-1, raf.read(NBYTES, b, 0, 10));
+
+      // positional reads from many threads
+      ExecutorService pool = Executors.newFixedThreadPool(4);
+      try {
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+          int seed = t;
+          results.add(pool.submit(() -> {
+            Random tr = new Random(seed);
+            byte[] tb = new byte[2 * SEGMENT];
+            for (int i = 0; i < 300; i++) {
+              int pos = tr.nextInt(NBYTES - tb.length);
+              int len = 1 + tr.nextInt(tb.length);
+              raf.readFully(pos, tb, 0, len);
+              for (int j = 0; j < len; j++)
+                if (tb[j] != content[pos + j]) return false;
+            }
+            return true;
+          }));
+        }
+        for (Future<Boolean> result : results)
+          Assert.assertTrue(result.get());
+      } finally {
+        pool.shutdown();
+      }
+    }
+  }
+
+  @Test
+  public void testReadToByteChannel() throws IOException {
+    try (RandomAccessFile raf = new MMapRandomAccessFile(file.getPath(), 1000, SEGMENT)) {
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      WritableByteChannel channel = Channels.newChannel(bos);
+      Assert.assertEquals(5 * SEGMENT, raf.readToByteChannel(channel, 123, 5 * SEGMENT));
+      assertContent(123, bos.toByteArray(), 5 * SEGMENT);
+
+      bos.reset();
+      Assert.assertEquals(100, raf.readToByteChannel(channel, NBYTES - 100, 1000));
+      assertContent(NBYTES - 100, bos.toByteArray(), 100);
+    }
+  }
+
+  @Test
+  public void testGrowingFile() throws IOException {
+    try (RandomAccessFile raf = new MMapRandomAccessFile(file.getPath(), 1000, SEGMENT)) {
+      byte[] b = new byte[10 * SEGMENT];
+      Assert.assertEquals(7, raf.read(NBYTES - 7, b, 0, 100));
+
+      byte[] more = makeContent(3 * SEGMENT, 9);
+      write(file, more, true);
+      raf.readFully(NBYTES - 7, b, 0, 7 + more.length);
+      for (int i = 0; i < 7; i++)
+        Assert.assertEquals(content[NBYTES - 7 + i], b[i]);
+      for (int i = 0; i < more.length; i++)
+        Assert.assertEquals(more[i], b[7 + i]);
+    }
+  }
+
+  @Test
+  public void testClose() throws IOException {
+    RandomAccessFile raf = new MMapRandomAccessFile(file.getPath(), 1000, SEGMENT);
+    byte[] b = new byte[100];
+    raf.readFully(5000, b, 0, b.length);
+    raf.close();
+    try {
+      raf.read(5000, b, 0, b.length);
+      Assert.fail("read after close");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testAcquire() throws Exception {
+    String ncfile = tempFolder.newFile("mmap.nc").getPath();
+    try (NetcdfFileWriter writer = NetcdfFileWriter.createNew(ncfile, false)) {
+      writer.addUnlimitedDimension("time");
+      writer.addDimension("x", 1000);
+      writer.addVariable("data", DataType.INT, "time x");
+      writer.create();
+      writer.write(writer.findVariable("data"), Array.makeArray(DataType.INT, 50 * 1000, 0, 3).reshape(new int[]{50, 1000}));
+    }
+
+    Array expected;
+    try (NetcdfFile nc = NetcdfFile.open(ncfile)) {
+      expected = nc.findVariable("data").read();
+    }
+
+    RandomAccessFile.setMemoryMapped(null, Collections.singletonList(".nc"));
+    try {
+      Assert.assertTrue(RandomAccessFile.isMemoryMapped(ncfile));
+      Assert.assertFalse(RandomAccessFile.isMemoryMapped(file.getPath()));
+      try (RandomAccessFile raf = RandomAccessFile.acquire(ncfile)) {
+        Assert.assertTrue(raf instanceof MMapRandomAccessFile);
+      }
+      try (NetcdfFile nc = NetcdfFile.open(ncfile)) {
+        Assert.assertTrue(MAMath.equals(expected, nc.findVariable("data").read()));
+      }
+
+      RandomAccessFile.setMemoryMapped(Collections.singletonList(file.getParent()), null);
+      Assert.assertTrue(RandomAccessFile.isMemoryMapped(file.getPath()));
+    } finally {
+      RandomAccessFile.setMemoryMapped(null, null);
+    }
+    Assert.assertFalse(RandomAccessFile.isMemoryMapped(ncfile));
+  }
+
+  private void assertContent(int pos, byte[] b, int len) {
+    for (int i = 0; i < len; i++)
+      Assert.assertEquals(content[pos + i], b[i]);
+  }
+
+  private static byte[] makeContent(int n, long seed) {
+    byte[] b = new byte[n];
+    new Random(seed).nextBytes(b);
+    return b;
+  }
+
+  private static void write(File file, byte[] b, boolean append) throws IOException {
+    try (OutputStream out = new FileOutputStream(file, append)) {
+      out.write(b);
+    }
+  }
+
+}
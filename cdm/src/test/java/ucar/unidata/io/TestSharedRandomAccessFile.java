@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.unidata.io;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.ma2.MAMath;
+import ucar.ma2.Section;
+import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFileWriter;
+import ucar.nc2.Variable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+
+/**
+ * Positional reads of RandomAccessFile from many threads, and SharedRandomAccessFile.
+ *
+ * @since 10/18/2026
+ */
+public class TestSharedRandomAccessFile {
+  @ClassRule
+  public static TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static final int NBYTES = 1000 * 1000;
+  private static final int NTHREADS = 4;
+  private static byte[] content;
+  private static String filename;
+
+  @BeforeClass
+  public static void writeFile() throws IOException {
+    content = new byte[NBYTES];
+    new Random(1234).nextBytes(content);
+    File file = tempFolder.newFile("shared.bin");
+    try (OutputStream out = new FileOutputStream(file)) {
+      out.write(content);
+    }
+    filename = file.getPath();
+  }
+
+  @Test
+  public void testPositionalReadsFromManyThreads() throws Exception {
+    try (RandomAccessFile raf = new RandomAccessFile(filename, "r")) {
+      raf.seek(100);
+      readConcurrently(raf);
+      Assert.assertEquals(100, raf.getFilePointer());
+      Assert.assertEquals(content[100], raf.readByte());
+
+      byte[] b = new byte[10];
+      Assert.assertEquals(-1, raf.read(NBYTES, b, 0, b.length));
+      Assert.assertEquals(5, raf.read(NBYTES - 5, b, 0, b.length));
+      try {
+        raf.readFully(NBYTES - 5, b, 0, b.length);
+        Assert.fail("read past end of file");
+      } catch (java.io.EOFException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testSharedChannel() throws Exception {
+    int before = SharedRandomAccessFile.getOpenChannelCount();
+    try (RandomAccessFile raf1 = new SharedRandomAccessFile(filename, 100);
+         RandomAccessFile raf2 = new SharedRandomAccessFile(filename, 100)) {
+      Assert.assertEquals(before + 1, SharedRandomAccessFile.getOpenChannelCount());
+      Assert.assertEquals(NBYTES, raf1.length());
+
+      // each has its own file pointer
+      raf1.seek(1000);
+      raf2.seek(5000);
+      Assert.assertEquals(content[1000], raf1.readByte());
+      Assert.assertEquals(content[5000], raf2.readByte());
+      byte[] b = new byte[3000];
+      raf1.readFully(b);
+      assertContent(1001, b);
+      Assert.assertEquals(content[5001], raf2.readByte());
+
+      readConcurrently(raf1);
+      readConcurrently(raf2);
+    }
+    Assert.assertEquals(before, SharedRandomAccessFile.getOpenChannelCount());
+  }
+
+  @Test
+  public void testInterruptDoesNotCloseOtherReaders() throws Exception {
+    try (RandomAccessFile raf1 = new SharedRandomAccessFile(filename, 100);
+         RandomAccessFile raf2 = new SharedRandomAccessFile(filename, 100)) {
+      byte[] b = new byte[1000];
+      Thread.currentThread().interrupt();
+      try {
+        raf1.readFully(10, b, 0, b.length);
+        Assert.fail("read while interrupted");
+      } catch (InterruptedIOException e) {
+        // expected
+      } finally {
+        Thread.interrupted();
+      }
+
+      raf2.readFully(20, b, 0, b.length);
+      assertContent(20, b);
+      raf1.seek(30);
+      raf1.readFully(b);
+      assertContent(30, b);
+    }
+  }
+
+  @Test
+  public void testInterruptReopensFile() throws Exception {
+    try (RandomAccessFile raf = new RandomAccessFile(filename, "r")) {
+      byte[] b = new byte[1000];
+      Thread.currentThread().interrupt();
+      try {
+        raf.readFully(10, b, 0, b.length);
+        Assert.fail("read while interrupted");
+      } catch (InterruptedIOException e) {
+        // expected
+      } finally {
+        Assert.assertTrue(Thread.interrupted());
+      }
+
+      raf.readFully(20, b, 0, b.length);
+      assertContent(20, b);
+      raf.seek(30);
+      raf.readFully(b);
+      assertContent(30, b);
+    }
+  }
+
+  @Test
+  public void testAcquireShared() throws IOException {
+    boolean save = RandomAccessFile.getShareOpenFiles();
+    RandomAccessFile.setShareOpenFiles(true);
+    try (RandomAccessFile raf = RandomAccessFile.acquire(filename)) {
+      Assert.assertTrue(raf instanceof SharedRandomAccessFile);
+      raf.seek(NBYTES - 4);
+      Assert.assertEquals(content[NBYTES - 1], raf.readBytes(4)[3]);
+    } finally {
+      RandomAccessFile.setShareOpenFiles(save);
+    }
+  }
+
+  @Test
+  public void testNetcdf3FromManyThreads() throws Exception {
+    String ncfile = tempFolder.newFile("shared.nc").getPath();
+    int ntimes = 20, ny = 50, nx = 60;
+    try (NetcdfFileWriter writer = NetcdfFileWriter.createNew(ncfile, false)) {
+      writer.addUnlimitedDimension("time");
+      writer.addDimension("y", ny);
+      writer.addDimension("x", nx);
+      writer.addVariable("fixed", DataType.DOUBLE, "y x");
+      writer.addVariable("rec", DataType.SHORT, "time y x");
+      writer.create();
+      writer.write(writer.findVariable("fixed"), Array.makeArray(DataType.DOUBLE, ny * nx, 0.0, 0.5).reshape(new int[]{ny, nx}));
+      writer.write(writer.findVariable("rec"), Array.makeArray(DataType.SHORT, ntimes * ny * nx, -30000, 1).reshape(new int[]{ntimes, ny, nx}));
+    }
+
+    // expected data read serially
+    List<Section> sections = new ArrayList<>();
+    List<Array> expectRec = new ArrayList<>();
+    List<Array> expectFixed = new ArrayList<>();
+    try (NetcdfFile nc = NetcdfFile.open(ncfile)) {
+      for (int i = 0; i < 40; i++) {
+        Section s = new Section(new int[]{i % ntimes, i % 7, i % 11}, new int[]{ntimes - i % ntimes, ny - i % 7, nx - i % 11});
+        sections.add(s);
+        expectRec.add(nc.findVariable("rec").read(s));
+        expectFixed.add(nc.findVariable("fixed").read(s.subSection(1, 3)));
+      }
+    }
+
+    try (NetcdfFile nc = NetcdfFile.open(ncfile)) {
+      ExecutorService pool = Executors.newFixedThreadPool(NTHREADS);
+      try {
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < NTHREADS; t++) {
+          results.add(pool.submit(() -> {
+            Variable fixed = nc.findVariable("fixed");
+            Variable rec = nc.findVariable("rec");
+            for (int i = 0; i < sections.size(); i++) {
+              Section s = sections.get(i);
+              if (!MAMath.equals(expectRec.get(i), rec.read(s))) return false;
+              if (!MAMath.equals(expectFixed.get(i), fixed.read(s.subSection(1, 3)))) return false;
+            }
+            return true;
+          }));
+        }
+        for (Future<Boolean> result : results)
+          Assert.assertTrue(result.get());
+      } finally {
+        pool.shutdown();
+      }
+    }
+  }
+
+  @Test
+  public void testStridedReadIsBuffered() throws Exception {
+    String ncfile = tempFolder.newFile("strided.nc").getPath();
+    int ny = 50, nx = 60;
+    try (NetcdfFileWriter writer = NetcdfFileWriter.createNew(ncfile, false)) {
+      writer.addDimension("y", ny);
+      writer.addDimension("x", nx);
+      writer.addVariable("fixed", DataType.FLOAT, "y x");
+      writer.create();
+      writer.write(writer.findVariable("fixed"), Array.makeArray(DataType.FLOAT, ny * nx, 0.0, 1.0).reshape(new int[]{ny, nx}));
+    }
+
+    try (NetcdfFile nc = NetcdfFile.open(ncfile)) {
+      RandomAccessFile.setDebugAccess(true);
+      Array data;
+      int nreads;
+      try {
+        data = nc.findVariable("fixed").read("0:49:2,0:59:3");
+        nreads = RandomAccessFile.getDebugNseeks();
+      } finally {
+        RandomAccessFile.setDebugAccess(false);
+      }
+
+      Assert.assertEquals(25 * 20, data.getSize());
+      for (int i = 0; i < data.getSize(); i++) {
+        int y = 2 * (i / 20), x = 3 * (i % 20);
+        Assert.assertEquals(y * nx + x, data.getFloat(i), 0.0);
+      }
+      Assert.assertTrue("nreads = " + nreads, nreads < 10); // 500 chunks of one value each
+    }
+  }
+
+  private void readConcurrently(RandomAccessFile raf) throws InterruptedException, ExecutionException {
+    ExecutorService pool = Executors.newFixedThreadPool(NTHREADS);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int t = 0; t < NTHREADS; t++) {
+        int seed = t;
+        results.add(pool.submit(() -> {
+          Random r = new Random(seed);
+          byte[] b = new byte[5000];
+          for (int i = 0; i < 500; i++) {
+            int pos = r.nextInt(NBYTES - b.length);
+            int len = 1 + r.nextInt(b.length);
+            raf.readFully(pos, b, 0, len);
+            for (int j = 0; j < len; j++)
+              if (b[j] != content[pos + j]) return false;
+          }
+          return true;
+        }));
+      }
+      for (Future<Boolean> result : results)
+        Assert.assertTrue(result.get());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private void assertContent(int pos, byte[] b) {
+    for (int i = 0; i < b.length; i++)
+      Assert.assertEquals(content[pos + i], b[i]);
+  }
+
+}
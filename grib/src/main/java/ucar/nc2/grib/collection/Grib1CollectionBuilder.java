@@ -34,11 +34,9 @@
 package ucar.nc2.grib.collection;
 
 import thredds.featurecollection.FeatureCollectionConfig;
-import thredds.inventory.CollectionUpdateType;
 import thredds.inventory.MCollection;
 import thredds.inventory.MFile;
 import ucar.coord.*;
-import ucar.nc2.grib.GribIndex;
 import ucar.nc2.grib.GribIndexCache;
 import ucar.nc2.grib.grib1.*;
 import ucar.nc2.grib.grib1.tables.Grib1Customizer;
@@ -46,7 +44,6 @@ import ucar.nc2.grib.grib2.Grib2Utils;
 import ucar.nc2.time.CalendarDate;
 import ucar.nc2.time.CalendarDateRange;
 import ucar.nc2.time.CalendarPeriod;
-import ucar.nc2.util.CloseableIterator;
 
 import java.io.File;
 import java.io.IOException;
@@ -80,80 +77,50 @@ public class Grib1CollectionBuilder extends GribCollectionBuilder {
   public List<Grib1CollectionWriter.Group> makeGroups(List<MFile> allFiles, boolean singleRuntime, Formatter errlog) throws IOException {
     Map<GroupAndRuntime, Grib1CollectionWriter.Group> gdsMap = new HashMap<>();
 
-    logger.debug("Grib2CollectionBuilder {}: makeGroups", name);
-    int fileno = 0;
+    logger.debug("Grib1CollectionBuilder {}: makeGroups", name);
     GribRecordStats statsAll = new GribRecordStats(); // debugging
 
     logger.debug(" dcm={}", dcm);
 
     // place each record into its group
-    int totalRecords = 0;
-    try (CloseableIterator<MFile> iter = dcm.getFileIterator()) { // not sorted
-      if (iter == null)
-        return new ArrayList<>(); // empty
-
-      while (iter.hasNext()) {
-        MFile mfile = iter.next();
-        Grib1Index index;
-        try {
-          if (Grib.debugGbxIndexOnly) {
-            index = (Grib1Index) GribIndex.open(true, mfile);
-            if (index == null) continue;
-          } else {
-            // here is where gbx9 files get recreated
-            index = (Grib1Index) GribIndex.readOrCreateIndexFromSingleFile(true, mfile, CollectionUpdateType.test, logger);
-          }
-          allFiles.add(mfile);  // add on success
-
-        } catch (IOException ioe) {
-          logger.error("Grib2CollectionBuilder " + name + " : reading/Creating gbx9 index for file " + mfile.getPath() + " failed", ioe);
-          continue;
+    boolean notEmpty = readIndexes(allFiles, (int fileno, MFile mfile, Grib1Index index) -> {
+      /* add all gcs to tracker
+      for (Grib1SectionGridDefinition gds : index.getGds()) {
+        long crc = gds.calcCRC();
+        if (gdsTrack.get(crc) == null) gdsTrack.put(crc, 0);
+      } */
+
+      for (Grib1Record gr : index.getRecords()) { // we are using entire Grib1Record - likely this is the memory bottleneck for how big a collection can handle
+        if (this.cust == null) {
+          cust = Grib1Customizer.factory(gr, null);
+          cust.setTimeUnitConverter(gribConfig.getTimeUnitConverter());
         }
-        if (index == null) {
-          logger.error("Grib2CollectionBuilder " + name + " : reading/Creating gbx9 index for file " + mfile.getPath() + " failed");
-          continue;
+        if (filterIntervals(gr, gribConfig.intvFilter)) {
+          statsAll.filter++;
+          continue; // skip
         }
 
-        /* add all gcs to tracker
-        for (Grib1SectionGridDefinition gds : index.getGds()) {
-          long crc = gds.calcCRC();
-          if (gdsTrack.get(crc) == null) gdsTrack.put(crc, 0);
-        } */
-
-        int n = index.getNRecords();
-        totalRecords += n;
-
-        for (Grib1Record gr : index.getRecords()) { // we are using entire Grib1Record - likely this is the memory bottleneck for how big a collection can handle
-          if (this.cust == null) {
-            cust = Grib1Customizer.factory(gr, null);
-            cust.setTimeUnitConverter(gribConfig.getTimeUnitConverter());
-          }
-          if (filterIntervals(gr, gribConfig.intvFilter)) {
-            statsAll.filter++;
-            continue; // skip
-          }
-
-          gr.setFile(fileno); // each record tracks which file it belongs to
-          Grib1Gds gds = gr.getGDS();  // use GDS to group records
-          int hashCode = gribConfig.convertGdsHash(gds.hashCode());  // allow external config to muck with gdsHash. Why? because of error in encoding and we need exact hash matching
-          if (0 == hashCode) continue; // skip this group
-          //GdsHashObject gdsHashObject = new GdsHashObject(gr.getGDS(), hashOverride);
-
-          CalendarDate runtimeDate = gr.getReferenceDate();
-          long runtime = singleRuntime ? runtimeDate.getMillis() : 0;  // seperate Groups for each runtime, if singleRuntime is true
-          GroupAndRuntime gar = new GroupAndRuntime(hashCode, runtime);
-          Grib1CollectionWriter.Group g = gdsMap.get(gar);
-          if (g == null) {
-            g = new Grib1CollectionWriter.Group(gr.getGDSsection(), hashCode, runtimeDate);
-            gdsMap.put(gar, g);
-          }
-          g.records.add(gr);
-          g.runtimes.add(runtimeDate.getMillis());
+        gr.setFile(fileno); // each record tracks which file it belongs to
+        Grib1Gds gds = gr.getGDS();  // use GDS to group records
+        int hashCode = gribConfig.convertGdsHash(gds.hashCode());  // allow external config to muck with gdsHash. Why? because of error in encoding and we need exact hash matching
+        if (0 == hashCode) continue; // skip this group
+        //GdsHashObject gdsHashObject = new GdsHashObject(gr.getGDS(), hashOverride);
+
+        CalendarDate runtimeDate = gr.getReferenceDate();
+        long runtime = singleRuntime ? runtimeDate.getMillis() : 0;  // seperate Groups for each runtime, if singleRuntime is true
+        GroupAndRuntime gar = new GroupAndRuntime(hashCode, runtime);
+        Grib1CollectionWriter.Group g = gdsMap.get(gar);
+        if (g == null) {
+          g = new Grib1CollectionWriter.Group(gr.getGDSsection(), hashCode, runtimeDate);
+          gdsMap.put(gar, g);
         }
-        fileno++;
-        statsAll.recordsTotal += index.getRecords().size();
+        g.records.add(gr);
+        g.runtimes.add(runtimeDate.getMillis());
       }
-    }
+      statsAll.recordsTotal += index.getRecords().size();
+    });
+    if (!notEmpty)
+      return new ArrayList<>(); // empty
 
     // rectilyze each group independently
     List<Grib1CollectionWriter.Group> groups = new ArrayList<>(gdsMap.values());
@@ -59,13 +59,20 @@ import ucar.unidata.util.StringUtil2;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Formatter;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Utilities for creating GRIB CDM index (ncx) files, both collections and partitions
@@ -121,6 +128,37 @@ public class GribCdmIndex implements IndexReader {
     if (gribCollectionCache != null) gribCollectionCache.clearCache(true);
   }
 
+  /////////////////////////////////////////////////////////////////////////////
+  // optional pool for building indexes
+
+  static private ForkJoinPool indexPool = null;
+
+  /**
+   * Build indexes in a pool of nthreads: the gbx9 indexes of the files in a collection are read or created in parallel,
+   * and the child collections of a file or time partition are rebuilt in parallel.
+   * The records are still grouped, and the ncx4 indexes written, in the same order as without the pool.
+   * @param nthreads size of the pool; if <= 1, indexes are built serially on the calling thread.
+   */
+  static public synchronized void initIndexPool(int nthreads) {
+    // publish the new pool before shutting down the old one, callers that still have the old one update on their own thread
+    ForkJoinPool old = indexPool;
+    indexPool = (nthreads > 1) ? new ForkJoinPool(nthreads) : null;
+    if (old != null) old.shutdown();
+  }
+
+  /** @return the index pool, or null if not enabled */
+  static public synchronized ExecutorService getIndexPool() {
+    return indexPool;
+  }
+
+  // the index pool, or null if not enabled or if already running in it; a task waiting on tasks it submitted to its own pool could starve it
+  static synchronized ExecutorService getIndexPoolForCaller() {
+    Thread t = Thread.currentThread();
+    if (indexPool == null || (t instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) t).getPool() == indexPool))
+      return null;
+    return indexPool;
+  }
+
   /////////////////////////////////////////////////////////////////////////////////////////////////
 
   static public File getTopIndexFileFromConfig(FeatureCollectionConfig config) {
@@ -397,15 +435,10 @@ public class GribCdmIndex implements IndexReader {
     long start = System.currentTimeMillis();
     Formatter errlog = new Formatter();
 
-    for (MCollection part : tp.makePartitions(updateType)) {
-      try {
-        updateGribCollection(isGrib1, part, updateType, FeatureCollectionConfig.PartitionType.timePeriod, logger, errlog);
-
-      } catch (Throwable t) {
-        logger.warn("Error making partition " + part.getRoot(), t);
-        tp.removePartition(part); // keep on truckin; can happen if directory is empty
-      }
-    }   // loop over component grib collections
+    List<MCollection> parts = new ArrayList<>();
+    for (MCollection part : tp.makePartitions(updateType))
+      parts.add(part);
+    updateChildCollections(isGrib1, tp, parts, updateType, FeatureCollectionConfig.PartitionType.timePeriod, logger, errlog);
 
 
     try {
@@ -426,6 +459,70 @@ public class GribCdmIndex implements IndexReader {
     }
   }
 
+  /**
+   * Update the ncx4 index of each child collection of a partition, in the index pool if enabled.
+   * Only children whose files have changed are rewritten, so after a restart only the new or changed files are reindexed.
+   * A child that fails is logged and removed from the partition.
+   *
+   * @return true if any child index was rewritten
+   */
+  static private boolean updateChildCollections(final boolean isGrib1, PartitionManager partition, List<MCollection> parts,
+                                                final CollectionUpdateType updateType, final FeatureCollectionConfig.PartitionType ptype,
+                                                final Logger logger, Formatter errlog) throws IOException {
+    ExecutorService pool = getIndexPoolForCaller();
+    List<Future<Boolean>> results = new ArrayList<>(parts.size());
+    List<Formatter> errlogs = new ArrayList<>(parts.size());
+    for (MCollection part : parts) {
+      Formatter partlog = new Formatter();
+      errlogs.add(partlog);
+      if (pool != null) {
+        Future<Boolean> result;
+        try {
+          result = pool.submit(() -> updateGribCollection(isGrib1, part, updateType, ptype, logger, partlog));
+        } catch (RejectedExecutionException e) { // the pool was shut down by initIndexPool(), update it below on this thread
+          result = null;
+        }
+        results.add(result);
+      }
+    }
+
+    boolean anyChange = false;
+    for (int i = 0; i < parts.size(); i++) {
+      MCollection part = parts.get(i);
+      try {
+        Future<Boolean> result = (pool == null) ? null : results.get(i);
+        boolean changed = (result == null) ? updateGribCollection(isGrib1, part, updateType, ptype, logger, errlogs.get(i)) : getChanged(result);
+        if (changed) anyChange = true;
+
+      } catch (IllegalStateException t) {
+        logger.warn("Error making partition {} '{}'", part.getRoot(), t.getMessage());
+        partition.removePartition(part); // keep on truckin; can happen if directory is empty
+
+      } catch (InterruptedIOException t) {
+        for (Future<Boolean> f : results)
+          if (f != null) f.cancel(true);
+        throw t;
+
+      } catch (Throwable t) {
+        logger.error("Error making partition " + part.getRoot(), t);
+        partition.removePartition(part);
+      }
+      errlog.format("%s", errlogs.get(i));
+    }
+    return anyChange;
+  }
+
+  static private boolean getChanged(Future<Boolean> f) throws Throwable {
+    try {
+      return f.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while updating partition");
+    } catch (ExecutionException e) {
+      throw e.getCause();
+    }
+  }
+
   static private boolean isUpdateNeeded(String idxFilenameOrg, CollectionUpdateType updateType, GribCollectionType wantType, Logger logger) {
     if (updateType == CollectionUpdateType.never) return false;
 
@@ -563,29 +660,17 @@ public class GribCdmIndex implements IndexReader {
       if (!isUpdateNeeded(partition.getIndexFilename(NCX_SUFFIX), updateType, (isGrib1 ? GribCollectionType.Partition1 : GribCollectionType.Partition2), logger))
         return false;
 
-      final AtomicBoolean anyChange = new AtomicBoolean(false); // just need a mutable boolean we can declare final
-
       // redo the children here
       if (updateType != CollectionUpdateType.testIndexOnly) {   // skip children on testIndexOnly
+        final List<MCollection> parts = new ArrayList<>();
         partition.iterateOverMFileCollection(new DirectoryCollection.Visitor() {
           public void consume(MFile mfile) {
             MCollection part = new CollectionSingleFile(mfile, logger);
             part.putAuxInfo(FeatureCollectionConfig.AUX_CONFIG, config);
-
-            try {
-              boolean changed = updateGribCollection(isGrib1, part, updateType, FeatureCollectionConfig.PartitionType.file, logger, errlog);
-              if (changed) anyChange.set(true);
-
-            } catch (IllegalStateException t) {
-              logger.warn("Error making partition {} '{}'", part.getRoot(), t.getMessage());
-              partition.removePartition(part); // keep on truckin; can happen if directory is empty
-
-            } catch (Throwable t) {
-              logger.error("Error making partition " + part.getRoot(), t);
-              partition.removePartition(part);
-            }
+            parts.add(part);
           }
         });
+        updateChildCollections(isGrib1, partition, parts, updateType, FeatureCollectionConfig.PartitionType.file, logger, errlog);
       }
 
       // LOOK what if theres only one file?
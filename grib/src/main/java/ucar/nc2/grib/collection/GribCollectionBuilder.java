@@ -54,7 +54,11 @@ import ucar.unidata.util.StringUtil2;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Superclass to build indexes for collections of Grib files.
@@ -274,6 +278,100 @@ abstract class GribCollectionBuilder {
     return ok;
   }
 
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////
+  // reading the gbx9 index of each file
+
+  static private final int maxInFlight = 16; // file indexes read ahead of the one being grouped
+
+  interface IndexVisitor<T extends GribIndex> {
+    void visit(int fileno, MFile mfile, T index) throws IOException;
+  }
+
+  /**
+   * Read or create the gbx9 index of each file in the collection, and pass it to the visitor in file iterator order.
+   * With the GribCdmIndex index pool, the indexes of the following files are read (or created) in parallel,
+   * while the visitor is working on the current one. The visitor is always called on this thread.
+   * A file whose index fails is logged and skipped; the others are added to allFiles, and fileno is its index there.
+   *
+   * @param allFiles add the files that were read successfully
+   * @param visitor  called once for each index
+   * @return false if the collection is empty
+   * @throws IOException on visitor error
+   */
+  protected <T extends GribIndex> boolean readIndexes(List<MFile> allFiles, IndexVisitor<T> visitor) throws IOException {
+    ExecutorService pool = GribCdmIndex.getIndexPoolForCaller();
+    Deque<MFile> pending = new ArrayDeque<>();
+    Deque<Future<GribIndex>> inFlight = new ArrayDeque<>();
+
+    try (CloseableIterator<MFile> iter = dcm.getFileIterator()) { // not sorted
+      if (iter == null)
+        return false; // empty
+
+      while (iter.hasNext()) {
+        MFile mfile = iter.next();
+        if (pool == null) {
+          visitIndex(allFiles, visitor, mfile, readIndex(mfile));
+        } else {
+          pending.addLast(mfile);
+          inFlight.addLast(pool.submit(() -> readIndex(mfile)));
+          if (inFlight.size() >= maxInFlight)
+            visitIndex(allFiles, visitor, pending.removeFirst(), getIndex(inFlight.removeFirst()));
+        }
+      }
+
+      while (!inFlight.isEmpty())
+        visitIndex(allFiles, visitor, pending.removeFirst(), getIndex(inFlight.removeFirst()));
+
+    } finally {
+      for (Future<GribIndex> f : inFlight)
+        f.cancel(true);
+    }
+    return true;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T extends GribIndex> void visitIndex(List<MFile> allFiles, IndexVisitor<T> visitor, MFile mfile, GribIndex index) throws IOException {
+    if (index == null) return;
+    allFiles.add(mfile);  // add on success
+    visitor.visit(allFiles.size() - 1, mfile, (T) index);
+  }
+
+  // return null on failure
+  private GribIndex readIndex(MFile mfile) {
+    GribIndex index;
+    try {
+      if (Grib.debugGbxIndexOnly) {
+        index = GribIndex.open(isGrib1, mfile);
+      } else {
+        // this is where gbx9 files get recreated
+        index = GribIndex.readOrCreateIndexFromSingleFile(isGrib1, mfile, CollectionUpdateType.test, logger);
+      }
+
+    } catch (IOException ioe) {
+      logger.error(getClass().getSimpleName() + " " + name + " : reading/Creating gbx9 index for file " + mfile.getPath() + " failed", ioe);
+      return null;
+    }
+    if (index == null)
+      logger.error(getClass().getSimpleName() + " " + name + " : reading/Creating gbx9 index for file " + mfile.getPath() + " failed");
+    return index;
+  }
+
+  static private GribIndex getIndex(Future<GribIndex> f) throws IOException {
+    try {
+      return f.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while reading gbx9 index");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      if (cause instanceof Error) throw (Error) cause;
+      throw new IOException(cause);
+    }
+  }
+
+  //////////////////////////////////////////////////////////////////////////////////////////////////////////
+
   public interface Group {
     CalendarDate getRuntime();
     List<Coordinate> getCoordinates();
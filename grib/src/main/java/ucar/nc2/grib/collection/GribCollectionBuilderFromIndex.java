@@ -34,6 +34,7 @@
 package ucar.nc2.grib.collection;
 
 import thredds.featurecollection.FeatureCollectionConfig;
+import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.ExtensionRegistry;
 import thredds.inventory.MFile;
 import ucar.coord.*;
@@ -46,6 +47,7 @@ import ucar.nc2.time.CalendarPeriod;
 import ucar.unidata.io.RandomAccessFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 
 /**
@@ -113,8 +115,11 @@ abstract class GribCollectionBuilderFromIndex {
       }
       if (debug) System.out.printf("GribCollectionBuilderFromIndex proto len = %d%n", size);
 
-      byte[] m = new byte[size];
-      raf.readFully(m);
+      // decode the message as it is read, instead of reading it all into memory first
+      long start = raf.getFilePointer();
+      CodedInputStream cis = CodedInputStream.newInstance(new IndexInputStream(raf, start, size));
+      cis.setSizeLimit(size);
+      raf.seek(start + size);
 
       /*
       message GribCollection {
@@ -143,7 +148,7 @@ abstract class GribCollectionBuilderFromIndex {
       }
        */
 
-      GribCollectionProto.GribCollection proto = GribCollectionProto.GribCollection.parseFrom(m);
+      GribCollectionProto.GribCollection proto = GribCollectionProto.GribCollection.parseFrom(cis);
 
       // need to read this first to get this.tables initialized
       gc.center = proto.getCenter();
@@ -500,4 +505,33 @@ message Coord {
     return tryit;
   }
 
+  /////////////////////////////////////////////////////////////////////////////////////////////////
+
+  // reads len bytes starting at pos, with positional reads that dont move the file pointer
+  private static class IndexInputStream extends InputStream {
+    private final RandomAccessFile raf;
+    private long pos;
+    private final long end;
+
+    IndexInputStream(RandomAccessFile raf, long pos, int len) {
+      this.raf = raf;
+      this.pos = pos;
+      this.end = pos + len;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return (read(b, 0, 1) < 0) ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (pos >= end) return -1;
+      int n = raf.read(pos, b, off, (int) Math.min(len, end - pos));
+      if (n > 0) pos += n;
+      return n;
+    }
+  }
+
 }
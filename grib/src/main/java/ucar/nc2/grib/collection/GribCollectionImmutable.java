@@ -62,15 +62,19 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * An Immutable GribCollection, corresponds to one index (ncx) file.
- * The index file has already been read; it is opened and the closed when a variable is first accessed to read in the record array (sa).
+ * The index file has already been read; it is memory mapped when a variable is first accessed to read in the record array (sa).
  * <p>
  * possible we could use the Proto equivalents, and eliminate GribCollectionMutable ?
  *
@@ -157,6 +161,54 @@ public abstract class GribCollectionImmutable implements Closeable, FileCacheabl
     }
   }
 
+  //////////////////////////////////////////////////////////////////////////////////////////////////
+  // the index file is memory mapped when the records of a variable are first read, and shared by all variables.
+  // The mapping is dropped on close() and release(), so it can be garbage collected and the file unmapped;
+  // on Windows a mapped file cannot be deleted, eg to write a new index.
+
+  private volatile ByteBuffer indexBuffer;  // null until first used
+  private volatile boolean indexNotMapped;  // too big or cant be mapped: read through a RandomAccessFile
+
+  // read len bytes at pos in the index file
+  private byte[] readIndexBytes(long pos, int len) throws IOException {
+    byte[] b = new byte[len];
+    ByteBuffer mapped = getIndexBuffer();
+    if (mapped != null && pos + len <= mapped.capacity()) {
+      ByteBuffer bb = mapped.duplicate();  // position is per buffer, so each reader has its own
+      bb.position((int) pos);
+      bb.get(b);
+      return b;
+    }
+
+    try (RandomAccessFile indexRaf = RandomAccessFile.acquire(indexFilename)) {
+      indexRaf.readFully(pos, b, 0, len);
+    }
+    return b;
+  }
+
+  // Two threads may map the file at the same time; one of the mappings is kept, the other is garbage collected.
+  private ByteBuffer getIndexBuffer() {
+    ByteBuffer result = indexBuffer;
+    if (result != null || indexNotMapped)
+      return result;
+
+    try (FileChannel channel = FileChannel.open(Paths.get(indexFilename), StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        indexNotMapped = true;
+        return null;
+      }
+      result = channel.map(FileChannel.MapMode.READ_ONLY, 0, size); // stays valid after the channel is closed
+      indexBuffer = result;
+      return result;
+
+    } catch (IOException | UnsupportedOperationException e) {
+      logger.debug("GribCollectionImmutable cant map index file {}: {}", indexFilename, e.getMessage());
+      indexNotMapped = true;
+      return null;
+    }
+  }
+
   // overridden in PartitionCollection
   protected VariableIndex makeVariableIndex(GroupGC group, GribCollectionMutable.VariableIndex mutableVar) {
     return new VariableIndex(group, mutableVar);
@@ -467,6 +519,10 @@ public abstract class GribCollectionImmutable implements Closeable, FileCacheabl
     }
   }
 
+  @SuppressWarnings("rawtypes")
+  static private final AtomicReferenceFieldUpdater<VariableIndex, SparseArray> saUpdater =
+          AtomicReferenceFieldUpdater.newUpdater(VariableIndex.class, SparseArray.class, "sa");
+
   @Immutable      // except for sa
   public class VariableIndex {
     final GroupGC group;     // belongs to this group
@@ -481,7 +537,7 @@ public abstract class GribCollectionImmutable implements Closeable, FileCacheabl
     final int ndups, nrecords, nmissing;
 
     // read in on demand
-    private SparseArray<Record> sa;   // for GC only; lazily read; same array shape as variable, minus x and y
+    volatile SparseArray<Record> sa;   // for GC only; lazily read; same array shape as variable, minus x and y; set only by saUpdater
 
     protected VariableIndex(GroupGC g, GribCollectionMutable.VariableIndex gcVar) {
       this.group = g;
@@ -497,18 +553,16 @@ public abstract class GribCollectionImmutable implements Closeable, FileCacheabl
       this.nmissing = gcVar.nmissing;
     }
 
-    public synchronized void readRecords() throws IOException {
+    // Not synchronized: threads that first touch the variable at the same time may each decode the records,
+    // but only one SparseArray is kept, and later calls return immediately.
+    public void readRecords() throws IOException {
       if (this.sa != null) return;
 
       if (recordsLen == 0)
         return;
-      byte[] b = new byte[recordsLen];
-
-      try (RandomAccessFile indexRaf = RandomAccessFile.acquire(indexFilename)) {
-
-        indexRaf.seek(recordsPos);
-        indexRaf.readFully(b);
+      byte[] b = readIndexBytes(recordsPos, recordsLen);
 
+      try {
         /*
         message SparseArray {
           repeated uint32 size = 2 [packed=true];     // multidim sizes = shape[]
@@ -536,7 +590,7 @@ public abstract class GribCollectionImmutable implements Closeable, FileCacheabl
           records.add(new Record(pr.getFileno(), pr.getStartPos(), pr.getBmsOffset(), pr.getDrsOffset()));
         }
         int ndups = proto.getNdups();
-        this.sa = new SparseArray<>(size, track, records, ndups);
+        saUpdater.compareAndSet(this, null, new SparseArray<>(size, track, records, ndups));
 
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
         logger.error(" file={} recordsLen={} recordPos={}", indexFilename, recordsLen, recordsPos);
@@ -544,17 +598,17 @@ public abstract class GribCollectionImmutable implements Closeable, FileCacheabl
       }
     }
 
-    public synchronized Record getRecordAt(int sourceIndex) {
+    public Record getRecordAt(int sourceIndex) {
       return sa.getContent(sourceIndex);
     }
 
-    public synchronized Record getRecordAt(int[] sourceIndex) {
+    public Record getRecordAt(int[] sourceIndex) {
       return sa.getContent(sourceIndex);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     // coord based record finding. note only one record at a time
-    public synchronized Record getRecordAt(SubsetParams coords) {
+    public Record getRecordAt(SubsetParams coords) {
       int[] want = new int[getRank()];
       int count = 0;
       int runIdx = -1;
@@ -886,10 +940,18 @@ public abstract class GribCollectionImmutable implements Closeable, FileCacheabl
     if (objCache != null) {
       if (objCache.release(this)) return;
     }
+    releaseIndexBuffer();
   }
 
   // release any resources like file handles
   public void release() throws IOException {
+    releaseIndexBuffer();
+  }
+
+  // mapped again on next use
+  private void releaseIndexBuffer() {
+    indexBuffer = null;
+    indexNotMapped = false;
   }
 
   // reacquire any resources like file handles
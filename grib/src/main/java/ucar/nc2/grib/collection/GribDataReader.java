@@ -49,13 +49,26 @@ import ucar.nc2.grib.grib1.Grib1SectionProductDefinition;
 import ucar.nc2.grib.grib1.tables.Grib1Customizer;
 import ucar.nc2.grib.grib2.Grib2Record;
 import ucar.nc2.grib.grib2.Grib2RecordScanner;
+import ucar.nc2.grib.grib2.Grib2SectionIndicator;
 import ucar.nc2.grib.grib2.table.Grib2Customizer;
 import ucar.nc2.util.Misc;
+import ucar.nc2.util.cache.FileDataCache;
+import ucar.unidata.io.InMemoryRandomAccessFile;
 import ucar.unidata.io.RandomAccessFile;
 
 import javax.annotation.concurrent.Immutable;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Grib Data Reader.
@@ -85,6 +98,51 @@ public abstract class GribDataReader {
   static public String currentDataRafFilename;
   static boolean show = false;   // debug
 
+  /////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  // optional pool for unpacking GRIB-2 records in parallel, shared by all readers
+
+  static private ForkJoinPool decodePool = null;
+
+  /**
+   * Unpack GRIB-2 records in a pool of nthreads, shared across all collections.
+   * Each file's records are still read sequentially on the calling thread, in file order.
+   * @param nthreads size of the pool; if <= 1, records are unpacked serially on the calling thread.
+   */
+  static public synchronized void initDecodePool(int nthreads) {
+    // publish the new pool before shutting down the old one, readers that still have the old one unpack on their own thread
+    ForkJoinPool old = decodePool;
+    decodePool = (nthreads > 1) ? new ForkJoinPool(nthreads) : null;
+    if (old != null) old.shutdown();
+  }
+
+  /** @return the decode pool, or null if not enabled */
+  static public synchronized ExecutorService getDecodePool() {
+    return decodePool;
+  }
+
+  /////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  // optional memory cache of unpacked records, shared by all readers
+
+  static private FileDataCache<float[]> dataCache = null;
+
+  /**
+   * Keep unpacked records in a memory cache shared across all collections.
+   * @param maxBytes maximum number of bytes of unpacked data to keep; if <= 0, the cache is disabled.
+   */
+  static public synchronized void initDataCache(long maxBytes) {
+    dataCache = (maxBytes > 0) ? new FileDataCache<>("GribDataCache", maxBytes, (float[] f) -> 4 * f.length) : null;
+  }
+
+  static public synchronized void disableDataCache() {
+    if (dataCache != null) dataCache.clearCache();
+    dataCache = null;
+  }
+
+  /** @return the data cache, or null if not enabled */
+  static public synchronized FileDataCache<float[]> getDataCache() {
+    return dataCache;
+  }
+
   protected final GribCollectionImmutable gribCollection;
   private final GribCollectionImmutable.VariableIndex vindex;
   private List<DataRecord> records = new ArrayList<>();
@@ -267,10 +325,18 @@ public abstract class GribDataReader {
    * @throws IOException
    */
   private void read(DataReceiverIF dataReceiver) throws IOException {
+    ExecutorService pool = getDecodePool();
+    if (useDecodePool(pool)) {
+      readInPool(dataReceiver, pool, false);
+      return;
+    }
+
     Collections.sort(records);
+    FileDataCache<float[]> cache = getDataCache();
 
     int currFile = -1;
     RandomAccessFile rafData = null;
+    long lastModified = 0;
     try {
       for (DataRecord dr : records) {
         if (Grib.debugIndexOnly || Grib.debugGbxIndexOnly) {
@@ -286,6 +352,7 @@ public abstract class GribDataReader {
           if (rafData != null) rafData.close();
           rafData = gribCollection.getDataRaf(dr.record.fileno);
           currFile = dr.record.fileno;
+          lastModified = (cache == null || rafData == null) ? 0 : FileDataCache.getLastModified(rafData);
         }
 
         if (dr.record.pos == GribCollectionMutable.MISSING_RECORD) continue;
@@ -298,7 +365,7 @@ public abstract class GribDataReader {
           show(rafData, dr.record.pos + dr.record.drsOffset);
         }
 
-        float[] data = readData(rafData, dr);
+        float[] data = readDataCached(cache, lastModified, rafData, dr);
         GdsHorizCoordSys hcs = vindex.group.getGdsHorizCoordSys();
         dataReceiver.addData(data, dr.resultIndex, hcs.nx);
       }
@@ -314,10 +381,18 @@ public abstract class GribDataReader {
   }
 
   private void readPartitioned(DataReceiverIF dataReceiver) throws IOException {
+    ExecutorService pool = getDecodePool();
+    if (useDecodePool(pool)) {
+      readInPool(dataReceiver, pool, true);
+      return;
+    }
+
     Collections.sort(records);
+    FileDataCache<float[]> cache = getDataCache();
 
     PartitionCollectionImmutable.DataRecord lastRecord = null;
     RandomAccessFile rafData = null;
+    long lastModified = 0;
     try {
 
       for (DataRecord dr : records) {
@@ -332,6 +407,7 @@ public abstract class GribDataReader {
         if ((rafData == null) || !drp.usesSameFile(lastRecord)) {
           if (rafData != null) rafData.close();
           rafData = drp.usePartition.getRaf(drp.partno, dr.record.fileno);
+          lastModified = (cache == null) ? 0 : FileDataCache.getLastModified(rafData);
         }
         lastRecord = drp;
 
@@ -344,7 +420,7 @@ public abstract class GribDataReader {
           show(rafData, dr.record.pos + dr.record.drsOffset);
         }
 
-        float[] data = readData(rafData, dr);
+        float[] data = readDataCached(cache, lastModified, rafData, dr);
         GdsHorizCoordSys hcs = dr.hcs;
         dataReceiver.addData(data, dr.resultIndex, hcs.nx);
       }
@@ -354,6 +430,177 @@ public abstract class GribDataReader {
     }
   }
 
+  // read and unpack a record, using the data cache if enabled and the file is cacheable (lastModified != 0)
+  private float[] readDataCached(FileDataCache<float[]> cache, long lastModified, RandomAccessFile rafData, DataRecord dr) throws IOException {
+    if (cache == null || lastModified == 0)
+      return readData(rafData, dr);
+    return cache.get(rafData.getLocation(), lastModified, dr.record.pos + dr.record.drsOffset,
+            () -> readData(rafData, dr));
+  }
+
+  // GRIB-1 records are not self-describing enough to be read into memory safely, so are always done serially
+  private boolean useDecodePool(ExecutorService pool) {
+    return pool != null && !gribCollection.isGrib1 && records.size() > 1 && validator == null && !show &&
+            !Grib.debugIndexOnly && !Grib.debugGbxIndexOnly && !Grib2Record.getlastRecordRead;
+  }
+
+  /*
+   * Read each file's records in one sequential pass, each GRIB message into memory, and unpack them in the pool.
+   * At most 2 * pool parallelism messages are held at once. The unpacked records are sent to the
+   * dataReceiver on this thread, in the same order as the serial read.
+   */
+  private void readInPool(DataReceiverIF dataReceiver, ExecutorService pool, boolean partitioned) throws IOException {
+    Collections.sort(records);
+    int maxInFlight = 2 * ((ForkJoinPool) pool).getParallelism();
+    FileDataCache<float[]> dataCache = getDataCache();
+
+    Deque<PendingRecord> pending = new ArrayDeque<>();
+    DataRecord lastRecord = null;
+    RandomAccessFile rafData = null;
+    FileDataCache<float[]> fileCache = null; // dataCache, if rafData can be cached
+    long fileLastModified = 0;
+    boolean ok = false;
+    try {
+      for (DataRecord dr : records) {
+        if (rafData == null || !usesSameFile(dr, lastRecord, partitioned)) {
+          if (rafData != null) rafData.close();
+          rafData = partitioned ? ((PartitionCollectionImmutable.DataRecord) dr).usePartition.getRaf(
+                  ((PartitionCollectionImmutable.DataRecord) dr).partno, dr.record.fileno) :
+                  gribCollection.getDataRaf(dr.record.fileno);
+          fileLastModified = (dataCache == null) ? 0 : FileDataCache.getLastModified(rafData);
+          fileCache = (fileLastModified != 0) ? dataCache : null;
+        }
+        lastRecord = dr;
+
+        if (dr.record.pos == GribCollectionMutable.MISSING_RECORD) continue;
+
+        FileDataCache<float[]> cache = fileCache;
+        String location = rafData.getLocation();
+        long lastModified = fileLastModified;
+        long drsPos = dr.record.pos + dr.record.drsOffset;
+        float[] cached = (cache == null) ? null : cache.getIfPresent(location, lastModified, drsPos);
+        if (cached != null) {
+          pending.addLast(new PendingRecord(dr, CompletableFuture.completedFuture(cached)));
+
+        } else {
+          RandomAccessFile message = readMessage(rafData, dr.record.pos);
+          Callable<float[]> decode = () -> {
+            try {
+              float[] data = readData(message, dr);
+              if (cache != null) cache.put(location, lastModified, drsPos, data);
+              return data;
+            } finally {
+              message.close();
+            }
+          };
+          Future<float[]> future;
+          try {
+            future = pool.submit(decode);
+          } catch (RejectedExecutionException e) { // the pool was shut down by initDecodePool()
+            FutureTask<float[]> task = new FutureTask<>(decode);
+            task.run();
+            future = task;
+          }
+          pending.addLast(new PendingRecord(dr, future));
+        }
+
+        while (pending.size() >= maxInFlight)
+          pending.removeFirst().addTo(dataReceiver);
+      }
+
+      if (rafData != null) rafData.close();
+      rafData = null;
+      while (!pending.isEmpty())
+        pending.removeFirst().addTo(dataReceiver);
+      ok = true;
+
+    } finally {
+      if (rafData != null) rafData.close();  // make sure its closed even on exception
+      if (!ok) {
+        for (PendingRecord pr : pending) pr.future.cancel(true);
+      }
+    }
+  }
+
+  private boolean usesSameFile(DataRecord dr, DataRecord last, boolean partitioned) {
+    if (last == null) return false;
+    if (partitioned)
+      return ((PartitionCollectionImmutable.DataRecord) dr).usesSameFile((PartitionCollectionImmutable.DataRecord) last);
+    return dr.record.fileno == last.record.fileno;
+  }
+
+  // read the entire GRIB-2 message starting at pos into memory, with positional reads that do not move the file pointer
+  private RandomAccessFile readMessage(RandomAccessFile rafData, long pos) throws IOException {
+    byte[] indicator = new byte[16];
+    rafData.readFully(pos, indicator, 0, indicator.length);
+    Grib2SectionIndicator is = new Grib2SectionIndicator(new InMemoryRandomAccessFile(rafData.getLocation(), indicator));
+    long len = is.getMessageLength();
+    if (len <= 0 || len > Integer.MAX_VALUE - 8)
+      throw new IOException("Bad GRIB-2 message length " + len + " at " + pos + " in " + rafData.getLocation());
+
+    byte[] message = new byte[(int) len];
+    rafData.readFully(pos, message, 0, message.length);
+    return new MessageRaf(rafData.getLocation(), pos, message);
+  }
+
+  private static class PendingRecord {
+    final DataRecord dr;
+    final Future<float[]> future;
+
+    PendingRecord(DataRecord dr, Future<float[]> future) {
+      this.dr = dr;
+      this.future = future;
+    }
+
+    void addTo(DataReceiverIF dataReceiver) throws IOException {
+      float[] data;
+      try {
+        data = future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while unpacking GRIB record " + dr.record);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) throw (IOException) cause;
+        if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+        if (cause instanceof Error) throw (Error) cause;
+        throw new IOException(cause);
+      }
+      dataReceiver.addData(data, dr.resultIndex, dr.hcs.nx);
+    }
+  }
+
+  /**
+   * A single GRIB message held in memory, addressed by its position in the original file,
+   * so that it can be unpacked by the usual readers on any thread.
+   */
+  private static class MessageRaf extends InMemoryRandomAccessFile {
+    private final long start;
+
+    MessageRaf(String location, long start, byte[] message) {
+      super(location, message);
+      this.start = start;
+      this.bufferStart = start;
+      this.dataEnd = start + message.length;
+      this.filePosition = start;
+      order(BIG_ENDIAN);
+    }
+
+    @Override
+    protected void readBuffer(long pos) throws IOException {
+      throw new EOFException("Read at " + pos + " is outside of the GRIB message at " + start + " in " + location);
+    }
+
+    @Override
+    protected int read_(long pos, byte[] b, int offset, int len) throws IOException {
+      long idx = pos - start;
+      if (idx < 0 || idx >= buffer.length) return -1;
+      len = Math.min(len, (int) (buffer.length - idx));
+      System.arraycopy(buffer, (int) idx, b, offset, len);
+      return len;
+    }
+  }
+
   static public class DataRecord implements Comparable<DataRecord> {
     int resultIndex; // index into the result array
     GribCollectionImmutable.Record record;
@@ -156,8 +156,9 @@ public class Grib1Index extends GribIndex {
       if (debug) System.out.printf(" read %d gds%n", gdsList.size());
 
       records = new ArrayList<>(proto.getRecordsCount());
+      Map<ByteString, byte[]> headers = new HashMap<>(); // usually the same for all records, keep one copy
       for (Grib1IndexProto.Grib1Record precord : proto.getRecordsList()) {
-        records.add(readRecord(precord));
+        records.add(readRecord(precord, headers));
       }
       if (debug) System.out.printf(" read %d records%n", records.size());
 
@@ -175,7 +176,7 @@ public class Grib1Index extends GribIndex {
   }
 
   // deserialize the Grib1Record object
-  private Grib1Record readRecord(Grib1IndexProto.Grib1Record p) {
+  private Grib1Record readRecord(Grib1IndexProto.Grib1Record p, Map<ByteString, byte[]> headers) {
     Grib1SectionIndicator is = new Grib1SectionIndicator(p.getGribMessageStart(), p.getGribMessageLength());
     Grib1SectionProductDefinition pds = new Grib1SectionProductDefinition(p.getPds().toByteArray());
 
@@ -183,7 +184,8 @@ public class Grib1Index extends GribIndex {
     Grib1SectionBitMap bms = pds.bmsExists() ? new Grib1SectionBitMap(p.getBmsPos()) : null;
 
     Grib1SectionBinaryData dataSection = new Grib1SectionBinaryData(p.getDataPos(), p.getDataLen());
-    return new Grib1Record(p.getHeader().toByteArray(), is, gds, pds, bms, dataSection);
+    byte[] header = headers.computeIfAbsent(p.getHeader(), ByteString::toByteArray);
+    return new Grib1Record(header, is, gds, pds, bms, dataSection);
   }
 
   private Grib1SectionGridDefinition readGds(Grib1IndexProto.Grib1GdsSection proto) {
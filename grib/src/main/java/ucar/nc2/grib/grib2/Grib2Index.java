@@ -163,8 +163,9 @@ public class Grib2Index extends GribIndex {
       if (debug) System.out.printf(" read %d gds%n", gdsList.size());
 
       records = new ArrayList<>(proto.getRecordsCount());
+      SharedSections shared = new SharedSections();
       for (Grib2IndexProto.Grib2Record precord : proto.getRecordsList()) {
-        records.add(readRecord(precord));
+        records.add(readRecord(precord, shared));
       }
       if (debug) System.out.printf(" read %d records%n", records.size());
 
@@ -180,14 +181,22 @@ public class Grib2Index extends GribIndex {
     return true;
   }
 
-  private Grib2Record readRecord(Grib2IndexProto.Grib2Record p) {
+  // The identification, local use and header are usually the same for all the records in a file,
+  // so only one copy of each is kept. Collection indexing holds the records of many files at once.
+  private static class SharedSections {
+    final Map<Grib2IndexProto.GribIdSection, Grib2SectionIdentification> ids = new HashMap<>();
+    final Map<ByteString, Grib2SectionLocalUse> lus = new HashMap<>();
+    final Map<ByteString, byte[]> headers = new HashMap<>();
+  }
+
+  private Grib2Record readRecord(Grib2IndexProto.Grib2Record p, SharedSections shared) {
     Grib2SectionIndicator is = new Grib2SectionIndicator(p.getGribMessageStart(), p.getGribMessageLength(), p.getDiscipline());
 
-    Grib2SectionIdentification ids = readIdMessage(p.getIds());
+    Grib2SectionIdentification ids = shared.ids.computeIfAbsent(p.getIds(), this::readIdMessage);
 
     Grib2SectionLocalUse lus = null;
     if (!p.getLus().isEmpty()) {
-      lus = new Grib2SectionLocalUse(p.getLus().toByteArray());
+      lus = shared.lus.computeIfAbsent(p.getLus(), bytes -> new Grib2SectionLocalUse(bytes.toByteArray()));
     }
 
     int gdsIndex = p.getGdsIdx();
@@ -204,7 +213,8 @@ public class Grib2Index extends GribIndex {
       scanMode = (isProto3) ? 0 : 9999;
     } */
 
-    return new Grib2Record(p.getHeader().toByteArray(), is, ids, lus, gds, pds, drs, bms, data, bmsReplaced, scanMode);
+    byte[] header = shared.headers.computeIfAbsent(p.getHeader(), ByteString::toByteArray);
+    return new Grib2Record(header, is, ids, lus, gds, pds, drs, bms, data, bmsReplaced, scanMode);
   }
 
   private Grib2SectionIdentification readIdMessage(Grib2IndexProto.GribIdSection p) {
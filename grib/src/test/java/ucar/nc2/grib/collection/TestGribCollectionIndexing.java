@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.grib.collection;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import thredds.featurecollection.FeatureCollectionConfig;
+import thredds.featurecollection.FeatureCollectionType;
+import thredds.inventory.CollectionUpdateType;
+import ucar.coord.SparseArray;
+import ucar.nc2.grib.GribIndexCache;
+import ucar.nc2.util.DiskCache2;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Building GRIB collection indexes with and without the index pool, and reading the records back.
+ *
+ * @since 10/18/2026
+ */
+public class TestGribCollectionIndexing {
+  private static final String gribFile = "../grib/src/test/data/cosmo-eu.grib2";
+  private static final int NFILES = 6;
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(TestGribCollectionIndexing.class);
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private DiskCache2 saveCache;
+
+  @Before
+  public void setup() {
+    saveCache = GribIndexCache.getDiskCache2();
+    DiskCache2 diskCache = new DiskCache2(tempFolder.getRoot().getPath() + "/cache", false, 0, 0);
+    diskCache.setNeverUseCache(true); // indexes are written next to the data files
+    GribIndexCache.setDiskCache2(diskCache);
+  }
+
+  @After
+  public void cleanup() {
+    GribCdmIndex.initIndexPool(0);
+    GribIndexCache.setDiskCache2(saveCache);
+  }
+
+  @Test
+  public void testPoolMakesSameIndex() throws IOException {
+    File dir = makeCollectionDir("serial");
+    FeatureCollectionConfig config = makeConfig("serial", dir, "none");
+    Assert.assertTrue(GribCdmIndex.updateGribCollection(config, CollectionUpdateType.always, logger));
+    File ncx = new File(dir, "serial" + GribCdmIndex.NCX_SUFFIX);
+    byte[] serial = Files.readAllBytes(ncx.toPath());
+
+    deleteIndexes(dir);
+    GribCdmIndex.initIndexPool(3);
+    Assert.assertNotNull(GribCdmIndex.getIndexPool());
+    Assert.assertTrue(GribCdmIndex.updateGribCollection(config, CollectionUpdateType.always, logger));
+    Assert.assertArrayEquals(serial, Files.readAllBytes(ncx.toPath()));
+
+    for (int i = 0; i < NFILES; i++)
+      Assert.assertTrue(new File(dir, "file" + i + ".grib2.gbx9").exists());
+    try (GribCollectionImmutable gc = GribCdmIndex.openCdmIndex(ncx.getPath(), config, false, logger)) {
+      Assert.assertNotNull(gc);
+      Assert.assertEquals(NFILES, gc.getFiles().size());
+    }
+  }
+
+  @Test
+  public void testFilePartitionUpdatesOnlyChangedFiles() throws IOException {
+    GribCdmIndex.initIndexPool(3);
+    File dir = makeCollectionDir("partition");
+    FeatureCollectionConfig config = makeConfig("partition", dir, "file");
+    Assert.assertTrue(GribCdmIndex.updateGribCollection(config, CollectionUpdateType.always, logger));
+
+    // make the first file and its indexes older, so a rewrite of its index is seen
+    File child0 = new File(dir, "file0.grib2" + GribCdmIndex.NCX_SUFFIX);
+    Assert.assertTrue(child0.exists());
+    long now = System.currentTimeMillis();
+    Assert.assertTrue(new File(dir, "file0.grib2").setLastModified(now - 30000));
+    Assert.assertTrue(new File(dir, "file0.grib2.gbx9").setLastModified(now - 20000));
+    Assert.assertTrue(child0.setLastModified(now - 10000));
+    long child0Modified = child0.lastModified();
+
+    // a new file only needs its own index, and the partition index
+    Files.copy(new File(gribFile).toPath(), new File(dir, "file" + NFILES + ".grib2").toPath());
+    Assert.assertTrue(GribCdmIndex.updateGribCollection(config, CollectionUpdateType.test, logger));
+    Assert.assertTrue(new File(dir, "file" + NFILES + ".grib2" + GribCdmIndex.NCX_SUFFIX).exists());
+    Assert.assertEquals(child0Modified, child0.lastModified());
+
+    Assert.assertFalse(GribCdmIndex.updateGribCollection(config, CollectionUpdateType.test, logger));
+  }
+
+  @Test
+  public void testRecordsReadOnceFromManyThreads() throws Exception {
+    File dir = makeCollectionDir("records");
+    FeatureCollectionConfig config = makeConfig("records", dir, "none");
+    Assert.assertTrue(GribCdmIndex.updateGribCollection(config, CollectionUpdateType.always, logger));
+    File ncx = new File(dir, "records" + GribCdmIndex.NCX_SUFFIX);
+
+    try (GribCollectionImmutable gc = GribCdmIndex.openCdmIndex(ncx.getPath(), config, false, logger)) {
+      List<GribCollectionImmutable.VariableIndex> vars = new ArrayList<>();
+      for (GribCollectionImmutable.Dataset ds : gc.getDatasets())
+        for (GribCollectionImmutable.GroupGC group : ds.getGroups())
+          vars.addAll(group.getVariables());
+      Assert.assertFalse(vars.isEmpty());
+
+      ExecutorService pool = Executors.newFixedThreadPool(4);
+      try {
+        List<Future<List<SparseArray<GribCollectionImmutable.Record>>>> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+          results.add(pool.submit(() -> {
+            List<SparseArray<GribCollectionImmutable.Record>> result = new ArrayList<>();
+            for (GribCollectionImmutable.VariableIndex vi : vars) {
+              vi.readRecords();
+              result.add(vi.getSparseArray());
+            }
+            return result;
+          }));
+        }
+        for (Future<List<SparseArray<GribCollectionImmutable.Record>>> result : results) {
+          List<SparseArray<GribCollectionImmutable.Record>> sas = result.get();
+          for (int i = 0; i < vars.size(); i++)
+            Assert.assertSame(vars.get(i).getSparseArray(), sas.get(i));
+        }
+      } finally {
+        pool.shutdown();
+      }
+
+      for (GribCollectionImmutable.VariableIndex vi : vars) {
+        Assert.assertEquals(vi.nrecords, vi.getNRecords());
+        GribCollectionImmutable.Record first = vi.getSparseArray().getContent(0);
+        Assert.assertNotNull(first);
+        Assert.assertSame(first, vi.getRecordAt(0));
+        Assert.assertTrue(first.fileno >= 0 && first.fileno < NFILES);
+      }
+    }
+  }
+
+  private File makeCollectionDir(String name) throws IOException {
+    File dir = tempFolder.newFolder(name);
+    for (int i = 0; i < NFILES; i++)
+      Files.copy(new File(gribFile).toPath(), new File(dir, "file" + i + ".grib2").toPath());
+    return dir;
+  }
+
+  private FeatureCollectionConfig makeConfig(String name, File dir, String partition) {
+    return new FeatureCollectionConfig(name, "test/" + name, FeatureCollectionType.GRIB2,
+            dir.getPath() + "/.*grib2$", null, null, null, partition, null);
+  }
+
+  private void deleteIndexes(File dir) {
+    File[] files = dir.listFiles();
+    if (files == null) return;
+    for (File f : files) {
+      if (f.getName().endsWith(".gbx9") || f.getName().endsWith(GribCdmIndex.NCX_SUFFIX))
+        Assert.assertTrue(f.delete());
+    }
+  }
+
+}
@@ -78,7 +78,8 @@ public class Nc4Iosp extends AbstractIOServiceProvider implements IOServiceProvi
 
   static private org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(Nc4Iosp.class);
   static private org.slf4j.Logger startupLog = org.slf4j.LoggerFactory.getLogger("serverStartup");
-  static private Nc4prototypes nc4 = null;
+  static private volatile Nc4prototypes nc4 = null;
+  static private Nc4prototypes nc4Unsynchronized = null;
   static public final String JNA_PATH = "jna.library.path";
   static public final String JNA_PATH_ENV = "JNA_PATH"; // environment var
 
@@ -93,9 +94,12 @@ public class Nc4Iosp extends AbstractIOServiceProvider implements IOServiceProvi
   static public final String UCARTAGORIGTYPE = "_edu.ucar.orig.type";
 
   static protected String DEFAULTNETCDF4LIBNAME = "netcdf";
+  static protected String DEFAULTHDF5LIBNAME = "hdf5";
 
   static private String jnaPath = null;
   static private String libName = DEFAULTNETCDF4LIBNAME;
+  static private boolean perFileLocking = false;
+  static private boolean isPerFile = false;
 
   // TODO: These flags currently control debug messages that are printed to STDOUT. They ought to be logged to SLF4J.
   // We could use SLF4J markers to filter which debug-level messages are printed.
@@ -137,6 +141,34 @@ public class Nc4Iosp extends AbstractIOServiceProvider implements IOServiceProvi
     jnaPath = jna_path;
   }
 
+  /**
+   * Serialize the calls into the C library for each file, instead of for the whole library, so that
+   * different files can be read and written at the same time.
+   * Only used if the HDF5 library was built thread-safe, otherwise all calls stay serialized.
+   * Call at startup, before any files are opened.
+   *
+   * @param b true to serialize per file
+   */
+  static public synchronized void setPerFileLocking(boolean b) {
+    perFileLocking = b;
+    if (nc4Unsynchronized != null)
+      nc4 = synchronize(nc4Unsynchronized);
+  }
+
+  /** @return true if calls into the C library are serialized per file */
+  static public synchronized boolean isPerFileLocking() {
+    return isClibraryPresent() && isPerFile;
+  }
+
+  static private Nc4prototypes synchronize(Nc4prototypes lib) {
+    isPerFile = perFileLocking && Nc4Locking.isHdf5Threadsafe(DEFAULTHDF5LIBNAME);
+    if (isPerFile)
+      return Nc4Locking.perFile(lib);
+    if (perFileLocking)
+      startupLog.warn("Nc4Iosp: HDF5 library is not thread-safe, calls into the NetCDF-4 C library are serialized.");
+    return Nc4Locking.library(lib);
+  }
+
   static private Nc4prototypes load() {
     if (nc4 == null) {
       if (jnaPath == null) {
@@ -145,11 +177,11 @@ public class Nc4Iosp extends AbstractIOServiceProvider implements IOServiceProvi
       try {
         // jna_path may still be null, but try to load anyway;
         // the necessary libs may be on the system PATH or on LD_LIBRARY_PATH
-        nc4 = (Nc4prototypes) Native.loadLibrary(libName, Nc4prototypes.class);
-        // Make the library synchronized
-        nc4 = (Nc4prototypes) Native.synchronizedLibrary(nc4);
+        nc4Unsynchronized = (Nc4prototypes) Native.loadLibrary(libName, Nc4prototypes.class);
+        nc4 = synchronize(nc4Unsynchronized);
 
-        startupLog.info("Nc4Iosp: NetCDF-4 C library loaded (jna_path='{}', libname='{}').", jnaPath, libName);
+        startupLog.info("Nc4Iosp: NetCDF-4 C library loaded (jna_path='{}', libname='{}', perFileLocking={}).",
+                jnaPath, libName, isPerFile);
         log.debug("Netcdf nc_inq_libvers='{}' isProtected={}", nc4.nc_inq_libvers(), Native.isProtected());
       } catch (Throwable t) {
         String message = String.format(
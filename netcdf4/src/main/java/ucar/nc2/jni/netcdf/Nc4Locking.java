@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package ucar.nc2.jni.netcdf;
+
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.ptr.IntByReference;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Serializes the calls into the netCDF-C library.
+ * <p/>
+ * {@link #library} uses one lock for all calls, which is safe with any build of the library.
+ * {@link #perFile} lets calls on different files run at the same time: calls on the same file are serialized on a
+ * lock for that file, found from the ncid or grpid that is the first argument
+ * (netCDF-C puts the file id in the upper 16 bits of a group id).
+ * Calls that change the library's list of open files or its global settings (nc_open, nc_create, nc_close, ...)
+ * wait for all other calls to finish and run alone.
+ * HDF5 must be built thread-safe for this, use {@link #isHdf5Threadsafe} to check.
+ *
+ * @since 10/18/2026
+ */
+class Nc4Locking {
+  static private final int ID_SHIFT = 16;
+
+  // calls that are not on a single open file
+  static private final Set<String> libraryCalls = new HashSet<>(Arrays.asList(
+          "nc_inq_libvers", "nc_strerror", "nc_open", "nc_create", "nc_close",
+          "nc_set_default_format", "nc_set_chunk_cache", "nc_get_chunk_cache"));
+
+  /**
+   * Serialize all calls on one lock.
+   *
+   * @param nc4 the unsynchronized library
+   * @return library whose calls are serialized
+   */
+  static Nc4prototypes library(Nc4prototypes nc4) {
+    return (Nc4prototypes) Native.synchronizedLibrary(nc4);
+  }
+
+  /**
+   * Serialize the calls on each file, and the calls not on a single file.
+   *
+   * @param nc4 the unsynchronized library
+   * @return library whose calls are serialized per file
+   */
+  static Nc4prototypes perFile(Nc4prototypes nc4) {
+    return (Nc4prototypes) Proxy.newProxyInstance(Nc4prototypes.class.getClassLoader(),
+            new Class[]{Nc4prototypes.class}, new PerFileHandler(nc4));
+  }
+
+  /**
+   * Ask the HDF5 library if it was built thread-safe.
+   *
+   * @param libName name of the HDF5 library, found the same way as the netCDF library
+   * @return true if the library was found and is thread-safe
+   */
+  static boolean isHdf5Threadsafe(String libName) {
+    try {
+      Hdf5prototypes hdf5 = (Hdf5prototypes) Native.loadLibrary(libName, Hdf5prototypes.class);
+      IntByReference isThreadsafe = new IntByReference(0); // hbool_t may be smaller than an int
+      return hdf5.H5is_library_threadsafe(isThreadsafe) >= 0 && isThreadsafe.getValue() != 0;
+    } catch (Throwable t) {
+      return false; // not found, or older than 1.8.16
+    }
+  }
+
+  /** @return the id of the file that the ncid or grpid belongs to */
+  static int getFileId(int ncid) {
+    return ncid >>> ID_SHIFT;
+  }
+
+  interface Hdf5prototypes extends Library {
+    int H5is_library_threadsafe(IntByReference is_ts);
+  }
+
+  private static class PerFileHandler implements InvocationHandler {
+    private final Nc4prototypes nc4;
+    private final ReadWriteLock libraryLock = new ReentrantReadWriteLock();
+    private final Map<Integer, Object> fileLocks = new ConcurrentHashMap<>();
+
+    PerFileHandler(Nc4prototypes nc4) {
+      this.nc4 = nc4;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if (method.getDeclaringClass() == Object.class)
+        return invoke(method, args);
+
+      if (libraryCalls.contains(method.getName()) || args == null || !(args[0] instanceof Integer)) {
+        libraryLock.writeLock().lock();
+        try {
+          Object result = invoke(method, args);
+          if (method.getName().equals("nc_close"))
+            fileLocks.remove(getFileId((Integer) args[0]));
+          return result;
+        } finally {
+          libraryLock.writeLock().unlock();
+        }
+      }
+
+      libraryLock.readLock().lock();
+      try {
+        Object fileLock = fileLocks.computeIfAbsent(getFileId((Integer) args[0]), k -> new Object());
+        synchronized (fileLock) {
+          return invoke(method, args);
+        }
+      } finally {
+        libraryLock.readLock().unlock();
+      }
+    }
+
+    private Object invoke(Method method, Object[] args) throws Throwable {
+      try {
+        return method.invoke(nc4, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+
+}
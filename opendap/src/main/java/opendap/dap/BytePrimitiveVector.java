@@ -164,25 +164,8 @@ public class BytePrimitiveVector extends PrimitiveVector
                                          ServerVersion sv,
                                          StatusUI statusUI)
             throws IOException, EOFException, DataReadException {
-
-        int modFour = vals.length % 4;
-        // number of bytes to pad
-        int pad = (modFour != 0) ? (4 - modFour) : 0;
-
-        for (int i = 0; i < vals.length; i++) {
-            vals[i] = source.readByte();
-            if (statusUI != null) {
-                statusUI.incrementByteCount(1);
-                if (statusUI.userCancelled())
-                    throw new DataReadException("User cancelled");
-            }
-        }
-        // pad out to a multiple of four bytes
-        byte unused;
-        for (int i = 0; i < pad; i++)
-            unused = source.readByte();
-        if (statusUI != null)
-            statusUI.incrementByteCount(pad);
+        // padded out to a multiple of four bytes
+        PrimitiveVectorIO.readBytes(source, vals, statusUI);
     }
 
     /**
@@ -195,16 +178,8 @@ public class BytePrimitiveVector extends PrimitiveVector
      *                     exception.
      */
     public void externalize(DataOutputStream sink) throws IOException {
-        int modFour = vals.length % 4;
-        // number of bytes to pad
-        int pad = (modFour != 0) ? (4 - modFour) : 0;
-
-        for (int i = 0; i < vals.length; i++) {
-            sink.writeByte(vals[i]);
-        }
         // pad out to a multiple of four bytes
-        for (int i = 0; i < pad; i++)
-            sink.writeByte(0);
+        PrimitiveVectorIO.writeBytes(sink, vals, 0, vals.length - 1, 1);
     }
 
     /**
@@ -217,17 +192,8 @@ public class BytePrimitiveVector extends PrimitiveVector
      * @throws IOException thrown on any <code>OutputStream</code> exception.
      */
     public void externalize(DataOutputStream sink, int start, int stop, int stride) throws IOException {
-        int count = 0;
-        for (int i = start; i <= stop; i += stride) {
-            sink.writeByte(vals[i]);
-            count++;
-        }
-
         // pad out to a multiple of four bytes
-        int modFour = count % 4;
-        int pad = (modFour != 0) ? (4 - modFour) : 0;
-        for (int i = 0; i < pad; i++)
-            sink.writeByte(0);
+        PrimitiveVectorIO.writeBytes(sink, vals, start, stop, stride);
     }
 
     /**
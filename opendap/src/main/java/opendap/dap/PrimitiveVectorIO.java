@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package opendap.dap;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Bulk XDR encoding and decoding of the arrays inside the primitive vectors.
+ * Values move through a reusable big-endian ByteBuffer, one block at a time, instead of one
+ * DataOutputStream.writeXXX() or DataInputStream.readXXX() call per value.
+ * The bytes are the same as writing the values one at a time, except that NaN payloads are not canonicalized.
+ * <p>
+ * On the client, the StatusUI is updated and checked for cancellation once per block.
+ *
+ * @since 10/18/2026
+ */
+final class PrimitiveVectorIO {
+    static final int BUFFER_SIZE = 16 * 1024; // multiple of 8
+    private static final byte[] PAD = new byte[4];
+
+    private static final ThreadLocal<ByteBuffer> buffers = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.BIG_ENDIAN);
+        }
+    };
+
+    private PrimitiveVectorIO() {
+    }
+
+    private static ByteBuffer getBuffer() {
+        ByteBuffer bb = buffers.get();
+        bb.clear();
+        return bb;
+    }
+
+    // number of values in start..stop by stride
+    static int count(int start, int stop, int stride) {
+        return (stop < start) ? 0 : 1 + (stop - start) / stride;
+    }
+
+    // number of bytes to pad n bytes out to a multiple of four
+    static int pad(int n) {
+        int modFour = n % 4;
+        return (modFour != 0) ? (4 - modFour) : 0;
+    }
+
+    private static void progress(StatusUI statusUI, int nbytes) throws DataReadException {
+        if (statusUI != null) {
+            statusUI.incrementByteCount(nbytes);
+            if (statusUI.userCancelled())
+                throw new DataReadException("User cancelled");
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // write
+
+    static void writeFloats(DataOutputStream sink, float[] vals, int start, int stop, int stride) throws IOException {
+        ByteBuffer bb = getBuffer();
+        int i = start;
+        while (i <= stop) {
+            bb.clear();
+            if (stride == 1) {
+                int n = Math.min(BUFFER_SIZE / 4, stop - i + 1);
+                bb.asFloatBuffer().put(vals, i, n);
+                bb.position(4 * n);
+                i += n;
+            } else {
+                for (; i <= stop && bb.hasRemaining(); i += stride)
+                    bb.putFloat(vals[i]);
+            }
+            sink.write(bb.array(), 0, bb.position());
+        }
+    }
+
+    static void writeDoubles(DataOutputStream sink, double[] vals, int start, int stop, int stride) throws IOException {
+        ByteBuffer bb = getBuffer();
+        int i = start;
+        while (i <= stop) {
+            bb.clear();
+            if (stride == 1) {
+                int n = Math.min(BUFFER_SIZE / 8, stop - i + 1);
+                bb.asDoubleBuffer().put(vals, i, n);
+                bb.position(8 * n);
+                i += n;
+            } else {
+                for (; i <= stop && bb.hasRemaining(); i += stride)
+                    bb.putDouble(vals[i]);
+            }
+            sink.write(bb.array(), 0, bb.position());
+        }
+    }
+
+    static void writeInts(DataOutputStream sink, int[] vals, int start, int stop, int stride) throws IOException {
+        ByteBuffer bb = getBuffer();
+        int i = start;
+        while (i <= stop) {
+            bb.clear();
+            if (stride == 1) {
+                int n = Math.min(BUFFER_SIZE / 4, stop - i + 1);
+                bb.asIntBuffer().put(vals, i, n);
+                bb.position(4 * n);
+                i += n;
+            } else {
+                for (; i <= stop && bb.hasRemaining(); i += stride)
+                    bb.putInt(vals[i]);
+            }
+            sink.write(bb.array(), 0, bb.position());
+        }
+    }
+
+    // DAP2 sends 16 bit integers as 32 bit integers
+    static void writeShortsAsInts(DataOutputStream sink, short[] vals, int start, int stop, int stride) throws IOException {
+        ByteBuffer bb = getBuffer();
+        int i = start;
+        while (i <= stop) {
+            bb.clear();
+            for (; i <= stop && bb.hasRemaining(); i += stride)
+                bb.putInt(vals[i]);
+            sink.write(bb.array(), 0, bb.position());
+        }
+    }
+
+    // bytes are padded out to a multiple of four
+    static void writeBytes(DataOutputStream sink, byte[] vals, int start, int stop, int stride) throws IOException {
+        ByteBuffer bb = getBuffer();
+        if (stride == 1) {
+            if (stop >= start)
+                sink.write(vals, start, stop - start + 1);
+        } else {
+            int i = start;
+            while (i <= stop) {
+                bb.clear();
+                for (; i <= stop && bb.hasRemaining(); i += stride)
+                    bb.put(vals[i]);
+                sink.write(bb.array(), 0, bb.position());
+            }
+        }
+        sink.write(PAD, 0, pad(count(start, stop, stride)));
+    }
+
+    ////////////////////////////////////////////////////////////////////////
+    // read
+
+    static void readFloats(DataInputStream source, float[] vals, StatusUI statusUI) throws IOException, DataReadException {
+        ByteBuffer bb = getBuffer();
+        for (int i = 0; i < vals.length; ) {
+            int n = Math.min(BUFFER_SIZE / 4, vals.length - i);
+            source.readFully(bb.array(), 0, 4 * n);
+            bb.asFloatBuffer().get(vals, i, n);
+            i += n;
+            progress(statusUI, 4 * n);
+        }
+    }
+
+    static void readDoubles(DataInputStream source, double[] vals, StatusUI statusUI) throws IOException, DataReadException {
+        ByteBuffer bb = getBuffer();
+        for (int i = 0; i < vals.length; ) {
+            int n = Math.min(BUFFER_SIZE / 8, vals.length - i);
+            source.readFully(bb.array(), 0, 8 * n);
+            bb.asDoubleBuffer().get(vals, i, n);
+            i += n;
+            progress(statusUI, 8 * n);
+        }
+    }
+
+    static void readInts(DataInputStream source, int[] vals, StatusUI statusUI) throws IOException, DataReadException {
+        ByteBuffer bb = getBuffer();
+        for (int i = 0; i < vals.length; ) {
+            int n = Math.min(BUFFER_SIZE / 4, vals.length - i);
+            source.readFully(bb.array(), 0, 4 * n);
+            bb.asIntBuffer().get(vals, i, n);
+            i += n;
+            progress(statusUI, 4 * n);
+        }
+    }
+
+    static void readIntsAsShorts(DataInputStream source, short[] vals, StatusUI statusUI) throws IOException, DataReadException {
+        ByteBuffer bb = getBuffer();
+        for (int i = 0; i < vals.length; ) {
+            int n = Math.min(BUFFER_SIZE / 4, vals.length - i);
+            source.readFully(bb.array(), 0, 4 * n);
+            for (int k = 0; k < n; k++)
+                vals[i + k] = (short) bb.getInt(4 * k);
+            i += n;
+            progress(statusUI, 4 * n);
+        }
+    }
+
+    static void readBytes(DataInputStream source, byte[] vals, StatusUI statusUI) throws IOException, DataReadException {
+        for (int i = 0; i < vals.length; ) {
+            int n = Math.min(BUFFER_SIZE, vals.length - i);
+            source.readFully(vals, i, n);
+            i += n;
+            progress(statusUI, n);
+        }
+        int pad = pad(vals.length);
+        source.readFully(new byte[pad]);
+        if (statusUI != null)
+            statusUI.incrementByteCount(pad);
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package opendap.test;
+
+import opendap.dap.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Bulk externalize/deserialize of primitive vectors writes the same bytes as one value at a time.
+ *
+ * @since 10/18/2026
+ */
+public class TestPrimitiveVectorIO {
+  private static final int N = 10001; // several buffers, not a multiple of four
+
+  private byte[] externalize(PrimitiveVector pv, int start, int stop, int stride) throws IOException {
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    DataOutputStream sink = new DataOutputStream(bout);
+    if (stride < 0) pv.externalize(sink);
+    else pv.externalize(sink, start, stop, stride);
+    sink.flush();
+    return bout.toByteArray();
+  }
+
+  private DataInputStream source(byte[] b) {
+    return new DataInputStream(new ByteArrayInputStream(b));
+  }
+
+  @Test
+  public void testFloat32() throws Exception {
+    Random random = new Random(1);
+    float[] vals = new float[N];
+    for (int i = 0; i < N; i++)
+      vals[i] = random.nextFloat();
+    Float32PrimitiveVector pv = new Float32PrimitiveVector(new DFloat32("f"));
+    pv.setInternalStorage(vals);
+
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    DataOutputStream sink = new DataOutputStream(bout);
+    for (float v : vals)
+      sink.writeFloat(v);
+    Assert.assertArrayEquals(bout.toByteArray(), externalize(pv, 0, 0, -1));
+
+    bout.reset();
+    for (int i = 3; i <= N - 2; i += 7)
+      sink.writeFloat(vals[i]);
+    Assert.assertArrayEquals(bout.toByteArray(), externalize(pv, 3, N - 2, 7));
+
+    Float32PrimitiveVector back = new Float32PrimitiveVector(new DFloat32("f"));
+    back.setLength(N);
+    back.deserialize(source(externalize(pv, 0, 0, -1)), new ServerVersion(2, 0), null);
+    Assert.assertArrayEquals(vals, (float[]) back.getInternalStorage(), 0.0f);
+  }
+
+  @Test
+  public void testInt16() throws Exception {
+    Random random = new Random(2);
+    short[] vals = new short[N];
+    for (int i = 0; i < N; i++)
+      vals[i] = (short) random.nextInt();
+    Int16PrimitiveVector pv = new Int16PrimitiveVector(new DInt16("s"));
+    pv.setInternalStorage(vals);
+
+    ByteArrayOutputStream bout = new ByteArrayOutputStream();
+    DataOutputStream sink = new DataOutputStream(bout);
+    for (short v : vals)
+      sink.writeInt(v);
+    byte[] bytes = externalize(pv, 0, 0, -1);
+    Assert.assertArrayEquals(bout.toByteArray(), bytes);
+
+    Int16PrimitiveVector back = new Int16PrimitiveVector(new DInt16("s"));
+    back.setLength(N);
+    back.deserialize(source(bytes), new ServerVersion(2, 0), null);
+    Assert.assertArrayEquals(vals, (short[]) back.getInternalStorage());
+  }
+
+  @Test
+  public void testBytePadding() throws Exception {
+    Random random = new Random(3);
+    byte[] vals = new byte[N];
+    random.nextBytes(vals);
+    BytePrimitiveVector pv = new BytePrimitiveVector(new DByte("b"));
+    pv.setInternalStorage(vals);
+
+    byte[] bytes = externalize(pv, 0, 0, -1);
+    Assert.assertEquals(N + 3, bytes.length);
+    Assert.assertEquals(12, externalize(pv, 0, 20, 2).length); // 11 values padded to 12
+
+    // the padding is consumed, and counted
+    final int[] count = {0};
+    StatusUI statusUI = new StatusUI() {
+      public void incrementByteCount(int bytes) {
+        count[0] += bytes;
+      }
+
+      public boolean userCancelled() {
+        return false;
+      }
+
+      public void finished() {
+      }
+    };
+    BytePrimitiveVector back = new BytePrimitiveVector(new DByte("b"));
+    back.setLength(N);
+    DataInputStream source = source(bytes);
+    back.deserialize(source, new ServerVersion(2, 0), statusUI);
+    Assert.assertArrayEquals(vals, (byte[]) back.getInternalStorage());
+    Assert.assertEquals(N + 3, count[0]);
+    Assert.assertEquals(-1, source.read());
+  }
+
+}
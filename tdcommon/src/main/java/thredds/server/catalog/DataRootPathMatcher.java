@@ -8,17 +8,18 @@ import thredds.client.catalog.Dataset;
 import thredds.server.catalog.tracker.DataRootExt;
 import thredds.server.catalog.tracker.DataRootTracker;
 import ucar.nc2.util.AliasTranslator;
-import ucar.unidata.util.StringUtil2;
 
 import javax.annotation.Nonnull;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Find the dataRoot path from the request, by getting the longest match.
- * Use a TreeSet for minimum in-memory use.
+ * Use a PathTrie, so lookups cost O(path length), and dont lock.
  * Keep the objects in a seperate map that could be off-heap and persistent.
+ * Lookups are thread safe while roots are being added, eg when a dataRoot is read in from its catalog.
  *
  * @author caron
  * @since 4/1/2015
@@ -30,21 +31,13 @@ public class DataRootPathMatcher {
   static private final String ERROR = "*** ERROR: ";
   static private boolean skipTestDataDir = true;
 
-  private static class PathComparator implements Comparator<String> {
-    public int compare(String s1, String s2) {
-      int compare = s2.compareTo( s1); // reverse sort
-      if (debug) System.out.println(" compare "+s1+" to "+s2+" = "+compare);
-      return compare;
-    }
-  }
-
   /////////////////////////////////////////////////////////////////////////////////////////
 
   private ConfigCatalogCache ccc;
   private DataRootTracker tracker;
 
-  private final TreeSet<String> treeSet = new TreeSet<>( new PathComparator());    // this should be in-memory for speed
-  private final Map<String, DataRootExt> map = new HashMap<>();         // this could be turned into an off-heap cache if needed, with persistence.
+  private final PathTrie pathTrie = new PathTrie();    // this should be in-memory for speed
+  private final Map<String, DataRootExt> map = new ConcurrentHashMap<>();         // this could be turned into an off-heap cache if needed, with persistence.
 
   public DataRootPathMatcher(ConfigCatalogCache ccc, DataRootTracker tracker) {
     this.ccc = ccc;
@@ -60,8 +53,8 @@ public class DataRootPathMatcher {
    * @return true if not already exist
    */
   private boolean put(DataRootExt dateRootExt) {
-    map.put(dateRootExt.getPath(), dateRootExt);
-    return treeSet.add(dateRootExt.getPath());
+    map.put(dateRootExt.getPath(), dateRootExt);  // before its visible in the trie
+    return pathTrie.add(dateRootExt.getPath());
   }
 
   /**
@@ -70,7 +63,7 @@ public class DataRootPathMatcher {
    * @return true if already contains the key
    */
   public boolean contains(String  path) {
-    return treeSet.contains(path);
+    return pathTrie.contains(path);
   }
 
   public DataRootExt get(String  path) {
@@ -91,23 +84,9 @@ public class DataRootPathMatcher {
    * @return the value whose key is the longest that matches path, or null if none
    */
   public String findLongestPathMatch( String reqPath) {
-    SortedSet<String> tail = treeSet.tailSet(reqPath);
-    if (tail.isEmpty()) return null;
-    String after = tail.first();
-    if (reqPath.startsWith( after)) // common case
-      return tail.first();
-
-    // have to check more, until no common starting chars
-    for (String key : tail) {
-      if (reqPath.startsWith(key))
-        return key;
-
-      // terminate when there's no match at all.
-      if (StringUtil2.match(reqPath, key) == 0)
-        break;
-    }
-
-    return null;
+    String path = pathTrie.findLongestPrefix(reqPath);
+    if (debug) System.out.println(" findLongestPathMatch " + reqPath + " = " + path);
+    return path;
   }
 
   /**
@@ -131,10 +110,14 @@ public class DataRootPathMatcher {
     DataRoot dataRoot = dataRootExt.getDataRoot();
     if (dataRoot != null) return dataRoot;
 
-    // otherwise must read the catalog that its in
-    dataRoot = readDataRootFromCatalog(dataRootExt);
-    dataRootExt.setDataRoot(dataRoot);
-    return dataRoot;
+    // otherwise must read the catalog that its in, one thread at a time
+    synchronized (this) {
+      dataRoot = dataRootExt.getDataRoot();
+      if (dataRoot != null) return dataRoot;
+      dataRoot = readDataRootFromCatalog(dataRootExt);
+      dataRootExt.setDataRoot(dataRoot);
+      return dataRoot;
+    }
   }
 
   private @Nonnull DataRoot readDataRootFromCatalog( DataRootExt dataRootExt) {
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package thredds.server.catalog;
+
+/**
+ * A set of path strings, for finding the longest one that is a prefix of a request path.
+ * A radix tree on characters: each edge holds the run of characters that its keys share, and the children
+ * of a node are sorted by their first character, so a lookup does one binary search per edge,
+ * and costs O(request path length) however many paths there are.
+ * <p>
+ * Matching is on characters, not path segments, the same as reqPath.startsWith(key).
+ * <p>
+ * Copy on write: adding a path copies only the nodes on its branch, and publishes the new root,
+ * so lookups never lock and always see a consistent tree. Adds are serialized.
+ *
+ * @since 10/18/2026
+ */
+final class PathTrie {
+  private static final Node[] NO_CHILDREN = new Node[0];
+
+  private static final class Node {
+    final String label;     // the characters on the edge into this node
+    final String key;       // the path ending at this node, or null if none
+    final Node[] children;  // sorted by the first char of their label
+
+    Node(String label, String key, Node[] children) {
+      this.label = label;
+      this.key = key;
+      this.children = children;
+    }
+
+    // index of the child whose label starts with c, else -(insertion point) - 1
+    int find(char c) {
+      int lo = 0, hi = children.length - 1;
+      while (lo <= hi) {
+        int mid = (lo + hi) >>> 1;
+        char mc = children[mid].label.charAt(0);
+        if (mc < c) lo = mid + 1;
+        else if (mc > c) hi = mid - 1;
+        else return mid;
+      }
+      return -(lo + 1);
+    }
+
+    Node withChild(int index, Node child) {
+      Node[] copy = children.clone();
+      copy[index] = child;
+      return new Node(label, key, copy);
+    }
+
+    Node insertChild(int index, Node child) {
+      Node[] copy = new Node[children.length + 1];
+      System.arraycopy(children, 0, copy, 0, index);
+      copy[index] = child;
+      System.arraycopy(children, index, copy, index + 1, children.length - index);
+      return new Node(label, key, copy);
+    }
+  }
+
+  private volatile Node root = new Node("", null, NO_CHILDREN);
+  private int size;
+
+  /**
+   * Add a path.
+   * @param path the path
+   * @return true if it was not already there
+   */
+  synchronized boolean add(String path) {
+    Node newRoot = add(root, path, 0);
+    if (newRoot == root) return false;
+    root = newRoot;
+    size++;
+    return true;
+  }
+
+  // return node with path added below it, or node itself if already there
+  private Node add(Node node, String path, int pos) {
+    if (pos == path.length())
+      return (node.key != null) ? node : new Node(node.label, path, node.children);
+
+    int index = node.find(path.charAt(pos));
+    if (index < 0)
+      return node.insertChild(-index - 1, new Node(path.substring(pos), path, NO_CHILDREN));
+
+    Node child = node.children[index];
+    String label = child.label;
+    int n = 1;
+    int max = Math.min(label.length(), path.length() - pos);
+    while (n < max && label.charAt(n) == path.charAt(pos + n)) n++;
+
+    Node newChild;
+    if (n == label.length()) {
+      newChild = add(child, path, pos + n);
+      if (newChild == child) return node;
+    } else { // split the edge where path leaves it
+      Node tail = new Node(label.substring(n), child.key, child.children);
+      newChild = add(new Node(label.substring(0, n), null, new Node[]{tail}), path, pos + n);
+    }
+    return node.withChild(index, newChild);
+  }
+
+  /**
+   * Is this path in the set?
+   * @param path the path
+   * @return true if it was added
+   */
+  boolean contains(String path) {
+    Node node = root;
+    int pos = 0;
+    while (pos < path.length()) {
+      int index = node.find(path.charAt(pos));
+      if (index < 0) return false;
+      node = node.children[index];
+      if (!path.startsWith(node.label, pos)) return false;
+      pos += node.label.length();
+    }
+    return node.key != null;
+  }
+
+  /**
+   * Find the longest path that reqPath starts with.
+   * @param reqPath the request path
+   * @return the longest path such that reqPath.startsWith(path), or null if none
+   */
+  String findLongestPrefix(String reqPath) {
+    Node node = root;
+    String result = node.key;
+    int pos = 0;
+    while (pos < reqPath.length()) {
+      int index = node.find(reqPath.charAt(pos));
+      if (index < 0) break;
+      node = node.children[index];
+      if (!reqPath.startsWith(node.label, pos)) break;
+      pos += node.label.length();
+      if (node.key != null) result = node.key;
+    }
+    return result;
+  }
+
+  synchronized int size() {
+    return size;
+  }
+}
@@ -24,7 +24,7 @@ public class DataRootExt implements Comparable<DataRootExt> {
   private String name;
   private String restrict;
 
-  private DataRoot dataRoot;
+  private volatile DataRoot dataRoot;  // lazily made, and read without locking
 
   public DataRootExt() {
   }
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package thredds.server.catalog;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import thredds.server.catalog.tracker.DataRootTracker;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The PathTrie, through the DataRootPathMatcher that uses it.
+ *
+ * @since 10/18/2026
+ */
+public class TestPathTrie {
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private DataRootPathMatcher matcher;
+
+  @Before
+  public void setup() throws IOException {
+    matcher = new DataRootPathMatcher(null, new DataRootTracker(tempFolder.getRoot().getPath(), true, null));
+  }
+
+  private boolean add(String path) {
+    return matcher.addRoot(new DatasetRootConfig(path, "/data/" + path), "catalog.xml", true);
+  }
+
+  @Test
+  public void testEdgeSplits() {
+    Assert.assertTrue(add("abc/d"));
+    Assert.assertTrue(add("abc/e"));  // splits "abc/d" into "abc/" and "d"
+    Assert.assertTrue(add("ab"));     // splits "abc/" into "ab" and "c/"
+    Assert.assertFalse(add("ab"));    // duplicate
+
+    Assert.assertTrue(matcher.contains("ab"));
+    Assert.assertTrue(matcher.contains("abc/d"));
+    Assert.assertTrue(matcher.contains("abc/e"));
+    Assert.assertFalse(matcher.contains("a"));
+    Assert.assertFalse(matcher.contains("abc/"));  // only a node made by a split
+    Assert.assertFalse(matcher.contains("abc/de"));
+
+    Assert.assertEquals("abc/d", matcher.findLongestPathMatch("abc/d/file.nc"));
+    Assert.assertEquals("abc/e", matcher.findLongestPathMatch("abc/e"));
+    Assert.assertEquals("ab", matcher.findLongestPathMatch("abc/f"));
+    Assert.assertEquals("/data/abc/e", matcher.get("abc/e").getDirLocation());
+  }
+
+  @Test
+  public void testNestedRoots() {
+    add("data/nested/deeper");
+    add("data");
+    add("data/nested");
+    add("datax");
+    add("other");
+
+    Assert.assertEquals("data/nested/deeper", matcher.findLongestPathMatch("data/nested/deeper/file.nc"));
+    Assert.assertEquals("data/nested", matcher.findLongestPathMatch("data/nested/file.nc"));
+    Assert.assertEquals("data/nested", matcher.findLongestPathMatch("data/nested/deep"));
+    Assert.assertEquals("data", matcher.findLongestPathMatch("data/file.nc"));
+    Assert.assertEquals("data", matcher.findLongestPathMatch("data"));
+    Assert.assertEquals("datax", matcher.findLongestPathMatch("datax/file.nc"));
+    Assert.assertEquals("other", matcher.findLongestPathMatch("other/file.nc"));
+    Assert.assertNull(matcher.findLongestPathMatch("dat"));
+    Assert.assertNull(matcher.findLongestPathMatch("model/data/file.nc"));
+  }
+
+  @Test
+  public void testMatchesCharactersNotSegments() {
+    add("ab");
+    add("abc/x");
+
+    Assert.assertEquals("abc/x", matcher.findLongestPathMatch("abc/x/file.nc"));
+    Assert.assertEquals("ab", matcher.findLongestPathMatch("abc/y/file.nc"));  // same as "abc/y/file.nc".startsWith("ab")
+    Assert.assertEquals("ab", matcher.findLongestPathMatch("abd"));
+    Assert.assertEquals("ab", matcher.findLongestPathMatch("ab"));
+    Assert.assertNull(matcher.findLongestPathMatch("a"));
+    Assert.assertNull(matcher.findLongestPathMatch(""));
+  }
+
+  @Test
+  public void testEmptyPath() {
+    add("data");
+    Assert.assertFalse(matcher.contains(""));
+    Assert.assertNull(matcher.findLongestPathMatch("model"));
+
+    Assert.assertTrue(add(""));
+    Assert.assertFalse(add(""));
+    Assert.assertTrue(matcher.contains(""));
+    Assert.assertEquals("", matcher.findLongestPathMatch("model"));
+    Assert.assertEquals("", matcher.findLongestPathMatch(""));
+    Assert.assertEquals("data", matcher.findLongestPathMatch("data/file.nc"));
+  }
+
+  @Test
+  public void testLookupsWhileAdding() throws InterruptedException {
+    for (int i = 0; i < 100; i++)
+      add("fixed/" + i);
+
+    AtomicBoolean done = new AtomicBoolean();
+    Thread writer = new Thread(() -> {
+      for (int i = 0; i < 100; i++) {
+        for (int j = 0; j < 50; j++)
+          add("fixed/" + i + "/more" + j);  // splits the edges below "fixed/i"
+        add("fix" + i);
+      }
+      done.set(true);
+    });
+    writer.start();
+
+    boolean ok = true;
+    while (ok && !done.get()) {
+      for (int i = 0; i < 100; i++) {
+        String path = "fixed/" + i;
+        ok &= matcher.contains(path);
+        ok &= path.equals(matcher.findLongestPathMatch(path + "/more/file.nc"));
+      }
+    }
+    writer.join();
+    Assert.assertTrue(ok);
+
+    Assert.assertEquals("fixed/5/more1", matcher.findLongestPathMatch("fixed/5/more1/file.nc"));
+    Assert.assertEquals("fixed/5/more49", matcher.findLongestPathMatch("fixed/5/more49/file.nc"));
+    Assert.assertEquals("fixed/5", matcher.findLongestPathMatch("fixed/5/file.nc"));
+    Assert.assertEquals("fix1", matcher.findLongestPathMatch("fix1/file.nc"));
+    Assert.assertEquals(100 + 100 * 50 + 100, matcher.getValues().size());
+  }
+
+}
@@ -107,6 +107,7 @@ public class Tdm {
   private boolean showOnly = false; // if true, just show dirs and exit
 
   private boolean forceOnStartup = false; // if true, just show dirs and exit
+  private int indexThreads = 0; // if > 0, overrides GribIndex.nthreads in threddsConfig
 
   List<Resource> catalogRoots = new ArrayList<>();
 
@@ -141,6 +142,11 @@ public class Tdm {
     tdmLogger.info(" TDM nthreads= {}", n);
   }
 
+  // threads used to index the files of a single collection
+  public void setIndexThreads(int n) {
+    this.indexThreads = n;
+  }
+
   public void setForceOnStartup(boolean forceOnStartup) {
     this.forceOnStartup = forceOnStartup;
   }
@@ -209,6 +215,10 @@ public class Tdm {
     GribIndexCache.setDiskCache2(gribCache);
     tdmLogger.info("TDM initialized {}", gribCache);
 
+    int gribIndexThreads = (indexThreads > 0) ? indexThreads : reader.getInt("GribIndex.nthreads", 0);
+    GribCdmIndex.initIndexPool(gribIndexThreads);
+    tdmLogger.info(" TDM index nthreads= {}", gribIndexThreads);
+
     return true;
   }
 
@@ -455,6 +465,9 @@ public class Tdm {
     @Parameter(names = {"-nthreads"}, description = "number of threads", required = false)
     public int nthreads = 1;
 
+    @Parameter(names = {"-indexThreads"}, description = "number of threads to index the files of each collection", required = false)
+    public int indexThreads = 0;
+
     @Parameter(names = {"-showOnly"}, description = "show collections and exit", required = false)
     public boolean showOnly;
 
@@ -525,6 +538,9 @@ public class Tdm {
         if (cmdLine.nthreads != 0)
           app.setNThreads(cmdLine.nthreads);
 
+        if (cmdLine.indexThreads != 0)
+          app.setIndexThreads(cmdLine.indexThreads);
+
         if (cmdLine.showOnly)
           app.setShowOnly(true);
 
@@ -56,6 +56,8 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Reads in the Config catalogs on startup, and if triggered.
@@ -70,6 +72,7 @@ public class ConfigCatalogInitialization {
   static private final String ERROR = "*** ERROR: ";
   static private final boolean show = true;
   static private final ReadMode defaultReadMode = ReadMode.check;
+  static private final int maxReadAhead = 1000;  // limit on catalogs read ahead but not yet used
 
   @Autowired
   private TdsContext tdsContext;  // used for  getContentDirectory, contextPath
@@ -111,6 +114,7 @@ public class ConfigCatalogInitialization {
   private String contextPath;      // thredds
   private String trackerDir;       // the tracker "databases" are kept in this directory
   private long maxDatasets;        // chronicle limit
+  private int readThreads;         // if > 1, catalogs are read ahead in a pool of this many threads
 
    // on reread, construct new objects, so cant be spring beans
   private DataRootPathMatcher dataRootPathMatcher;
@@ -122,6 +126,11 @@ public class ConfigCatalogInitialization {
   private Set<String> catPathMap;          // Hash of paths, to look for duplicate catalogs
   private Map<String, String> fcNameMap;   // Hash of featureCollection ids, to look for duplicates
   private List<String> rootCatalogKeys;    // needed ??
+  private ForkJoinPool readPool;                            // reads catalogs ahead of checkCatalogToRead()
+  private ConcurrentMap<String, Future<CatalogRead>> readAhead; // catalogs read ahead, keyed by relative path
+  private AtomicInteger readAheadCount;
+  private ConcurrentMap<String, Boolean> readAheadTaken;       // paths taken by checkCatalogToRead(): true if read, false if skipped
+  private Map<String, Long> lastReadMap;   // lastRead of the tracked catalogs, when reread started
 
   // track stats
   private DatasetTracker.Callback callback;
@@ -137,6 +146,15 @@ public class ConfigCatalogInitialization {
     this.maxDatasets = maxDatasets;
   }
 
+  /**
+   * Read catalogs in parallel. Catalogs are parsed ahead in a pool of this many threads, following catalogRefs,
+   * but are still processed one at a time in the same order as a serial read, so the results are the same.
+   * @param nthreads number of threads; 0 or 1 means read serially.
+   */
+  public synchronized void setReadThreads(int nthreads) {
+    this.readThreads = nthreads;
+  }
+
   // called from TdsInit on spring-managed auto-wired bean
   public synchronized void init(ReadMode readMode, PreferencesExt prefs) {
     if (readMode == null)
@@ -185,25 +203,30 @@ public class ConfigCatalogInitialization {
         this.catalogTracker = new CatalogTracker(trackerDir, true, numberCatalogs, nextCatId);
         this.dataRootTracker = new DataRootTracker(trackerDir, true, callback);
         this.dataRootPathMatcher = new DataRootPathMatcher(ccc, dataRootTracker);  // starting over
-        readRootCatalogs(readMode);
         break;
 
       case check:
         this.catalogTracker = new CatalogTracker(trackerDir, false, numberCatalogs, nextCatId);        // use existing catalog list
         this.dataRootTracker = new DataRootTracker(trackerDir, false, callback);      // use existing data roots
         this.dataRootPathMatcher = new DataRootPathMatcher(ccc, dataRootTracker);
-        readRootCatalogs(readMode);           // read just roots to get global services
-        checkExistingCatalogs(readMode);
         break;
 
       case triggerOnly:
         this.catalogTracker = new CatalogTracker(trackerDir, false, numberCatalogs, nextCatId);               // use existing catalog list
         this.dataRootTracker = new DataRootTracker(trackerDir, false, callback);             // use existing data roots
         this.dataRootPathMatcher = new DataRootPathMatcher(ccc, dataRootTracker);
-        readRootCatalogs(readMode);           // read just roots to get global services
         break;
     }
 
+    startReadAhead(readMode);
+    try {
+      readRootCatalogs(readMode);           // always read roots, to get global services
+      if (readMode == ReadMode.check)
+        checkExistingCatalogs(readMode);
+    } finally {
+      stopReadAhead();
+    }
+
     numberCatalogs = catalogTracker.size();
     nextCatId = catalogTracker.getNextCatId();
     if (prefs != null) {
@@ -253,6 +276,9 @@ public class ConfigCatalogInitialization {
       rootCatalogKeys.add( location );
     logCatalogInit.info("ConfigCatalogInit: initializing " + rootCatalogKeys.size() + " root catalogs.");
 
+    for (String pathname : rootCatalogKeys)
+      readAhead(readMode, pathname, true);
+
     // all root catalogs are checked
     for (String pathname : rootCatalogKeys) {
       try {
@@ -266,8 +292,20 @@ public class ConfigCatalogInitialization {
   }
 
   private void checkExistingCatalogs(ReadMode readMode) {
+    List<CatalogExt> catalogs = new ArrayList<>();
     for (CatalogExt catalogExt : catalogTracker.getCatalogs()) {
-      if (catalogExt.isRoot()) continue; // already read in
+      if (!catalogExt.isRoot()) catalogs.add(catalogExt); // roots already read in
+    }
+
+    // keep a window of catalogs read ahead of the one being checked
+    int window = maxReadAhead / 2;
+    for (int i = 0; i < Math.min(window, catalogs.size()); i++)
+      readAhead(readMode, catalogs.get(i).getCatRelLocation(), false);
+
+    for (int i = 0; i < catalogs.size(); i++) {
+      CatalogExt catalogExt = catalogs.get(i);
+      if (i + window < catalogs.size())
+        readAhead(readMode, catalogs.get(i + window).getCatRelLocation(), false);
 
       String pathname = catalogExt.getCatRelLocation();
       try {
@@ -283,23 +321,31 @@ public class ConfigCatalogInitialization {
   // decide if we need to read this catalog or not. if yes, follow any catrefs
   // catalogRelpath must be relative to rootDir
   private void checkCatalogToRead(ReadMode readMode, String catalogRelPath, boolean isRoot, long lastRead) throws IOException {
-    if (exceedLimit) return;
-
     catalogRelPath = StringUtils.cleanPath(catalogRelPath);
+    if (exceedLimit) {
+      dropReadAhead(catalogRelPath);
+      return;
+    }
+
     File catalogFile = new File(this.contentRootPath, catalogRelPath);
     if (!catalogFile.exists()) {
       catalogTracker.removeCatalog(catalogRelPath);
       logCatalogInit.error(ERROR + "initCatalog(): Catalog [" + catalogRelPath + "] does not exist.");
+      dropReadAhead(catalogRelPath);
       return;
     }
     long lastModified = catalogFile.lastModified();
-    if (!isRoot && readMode != ReadMode.always && lastModified < lastRead) return; // skip catalogs that havent changed
-    if (!isRoot && readMode == ReadMode.triggerOnly) return;                    // skip non-root catalogs for trigger only
+    if ((!isRoot && readMode != ReadMode.always && lastModified < lastRead) || // skip catalogs that havent changed
+        (!isRoot && readMode == ReadMode.triggerOnly)) {                       // skip non-root catalogs for trigger only
+      dropReadAhead(catalogRelPath);
+      return;
+    }
     if (show) System.out.printf("initCatalog %s%n", catalogRelPath);
 
     // make sure we havent already read it
     if (catPathMap.contains(catalogRelPath)) {
       logCatalogInit.error(ERROR + "initCatalog(): Catalog [" + catalogRelPath + "] already seen, possible loop (skip).");
+      dropReadAhead(catalogRelPath);
       return;
     }
     catPathMap.add(catalogRelPath);
@@ -354,43 +400,205 @@ public class ConfigCatalogInitialization {
   }
 
   /**
-   * Does the actual work of reading a catalog.
+   * Get a catalog, from the read ahead if it was read there, else by reading it now.
    *
    * @param catalogRelPath            reletive path starting from content root
    * @param catalogFullPath           absolute location on disk
    * @return the Catalog, or null if failure
    */
   private ConfigCatalog readCatalog(String catalogRelPath, String catalogFullPath)  {
+    CatalogRead read = null;
+    Future<CatalogRead> future = takeReadAhead(catalogRelPath, true);
+    if (future != null) {
+      try {
+        read = future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException | CancellationException e) {
+        logCatalogInit.warn("readCatalog(): read ahead failed on {}; {}", catalogRelPath, e.getMessage());
+      }
+    }
+    if (read == null)
+      read = parseCatalog(catalogRelPath, catalogFullPath);
+
+    return read.finish();  // log in catalog order, whichever thread read it
+  }
+
+  /**
+   * Does the actual work of reading a catalog. Touches no shared state, so may be called from any thread.
+   *
+   * @param catalogRelPath            reletive path starting from content root
+   * @param catalogFullPath           absolute location on disk
+   * @return the result, with any messages to be logged
+   */
+  private CatalogRead parseCatalog(final String catalogRelPath, final String catalogFullPath)  {
+    final CatalogRead read = new CatalogRead();
     URI uri;
     try {
       // uri = new URI("file:" + StringUtil2.escape(catalogFullPath, "/:-_.")); // needed ?
       uri = new URI(this.contextPath + "/catalog/" + catalogRelPath);
-    } catch (URISyntaxException e) {
-      logCatalogInit.error(ERROR + "readCatalog(): URISyntaxException=" + e.getMessage());
-      return null;
+    } catch (final URISyntaxException e) {
+      read.log.add(() -> logCatalogInit.error(ERROR + "readCatalog(): URISyntaxException=" + e.getMessage()));
+      return read;
     }
 
-    ConfigCatalogBuilder builder = new ConfigCatalogBuilder();
+    final ConfigCatalogBuilder builder = new ConfigCatalogBuilder();
     try {
       // read the catalog
-      logCatalogInit.info("-------readCatalog(): path=" + catalogRelPath);
+      read.log.add(() -> logCatalogInit.info("-------readCatalog(): path=" + catalogRelPath));
       ConfigCatalog cat = (ConfigCatalog) builder.buildFromLocation(catalogFullPath, uri);
+      final String errMessage = builder.getErrorMessage();
       if (builder.hasFatalError()) {
-        logCatalogInit.error(ERROR + "   invalid catalog -- " + builder.getErrorMessage());
-        return null;
+        read.log.add(() -> logCatalogInit.error(ERROR + "   invalid catalog -- " + errMessage));
+        return read;
       }
 
-      if (builder.getErrorMessage().length() > 0)
-        logCatalogInit.debug(builder.getErrorMessage());
+      if (errMessage.length() > 0)
+        read.log.add(() -> logCatalogInit.debug(errMessage));
+
+      read.cat = cat;
+      return read;
+
+    } catch (final Throwable t) {
+      final String errMessage = builder.getErrorMessage();
+      read.log.add(() -> logCatalogInit.error(ERROR + "  Exception on catalog=" + catalogFullPath + " " + t.getMessage() + "\n log=" + errMessage, t));
+      return read;
+    }
+  }
+
+  // a catalog that has been read, and the messages from reading it, which are logged when it is used
+  private static class CatalogRead {
+    ConfigCatalog cat;
+    List<Runnable> log = new ArrayList<>(3);
 
+    ConfigCatalog finish() {
+      for (Runnable r : log) r.run();
       return cat;
+    }
+  }
 
-    } catch (Throwable t) {
-      logCatalogInit.error(ERROR + "  Exception on catalog=" + catalogFullPath + " " + t.getMessage() + "\n log=" + builder.getErrorMessage(), t);
-      return null;
+  ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
+  // read ahead
+  // Catalogs are parsed in readPool ahead of when checkCatalogToRead() needs them, following catalogRefs as they are found.
+  // Everything else, including the catalogTracker and dataRootPathMatcher updates, and the logging,
+  // is still done by the calling thread in serial order, so the result is the same as reading serially.
+
+  private void startReadAhead(ReadMode readMode) {
+    if (readThreads <= 1 || readMode == ReadMode.triggerOnly) return;  // triggerOnly reads just the roots
+
+    lastReadMap = new HashMap<>();
+    for (CatalogExt catalogExt : catalogTracker.getCatalogs())
+      lastReadMap.put(catalogExt.getCatRelLocation(), catalogExt.getLastRead());
+    readAhead = new ConcurrentHashMap<>();
+    readAheadCount = new AtomicInteger();
+    readAheadTaken = new ConcurrentHashMap<>();
+    readPool = new ForkJoinPool(readThreads);
+  }
+
+  private void stopReadAhead() {
+    if (readPool != null)
+      readPool.shutdownNow(); // abandon catalogs that were not needed
+    readPool = null;
+    readAhead = null;
+    readAheadCount = null;
+    readAheadTaken = null;
+    lastReadMap = null;
+  }
+
+  // checkCatalogToRead() has taken this path, so it is not read ahead again. Return its read ahead, if any, to be used or dropped
+  private Future<CatalogRead> takeReadAhead(String path, boolean isRead) {
+    if (readAhead == null) return null;
+    if (isRead) readAheadTaken.put(path, true);
+    else readAheadTaken.putIfAbsent(path, false);
+    Future<CatalogRead> future = readAhead.remove(path);
+    if (future != null) readAheadCount.decrementAndGet();
+    return future;
+  }
+
+  // checkCatalogToRead() skipped this path, so a read ahead of it will never be used
+  private void dropReadAhead(String path) {
+    Future<CatalogRead> future = takeReadAhead(path, false);
+    if (future != null) future.cancel(true);
+  }
+
+  // start reading a catalog, if checkCatalogToRead() is likely to read it. may be called from any thread
+  private void readAhead(final ReadMode readMode, String catalogRelPath, final boolean isRoot) {
+    final ForkJoinPool readPool = this.readPool;
+    final Map<String, Future<CatalogRead>> readAhead = this.readAhead;
+    final AtomicInteger readAheadCount = this.readAheadCount;
+    final Map<String, Boolean> readAheadTaken = this.readAheadTaken;
+    final Map<String, Long> lastReadMap = this.lastReadMap;
+    if (readPool == null || readAhead == null || readAheadCount == null || readAheadTaken == null || lastReadMap == null) return; // stopped
+    if (exceedLimit || readAheadCount.get() >= maxReadAhead) return;
+
+    final String path = StringUtils.cleanPath(catalogRelPath);
+    final File catalogFile = new File(this.contentRootPath, path);
+    if (readAheadTaken.containsKey(path) || readAhead.containsKey(path) || !catalogFile.exists()) return; // already read or skipped in this run
+    if (!isRoot) {  // same test as checkCatalogToRead()
+      Long lastRead = lastReadMap.get(path);
+      if (readMode != ReadMode.always && catalogFile.lastModified() < (lastRead == null ? 0 : lastRead)) return;
+    }
+
+    try {
+      readAhead.computeIfAbsent(path, key -> {
+        readAheadCount.incrementAndGet();
+        return readPool.submit(() -> {
+          CatalogRead read = parseCatalog(path, catalogFile.getPath());
+          if (read.cat != null && !Boolean.FALSE.equals(readAheadTaken.get(path))) {  // not if it was dropped
+            int pos = path.lastIndexOf("/");
+            String dirPath = (pos > 0) ? path.substring(0, pos + 1) : "";
+            readAheadCatalogRefs(readMode, dirPath, read.cat.getDatasetsLocal());
+          }
+          return read;
+        });
+      });
+      // checkCatalogToRead() may have taken the path since the test above, then it never uses this read ahead
+      if (readAheadTaken.containsKey(path)) {
+        Future<CatalogRead> future = readAhead.remove(path);
+        if (future != null) {
+          readAheadCount.decrementAndGet();
+          future.cancel(true);
+        }
+      }
+    } catch (RejectedExecutionException e) {
+      // pool was shut down, nothing more is needed
+    }
+  }
+
+  // follow the catalogRefs that processDatasets() will follow
+  private void readAheadCatalogRefs(ReadMode readMode, String dirPath, List<Dataset> datasets) {
+    for (Dataset ds : datasets) {
+      if ((ds instanceof DatasetScan) || (ds instanceof FeatureCollectionRef)) continue;
+      if (ds instanceof CatalogScan) continue;
+
+      if (ds instanceof CatalogRef) {
+        String href = ((CatalogRef) ds).getXlinkHref();
+        if (!href.startsWith("http:")) {
+          if (href.startsWith("./")) href = href.substring(2);
+          String path = getCatalogRefPath(href, dirPath);
+          if (path != null) readAhead(readMode, path, false);
+        }
+      } else {
+        readAheadCatalogRefs(readMode, dirPath, ds.getDatasetsLocal());
+      }
     }
   }
 
+  /**
+   * Get the path of the catalog that a relative catalogRef points to.
+   * @param href the catalogRef's xlink:href, with any leading "./" removed
+   * @param dirPath the directory path of the parent catalog, reletive to the rootDir
+   * @return path relative to the rootDir, or null if the catalogRef points outside the context path
+   */
+  private String getCatalogRefPath(String href, String dirPath) {
+    String contextPathPlus = this.contextPath + "/";
+    if (href.startsWith(contextPathPlus))
+      return href.substring(contextPathPlus.length()); // absolute starting from content root
+    if (href.startsWith("/"))
+      return null;
+    return dirPath + href;  // reletive starting from current directory
+  }
+
   // dirPath = the directory path, reletive to the rootDir
   private void processDatasets(long catId, ReadMode readMode, String dirPath, List<Dataset> datasets, Set<String> idMap) throws IOException {
     if (exceedLimit) return;
@@ -424,17 +632,13 @@ public class ConfigCatalogInitialization {
             href = href.substring(2);
           }
 
-          String path;
-          String contextPathPlus = this.contextPath + "/";
-          if (href.startsWith(contextPathPlus)) {
-            path = href.substring(contextPathPlus.length()); // absolute starting from content root
-          } else if (href.startsWith("/")) {
+          String path = getCatalogRefPath(href, dirPath);
+          if (path == null) {
             // Drop the catRef because it points to a non-TDS served catalog.
+            String contextPathPlus = this.contextPath + "/";
             logCatalogInit.error(ERROR + "Skipping catalogRef <xlink:href=" + href + ">. Reference is relative to the server outside the context path [" + contextPathPlus + "]. " +
                     "Parent catalog info: Name=\"" + catref.getParentCatalog().getName() + "\"; Base URI=\"" + catref.getParentCatalog().getUriString() + "\"; dirPath=\"" + dirPath + "\".");
             continue;
-          } else {
-            path = dirPath + href;  // reletive starting from current directory
           }
 
           CatalogExt ext = catalogTracker.get(path);
@@ -454,20 +658,25 @@ public class ConfigCatalogInitialization {
     if (exceedLimit) return;
 
      // do any catalogs first
+    List<String> paths = new ArrayList<>();
     try (DirectoryStream<Path> ds = Files.newDirectoryStream(directory, "*.xml")) {
       for (Path p : ds) {
         if (!Files.isDirectory(p)) {
           // path must be relative to rootDir
           String filename = p.getFileName().toString();
           String path = dirPath.length() == 0 ? filename :  dirPath + "/" + filename;  // reletive starting from current directory
-
-          CatalogExt ext = catalogTracker.get(path);
-          long lastRead = (ext == null) ? 0 : ext.getLastRead();
-          checkCatalogToRead(readMode, path, false, lastRead);
+          paths.add(path);
+          readAhead(readMode, path, false);
         }
       }
     }
 
+    for (String path : paths) {
+      CatalogExt ext = catalogTracker.get(path);
+      long lastRead = (ext == null) ? 0 : ext.getLastRead();
+      checkCatalogToRead(readMode, path, false, lastRead);
+    }
+
     // now recurse into the directory
     try (DirectoryStream<Path> ds = Files.newDirectoryStream(directory)) {
        for (Path dir : ds) {
@@ -653,11 +862,19 @@ public class ConfigCatalogInitialization {
   private boolean isDebugMode;
   private long countDatasets = 0;
   private long maxDatasetsProcess;
-  private boolean exceedLimit;
+  private volatile boolean exceedLimit;  // also read by the read ahead threads
 
   // used from outside of tomcat/spring for testing
   public ConfigCatalogInitialization(ReadMode readMode, File contentRootPath, String trackerDir, DatasetTracker datasetTracker,
                                      AllowedServices allowedServices, DatasetTracker.Callback callback, long maxDatasetsProcess) throws IOException {
+    this(readMode, contentRootPath, trackerDir, datasetTracker, allowedServices, callback, maxDatasetsProcess, 0);
+  }
+
+  // used from outside of tomcat/spring for testing, reading ahead in readThreads
+  public ConfigCatalogInitialization(ReadMode readMode, File contentRootPath, String trackerDir, DatasetTracker datasetTracker,
+                                     AllowedServices allowedServices, DatasetTracker.Callback callback, long maxDatasetsProcess,
+                                     int readThreads) throws IOException {
+    this.readThreads = readThreads;
     this.contentRootPath = contentRootPath;
     this.contextPath = "/thredds";
     this.trackerDir = trackerDir != null ? trackerDir : new File(contentRootPath, "cache/catalog").getPath();
@@ -80,7 +80,7 @@ public class DataRootManager implements InitializingBean {
   private TdsContext tdsContext;
 
   // injected by catalogInitializer, when catalogs are reread, so cant be spring managed
-  private DataRootPathMatcher dataRootPathMatcher;
+  private volatile DataRootPathMatcher dataRootPathMatcher;  // replaced on reread, read without locking
 
   @Autowired
   private DebugCommands debugCommands;
@@ -168,13 +168,13 @@ public class DataRootManager implements InitializingBean {
     return match;
   }
 
-  private synchronized DataRoot findDataRoot(String spath) {
+  // not synchronized: the matcher is swapped in whole on reread, and is safe for concurrent lookups
+  private DataRoot findDataRoot(String spath) {
     if (spath == null)
       return null;
     if (spath.startsWith("/"))
       spath = spath.substring(1);
 
-    // LOOK could it be safe to swap dataRootPathMatcher without synchronizing?
     return dataRootPathMatcher.findDataRoot(spath);
   }
 
@@ -48,7 +48,11 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import ucar.nc2.grib.collection.GribCdmIndex;
+import ucar.nc2.grib.collection.GribDataReader;
+import ucar.nc2.iosp.hdf5.H5iosp;
 import ucar.nc2.util.cache.FileCacheIF;
+import ucar.nc2.util.cache.FileDataCache;
+import ucar.unidata.io.BlockCache;
 import ucar.unidata.io.RandomAccessFile;
 
 /**
@@ -163,6 +167,27 @@ public class DebugCommands {
           fc.showCache(f);
         }
 
+        BlockCache bc = RandomAccessFile.getBlockCache();
+        if (bc == null) f.format("%nRandomAccessFileBlockCache : turned off%n");
+        else {
+          f.format("%n%n");
+          bc.showCache(f);
+        }
+
+        FileDataCache<byte[]> cc = H5iosp.getChunkCache();
+        if (cc == null) f.format("%nHDF5ChunkCache : turned off%n");
+        else {
+          f.format("%n%n");
+          cc.showCache(f);
+        }
+
+        FileDataCache<float[]> gdc = GribDataReader.getDataCache();
+        if (gdc == null) f.format("%nGribDataCache : turned off%n");
+        else {
+          f.format("%n%n");
+          gdc.showCache(f);
+        }
+
         e.pw.flush();
       }
     };
@@ -174,6 +199,12 @@ public class DebugCommands {
          RandomAccessFile.getGlobalFileCache().clearCache(false);
          FileCacheIF fc = GribCdmIndex.gribCollectionCache;
          if (fc != null) fc.clearCache(false);
+         BlockCache bc = RandomAccessFile.getBlockCache();
+         if (bc != null) bc.clearCache();
+         FileDataCache<byte[]> cc = H5iosp.getChunkCache();
+         if (cc != null) cc.clearCache();
+         FileDataCache<float[]> gdc = GribDataReader.getDataCache();
+         if (gdc != null) gdc.clearCache();
          e.pw.println("  ClearCache ok");
        }
      };
@@ -196,6 +227,14 @@ public class DebugCommands {
     debugHandler.addAction(act);
 
 
+    act = new Action("disableRAFBlockCache", "Disable RandomAccessFile Block Cache") {
+       public void doAction(Event e) {
+         RandomAccessFile.disableBlockCache();
+         e.pw.println("  Disable RandomAccessFile block cache ok");
+       }
+     };
+    debugHandler.addAction(act);
+
     act = new Action("disableNetcdfCache", "Disable NetcdfDatasetFile Cache") {
        public void doAction(Event e) {
          NetcdfDataset.disableNetcdfFileCache();
@@ -229,6 +268,22 @@ public class DebugCommands {
     };
     debugHandler.addAction(act);
 
+    act = new Action("disableHDF5ChunkCache", "Disable HDF5 Chunk Cache") {
+       public void doAction(Event e) {
+         H5iosp.disableChunkCache();
+         e.pw.println("  Disable HDF5 chunk cache ok");
+       }
+     };
+    debugHandler.addAction(act);
+
+    act = new Action("disableGribDataCache", "Disable GRIB Data Cache") {
+       public void doAction(Event e) {
+         GribDataReader.disableDataCache();
+         e.pw.println("  Disable GRIB data cache ok");
+       }
+     };
+    debugHandler.addAction(act);
+
   }
 
   protected void makeDebugActions() {
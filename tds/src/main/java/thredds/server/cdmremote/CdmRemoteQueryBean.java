@@ -54,10 +54,8 @@ public class CdmRemoteQueryBean {
   // raw query parameters
   private String req;
   private String var;
-  private int deflate = -1;
-
-  // type of compression
-  private NcStreamCompression compressType = NcStreamCompression.none(); // default
+  private Integer deflate; // deflate level, if compression was asked for
+  private boolean shuffle;
 
   // parsed
   private RequestType reqType = null;
@@ -87,15 +85,25 @@ public class CdmRemoteQueryBean {
   }
 
   NcStreamCompression getCompression() {
-    return compressType;
+    if (deflate == null) return NcStreamCompression.none(); // default
+    return shuffle ? NcStreamCompression.shuffleDeflate(deflate) : NcStreamCompression.deflate(deflate);
   }
 
   public int getDeflate() {
-    return deflate;
+    return deflate == null ? -1 : deflate;
   }
 
   public void setDeflate(int level) {
-    compressType = NcStreamCompression.deflate(level);
+    this.deflate = level;
+  }
+
+  public boolean isShuffle() {
+    return shuffle;
+  }
+
+  // only with deflate
+  public void setShuffle(boolean shuffle) {
+    this.shuffle = shuffle;
   }
 
   private List<String> errs;
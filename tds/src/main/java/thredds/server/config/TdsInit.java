@@ -55,24 +55,35 @@ import thredds.server.ncss.controller.NcssDiskCache;
 import thredds.server.ncss.format.FormatsAvailabilityService;
 import thredds.server.ncss.format.SupportedFormat;
 import ucar.nc2.NetcdfFile;
+import ucar.nc2.NetcdfFileWriter;
 import ucar.nc2.dataset.NetcdfDataset;
 import ucar.nc2.grib.GribIndexCache;
 import ucar.nc2.grib.collection.GribCdmIndex;
+import ucar.nc2.grib.collection.GribDataReader;
+import ucar.nc2.iosp.hdf5.H5iosp;
+import ucar.nc2.iosp.hdf5.H5iospWriter;
+import ucar.nc2.iosp.nexrad2.Nexrad2IOServiceProvider;
 import ucar.nc2.jni.netcdf.Nc4Iosp;
 import ucar.nc2.ncml.Aggregation;
 import ucar.nc2.stream.CdmRemote;
+import ucar.nc2.stream.NcStreamCompression;
 import ucar.nc2.util.DebugFlags;
 import ucar.nc2.util.DebugFlagsImpl;
 import ucar.nc2.util.DiskCache;
 import ucar.nc2.util.DiskCache2;
 import ucar.nc2.util.cache.FileCache;
+import ucar.nc2.util.cache.FileCacheStriped;
 import ucar.unidata.io.RandomAccessFile;
+import ucar.unidata.util.StringUtil2;
 import ucar.util.prefs.PreferencesExt;
 import ucar.util.prefs.XMLStore;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Timer;
 import java.util.TimerTask;
@@ -270,6 +281,7 @@ public class TdsInit implements ApplicationListener<ContextRefreshedEvent>, Disp
         <libraryPath>/usr/local/lib</libraryPath>
         <libraryName>netcdf</libraryName>
         <useForReading>false</useForReading>
+        <perFileLocking>false</perFileLocking>
       </Netcdf4Clibrary>
     */
     String libraryPath = ThreddsConfig.get("Netcdf4Clibrary.libraryPath", null);
@@ -277,6 +289,9 @@ public class TdsInit implements ApplicationListener<ContextRefreshedEvent>, Disp
     if (libraryPath != null || libraryName != null) {
       Nc4Iosp.setLibraryAndPath(libraryPath, libraryName);
     }
+    if (ThreddsConfig.getBoolean("Netcdf4Clibrary.perFileLocking", false)) {
+      Nc4Iosp.setPerFileLocking(true);
+    }
 
     Boolean useForReading = ThreddsConfig.getBoolean("Netcdf4Clibrary.useForReading", false);
     if (useForReading) {
@@ -348,6 +363,21 @@ public class TdsInit implements ApplicationListener<ContextRefreshedEvent>, Disp
     GribIndexCache.setDiskCache2(gribCache);
     startupLog.info("TdsInit: GribIndex=" + gribCache);
 
+    // build GRIB collection indexes in parallel: default off
+    int gribIndexThreads = ThreddsConfig.getInt("GribIndex.nthreads", 0);
+    GribCdmIndex.initIndexPool(gribIndexThreads);
+    startupLog.info("TdsInit: GribCdmIndex.initIndexPool= " + gribIndexThreads + " threads");
+
+    // unpack GRIB-2 records in parallel: default off
+    int gribDecodeThreads = ThreddsConfig.getInt("GribDecoding.nthreads", 0);
+    GribDataReader.initDecodePool(gribDecodeThreads);
+    startupLog.info("TdsInit: GribDataReader.initDecodePool= " + gribDecodeThreads + " threads");
+
+    // memory cache of unpacked GRIB records: default off
+    long gribDataCacheBytes = ThreddsConfig.getBytes("GribDataCache.maxSize", 0);
+    GribDataReader.initDataCache(gribDataCacheBytes);
+    startupLog.info("TdsInit: GribDataReader.initDataCache= " + gribDataCacheBytes + " bytes");
+
     // LOOK just create the diskCache here and send it in
     ncssDiskCache.init();
 
@@ -394,8 +424,21 @@ public class TdsInit implements ApplicationListener<ContextRefreshedEvent>, Disp
     min = ThreddsConfig.getInt("RandomAccessFile.minFiles", 400);
     max = ThreddsConfig.getInt("RandomAccessFile.maxFiles", 500);
     secs = ThreddsConfig.getSeconds("RandomAccessFile.scour", 11 * 60);
+    boolean shareOpenFiles = ThreddsConfig.getBoolean("RandomAccessFile.shared", false);
+    RandomAccessFile.setShareOpenFiles(shareOpenFiles);
+    startupLog.info("TdsInit: RandomAccessFile.setShareOpenFiles= " + shareOpenFiles);
+    List<String> mmapLocations = getStringList("RandomAccessFile.mmapLocations");
+    List<String> mmapSuffixes = getStringList("RandomAccessFile.mmapSuffixes");
+    RandomAccessFile.setMemoryMapped(mmapLocations, mmapSuffixes);
+    startupLog.info("TdsInit: RandomAccessFile.setMemoryMapped= " + mmapLocations + " " + mmapSuffixes);
+    long blockCacheBytes = ThreddsConfig.getBytes("RandomAccessFileBlockCache.maxSize", 0);
+    RandomAccessFile.initBlockCache(blockCacheBytes);
+    startupLog.info("TdsInit: RandomAccessFile.initBlockCache= " + blockCacheBytes + " bytes");
     if (max > 0) {
-      RandomAccessFile.setGlobalFileCache(new FileCache("RandomAccessFile", min, max, -1, secs));
+      if (ThreddsConfig.getBoolean("RandomAccessFile.striped", false))
+        RandomAccessFile.setGlobalFileCache(new FileCacheStriped("RandomAccessFile", min, max, -1, secs));
+      else
+        RandomAccessFile.setGlobalFileCache(new FileCache("RandomAccessFile", min, max, -1, secs));
       startupLog.info("TdsInit: RandomAccessFile.initPartitionCache= [" + min + "," + max + "] scour = " + secs);
     }
 
@@ -404,7 +447,10 @@ public class TdsInit implements ApplicationListener<ContextRefreshedEvent>, Disp
     max = ThreddsConfig.getInt("NetcdfFileCache.maxFiles", 150);
     secs = ThreddsConfig.getSeconds("NetcdfFileCache.scour", 12 * 60);
     if (max > 0) {
-      NetcdfDataset.initNetcdfFileCache(min, max, secs);
+      if (ThreddsConfig.getBoolean("NetcdfFileCache.striped", false))
+        NetcdfDataset.setNetcdfFileCache(new FileCacheStriped("NetcdfFileCache", min, max, -1, secs));
+      else
+        NetcdfDataset.initNetcdfFileCache(min, max, secs);
       startupLog.info("TdsInit: NetcdfDataset.initNetcdfFileCache= [" + min + "," + max + "] scour = " + secs);
     }
 
@@ -417,6 +463,36 @@ public class TdsInit implements ApplicationListener<ContextRefreshedEvent>, Disp
       startupLog.info("TdsInit: GribCdmIndex.initDefaultCollectionCache= [" + min + "," + max + "] scour = " + secs);
     }
 
+    // HDF5 / netCDF-4 uncompressed chunk cache: default 50 Mbytes
+    long chunkCacheBytes = ThreddsConfig.getBytes("HDF5ChunkCache.maxSize", (long) 50 * 1000 * 1000);
+    H5iosp.initChunkCache(chunkCacheBytes);
+    startupLog.info("TdsInit: H5iosp.initChunkCache= " + chunkCacheBytes + " bytes");
+
+    // HDF5 / netCDF-4 parallel chunk uncompression: default off
+    int decodeThreads = ThreddsConfig.getInt("HDF5ChunkDecoding.nthreads", 0);
+    H5iosp.initChunkDecodePool(decodeThreads);
+    startupLog.info("TdsInit: H5iosp.initChunkDecodePool= " + decodeThreads + " threads");
+
+    // netCDF-4 files written by NCSS in Java, parallel chunk compression: default off, use the netCDF-C library
+    boolean useJavaWriter = ThreddsConfig.getBoolean("HDF5ChunkEncoding.useJavaWriter", false);
+    NetcdfFileWriter.setUseJavaNetcdf4Writer(useJavaWriter);
+    startupLog.info("TdsInit: NetcdfFileWriter.setUseJavaNetcdf4Writer= " + useJavaWriter);
+    int encodeThreads = ThreddsConfig.getInt("HDF5ChunkEncoding.nthreads", 0);
+    H5iospWriter.initChunkEncodePool(encodeThreads);
+    startupLog.info("TdsInit: H5iospWriter.initChunkEncodePool= " + encodeThreads + " threads");
+
+    // NEXRAD Level II bzip2 volume scans: default serial, uncompressed copy on disk
+    int nexradThreads = ThreddsConfig.getInt("NEXRAD2Uncompress.nthreads", 0);
+    Nexrad2IOServiceProvider.initDecodePool(nexradThreads);
+    boolean nexradToDisk = ThreddsConfig.getBoolean("NEXRAD2Uncompress.toDisk", true);
+    Nexrad2IOServiceProvider.setUncompressToDisk(nexradToDisk);
+    startupLog.info("TdsInit: Nexrad2IOServiceProvider.initDecodePool= " + nexradThreads + " threads, toDisk= " + nexradToDisk);
+
+    // cdmremote data messages, parallel block compression: default off
+    int cdmremoteThreads = ThreddsConfig.getInt("CdmRemoteCompression.nthreads", 0);
+    NcStreamCompression.initBlockPool(cdmremoteThreads);
+    startupLog.info("TdsInit: NcStreamCompression.initBlockPool= " + cdmremoteThreads + " threads");
+
     //RandomAccessFile.enableDefaultGlobalFileCache();
     //RandomAccessFile.setDebugLeaks(true);
 
@@ -435,6 +511,16 @@ public class TdsInit implements ApplicationListener<ContextRefreshedEvent>, Disp
     }
     configCatalogInitializer.setTrackerDir(trackerDir);
     configCatalogInitializer.setMaxDatasetToTrack(trackerMax);
+
+    int readThreads = ThreddsConfig.getInt("ConfigCatalog.nthreads", 0);
+    configCatalogInitializer.setReadThreads(readThreads);
+    startupLog.info("TdsInit: ConfigCatalogInitialization.setReadThreads= " + readThreads + " threads");
+  }
+
+  // whitespace separated list
+  private List<String> getStringList(String paramName) {
+    String value = ThreddsConfig.get(paramName, "");
+    return value.trim().isEmpty() ? Collections.emptyList() : Arrays.asList(StringUtil2.splitString(value));
   }
 
   static private class CacheScourTask extends TimerTask {
@@ -472,6 +558,7 @@ public class TdsInit implements ApplicationListener<ContextRefreshedEvent>, Disp
     if (cdmDiskCacheTimer != null)
       cdmDiskCacheTimer.cancel();
     FileCache.shutdown();              // this handles background threads for all instances of FileCache
+    FileCacheStriped.shutdown();       // and of FileCacheStriped
     DiskCache2.exit();                // this handles background threads for all instances of DiskCache2
     thredds.inventory.bdb.MetadataManager.closeAll();
     executor.shutdownNow();
@@ -485,10 +572,18 @@ public class TdsInit implements ApplicationListener<ContextRefreshedEvent>, Disp
 
     // open file caches
     RandomAccessFile.shutdown();
+    RandomAccessFile.disableBlockCache();
     NetcdfDataset.shutdown();
+    H5iosp.shutdown();
+    H5iospWriter.initChunkEncodePool(0);
+    NcStreamCompression.initBlockPool(0);
+    Nexrad2IOServiceProvider.initDecodePool(0);
 
     // memory caches
     GribCdmIndex.shutdown();
+    GribCdmIndex.initIndexPool(0);
+    GribDataReader.initDecodePool(0);
+    GribDataReader.disableDataCache();
     datasetManager.setDatasetTracker(null); // closes the existing tracker
 
     collectionUpdater.shutdown();
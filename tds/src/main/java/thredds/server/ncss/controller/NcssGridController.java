@@ -110,8 +110,21 @@ public class NcssGridController extends AbstractNcssController {
                 " have different vertical levels. Grid requests with vertCoord must have variables with same vertical levels.");
       }
 
+    SubsetParams subset = params.makeSubset(gcd);
+
+    // Test maxFileDownloadSize
+    long maxFileDownloadSize = ThreddsConfig.getBytes("NetcdfSubsetService.maxFileDownloadSize", -1L);
+    if (maxFileDownloadSize > 0)
+      checkRequestSize(gcd, params, subset, version, maxFileDownloadSize);
+
+    // netcdf-3 can be streamed directly to the client, when its not too large for the classic format
+    if (version == NetcdfFileWriter.Version.netcdf3 && ThreddsConfig.getBoolean("NetcdfSubsetService.streamNetcdf3", true)) {
+      if (streamCFNetcdf3(res, params, datasetPath, gcd, subset, sf))
+        return;
+    }
+
     String responseFile = getResponseFileName(datasetPath, version);
-    File netcdfResult = makeCFNetcdfFile(gcd, responseFile, params, version);
+    File netcdfResult = makeCFNetcdfFile(gcd, responseFile, params, subset, version);
 
     // filename download attachment
     String suffix = version.getSuffix();
@@ -137,26 +150,57 @@ public class NcssGridController extends AbstractNcssController {
     res.setStatus(HttpServletResponse.SC_OK);
   }
 
-  File makeCFNetcdfFile(CoverageCollection gcd, String responseFilename, NcssGridParamsBean params, NetcdfFileWriter.Version version)
-          throws NcssException, InvalidRangeException, ParseException, IOException {
+  // The header and the file size are known before any data is read, so the headers can be set before streaming.
+  // An error while reading the data truncates the response, since the status has already been sent.
+  // Return false if nothing was written, because the response is too large for the classic format, or has no data;
+  // the caller then makes the file, which reports the missing data.
+  private boolean streamCFNetcdf3(HttpServletResponse res, NcssGridParamsBean params, String datasetPath, CoverageCollection gcd,
+                               SubsetParams subset, SupportedFormat sf) throws IOException, InvalidRangeException {
 
-    NetcdfFileWriter writer = NetcdfFileWriter.createNew(version, responseFilename, null); // default chunking - let user control at some point
-    SubsetParams subset = params.makeSubset(gcd);
+    // filename download attachment
+    String suffix = NetcdfFileWriter.Version.netcdf3.getSuffix();
+    int pos = datasetPath.lastIndexOf("/");
+    String filename = (pos >= 0) ? datasetPath.substring(pos + 1) : datasetPath;
+    if (!filename.endsWith(suffix)) {
+      filename += suffix;
+    }
 
-    // Test maxFileDownloadSize
-    long maxFileDownloadSize = ThreddsConfig.getBytes("NetcdfSubsetService.maxFileDownloadSize", -1L);
-    if (maxFileDownloadSize > 0) {
-      Optional<Long> estimatedSizeo = CFGridCoverageWriter2.writeOrTestSize(gcd, params.getVar(), subset, params.isAddLatLon(), true, writer);
-      if (!estimatedSizeo.isPresent())
-        throw new InvalidRangeException("Request contains no data: " + estimatedSizeo.getErrorMessage());
+    HttpHeaders httpHeaders = new HttpHeaders();
+    httpHeaders.set(ContentType.HEADER, sf.getMimeType());
+    httpHeaders.set(Constants.Content_Disposition, Constants.setContentDispositionValue(filename));
 
-      long estimatedSize = estimatedSizeo.get();
-      if (version == NetcdfFileWriter.Version.netcdf4)
-        estimatedSize /= ESTIMATED_COMPRESION_RATE;
+    Optional<Long> sizeo = CFGridCoverageWriter2.streamNetcdf3(gcd, params.getVar(), subset, params.isAddLatLon(), fileSize -> {
+      httpHeaders.set(Constants.Content_Length, Long.toString(fileSize));
+      setResponseHeaders(res, httpHeaders);
+    }, res.getOutputStream());
+    if (!sizeo.isPresent())
+      return false;
 
-      if (estimatedSize > maxFileDownloadSize)
-        throw new RequestTooLargeException("NCSS response too large = " + estimatedSize + " max = " + maxFileDownloadSize);
-    }
+    res.flushBuffer();
+    res.getOutputStream().close();
+    res.setStatus(HttpServletResponse.SC_OK);
+    return true;
+  }
+
+  // Test maxFileDownloadSize
+  private void checkRequestSize(CoverageCollection gcd, NcssGridParamsBean params, SubsetParams subset, NetcdfFileWriter.Version version,
+                                long maxFileDownloadSize) throws InvalidRangeException, IOException {
+    Optional<Long> estimatedSizeo = CFGridCoverageWriter2.writeOrTestSize(gcd, params.getVar(), subset, params.isAddLatLon(), true, null);
+    if (!estimatedSizeo.isPresent())
+      throw new InvalidRangeException("Request contains no data: " + estimatedSizeo.getErrorMessage());
+
+    long estimatedSize = estimatedSizeo.get();
+    if (version == NetcdfFileWriter.Version.netcdf4)
+      estimatedSize /= ESTIMATED_COMPRESION_RATE;
+
+    if (estimatedSize > maxFileDownloadSize)
+      throw new RequestTooLargeException("NCSS response too large = " + estimatedSize + " max = " + maxFileDownloadSize);
+  }
+
+  File makeCFNetcdfFile(CoverageCollection gcd, String responseFilename, NcssGridParamsBean params, SubsetParams subset,
+                        NetcdfFileWriter.Version version) throws NcssException, InvalidRangeException, ParseException, IOException {
+
+    NetcdfFileWriter writer = NetcdfFileWriter.createNew(version, responseFilename, null); // default chunking - let user control at some point
 
     // write the file
     Optional<Long> estimatedSizeo = CFGridCoverageWriter2.writeOrTestSize(gcd, params.getVar(), subset, params.isAddLatLon(), false, writer);
@@ -40,6 +40,7 @@ import ucar.nc2.ft.*;
 import ucar.nc2.ft.point.PointIteratorFiltered;
 import ucar.nc2.ft.point.StationFeature;
 import ucar.nc2.ft.point.StationPointFeature;
+import ucar.nc2.ft.point.StationTimeSeriesCollectionImpl;
 import ucar.nc2.ft.point.StationTimeSeriesFeatureImpl;
 import ucar.nc2.ft2.coverage.SubsetParams;
 import ucar.nc2.time.CalendarDate;
@@ -238,6 +239,9 @@ public abstract class AbstractStationSubsetWriter extends DsgSubsetWriter {
    */
   public static Station findClosestStation(StationTimeSeriesFeatureCollection stationFeatCol, LatLonPoint pt)
           throws IOException {
+    if (stationFeatCol instanceof StationTimeSeriesCollectionImpl)  // uses the spatial index of the stations
+      return ((StationTimeSeriesCollectionImpl) stationFeatCol).findClosestStation(pt);
+
     double lat = pt.getLatitude();
     double lon = pt.getLongitude();
     double cos = Math.cos(Math.toRadians(lat));
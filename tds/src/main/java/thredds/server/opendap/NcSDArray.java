@@ -34,8 +34,11 @@
 package thredds.server.opendap;
 
 import opendap.dap.InvalidDimensionException;
+import opendap.dap.NoSuchVariableException;
 import ucar.ma2.*;
 import ucar.nc2.*;
+import ucar.nc2.constants.DataFormatType;
+import ucar.nc2.dataset.VariableEnhanced;
 
 import opendap.servers.*;
 import opendap.dap.BaseType;
@@ -45,6 +48,7 @@ import opendap.dap.PrimitiveVector;
 import java.io.IOException;
 import java.io.EOFException;
 import java.io.DataOutputStream;
+import java.nio.channels.Channels;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -202,6 +206,79 @@ public class NcSDArray extends SDArray implements HasNetcdfVariable {
     setRead(true);
   }
 
+  /**
+   * Can the requested data be copied from the file to the response as is?
+   * True for unenhanced netCDF-3 variables of type double, float, int or byte, whose big-endian bytes on disk
+   * are the XDR encoding (bytes are then padded to a multiple of 4).
+   *
+   * @return true if serialize() will transfer the data without reading it into an Array
+   */
+  boolean canTransfer() {
+    if (isRead() || ncVar.hasCachedData() || (ncVar instanceof Structure) || ncVar.isMemberOfStructure())
+      return false;
+    if (ncVar instanceof VariableEnhanced)
+      return false;
+    NetcdfFile ncfile = ncVar.getNetcdfFile();
+    if ((ncfile == null) || !DataFormatType.NETCDF.getDescription().equals(ncfile.getFileTypeId()))
+      return false;
+
+    DataType dt = ncVar.getDataType();
+    return (dt == DataType.DOUBLE) || (dt == DataType.FLOAT) || (dt == DataType.INT) || (dt == DataType.BYTE);
+  }
+
+  @Override
+  public void serialize(String dataset, DataOutputStream sink, CEEvaluator ce, Object specialO)
+          throws NoSuchVariableException, DAP2ServerSideException, IOException {
+    if (!canTransfer()) {
+      super.serialize(dataset, sink, ce, specialO);
+      return;
+    }
+    if (!ce.evalClauses(specialO))
+      return;
+
+    long tstart = System.currentTimeMillis();
+    try {
+      if (log.isDebugEnabled())
+        log.debug(getRequestedRange());
+
+      int n = numDimensions();
+      List<Range> ranges = new ArrayList<>(n);
+      for (int i = 0; i < n; i++)
+        ranges.add(new Range(getStart(i), getStop(i), getStride(i)));
+      Section section = new Section(ranges);
+
+      // as in SDArray, the length is written twice
+      int length = (int) section.computeSize();
+      sink.writeInt(length);
+      sink.writeInt(length);
+
+      // copy the bytes from the file, through the sink's buffer
+      long nbytes = ncVar.readToByteChannel(section, Channels.newChannel(sink));
+      long expected = (long) length * ncVar.getElementSize();
+      if (nbytes != expected)
+        throw new IOException("NcSDArray transferred " + nbytes + " bytes, expected " + expected +
+                " for request= " + getRequestedRange() + " dataset= " + dataset);
+      if (ncVar.getDataType() == DataType.BYTE) {
+        int modFour = length % 4;
+        for (int i = 0; modFour != 0 && i < 4 - modFour; i++)
+          sink.writeByte(0);
+      }
+
+      if (log.isDebugEnabled()) {
+        long tookTime = System.currentTimeMillis() - tstart;
+        log.debug("NcSDArray transfer: " + tookTime * .001 + " seconds");
+      }
+
+    } catch (InvalidDimensionException e) {
+      log.error(getRequestedRange(), e);
+      throw new IllegalStateException("NcSDArray InvalidDimensionException=" + e.getMessage());
+
+    } catch (InvalidRangeException e) {
+      log.error(getRequestedRange(), e);
+      throw new IllegalStateException("NcSDArray InvalidRangeException=" + e.getMessage());
+    }
+  }
+
   public void serialize(DataOutputStream sink, StructureData sdata, StructureMembers.Member m) throws IOException {
     long tstart = System.currentTimeMillis();
 
@@ -41,6 +41,7 @@ import opendap.dap.BaseType;
 import opendap.dap.NoSuchVariableException;
 import ucar.nc2.Variable;
 
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 
@@ -76,4 +77,22 @@ public class NcSDGrid extends SDGrid {
     setRead(true);
     return(false);
   }
+
+  /**
+   * Same as SDGrid, except that arrays which can be copied straight from the file are not read into memory first.
+   */
+  @Override
+  public void serialize(String dataset, DataOutputStream sink, CEEvaluator ce, Object specialO)
+          throws NoSuchVariableException, DAP2ServerSideException, IOException {
+    if (!isRead()) {
+      java.util.Enumeration vars = getVariables();
+      while (vars.hasMoreElements()) {
+        SDArray bt = (SDArray) vars.nextElement();
+        if (!(bt instanceof NcSDArray) || !((NcSDArray) bt).canTransfer())
+          bt.read(dataset, specialO);
+      }
+      setRead(true);
+    }
+    super.serialize(dataset, sink, ce, specialO);
+  }
 }
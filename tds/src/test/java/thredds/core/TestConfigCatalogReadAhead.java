@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 1998-2017 John Caron and University Corporation for Atmospheric Research/Unidata
+ */
+package thredds.core;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import thredds.client.catalog.Dataset;
+import thredds.server.catalog.tracker.CatalogExt;
+import thredds.server.catalog.tracker.CatalogTracker;
+import thredds.server.catalog.tracker.DataRootExt;
+import thredds.server.catalog.tracker.DataRootTracker;
+import thredds.server.catalog.tracker.DatasetTrackerNoop;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reading the config catalogs with read ahead threads must give the same catalogs, datasets and data roots
+ * as reading them serially, including catalogRefs to catalogs already read, loops, and catalogs skipped by check mode.
+ *
+ * @since 10/18/2026
+ */
+public class TestConfigCatalogReadAhead {
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static final int NSUB = 20;
+  private static final String HEADER = "<?xml version='1.0' encoding='UTF-8'?>\n" +
+          "<catalog name='%s' xmlns='http://www.unidata.ucar.edu/namespaces/thredds/InvCatalog/v1.0'" +
+          " xmlns:xlink='http://www.w3.org/1999/xlink' version='1.2'>\n";
+
+  @Test
+  public void testParallelSameAsSerial() throws IOException {
+    File content = tempFolder.newFolder("content");
+    File data = tempFolder.newFolder("data");
+    makeCatalogs(content, data);
+    File serialTracker = tempFolder.newFolder("serialTracker");
+    File parallelTracker = tempFolder.newFolder("parallelTracker");
+
+    Result serial = read(ConfigCatalogInitialization.ReadMode.always, content, serialTracker, 0);
+    Result parallel = read(ConfigCatalogInitialization.ReadMode.always, content, parallelTracker, 4);
+    Assert.assertEquals(NSUB * 2 + 1, serial.catalogs.size());
+    Assert.assertEquals(NSUB + 2, serial.dataRoots.size());
+    compare(serial, parallel);
+
+    // check mode skips catalogs that have not changed, like sub5/more.xml
+    long future = System.currentTimeMillis() + 3600 * 1000;
+    Assert.assertTrue(new File(content, "sub3/catalog.xml").setLastModified(future));
+    Assert.assertTrue(new File(content, "sub7/more.xml").setLastModified(future));
+    serial = read(ConfigCatalogInitialization.ReadMode.check, content, serialTracker, 0);
+    parallel = read(ConfigCatalogInitialization.ReadMode.check, content, parallelTracker, 4);
+    Assert.assertTrue(serial.datasets.contains("sub3 ds0"));
+    Assert.assertTrue(serial.datasets.contains("sub7 more"));
+    Assert.assertFalse(serial.datasets.contains("sub5 more"));
+    compare(serial, parallel);
+  }
+
+  private void compare(Result serial, Result parallel) {
+    Assert.assertEquals(serial.datasets, parallel.datasets);
+    Assert.assertEquals(serial.catalogs, parallel.catalogs);
+    Assert.assertEquals(serial.dataRoots, parallel.dataRoots);
+  }
+
+  // each sub catalog is referenced by the root and by the one before it, and refers back to the root
+  private void makeCatalogs(File content, File data) throws IOException {
+    StringBuilder root = new StringBuilder(String.format(HEADER, "root"));
+    root.append("  <service name='odap' serviceType='OpenDAP' base='/thredds/dodsC/'/>\n");
+    root.append(String.format("  <datasetRoot path='root' location='%s'/>%n", data.getPath()));
+    root.append(String.format("  <datasetScan name='scan' path='scan' location='%s'/>%n", data.getPath()));
+    for (int i = 0; i < NSUB; i++)
+      root.append(String.format("  <catalogRef xlink:title='sub%d' xlink:href='sub%d/catalog.xml' name=''/>%n", i, i));
+    root.append("  <catalogRef xlink:title='again' xlink:href='./sub0/catalog.xml' name=''/>\n");
+    root.append("  <catalogRef xlink:title='missing' xlink:href='missing.xml' name=''/>\n");
+    root.append("</catalog>\n");
+    write(new File(content, "catalog.xml"), root.toString());
+
+    for (int i = 0; i < NSUB; i++) {
+      File dir = new File(content, "sub" + i);
+      Assert.assertTrue(dir.mkdir());
+      StringBuilder sub = new StringBuilder(String.format(HEADER, "sub" + i));
+      for (int j = 0; j < 3; j++)
+        sub.append(String.format("  <dataset name='sub%d ds%d' ID='sub%d/%d' urlPath='root/sub%d/%d.nc'/>%n", i, j, i, j, i, j));
+      sub.append(String.format("  <datasetScan name='scan%d' path='scan%d' location='%s'/>%n", i, i, data.getPath()));
+      sub.append(String.format("  <catalogRef xlink:title='next' xlink:href='../sub%d/catalog.xml' name=''/>%n", (i + 1) % NSUB));
+      sub.append("  <catalogRef xlink:title='root' xlink:href='/thredds/catalog.xml' name=''/>\n");
+      sub.append(String.format("  <dataset name='sub%d nested'>%n", i));
+      sub.append("    <catalogRef xlink:title='more' xlink:href='more.xml' name=''/>\n");
+      sub.append("  </dataset>\n");
+      sub.append("</catalog>\n");
+      write(new File(dir, "catalog.xml"), sub.toString());
+
+      write(new File(dir, "more.xml"), String.format(HEADER, "more" + i) +
+              String.format("  <dataset name='sub%d more' urlPath='root/sub%d/more.nc'/>%n", i, i) + "</catalog>\n");
+    }
+  }
+
+  private void write(File file, String s) throws IOException {
+    Files.write(file.toPath(), s.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private Result read(ConfigCatalogInitialization.ReadMode readMode, File content, File trackerDir, int readThreads) throws IOException {
+    Result result = new Result();
+    DatasetTrackerNoop datasetTracker = new DatasetTrackerNoop() {
+      @Override
+      public boolean trackDataset(long catId, Dataset ds, Callback callback) {
+        result.datasets.add(ds.getName());
+        return super.trackDataset(catId, ds, callback);
+      }
+
+      @Override
+      public boolean exists() {
+        return true;  // otherwise check mode falls back to always
+      }
+    };
+    new ConfigCatalogInitialization(readMode, content, trackerDir.getPath(), datasetTracker, new AllowedServices(),
+            new ConfigCatalogInitialization.StatCallback(readMode), -1, readThreads);
+
+    for (CatalogExt cat : new CatalogTracker(trackerDir.getPath(), false, 0, 0).getCatalogs())
+      result.catalogs.add(cat.getCatId() + " " + cat.getCatRelLocation() + " " + cat.isRoot());
+    for (DataRootExt dataRoot : new DataRootTracker(trackerDir.getPath(), false, null).getDataRoots())
+      result.dataRoots.add(dataRoot.getPath() + " " + dataRoot.getType() + " " + dataRoot.getDirLocation() + " " + dataRoot.getCatLocation());
+    Collections.sort(result.catalogs);
+    Collections.sort(result.dataRoots);
+    return result;
+  }
+
+  private static class Result {
+    List<String> datasets = new ArrayList<>();  // in the order they were tracked
+    List<String> catalogs = new ArrayList<>();
+    List<String> dataRoots = new ArrayList<>();
+  }
+
+}